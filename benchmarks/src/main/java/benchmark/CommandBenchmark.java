@@ -0,0 +1,73 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Execution of the reading library commands against a generated library.
+ * Command output is printed to a null sink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+
+    /** Number of books in the library. */
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private PrintStream console;
+    private Object library;
+    private ToIntFunction<Object> search;
+    private ToIntFunction<Object> groupTitle;
+    private ToIntFunction<Object> groupAuthor;
+
+    @Setup
+    public void setup() {
+        console = Workloads.call("silenceConsole");
+        List<?> books = Workloads.call("generateBooks", size);
+        library = Workloads.<Supplier<Object>>call("libraries", books).get();
+        search = Workloads.call("command", "SEARCH potter");
+        groupTitle = Workloads.call("command", "GROUP TITLE");
+        groupAuthor = Workloads.call("command", "GROUP AUTHOR");
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public int search() {
+        return search.applyAsInt(library);
+    }
+
+    @Benchmark
+    public int groupTitle() {
+        return groupTitle.applyAsInt(library);
+    }
+
+    @Benchmark
+    public int groupAuthor() {
+        return groupAuthor.applyAsInt(library);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Comparing and hashing book entries, as done for every merged book. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntryBenchmark {
+
+    /** Number of books compared or indexed per operation. */
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private List<?> books;
+    private List<?> copies;
+
+    @Setup
+    public void setup() {
+        books = Workloads.call("generateBooks", size);
+        copies = Workloads.call("generateBooks", size);
+    }
+
+    /** Compare every book with an equal copy and with its neighbour. */
+    @Benchmark
+    public int equals() {
+        int matches = 0;
+        for (int i = 0; i < size; i++) {
+            Object book = books.get(i);
+            if (book.equals(copies.get(i))) {
+                matches++;
+            }
+            if (book.equals(copies.get((i + 1) % size))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /** Build a hash set of all books and look up equal copies. */
+    @Benchmark
+    public int hashIndex() {
+        Set<Object> index = new HashSet<>(books);
+        int hits = 0;
+        for (Object copy : copies) {
+            if (index.contains(copy)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
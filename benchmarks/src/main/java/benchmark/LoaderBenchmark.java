@@ -0,0 +1,56 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/** Parsing all rows of a generated book data file into book entries. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+
+    /** Number of rows parsed per operation. */
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private IntFunction<Object> rowParser;
+    private IntFunction<Object> byteRowParser;
+
+    @Setup
+    public void setup() {
+        List<String> rows = Workloads.call("generateRows", size);
+        rowParser = Workloads.call("rowParser", rows);
+        byteRowParser = Workloads.call("byteRowParser", rows);
+    }
+
+    @Benchmark
+    public void separateDetails(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(rowParser.apply(i));
+        }
+    }
+
+    @Benchmark
+    public void separateDetailsBytes(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(byteRowParser.apply(i));
+        }
+    }
+}
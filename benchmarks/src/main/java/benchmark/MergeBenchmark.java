@@ -0,0 +1,69 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Merging parsed entries into an empty library with LibraryData.mergeEntries,
+ * a tenth of them duplicates. Duplicates are printed to a null sink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+    /** Number of distinct books merged per operation. */
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private PrintStream console;
+    private Supplier<Object> emptyLibraries;
+    private ToIntFunction<Object> merge;
+    private Object library;
+
+    @Setup
+    public void setup() {
+        console = Workloads.call("silenceConsole");
+        List<Object> loaded = new ArrayList<>(Workloads.<List<?>>call("generateBooks", size));
+        loaded.addAll(loaded.subList(0, size / 10));
+        emptyLibraries = Workloads.call("libraries", Collections.emptyList());
+        merge = Workloads.call("merge", loaded);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyLibrary() {
+        library = emptyLibraries.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public int mergeEntries() {
+        return merge.applyAsInt(library);
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Execution of the REMOVE command against a generated library, which is
+ * created again before every invocation. Command output is printed to a
+ * null sink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoveBenchmark {
+
+    /** Number of books in the library. */
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private PrintStream console;
+    private Supplier<Object> libraries;
+    private Object library;
+    private ToIntFunction<Object> removeTitle;
+    private ToIntFunction<Object> removeAuthor;
+
+    @Setup
+    public void setup() {
+        console = Workloads.call("silenceConsole");
+        List<String> rows = Workloads.call("generateRows", size);
+        String middleTitle = rows.get(size / 2).substring(0, rows.get(size / 2).indexOf(','));
+        List<?> books = Workloads.call("generateBooks", size);
+        libraries = Workloads.call("libraries", books);
+        removeTitle = Workloads.call("command", "REMOVE TITLE " + middleTitle);
+        removeAuthor = Workloads.call("command", "REMOVE AUTHOR Author 1");
+    }
+
+    @Setup(Level.Invocation)
+    public void fullLibrary() {
+        library = libraries.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public int removeTitle() {
+        return removeTitle.applyAsInt(library);
+    }
+
+    @Benchmark
+    public int removeAuthor() {
+        return removeAuthor.applyAsInt(library);
+    }
+}
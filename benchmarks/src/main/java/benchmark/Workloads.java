@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Access to the workloads of the library browser, whose classes are in the
+ * default package and cannot be referred to from a named package. Methods
+ * are looked up reflectively and should only be called in setup methods.
+ */
+final class Workloads {
+
+    /** Class providing the workloads, see BenchmarkWorkloads in the library sources. */
+    private static final String WORKLOADS_CLASS = "BenchmarkWorkloads";
+
+    /** Not to be used. */
+    private Workloads() {
+        throw new UnsupportedOperationException("This constructor should never be used.");
+    }
+
+    /**
+     * Call a static method of the workloads class.
+     *
+     * @param name name of the method, which must not be overloaded.
+     * @param args arguments of the call.
+     * @param <T> result type of the method.
+     * @return result of the call.
+     * @throws IllegalStateException if the method does not exist or fails.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T call(String name, Object... args) {
+        try {
+            for (Method method : Class.forName(WORKLOADS_CLASS).getMethods()) {
+                if (method.getName().equals(name)) {
+                    return (T) method.invoke(null, args);
+                }
+            }
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            throw new IllegalStateException("Workload " + name + " not accessible.", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Workload " + name + " failed.", e.getCause());
+        }
+        throw new IllegalStateException("Workload " + name + " not found.");
+    }
+}
@@ -1,5 +1,8 @@
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -17,35 +20,52 @@ public class AddCmd extends LibraryCommand {
         super(CommandType.ADD, argumentInput);
     }
 
+    /** Suffix of the argument requesting the file to be loaded in the background. */
+    private static final String ASYNC_SUFFIX = " ASYNC";
+
     /** Store path of the file. */
     private Path filePath;
 
+    /** Load the file in the background? */
+    private boolean async;
+
+    /** Directory or glob pattern of several files, null for a single file. */
+    private String fileSource;
+
     /**
      * Override LibraryCommand’s parseArguments() method.
      * Check if file name is of correct format.
      *
      * @param argumentInput : contains ADD keyword followed by
-     * name of book/s or file path for book/s to be added into library
-     * @return true if file name ends with .csv. Otherwise, return false.
+     * name of book/s or file path for book/s to be added into library,
+     * optionally followed by ASYNC to load the file in the background.
+     * A directory or glob pattern loads several .csv files at once.
+     * @return true if file name ends with .csv, .csv.gz or .zip or a directory or glob
+     * pattern is given without ASYNC. Otherwise, return false.
      */
     @Override
     protected boolean parseArguments(String argumentInput) {
         // Check if argumentInput is not null.
         Objects.requireNonNull(argumentInput, "Input cannot be null.");
 
+        async = argumentInput.endsWith(ASYNC_SUFFIX);
+        if (async) {
+            argumentInput = argumentInput.substring(0, argumentInput.length() - ASYNC_SUFFIX.length());
+        }
+
+        // Several files are only loaded in the foreground.
+        if (isMultiFileSource(argumentInput)) {
+            fileSource = argumentInput;
+            return !async;
+        }
+
         /*
-        Check if length of file is more than 4.
-        If less than 4, file name does not contain .csv and returns false immediately.
-        If equal to 4, file name may contain .csv only or not at all, and returns false.
-        If greater than 4, file name may contain .csv or not, and if contain .csv, then file name is correct
+        Check if file name has a name before its .csv, .csv.gz or .zip extension.
+        Compressed files are decompressed while loading.
         */
-        if (argumentInput.length() > 4){
-            if (argumentInput.substring(argumentInput.length()-4).equals(".csv") && !argumentInput.isBlank()) {
-                filePath = Paths.get(argumentInput);
-                return true;
-            } else {
-                return false;
-            }
+        if (LibraryFileLoader.isDataFile(argumentInput) && !argumentInput.isBlank()) {
+            filePath = Paths.get(argumentInput);
+            return true;
         } else {
             return false;
         }
@@ -53,6 +73,7 @@ public class AddCmd extends LibraryCommand {
 
     /**
      * Execute ADD command and add all entries into database.
+     * Asynchronous loads are started as a job and return immediately.
      *
      * @param data book data to be considered for command execution.
      * @throws NullPointerException : if given data is null.
@@ -61,7 +82,42 @@ public class AddCmd extends LibraryCommand {
     public void execute(LibraryData data) {
         Objects.requireNonNull(data, "Given data must not be null.");
 
-        data.loadData(filePath);
+        if (fileSource != null) {
+            List<Path> files = LibraryFileLoader.findDataFiles(fileSource);
+            if (files.isEmpty()) {
+                System.err.println("ERROR: No book data files found for: " + fileSource);
+            } else {
+                data.loadData(files);
+            }
+        } else if (async) {
+            LoadJob job = data.getLoadJobs().submit(filePath);
+            System.out.println("Started load job " + job.getId() + " for file: " + filePath);
+        } else {
+            data.loadData(filePath);
+        }
+    }
+
+    /**
+     * Does the given argument name several files? An existing file is
+     * loaded directly, even if its name contains pattern characters such
+     * as "books[2024].csv".
+     * @param argument argument without ASYNC suffix.
+     * @return true if it is a glob pattern or an existing directory.
+     */
+    private static boolean isMultiFileSource(String argument) {
+        if (argument.isBlank()) {
+            return false;
+        }
+        Path path;
+        try {
+            path = Paths.get(argument);
+        } catch (InvalidPathException e) {
+            return LibraryFileLoader.isGlobPattern(argument);
+        }
+        if (Files.isRegularFile(path)) {
+            return false;
+        }
+        return LibraryFileLoader.isGlobPattern(argument) || Files.isDirectory(path);
     }
 
 }
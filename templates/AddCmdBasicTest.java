@@ -1,6 +1,10 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,6 +45,22 @@ public class AddCmdBasicTest extends CommandTest {
     public void testParseArgumentsLegalArgument() {
         CommandTestUtils.checkArgumentInput(testCommand, true, TEST_PATH);
         CommandTestUtils.checkArgumentInput(testCommand, true, "this/is/some/test/path/for/books.csv");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "this/is/some/test/path/for/books.csv.gz");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "this/is/some/test/path/for/books.zip");
+    }
+
+    @Test
+    public void testParseArgumentsAsync() {
+        CommandTestUtils.checkArgumentInput(testCommand, true, TEST_PATH + " ASYNC");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "notACsvfile.dat ASYNC");
+    }
+
+    @Test
+    public void testParseArgumentsMultipleFiles() {
+        CommandTestUtils.checkArgumentInput(testCommand, true, ".");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "books0*.csv");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "this/is/some/test/path/**.csv");
+        CommandTestUtils.checkArgumentInput(testCommand, false, ". ASYNC");
     }
 
     // ------------------------- execute tests --------------------
@@ -65,4 +85,21 @@ public class AddCmdBasicTest extends CommandTest {
                     expectedBookValues.get(i));
         }
     }
+
+    @Test
+    public void testExecuteLoadFileWithPatternCharacters() throws IOException {
+        Path directory = Files.createTempDirectory("library-add");
+        Path file = directory.resolve("books[2024].csv");
+        try {
+            Files.copy(Paths.get(TEST_PATH), file);
+            testCommand = new AddCmd(file.toString());
+            testCommand.execute(testLibrary);
+
+            assertEquals("Existing file expected to be loaded instead of matched as pattern.", 3,
+                    testLibrary.getBookData().size());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
 }
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of distinct author names.
+ *
+ * Every distinct name is mapped to one canonical String instance and a
+ * dense int id, so that books by the same author share a single name on
+ * the heap and compare authors by identity first. Names are never removed,
+ * even if no book by that author is left in the library.
+ *
+ * Lookups of known names are lock free, so the dictionary can be shared by
+ * loaders running on several threads.
+ */
+public class AuthorDictionary {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Id of each distinct author name. */
+    private final Map<String, Integer> ids;
+
+    /** Canonical names by id. */
+    private volatile String[] names;
+
+    /** Number of distinct names. */
+    private volatile int size;
+
+    /** Create an empty author dictionary. */
+    public AuthorDictionary() {
+        ids = new ConcurrentHashMap<>();
+        names = new String[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Id of the given author name. Unknown names are added to the dictionary.
+     *
+     * @param name author name.
+     * @return id of the name.
+     * @throws NullPointerException if the given name is null.
+     */
+    public int idOf(String name) {
+        Objects.requireNonNull(name, "Given author name must not be null.");
+
+        Integer id = ids.get(name);
+        return id != null ? id : add(name);
+    }
+
+    /**
+     * Canonical instance of the given author name. Unknown names are added
+     * to the dictionary and become canonical themselves.
+     *
+     * @param name author name.
+     * @return canonical instance equal to the given name.
+     * @throws NullPointerException if the given name is null.
+     */
+    public String canonical(String name) {
+        return nameOf(idOf(name));
+    }
+
+    /**
+     * Replace all names in the given array with their canonical instances.
+     *
+     * @param authors author names, modified in place.
+     * @return the given array.
+     * @throws NullPointerException if the array or any name is null.
+     */
+    public String[] canonicalize(String[] authors) {
+        Objects.requireNonNull(authors, "Given authors must not be null.");
+
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = canonical(authors[i]);
+        }
+        return authors;
+    }
+
+    /**
+     * Canonical author name of the given id.
+     *
+     * @param id author id.
+     * @return canonical name.
+     * @throws IndexOutOfBoundsException if no name has this id.
+     */
+    public String nameOf(int id) {
+        Objects.checkIndex(id, size);
+        return names[id];
+    }
+
+    /**
+     * Estimated heap bytes held by this dictionary, including the names.
+     * @return estimated size in bytes.
+     */
+    public long estimateBytes() {
+        int count = size;
+        String[] current = names;
+        // Array slot, hash map node, boxed id and the name itself per entry.
+        long bytes = 4L * current.length;
+        for (int i = 0; i < count; i++) {
+            bytes += 32 + 16 + 40 + current[i].length();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return number of distinct author names.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add a new name unless another thread added it first.
+     * @return id of the name.
+     */
+    private synchronized int add(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = size;
+        String[] current = names;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, id * 2);
+        }
+        current[id] = name;
+        names = current;
+        size = id + 1;
+        ids.put(name, id);
+        return id;
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AuthorDictionaryBasicTest {
+
+    private static final String DATA_SAMPLE1 = "Carrie,Stephen King,3.94,307743667,199";
+    private static final String DATA_SAMPLE2 = "The Talisman,Stephen King-Peter Straub,4.14,345444884,944";
+
+    private AuthorDictionary testDictionary;
+
+    @Before
+    public void setup() {
+        testDictionary = new AuthorDictionary();
+    }
+
+    // ------------------------- dictionary tests --------------------
+
+    @Test
+    public void testIdsAreDense() {
+        assertEquals("Unexpected id for first author.", 0, testDictionary.idOf("AuthorA"));
+        assertEquals("Unexpected id for second author.", 1, testDictionary.idOf("AuthorB"));
+        assertEquals("Known author expected to keep its id.", 0, testDictionary.idOf("AuthorA"));
+        assertEquals("Unexpected dictionary size.", 2, testDictionary.size());
+        assertEquals("Unexpected name for id.", "AuthorB", testDictionary.nameOf(1));
+    }
+
+    @Test
+    public void testCanonicalInstance() {
+        String first = new String("AuthorA");
+        String second = new String("AuthorA");
+
+        assertSame("First instance expected to become canonical.", first, testDictionary.canonical(first));
+        assertSame("Equal names expected to map to the canonical instance.", first,
+                testDictionary.canonical(second));
+    }
+
+    @Test
+    public void testCanonicalize() {
+        String[] authors = { new String("AuthorA"), new String("AuthorB") };
+        String canonicalA = testDictionary.canonical("AuthorA");
+
+        String[] result = testDictionary.canonicalize(authors);
+        assertSame("Array expected to be modified in place.", authors, result);
+        assertArrayEquals("Author names changed by canonicalize.", new String[] { "AuthorA", "AuthorB" }, result);
+        assertSame("Author not replaced by canonical instance.", canonicalA, result[0]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNameOfUnknownId() {
+        testDictionary.nameOf(0);
+    }
+
+    // ------------------------- loader tests --------------------
+
+    @Test
+    public void testLoaderSharesAuthorNames() {
+        LibraryFileLoader loader = new LibraryFileLoader(testDictionary);
+        BookEntry bookA = loader.separateDetails(DATA_SAMPLE1);
+        BookEntry bookB = loader.separateDetails(DATA_SAMPLE2);
+
+        assertSame("Books by the same author expected to share the author name.", bookA.getAuthors()[0],
+                bookB.getAuthors()[0]);
+        assertEquals("Unexpected dictionary size after parsing.", 2, testDictionary.size());
+    }
+}
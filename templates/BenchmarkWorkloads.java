@@ -0,0 +1,173 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Workloads measured by the JMH benchmarks of the benchmarks module.
+ *
+ * The benchmarks live in a named package, as required by JMH, and thus
+ * cannot refer to the classes of the library browser directly. They look
+ * up the methods of this class once per trial and only call the returned
+ * functions while measuring. Libraries are passed to and from the
+ * benchmarks as plain objects.
+ */
+public final class BenchmarkWorkloads {
+
+    /** Seed for generated book data so runs are comparable. */
+    private static final long SEED = 42L;
+
+    /** Words used to generate titles. */
+    private static final String[] TITLE_WORDS = { "The", "Harry", "Potter", "Castle", "Sky", "Night", "Garden",
+            "History", "Secret", "War", "Peace", "Lord", "Rings", "Farm", "Animal", "Love", "Time", "River", "City",
+            "Dark", "Light", "Stone", "Fire", "Road", "King", "Queen", "Story", "Life", "Sea", "Star" };
+
+    /** Not to be used. */
+    private BenchmarkWorkloads() {
+        throw new UnsupportedOperationException("This constructor should never be used.");
+    }
+
+    /**
+     * Redirect console output of the benchmarked code to a null sink.
+     * @return console output stream to restore after the benchmark.
+     */
+    public static PrintStream silenceConsole() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return console;
+    }
+
+    /**
+     * Generate CSV rows in the book data file format.
+     *
+     * @param size number of rows.
+     * @return generated rows without header.
+     */
+    public static List<String> generateRows(int size) {
+        Random random = new Random(SEED);
+        int authorCount = Math.max(1, size / 10);
+        List<String> rows = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            StringBuilder row = new StringBuilder();
+            int words = 1 + random.nextInt(5);
+            for (int w = 0; w < words; w++) {
+                row.append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]).append(' ');
+            }
+            row.append(i).append(',');
+            row.append("Author ").append(random.nextInt(authorCount));
+            if (random.nextInt(5) == 0) {
+                row.append("-Author ").append(random.nextInt(authorCount));
+            }
+            row.append(',').append(random.nextInt(5)).append('.').append(10 + random.nextInt(90));
+            row.append(',').append(100_000_000 + random.nextInt(900_000_000));
+            row.append(',').append(50 + random.nextInt(1000));
+            rows.add(row.toString());
+        }
+        return rows;
+    }
+
+    /**
+     * Generate book entries as they would be parsed from a data file.
+     *
+     * @param size number of entries.
+     * @return generated entries.
+     */
+    public static List<BookEntry> generateBooks(int size) {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        List<BookEntry> books = new ArrayList<>(size);
+        for (String row : generateRows(size)) {
+            books.add(loader.separateDetails(row));
+        }
+        return books;
+    }
+
+    /**
+     * Parser of the given rows with LibraryFileLoader.separateDetails(String).
+     * @param rows rows to parse.
+     * @return function parsing the row at the given position.
+     */
+    public static IntFunction<Object> rowParser(List<String> rows) {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        return i -> loader.separateDetails(rows.get(i));
+    }
+
+    /**
+     * Parser of the given rows encoded as UTF-8, as read from data files,
+     * with LibraryFileLoader.separateDetails(byte[], int, int).
+     * @param rows rows to parse.
+     * @return function parsing the row at the given position.
+     */
+    public static IntFunction<Object> byteRowParser(List<String> rows) {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        byte[][] encoded = new byte[rows.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = rows.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return i -> loader.separateDetails(encoded[i], 0, encoded[i].length);
+    }
+
+    /**
+     * Factory of libraries holding the given books.
+     * @param books books each library holds, none for empty libraries.
+     * @return supplier creating a new library on every call.
+     */
+    public static Supplier<Object> libraries(List<BookEntry> books) {
+        return () -> {
+            LibraryData data = new LibraryData();
+            if (!books.isEmpty()) {
+                data.updateBookData(bookData -> bookData.addAll(books));
+            }
+            return data;
+        };
+    }
+
+    /**
+     * Merge of the given books into a library with LibraryData.mergeEntries.
+     * @param loaded books to merge.
+     * @return function merging into the given library and returning the number of books added.
+     */
+    public static ToIntFunction<Object> merge(List<BookEntry> loaded) {
+        Method mergeEntries;
+        try {
+            mergeEntries = LibraryData.class.getDeclaredMethod("mergeEntries", List.class);
+            mergeEntries.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("LibraryData.mergeEntries not found.", e);
+        }
+
+        return data -> {
+            try {
+                return (Integer) mergeEntries.invoke(data, loaded);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Invoking mergeEntries failed.", e);
+            }
+        };
+    }
+
+    /**
+     * Execution of a library command.
+     * @param commandInput command line to execute.
+     * @return function executing the command on the given library and returning its number of books.
+     * @throws IllegalArgumentException if the given command line is not a valid command.
+     */
+    public static ToIntFunction<Object> command(String commandInput) {
+        LibraryCommand command = new CommandInterpreter().parseCommand(commandInput);
+        if (command == null) {
+            throw new IllegalArgumentException("Invalid command: " + commandInput);
+        }
+
+        return data -> {
+            LibraryData library = (LibraryData) data;
+            command.execute(library);
+            return library.getBookData().size();
+        };
+    }
+}
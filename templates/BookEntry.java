@@ -22,6 +22,9 @@ public class BookEntry {
     /** Store number of pages. */
     private final int pages;
 
+    /** Cached hash code, 0 if not computed yet. */
+    private int hash;
+
     /**
      * @param title : Title of book.
      * @param authors : List of author(s) of book.
@@ -131,23 +134,34 @@ public class BookEntry {
 
         BookEntry bookEntry = (BookEntry) o;
 
-        return Float.compare(bookEntry.rating, rating) == 0 &&
-                pages == bookEntry.pages &&
+        // Compare cheap and discriminating fields first, hash codes only if both are known already.
+        return pages == bookEntry.pages &&
+                Float.compare(bookEntry.rating, rating) == 0 &&
+                (hash == 0 || bookEntry.hash == 0 || hash == bookEntry.hash) &&
+                ISBN.equals(bookEntry.ISBN) &&
                 title.equals(bookEntry.title) &&
-                Arrays.equals(authors, bookEntry.authors) &&
-                ISBN.equals(bookEntry.ISBN);
+                Arrays.equals(authors, bookEntry.authors);
     }
 
     /**
-     * Overrides hashCode() method.
+     * Overrides hashCode() method. The hash code is computed on first use
+     * and cached, as all fields are immutable.
      *
      * @return result of hashCode calculation.
      */
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(title, rating, ISBN, pages);
-        result = 31 * result + Arrays.hashCode(authors);
+        int result = hash;
+        if (result == 0) {
+            // Same value as Objects.hash(title, rating, ISBN, pages) without boxing.
+            result = 31 + title.hashCode();
+            result = 31 * result + Float.hashCode(rating);
+            result = 31 * result + ISBN.hashCode();
+            result = 31 * result + pages;
+            result = 31 * result + Arrays.hashCode(authors);
+            hash = result;
+        }
         return result;
     }
 }
@@ -1,5 +1,8 @@
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -132,6 +135,29 @@ public class BookEntryBasicTest extends BookEntryTest {
         checkEquality(bookA, bookB, PAGES_FIELD_NAME, false);
     }
 
+    @Test
+    public void testCachedHashCodeUnchanged() {
+        BookEntry[] books = {
+                new BookEntry(DEFAULT_TITLE, DEFAULT_AUTHORS, DEFAULT_RATING, DEFAULT_ISBN, DEFAULT_PAGES),
+                new BookEntry("Tïtle C", new String[]{"Author A", "Author B"}, -0f, "", 0),
+                new BookEntry("", new String[0], Float.NaN, "439554896", 1200)
+        };
+
+        for (BookEntry book : books) {
+            int expected = 31 * Objects.hash(book.getTitle(), book.getRating(), book.getISBN(), book.getPages())
+                    + Arrays.hashCode(book.getAuthors());
+            assertEquals("Hashcode expected to equal the Objects.hash value.", expected, book.hashCode());
+            assertEquals("Cached hashcode expected to be returned again.", expected, book.hashCode());
+        }
+
+        BookEntry bookA = new BookEntry(DEFAULT_TITLE, DEFAULT_AUTHORS, DEFAULT_RATING, DEFAULT_ISBN, DEFAULT_PAGES);
+        BookEntry bookB = new BookEntry(DEFAULT_TITLE, DEFAULT_AUTHORS, DEFAULT_RATING, DEFAULT_ISBN, DEFAULT_PAGES);
+        bookA.hashCode();
+        assertTrue("Books expected to be equal if only one hashcode is cached.", bookA.equals(bookB) && bookB.equals(bookA));
+        bookB.hashCode();
+        assertTrue("Books expected to be equal if both hashcodes are cached.", bookA.equals(bookB) && bookB.equals(bookA));
+    }
+
     // ------------------------- check toString --------------------
 
     @Test
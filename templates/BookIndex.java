@@ -0,0 +1,194 @@
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Hash index of the books of a book list, used to find duplicates while
+ * merging loaded books without scanning the list. Books are indexed by the
+ * hash of their title and ISBN, so that book stores need not create an
+ * entry for every stored book, see BookStore.titleOf and isbnOf. Candidates
+ * with the same hash are compared in full.
+ *
+ * The index is a collection view of the indexed list. Adding a book to it
+ * indexes the book appended to the list last.
+ */
+public class BookIndex extends AbstractCollection<BookEntry> {
+
+    /** Marks the end of a chain of positions. */
+    private static final int END = -1;
+
+    /** Indexed books. */
+    private final List<BookEntry> books;
+
+    /** Number of indexed positions, the first positions of the list. */
+    private int size;
+
+    /** Title and ISBN hash of each indexed position. */
+    private int[] hashes;
+
+    /** Next position with the same bucket, END at the end of a chain. */
+    private int[] next;
+
+    /** First position of each bucket, END for empty buckets. */
+    private int[] heads;
+
+    /**
+     * Index all books of the given list.
+     *
+     * @param books books to index, only appended to while the index is used.
+     * @throws NullPointerException if the given list is null.
+     */
+    public BookIndex(List<BookEntry> books) {
+        this.books = Objects.requireNonNull(books, "Given books must not be null.");
+        int count = books.size();
+        hashes = new int[Math.max(16, count)];
+        next = new int[hashes.length];
+        heads = new int[Integer.highestOneBit(Math.max(16, count) * 2 - 1) * 2];
+        Arrays.fill(heads, END);
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            link(hashOf(books, i));
+        }
+    }
+
+    /**
+     * Hash of a book with the given title and ISBN used by the index.
+     * Equal books have equal hashes.
+     *
+     * @param title title of the book.
+     * @param isbn ISBN of the book.
+     * @return hash of the book.
+     */
+    public static int hash(String title, String isbn) {
+        return 31 * title.hashCode() + isbn.hashCode();
+    }
+
+    /**
+     * Position of the given book in the indexed list.
+     *
+     * @param book book to look for.
+     * @return first indexed position holding an equal book or -1 if there is none.
+     * @throws NullPointerException if the given book is null.
+     */
+    public int indexOf(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        int found = END;
+        for (int i = first(book.getTitle(), book.getISBN()); i != END; i = next(i)) {
+            if (books.get(i).equals(book)) {
+                found = i;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * First of the indexed positions whose book has the same hash as a
+     * book with the given title and ISBN. Positions are visited from the
+     * last to the first.
+     *
+     * @param title title to look for.
+     * @param isbn ISBN to look for.
+     * @return position or -1 if there is none.
+     */
+    public int first(String title, String isbn) {
+        int hash = hash(title, isbn);
+        int position = heads[bucket(hash)];
+        while (position != END && hashes[position] != hash) {
+            position = next[position];
+        }
+        return position;
+    }
+
+    /**
+     * Next indexed position whose book has the same hash as the given one.
+     *
+     * @param position position returned by first or next.
+     * @return position or -1 if there is none.
+     */
+    public int next(int position) {
+        int hash = hashes[position];
+        int candidate = next[position];
+        while (candidate != END && hashes[candidate] != hash) {
+            candidate = next[candidate];
+        }
+        return candidate;
+    }
+
+    /** Index the book appended to the indexed list last. */
+    public void indexLast() {
+        if (size >= books.size()) {
+            throw new IllegalStateException("No book appended since the last one indexed.");
+        }
+        link(hashOf(books, size));
+    }
+
+    /**
+     * Is an equal book indexed?
+     * @param o book to look for.
+     * @return true if an equal book is indexed.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof BookEntry && indexOf((BookEntry) o) >= 0;
+    }
+
+    /**
+     * Index the given book, which must have been appended to the indexed
+     * list last.
+     *
+     * @param book appended book.
+     * @return true
+     * @throws IllegalArgumentException if the book is not the last appended one.
+     */
+    @Override
+    public boolean add(BookEntry book) {
+        if (size >= books.size() || hashOf(books, size) != hash(book.getTitle(), book.getISBN())) {
+            throw new IllegalArgumentException("Given book was not appended last: " + book.getTitle());
+        }
+        indexLast();
+        return true;
+    }
+
+    @Override
+    public Iterator<BookEntry> iterator() {
+        return books.subList(0, size).iterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Add the next position with the given title hash to its chain. */
+    private void link(int hash) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            next = Arrays.copyOf(next, size * 2);
+        }
+        if (size * 2 > heads.length) {
+            heads = new int[heads.length * 2];
+            Arrays.fill(heads, END);
+            for (int i = 0; i < size; i++) {
+                int bucket = bucket(hashes[i]);
+                next[i] = heads[bucket];
+                heads[bucket] = i;
+            }
+        }
+        int bucket = bucket(hash);
+        hashes[size] = hash;
+        next[size] = heads[bucket];
+        heads[bucket] = size;
+        size++;
+    }
+
+    private static int hashOf(List<BookEntry> books, int index) {
+        return hash(BookStore.titleOf(books, index), BookStore.isbnOf(books, index));
+    }
+
+    private int bucket(int hash) {
+        return (hash ^ (hash >>> 16)) & (heads.length - 1);
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BookIndexBasicTest {
+
+    // "Aa" and "BB" have the same hash code, so both books have the same index hash.
+    private static final BookEntry BOOK_A = new BookEntry("Aa", new String[] { "AuthorA" }, 3.2f, "ISBNA", 500);
+    private static final BookEntry BOOK_B = new BookEntry("BB", new String[] { "AuthorB" }, 4.3f, "ISBNA", 400);
+    private static final BookEntry BOOK_A2 = new BookEntry("Aa", new String[] { "AuthorA" }, 3.2f, "ISBNA", 501);
+
+    private ColumnarBookList testBooks;
+    private BookIndex testIndex;
+
+    @Before
+    public void setup() {
+        testBooks = new ColumnarBookList();
+        testBooks.add(BOOK_A);
+        testBooks.add(BOOK_B);
+        testIndex = new BookIndex(testBooks);
+    }
+
+    // ------------------------- lookup tests --------------------
+
+    @Test
+    public void testContainsComparesFullBook() {
+        assertTrue("Indexed book expected to be found.", testIndex.contains(BOOK_A));
+        assertTrue("Book with colliding hash expected to be found.", testIndex.contains(BOOK_B));
+        assertFalse("Book with same title but other pages not expected to be found.", testIndex.contains(BOOK_A2));
+        assertEquals("Unexpected position.", 1, testIndex.indexOf(BOOK_B));
+    }
+
+    @Test
+    public void testFirstVisitsSameHashOnly() {
+        testBooks.add(new BookEntry("Other", new String[] { "AuthorC" }, 1.0f, "ISBNC", 1));
+        testIndex.indexLast();
+
+        List<Integer> positions = new ArrayList<>();
+        for (int i = testIndex.first("Aa", "ISBNA"); i >= 0; i = testIndex.next(i)) {
+            positions.add(i);
+        }
+        assertEquals("Unexpected candidates.", List.of(1, 0), positions);
+    }
+
+    // ------------------------- modification tests --------------------
+
+    @Test
+    public void testAddIndexesAppendedBooks() {
+        List<BookEntry> expected = new ArrayList<>(testBooks);
+        for (int i = 0; i < 1000; i++) {
+            BookEntry book = new BookEntry("Title " + i, new String[] { "Author" }, 1.0f, "ISBN" + i, i);
+            testBooks.add(book);
+            testIndex.add(book);
+            expected.add(book);
+        }
+
+        assertEquals("Unexpected number of indexed books.", expected.size(), testIndex.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Unexpected position.", i, testIndex.indexOf(expected.get(i)));
+        }
+        assertEquals("Unexpected indexed books.", expected, new ArrayList<>(testIndex));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddRejectsBookNotAppended() {
+        testIndex.add(BOOK_A2);
+    }
+}
@@ -0,0 +1,202 @@
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Base class for book storage layouts which do not keep a BookEntry
+ * instance per book. Entries are created on demand when accessed through
+ * the List interface, while titles can be read without creating entries.
+ *
+ * A store can be frozen to publish it as immutable snapshot which can be
+ * read from several threads. Changes are then made to a copy.
+ */
+public abstract class BookStore extends AbstractList<BookEntry> {
+
+    /** True once this store must no longer be changed. */
+    private boolean frozen;
+
+    /**
+     * Create a modifiable copy of this store, independent of later changes
+     * to either store.
+     * @return new unfrozen store holding the same books.
+     */
+    public abstract BookStore copy();
+
+    /** Prevent any further changes to this store. */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Can this store still be changed?
+     * @return true if this store has been frozen.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Check that this store can still be changed. To be called by all
+     * modifying methods.
+     * @throws UnsupportedOperationException if this store has been frozen.
+     */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Book store snapshot must not be changed.");
+        }
+    }
+
+    /**
+     * Title of the book at the given position, without creating its entry.
+     *
+     * @param index position of the book.
+     * @return title of the book.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public abstract String titleAt(int index);
+
+    /**
+     * Does the title of the book at the given position contain the given
+     * term, ignoring case? Stores may override this to match without
+     * creating the title.
+     *
+     * @param index position of the book.
+     * @param lowerCaseTerm term to look for, already in lower case.
+     * @return true if the lower case title contains the term.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public boolean titleContains(int index, String lowerCaseTerm) {
+        return titleAt(index).toLowerCase().contains(lowerCaseTerm);
+    }
+
+    /**
+     * First character of the upper case title of the book at the given
+     * position. Stores may override this to read it without creating the title.
+     *
+     * @param index position of the book.
+     * @return first upper case character of the title.
+     * @throws IndexOutOfBoundsException if the index is out of range or the title is empty.
+     */
+    public char titleInitialAt(int index) {
+        return titleAt(index).toUpperCase().charAt(0);
+    }
+
+    /**
+     * Authors of the book at the given position. Stores may override this
+     * to read them without creating the entry.
+     *
+     * @param index position of the book.
+     * @return authors of the book.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public String[] authorsAt(int index) {
+        return get(index).getAuthors();
+    }
+
+    /**
+     * ISBN of the book at the given position. Stores may override this to
+     * read it without creating the entry.
+     *
+     * @param index position of the book.
+     * @return ISBN of the book.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public String isbnAt(int index) {
+        return get(index).getISBN();
+    }
+
+    /**
+     * Estimated heap bytes held by this store.
+     * @return estimated size in bytes.
+     */
+    public abstract long estimateBytes();
+
+    /**
+     * Title of the book at the given position of any book list. Book stores
+     * read the title directly, other lists go through the book entry.
+     *
+     * @param books list of books.
+     * @param index position of the book.
+     * @return title of the book.
+     * @throws NullPointerException if the given list is null.
+     */
+    public static String titleOf(List<BookEntry> books, int index) {
+        Objects.requireNonNull(books, "Given books must not be null.");
+
+        if (books instanceof BookStore) {
+            return ((BookStore) books).titleAt(index);
+        }
+        return books.get(index).getTitle();
+    }
+
+    /**
+     * ISBN of the book at the given position of any book list.
+     *
+     * @param books list of books.
+     * @param index position of the book.
+     * @return ISBN of the book.
+     * @throws NullPointerException if the given list is null.
+     */
+    public static String isbnOf(List<BookEntry> books, int index) {
+        Objects.requireNonNull(books, "Given books must not be null.");
+
+        if (books instanceof BookStore) {
+            return ((BookStore) books).isbnAt(index);
+        }
+        return books.get(index).getISBN();
+    }
+
+    /**
+     * Does the title of the book at the given position of any book list
+     * contain the given term, ignoring case?
+     *
+     * @param books list of books.
+     * @param index position of the book.
+     * @param lowerCaseTerm term to look for, already in lower case.
+     * @return true if the lower case title contains the term.
+     * @throws NullPointerException if the given list is null.
+     */
+    public static boolean titleContains(List<BookEntry> books, int index, String lowerCaseTerm) {
+        Objects.requireNonNull(books, "Given books must not be null.");
+
+        if (books instanceof BookStore) {
+            return ((BookStore) books).titleContains(index, lowerCaseTerm);
+        }
+        return books.get(index).getTitle().toLowerCase().contains(lowerCaseTerm);
+    }
+
+    /**
+     * First character of the upper case title of the book at the given
+     * position of any book list.
+     *
+     * @param books list of books.
+     * @param index position of the book.
+     * @return first upper case character of the title.
+     * @throws NullPointerException if the given list is null.
+     */
+    public static char titleInitialOf(List<BookEntry> books, int index) {
+        Objects.requireNonNull(books, "Given books must not be null.");
+
+        if (books instanceof BookStore) {
+            return ((BookStore) books).titleInitialAt(index);
+        }
+        return books.get(index).getTitle().toUpperCase().charAt(0);
+    }
+
+    /**
+     * Authors of the book at the given position of any book list.
+     *
+     * @param books list of books.
+     * @param index position of the book.
+     * @return authors of the book.
+     * @throws NullPointerException if the given list is null.
+     */
+    public static String[] authorsOf(List<BookEntry> books, int index) {
+        Objects.requireNonNull(books, "Given books must not be null.");
+
+        if (books instanceof BookStore) {
+            return ((BookStore) books).authorsAt(index);
+        }
+        return books.get(index).getAuthors();
+    }
+}
@@ -0,0 +1,111 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks every book store has to pass. Subclasses create the store under
+ * test, which holds BOOK_A, BOOK_B and BOOK_C before each test.
+ */
+public abstract class BookStoreTest<T extends BookStore> {
+
+    protected static final BookEntry BOOK_A = new BookEntry("TitleA", new String[] { "AuthorA" }, 3.2f, "ISBNA", 500);
+    protected static final BookEntry BOOK_B = new BookEntry("TitleB", new String[] { "AuthorA", "AuthorB" }, 4.3f,
+            "ISBNB", 400);
+    protected static final BookEntry BOOK_C = new BookEntry("Tïtle C", new String[] { "AuthorC" }, 1.3f, "ISBNC",
+            300);
+
+    protected T testBooks;
+
+    /**
+     * Create the empty store under test.
+     * @return new store without books.
+     */
+    protected abstract T createBooks();
+
+    @Before
+    public void setup() {
+        testBooks = createBooks();
+        testBooks.add(BOOK_A);
+        testBooks.add(BOOK_B);
+        testBooks.add(BOOK_C);
+    }
+
+    // ------------------------- access tests --------------------
+
+    @Test
+    public void testGetReturnsEqualEntries() {
+        assertEquals("Unexpected size of book store.", 3, testBooks.size());
+        assertEquals("Stored book not returned as expected.", BOOK_A, testBooks.get(0));
+        assertEquals("Stored book not returned as expected.", BOOK_B, testBooks.get(1));
+        assertEquals("Stored book not returned as expected.", BOOK_C, testBooks.get(2));
+    }
+
+    @Test
+    public void testFieldAccessors() {
+        assertEquals("Unexpected title.", "Tïtle C", testBooks.titleAt(2));
+        assertEquals("Unexpected ISBN.", "ISBNB", testBooks.isbnAt(1));
+        assertArrayEquals("Unexpected authors.", new String[] { "AuthorA", "AuthorB" }, testBooks.authorsAt(1));
+        assertEquals("Unexpected title initial.", 'T', testBooks.titleInitialAt(0));
+        assertEquals("Title not read as expected through BookStore.", "TitleB", BookStore.titleOf(testBooks, 1));
+    }
+
+    @Test
+    public void testTitleContains() {
+        assertTrue("Term expected to match ignoring case.", testBooks.titleContains(0, "itlea"));
+        assertFalse("Term not expected to match.", testBooks.titleContains(1, "itlea"));
+        assertTrue("Term expected to match non ASCII title.", testBooks.titleContains(2, "ïtle"));
+        assertFalse("Term longer than title not expected to match.", testBooks.titleContains(0, "titlea and more"));
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue("Stored book expected to be found.", testBooks.contains(
+                new BookEntry("TitleB", new String[] { "AuthorA", "AuthorB" }, 4.3f, "ISBNB", 400)));
+        assertFalse("Book with different author not expected to be found.", testBooks.contains(
+                new BookEntry("TitleB", new String[] { "AuthorA" }, 4.3f, "ISBNB", 400)));
+    }
+
+    // ------------------------- modification tests --------------------
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<BookEntry> iteration = testBooks.iterator();
+        iteration.next();
+        iteration.next();
+        iteration.remove();
+
+        assertEquals("Unexpected size after removing a book.", 2, testBooks.size());
+        assertEquals("Remaining book not returned as expected.", BOOK_A, testBooks.get(0));
+        assertEquals("Remaining book not returned as expected.", BOOK_C, testBooks.get(1));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        BookStore copy = testBooks.copy();
+        testBooks.freeze();
+        copy.remove(0);
+        copy.add(BOOK_A);
+
+        assertFalse("Copy expected to be modifiable.", copy.isFrozen());
+        assertEquals("Copied store expected to be unchanged.", Arrays.asList(BOOK_A, BOOK_B, BOOK_C), testBooks);
+        assertEquals("Unexpected books in copy.", Arrays.asList(BOOK_B, BOOK_C, BOOK_A), copy);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFrozenStoreNotModifiable() {
+        testBooks.freeze();
+        testBooks.add(BOOK_A);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInsertNotSupported() {
+        testBooks.add(0, BOOK_A);
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.Objects;
+
+/**
+ * Cancel command used to stop a background load job. A cancelled job
+ * does not change the library.
+ */
+public class CancelCmd extends LibraryCommand {
+
+    /** Id of the job to cancel. */
+    private int jobId;
+
+    /**
+     * Create a cancel command.
+     *
+     * @param argumentInput id of the job to cancel
+     * @throws IllegalArgumentException if given arguments are invalid
+     * @throws NullPointerException if the given argumentInput is null.
+     */
+    public CancelCmd(String argumentInput) {
+        super(CommandType.CANCEL, argumentInput);
+    }
+
+    /**
+     * Check that the argument is a job id.
+     *
+     * @param argumentInput argument input for this command.
+     * @return true if the argument is a positive number.
+     * @throws NullPointerException if given input is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, "Given input must not be null.");
+
+        try {
+            jobId = Integer.parseInt(argumentInput.strip());
+            return jobId > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Request cancellation of the job.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException if given data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        LoadJob job = data.getLoadJobs().getJob(jobId);
+
+        if (job == null) {
+            System.err.println("ERROR: No load job with id: " + jobId);
+        } else if (job.cancel()) {
+            System.out.println("Cancelling load job " + jobId + ".");
+        } else {
+            System.out.println("Load job " + jobId + " already " + job.getState() + ".");
+        }
+    }
+}
@@ -0,0 +1,480 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generator for synthetic book data files in the format read by
+ * LibraryFileLoader, used for benchmarks and load tests at scale.
+ *
+ * Title words and authors are drawn from Zipf distributions so that a few
+ * prolific authors write many books, title lengths follow a skewed
+ * distribution and a configurable share of rows repeats an earlier row
+ * exactly. Every row is derived from the seed and its row number only, so
+ * the same options always produce the same file. Usage:
+ *
+ * java CatalogGenerator out=path/to/books.csv rows=1000000 [seed=1] [duplicates=0.01] [authors=rows/8]
+ */
+public class CatalogGenerator {
+
+    /** Header line of book data files. */
+    private static final String HEADER = "title,authors,average_rating,isbn,# num_pages\n";
+
+    /** Size of the output buffer. */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** Number of rows generated by a single task. */
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    /** Zipf exponent for title words. */
+    private static final double WORD_SKEW = 1.0;
+
+    /** Zipf exponent for authors. */
+    private static final double AUTHOR_SKEW = 1.1;
+
+    /** Cumulative distribution of the number of words in a title, starting at one word. */
+    private static final double[] TITLE_WORDS_CDF = { 0.10, 0.28, 0.48, 0.64, 0.75, 0.83, 0.89, 0.93, 0.96, 0.98,
+            0.99, 1.0 };
+
+    private static final String[] WORDS = { "The", "of", "and", "a", "in", "to", "Love", "Life", "World", "Night",
+            "House", "Story", "Time", "Day", "Man", "Girl", "Secret", "War", "Book", "History", "King", "Heart",
+            "Dark", "Last", "New", "Lost", "Dead", "Death", "Little", "Great", "Fire", "Blood", "Light", "Black",
+            "Moon", "City", "Sea", "Stone", "Queen", "Shadow", "Dream", "River", "Garden", "Road", "Home", "Star",
+            "Wild", "Winter", "Summer", "Magic", "Murder", "Island", "Art", "Guide", "Lady", "Dragon", "Castle",
+            "Empire", "Silent", "Golden", "Forgotten", "Children", "Souls", "Mountain", "Journey", "Ghost", "Mirror",
+            "Sky", "Ocean", "Kingdom", "Hidden", "Broken", "Promise", "Storm", "Wind", "Forest", "Glass", "Song",
+            "Letters", "Memory", "Voices", "Angels", "Rings", "Crown", "Witch", "Hunter", "Revenge", "Truth",
+            "Seven", "Hundred", "Years", "Short", "Complete", "Collected", "Poems", "Essays", "Tales", "Chronicles",
+            "Practical", "Introduction", "Science", "Nature", "Philosophy", "Economics", "Programming", "Cooking",
+            "Harry", "Potter", "Sherlock", "Holmes", "Odyssey", "Republic", "Paradise", "Inferno", "Farm", "Animal" };
+
+    private static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Charles", "Karen", "Stephen", "Nancy", "George", "Margaret", "Anne", "Agatha",
+            "Terry", "Neil", "Ursula", "Isaac", "Virginia", "Ernest", "Jane", "Leo", "Fyodor", "Haruki", "Toni",
+            "Gabriel", "Chinua", "Zadie", "Kazuo", "Hilary", "Doris", "Salman", "Arundhati", "Orhan", "Elena",
+            "Yukio", "Italo", "Umberto" };
+
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "King", "Christie", "Pratchett", "Gaiman", "Le Guin",
+            "Asimov", "Woolf", "Hemingway", "Austen", "Tolstoy", "Dostoevsky", "Murakami", "Morrison", "Marquez",
+            "Achebe", "Ishiguro", "Mantel", "Atwood", "Rushdie", "Roy", "Pamuk", "Ferrante", "Mishima", "Calvino",
+            "Eco", "Rowling", "Tolkien", "Orwell", "Dickens", "Bronte", "Shelley", "Twain", "Poe", "Wilde",
+            "Joyce", "Kafka", "Camus", "Hugo", "Dumas", "Verne" };
+
+    private static final byte[][] WORD_BYTES = encode(WORDS);
+
+    private static final byte[] INITIALS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    /** Seed all rows are derived from. */
+    private final long seed;
+
+    /** Share of rows which repeat an earlier row. */
+    private final double duplicateRate;
+
+    /** Encoded names of all authors, most prolific first. */
+    private final byte[][] authors;
+
+    /** Distribution of the number of words in a title. */
+    private final Distribution titleWords;
+
+    /** Zipf distribution over title words. */
+    private final Distribution wordDistribution;
+
+    /** Zipf distribution over authors. */
+    private final Distribution authorDistribution;
+
+    /**
+     * Create a generator.
+     *
+     * @param seed seed all rows are derived from.
+     * @param duplicateRate share of rows which repeat an earlier row, between 0 and 1.
+     * @param authorCount number of distinct authors to draw from.
+     * @throws IllegalArgumentException if the duplicate rate is out of range or there are no authors.
+     */
+    public CatalogGenerator(long seed, double duplicateRate, int authorCount) {
+        if (duplicateRate < 0 || duplicateRate >= 1) {
+            throw new IllegalArgumentException("Duplicate rate must be at least 0 and less than 1.");
+        }
+        if (authorCount < 1) {
+            throw new IllegalArgumentException("At least one author is required.");
+        }
+
+        this.seed = seed;
+        this.duplicateRate = duplicateRate;
+        this.authors = new byte[authorCount][];
+        for (int i = 0; i < authorCount; i++) {
+            authors[i] = authorName(i).getBytes(StandardCharsets.US_ASCII);
+        }
+        this.titleWords = new Distribution(TITLE_WORDS_CDF);
+        this.wordDistribution = new Distribution(zipfCdf(WORDS.length, WORD_SKEW));
+        this.authorDistribution = new Distribution(zipfCdf(authorCount, AUTHOR_SKEW));
+    }
+
+    /**
+     * Generate a book data file.
+     * @param args options in key=value form as described in the class comment.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path out = null;
+        long rows = -1;
+        long seed = 1;
+        double duplicates = 0.01;
+        int authorCount = -1;
+
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Options must be given as key=value: " + arg);
+            }
+            switch (option[0]) {
+                case "out":
+                    out = Paths.get(option[1]);
+                    break;
+                case "rows":
+                    rows = Long.parseLong(option[1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(option[1]);
+                    break;
+                case "duplicates":
+                    duplicates = Double.parseDouble(option[1]);
+                    break;
+                case "authors":
+                    authorCount = Integer.parseInt(option[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+        if (out == null || rows < 0) {
+            throw new IllegalArgumentException("Options out and rows are required.");
+        }
+        if (authorCount < 0) {
+            authorCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, rows / 8));
+        }
+
+        long start = System.nanoTime();
+        new CatalogGenerator(seed, duplicates, authorCount).write(out, rows);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%d rows written to %s in %.2f s (%d bytes).%n", rows, out, seconds,
+                Files.size(out));
+    }
+
+    /**
+     * Write a book data file with header and the given number of rows.
+     *
+     * @param file file to write, replaced if it exists.
+     * @param rows number of rows without header.
+     * @throws IOException if the file cannot be written.
+     * @throws NullPointerException if the given file is null.
+     */
+    public void write(Path file, long rows) throws IOException {
+        Objects.requireNonNull(file, "Given file must not be null.");
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE)) {
+            write(out, rows);
+        }
+    }
+
+    /**
+     * Write header and the given number of rows to a stream. Rows are
+     * generated in chunks on all available processors and written in order.
+     *
+     * @param out stream to write to, not closed by this method.
+     * @param rows number of rows without header.
+     * @throws IOException if writing fails.
+     */
+    public void write(OutputStream out, long rows) throws IOException {
+        Objects.requireNonNull(out, "Given stream must not be null.");
+
+        out.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Deque<Future<ByteBuffer>> inFlight = new ArrayDeque<>();
+            for (long from = 0; from < rows || !inFlight.isEmpty(); from += CHUNK_ROWS) {
+                if (from < rows) {
+                    long chunkStart = from;
+                    long chunkEnd = Math.min(rows, from + CHUNK_ROWS);
+                    inFlight.add(executor.submit(() -> new RowGenerator().generate(chunkStart, chunkEnd)));
+                }
+                // Keep a bounded number of chunks in memory and write them in row order.
+                if (inFlight.size() > 2 * threads || from >= rows) {
+                    ByteBuffer chunk = inFlight.remove().get();
+                    out.write(chunk.array(), 0, chunk.limit());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generating rows was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generating rows failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generator for consecutive rows. Each instance is used by a single thread.
+     */
+    private final class RowGenerator {
+
+        /** Current state of the random generator. */
+        private long state;
+
+        /** Buffer holding the rows generated so far. */
+        private byte[] row = new byte[CHUNK_ROWS * 64];
+
+        /** Number of bytes used in the buffer. */
+        private int rowLength;
+
+        /**
+         * Generate the given range of rows.
+         *
+         * @param from first row to generate.
+         * @param to row after the last row to generate.
+         * @return buffer holding the generated rows up to its limit.
+         */
+        private ByteBuffer generate(long from, long to) {
+            for (long i = from; i < to; i++) {
+                generateRow(i);
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(row);
+            chunk.limit(rowLength);
+            return chunk;
+        }
+
+        /**
+         * Generate the given row into the row buffer, including the line break.
+         * Duplicate rows repeat an earlier row which is not a duplicate itself.
+         */
+        private void generateRow(long index) {
+            long source = index;
+            if (isDuplicate(index)) {
+                do {
+                    source = (long) (nextDouble() * index);
+                } while (isDuplicate(source));
+            }
+
+            reseed(source);
+            // Skip the duplicate decision so the state matches for originals and repeats.
+            nextDouble();
+
+            appendTitle();
+            append((byte) ',');
+            appendAuthors();
+            append((byte) ',');
+            appendRating();
+            append((byte) ',');
+            appendIsbn();
+            append((byte) ',');
+            appendNumber(pages());
+            append((byte) '\n');
+        }
+
+        /**
+         * Decide whether the given row repeats an earlier row. This leaves the
+         * random generator positioned directly after the decision of that row.
+         */
+        private boolean isDuplicate(long index) {
+            reseed(index);
+            boolean duplicate = nextDouble() < duplicateRate;
+            return duplicate && index > 0;
+        }
+
+        private void appendTitle() {
+            int words = titleWords.sample(nextDouble()) + 1;
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    append((byte) ' ');
+                }
+                append(WORD_BYTES[wordDistribution.sample(nextDouble())]);
+            }
+
+            // Every tenth title is part of a series.
+            if (nextDouble() < 0.1) {
+                append(" (Book ".getBytes(StandardCharsets.US_ASCII));
+                appendNumber(1 + (int) (nextDouble() * 12));
+                append((byte) ')');
+            }
+        }
+
+        private void appendAuthors() {
+            double coAuthors = nextDouble();
+            int count = coAuthors < 0.80 ? 1 : (coAuthors < 0.96 ? 2 : 3);
+            for (int a = 0; a < count; a++) {
+                if (a > 0) {
+                    append((byte) '-');
+                }
+                append(authors[authorDistribution.sample(nextDouble())]);
+            }
+        }
+
+        private void appendRating() {
+            // Ratings cluster around 3.9 like real catalog data.
+            double rating = 3.9 + 0.35 * gaussian();
+            int hundredths = (int) Math.round(Math.max(0, Math.min(5, rating)) * 100);
+            appendNumber(hundredths / 100);
+            append((byte) '.');
+            append((byte) ('0' + hundredths / 10 % 10));
+            append((byte) ('0' + hundredths % 10));
+        }
+
+        private void appendIsbn() {
+            // Most ISBN-10 values lose their leading zero in the source data, some end in X.
+            int digits = nextDouble() < 0.8 ? 9 : 10;
+            for (int d = 0; d < digits - 1; d++) {
+                append((byte) ('0' + (int) (nextDouble() * 10)));
+            }
+            append(nextDouble() < 0.05 ? (byte) 'X' : (byte) ('0' + (int) (nextDouble() * 10)));
+        }
+
+        private int pages() {
+            // Log-normal page count with a median of about 300 pages.
+            double pages = Math.exp(5.7 + 0.6 * gaussian());
+            return (int) Math.max(1, Math.min(5000, pages));
+        }
+
+        private void append(byte b) {
+            ensureCapacity(1);
+            row[rowLength++] = b;
+        }
+
+        private void append(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, row, rowLength, bytes.length);
+            rowLength += bytes.length;
+        }
+
+        private void appendNumber(int value) {
+            ensureCapacity(10);
+            int digits = 1;
+            for (int bound = 10; digits < 10 && value >= bound; bound *= 10) {
+                digits++;
+            }
+            for (int pos = rowLength + digits - 1; pos >= rowLength; pos--) {
+                row[pos] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            rowLength += digits;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (rowLength + extra > row.length) {
+                row = Arrays.copyOf(row, Math.max(row.length * 2, rowLength + extra));
+            }
+        }
+
+        /** Reset the random generator to the start of the given row. */
+        private void reseed(long index) {
+            state = seed * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L;
+        }
+
+        /** Next value of a SplitMix64 generator, as double in [0, 1). */
+        private double nextDouble() {
+            long z = (state += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z = z ^ (z >>> 31);
+            return (z >>> 11) * 0x1.0p-53;
+        }
+
+        /** Standard normal value using the Box-Muller transform. */
+        private double gaussian() {
+            double u = 1.0 - nextDouble();
+            double v = nextDouble();
+            return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+        }
+    }
+
+    private static double[] zipfCdf(int size, double skew) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+        cdf[size - 1] = 1.0;
+        return cdf;
+    }
+
+    /** Distinct author name for the given index, without commas or hyphens. */
+    private static String authorName(int index) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        StringBuilder name = new StringBuilder(FIRST_NAMES[index % FIRST_NAMES.length]);
+        name.append(' ');
+
+        // Add middle initials once all first and last name combinations are used.
+        int initials = index / combinations;
+        while (initials > 0) {
+            name.append((char) INITIALS[(initials - 1) % INITIALS.length]).append(". ");
+            initials = (initials - 1) / INITIALS.length;
+        }
+        name.append(LAST_NAMES[index / FIRST_NAMES.length % LAST_NAMES.length]);
+        return name.toString();
+    }
+
+    private static byte[][] encode(String[] words) {
+        byte[][] bytes = new byte[words.length][];
+        for (int i = 0; i < words.length; i++) {
+            bytes[i] = words[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+
+    /**
+     * Discrete distribution sampled by inversion with a guide table, so that
+     * a sample takes constant expected time even for millions of values.
+     */
+    private static final class Distribution {
+
+        /** Cumulative probabilities, the last one being exactly 1. */
+        private final double[] cdf;
+
+        /** First index whose cumulative probability exceeds k / guide.length. */
+        private final int[] guide;
+
+        private Distribution(double[] cdf) {
+            this.cdf = cdf;
+            this.guide = new int[cdf.length];
+            int index = 0;
+            for (int k = 0; k < guide.length; k++) {
+                while (cdf[index] <= (double) k / guide.length) {
+                    index++;
+                }
+                guide[k] = index;
+            }
+        }
+
+        /**
+         * @param uniform uniform random value in [0, 1).
+         * @return sampled index.
+         */
+        private int sample(double uniform) {
+            int index = guide[(int) (uniform * guide.length)];
+            while (cdf[index] <= uniform) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogGeneratorBasicTest {
+
+    private static final int ROWS = 100_000;
+
+    private Path testFile;
+
+    @Before
+    public void setup() throws IOException {
+        testFile = Files.createTempFile("catalog", ".csv");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    // ------------------------- output tests --------------------
+
+    // ROWS spans several chunks generated in parallel.
+    @Test
+    public void testSameSeedSameOutput() throws IOException {
+        byte[] first = generate(1);
+        byte[] second = generate(1);
+
+        assertArrayEquals("Same seed expected to give identical output.", first, second);
+        assertFalse("Other seed expected to give other output.", Arrays.equals(first, generate(2)));
+    }
+
+    @Test
+    public void testOutputAccepted() throws IOException {
+        new CatalogGenerator(1, 0.01, ROWS / 8).write(testFile, ROWS);
+        LibraryFileLoader loader = new LibraryFileLoader();
+
+        List<BookEntry> books = loader.readBooks(testFile, null);
+        assertEquals("Every row expected to be parsed.", ROWS, books.size());
+        assertEquals("No row expected to be rejected.", 0, loader.getRejectedRows());
+
+        assertTrue("File expected to be loaded.", loader.loadFileContent(testFile));
+        assertEquals("Rows expected to be parsed alike.", books, loader.parseFileContent());
+        assertEquals("No row expected to be rejected.", 0, loader.getRejectedRows());
+    }
+
+    private static byte[] generate(long seed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CatalogGenerator(seed, 0.01, ROWS / 8).write(out, ROWS);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,445 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Book storage keeping every field in its own column instead of one
+ * BookEntry object per book.
+ *
+ * Ratings and page counts live in primitive arrays, titles are packed as
+ * UTF-8 into a single byte array and authors are stored as ids into an
+ * AuthorDictionary. BookEntry instances are only created when a book is
+ * read through the List interface.
+ *
+ * Ratings are stored as hundredths in a short and purely numeric ISBNs as
+ * a long together with their number of digits, so leading zeros survive.
+ * Values which cannot be encoded this way are kept exactly in the packed
+ * text after the title: the ISBN as UTF-8 and the rating as float bits.
+ *
+ * Books can be appended and removed, but not inserted. Removed books leave
+ * unused bytes behind which are reclaimed once they make up more than half
+ * of the packed data.
+ */
+public class ColumnarBookList extends BookStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Packed data below this size is never compacted. */
+    private static final int MIN_COMPACTION_SIZE = 4096;
+
+    /** Marks a rating which is stored as float bits in the packed text. */
+    private static final short EXACT_RATING = -1;
+
+    /** Longest ISBN stored as number, longer ones may not fit into a long. */
+    private static final int MAX_ISBN_DIGITS = 18;
+
+    /** Number of books stored. */
+    private int size;
+
+    /** Rating per book in hundredths or EXACT_RATING. */
+    private short[] ratings;
+
+    /** Number of pages per book. */
+    private int[] pages;
+
+    /**
+     * Start of the title of each book in the packed text, followed by the
+     * ISBN and rating if these are not stored as numbers.
+     */
+    private int[] textOffsets;
+
+    /** Length of the encoded title per book. */
+    private int[] titleLengths;
+
+    /** Length of the encoded ISBN in the packed text or minus the number of digits of a numeric ISBN. */
+    private int[] isbnLengths;
+
+    /** Value of numeric ISBNs. */
+    private long[] isbnNumbers;
+
+    /** Packed text of all books. */
+    private byte[] text;
+
+    /** Number of used bytes in the packed text. */
+    private int textLength;
+
+    /** Number of bytes in the packed text belonging to removed books. */
+    private int deadText;
+
+    /** Start of the author ids of each book. */
+    private int[] authorOffsets;
+
+    /** Number of authors per book. */
+    private int[] authorCounts;
+
+    /** Packed author ids of all books. */
+    private int[] authorIds;
+
+    /** Number of used author id slots. */
+    private int authorIdLength;
+
+    /** Number of author id slots belonging to removed books. */
+    private int deadAuthorIds;
+
+    /** Dictionary the stored author ids refer to. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Create an empty columnar book list with its own author dictionary. */
+    public ColumnarBookList() {
+        this(new AuthorDictionary());
+    }
+
+    /**
+     * Create an empty columnar book list.
+     *
+     * @param authorDictionary dictionary used to encode author names.
+     * @throws NullPointerException if the given dictionary is null.
+     */
+    public ColumnarBookList(AuthorDictionary authorDictionary) {
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given dictionary must not be null.");
+        size = 0;
+        ratings = new short[INITIAL_CAPACITY];
+        pages = new int[INITIAL_CAPACITY];
+        textOffsets = new int[INITIAL_CAPACITY];
+        titleLengths = new int[INITIAL_CAPACITY];
+        isbnLengths = new int[INITIAL_CAPACITY];
+        isbnNumbers = new long[INITIAL_CAPACITY];
+        authorOffsets = new int[INITIAL_CAPACITY];
+        authorCounts = new int[INITIAL_CAPACITY];
+        text = new byte[INITIAL_CAPACITY * 32];
+        authorIds = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a book entry view of the book at the given position.
+     *
+     * @param index position of the book.
+     * @return new book entry holding the stored fields.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @Override
+    public BookEntry get(int index) {
+        Objects.checkIndex(index, size);
+        return new BookEntry(titleAt(index), authorsAt(index), ratingAt(index), isbnAt(index), pages[index]);
+    }
+
+    @Override
+    public String[] authorsAt(int index) {
+        Objects.checkIndex(index, size);
+
+        String[] authors = new String[authorCounts[index]];
+        for (int a = 0; a < authors.length; a++) {
+            authors[a] = authorDictionary.nameOf(authorIds[authorOffsets[index] + a]);
+        }
+        return authors;
+    }
+
+    @Override
+    public String titleAt(int index) {
+        Objects.checkIndex(index, size);
+        return new String(text, textOffsets[index], titleLengths[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * ISBN of the book at the given position.
+     * @param index position of the book.
+     * @return ISBN of the book.
+     */
+    @Override
+    public String isbnAt(int index) {
+        Objects.checkIndex(index, size);
+
+        if (isbnLengths[index] < 0) {
+            String digits = Long.toString(isbnNumbers[index]);
+            StringBuilder isbn = new StringBuilder(-isbnLengths[index]);
+            for (int i = digits.length(); i < -isbnLengths[index]; i++) {
+                isbn.append('0');
+            }
+            return isbn.append(digits).toString();
+        }
+        return new String(text, textOffsets[index] + titleLengths[index], isbnLengths[index],
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rating of the book at the given position.
+     * @param index position of the book.
+     * @return rating of the book.
+     */
+    public float ratingAt(int index) {
+        Objects.checkIndex(index, size);
+
+        if (ratings[index] == EXACT_RATING) {
+            int position = textOffsets[index] + titleLengths[index] + Math.max(0, isbnLengths[index]);
+            int bits = (text[position] & 0xFF) << 24 | (text[position + 1] & 0xFF) << 16
+                    | (text[position + 2] & 0xFF) << 8 | (text[position + 3] & 0xFF);
+            return Float.intBitsToFloat(bits);
+        }
+        return ratings[index] / 100f;
+    }
+
+    /**
+     * Number of pages of the book at the given position.
+     * @param index position of the book.
+     * @return number of pages.
+     */
+    public int pagesAt(int index) {
+        Objects.checkIndex(index, size);
+        return pages[index];
+    }
+
+    /**
+     * Append the given book. Books can only be added at the end.
+     *
+     * @param index must be equal to the current size.
+     * @param book book to append.
+     * @throws NullPointerException if the given book is null.
+     * @throws UnsupportedOperationException if the index is not the end of the list.
+     */
+    @Override
+    public void add(int index, BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        checkNotFrozen();
+        if (index != size) {
+            throw new UnsupportedOperationException("Columnar storage only supports appending books.");
+        }
+
+        ensureCapacity(size + 1);
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        String[] authors = book.getAuthors();
+        long isbnNumber = encodeIsbn(book.getISBN());
+        byte[] isbn = isbnNumber < 0 ? book.getISBN().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        short rating = encodeRating(book.getRating());
+        byte[] exactRating = new byte[0];
+        if (rating == EXACT_RATING) {
+            int bits = Float.floatToRawIntBits(book.getRating());
+            exactRating = new byte[] { (byte) (bits >>> 24), (byte) (bits >>> 16), (byte) (bits >>> 8), (byte) bits };
+        }
+
+        ratings[size] = rating;
+        pages[size] = book.getPages();
+        textOffsets[size] = appendText(title, isbn, exactRating);
+        titleLengths[size] = title.length;
+        isbnLengths[size] = isbnNumber < 0 ? isbn.length : -book.getISBN().length();
+        isbnNumbers[size] = isbnNumber;
+        authorOffsets[size] = appendAuthors(authors);
+        authorCounts[size] = authors.length;
+
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public BookEntry remove(int index) {
+        checkNotFrozen();
+        BookEntry removed = get(index);
+
+        deadText += packedLength(index);
+        deadAuthorIds += authorCounts[index];
+
+        int moved = size - index - 1;
+        System.arraycopy(ratings, index + 1, ratings, index, moved);
+        System.arraycopy(pages, index + 1, pages, index, moved);
+        System.arraycopy(textOffsets, index + 1, textOffsets, index, moved);
+        System.arraycopy(titleLengths, index + 1, titleLengths, index, moved);
+        System.arraycopy(isbnLengths, index + 1, isbnLengths, index, moved);
+        System.arraycopy(isbnNumbers, index + 1, isbnNumbers, index, moved);
+        System.arraycopy(authorOffsets, index + 1, authorOffsets, index, moved);
+        System.arraycopy(authorCounts, index + 1, authorCounts, index, moved);
+        size--;
+        modCount++;
+
+        if (deadText > MIN_COMPACTION_SIZE && deadText > textLength / 2) {
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        size = 0;
+        textLength = 0;
+        deadText = 0;
+        authorIdLength = 0;
+        deadAuthorIds = 0;
+        modCount++;
+    }
+
+    @Override
+    public ColumnarBookList copy() {
+        ColumnarBookList copy = new ColumnarBookList(authorDictionary);
+        copy.size = size;
+        copy.ratings = ratings.clone();
+        copy.pages = pages.clone();
+        copy.textOffsets = textOffsets.clone();
+        copy.titleLengths = titleLengths.clone();
+        copy.isbnLengths = isbnLengths.clone();
+        copy.isbnNumbers = isbnNumbers.clone();
+        copy.text = text.clone();
+        copy.textLength = textLength;
+        copy.deadText = deadText;
+        copy.authorOffsets = authorOffsets.clone();
+        copy.authorCounts = authorCounts.clone();
+        copy.authorIds = authorIds.clone();
+        copy.authorIdLength = authorIdLength;
+        copy.deadAuthorIds = deadAuthorIds;
+        return copy;
+    }
+
+    /**
+     * Find a book by comparing the cheap primitive columns first and only
+     * creating an entry for candidates matching in title, ISBN, rating and pages.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof BookEntry)) {
+            return -1;
+        }
+
+        BookEntry book = (BookEntry) o;
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        long isbnNumber = encodeIsbn(book.getISBN());
+        short rating = encodeRating(book.getRating());
+        for (int i = 0; i < size; i++) {
+            if (pages[i] == book.getPages()
+                    && ratings[i] == rating
+                    && isbnNumbers[i] == isbnNumber
+                    && titleLengths[i] == title.length
+                    && Arrays.equals(text, textOffsets[i], textOffsets[i] + title.length, title, 0, title.length)
+                    && get(i).equals(book)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public long estimateBytes() {
+        long bytes = 4L * (pages.length + textOffsets.length + titleLengths.length + isbnLengths.length
+                + authorOffsets.length + authorCounts.length + authorIds.length);
+        return bytes + 2L * ratings.length + 8L * isbnNumbers.length + text.length;
+    }
+
+    /**
+     * Dictionary the stored author ids refer to.
+     * @return author dictionary of this list.
+     */
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    /**
+     * Rating in hundredths if that represents the given rating exactly.
+     * @return encoded rating or EXACT_RATING.
+     */
+    private static short encodeRating(float rating) {
+        int hundredths = Math.round(rating * 100);
+        if (Float.compare(hundredths / 100f, rating) == 0) {
+            return (short) hundredths;
+        }
+        return EXACT_RATING;
+    }
+
+    /**
+     * Value of an ISBN consisting of digits only.
+     * @return value of the ISBN or -1 if it cannot be stored as number.
+     */
+    private static long encodeIsbn(String isbn) {
+        if (isbn.isEmpty() || isbn.length() > MAX_ISBN_DIGITS) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < isbn.length(); i++) {
+            char digit = isbn.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    /** Number of bytes the given book uses in the packed text. */
+    private int packedLength(int index) {
+        return titleLengths[index] + Math.max(0, isbnLengths[index]) + (ratings[index] == EXACT_RATING ? 4 : 0);
+    }
+
+    private int appendText(byte[] title, byte[] isbn, byte[] exactRating) {
+        int needed = textLength + title.length + isbn.length + exactRating.length;
+        if (needed > text.length) {
+            text = Arrays.copyOf(text, Math.max(needed, text.length * 2));
+        }
+
+        int offset = textLength;
+        System.arraycopy(title, 0, text, offset, title.length);
+        System.arraycopy(isbn, 0, text, offset + title.length, isbn.length);
+        System.arraycopy(exactRating, 0, text, offset + title.length + isbn.length, exactRating.length);
+        textLength = needed;
+        return offset;
+    }
+
+    private int appendAuthors(String[] authors) {
+        int needed = authorIdLength + authors.length;
+        if (needed > authorIds.length) {
+            authorIds = Arrays.copyOf(authorIds, Math.max(needed, authorIds.length * 2));
+        }
+
+        int offset = authorIdLength;
+        for (String author : authors) {
+            authorIds[authorIdLength++] = authorDictionary.idOf(author);
+        }
+        return offset;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ratings.length) {
+            int grown = Math.max(capacity, ratings.length * 2);
+            ratings = Arrays.copyOf(ratings, grown);
+            pages = Arrays.copyOf(pages, grown);
+            textOffsets = Arrays.copyOf(textOffsets, grown);
+            titleLengths = Arrays.copyOf(titleLengths, grown);
+            isbnLengths = Arrays.copyOf(isbnLengths, grown);
+            isbnNumbers = Arrays.copyOf(isbnNumbers, grown);
+            authorOffsets = Arrays.copyOf(authorOffsets, grown);
+            authorCounts = Arrays.copyOf(authorCounts, grown);
+        }
+    }
+
+    /** Rewrite packed text and author ids so they only hold books still stored. */
+    private void compact() {
+        byte[] compactText = new byte[textLength - deadText];
+        int[] compactAuthorIds = new int[authorIdLength - deadAuthorIds];
+        int textPos = 0;
+        int authorPos = 0;
+
+        for (int i = 0; i < size; i++) {
+            int length = packedLength(i);
+            System.arraycopy(text, textOffsets[i], compactText, textPos, length);
+            textOffsets[i] = textPos;
+            textPos += length;
+
+            System.arraycopy(authorIds, authorOffsets[i], compactAuthorIds, authorPos, authorCounts[i]);
+            authorOffsets[i] = authorPos;
+            authorPos += authorCounts[i];
+        }
+
+        text = compactText;
+        textLength = textPos;
+        deadText = 0;
+        authorIds = compactAuthorIds;
+        authorIdLength = authorPos;
+        deadAuthorIds = 0;
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarBookListBasicTest extends BookStoreTest<ColumnarBookList> {
+
+    @Override
+    protected ColumnarBookList createBooks() {
+        return new ColumnarBookList();
+    }
+
+    // ------------------------- access tests --------------------
+
+    @Test
+    public void testColumnAccessors() {
+        assertEquals("Unexpected rating.", 3.2f, testBooks.ratingAt(0), 0f);
+        assertEquals("Unexpected pages.", 300, testBooks.pagesAt(2));
+    }
+
+    @Test
+    public void testCompactEncodingKeepsValues() {
+        BookEntry leadingZeros = new BookEntry("Zeros", new String[] { "AuthorA" }, 4.17f, "0074754624", 100);
+        BookEntry oddRating = new BookEntry("Odd", new String[] { "AuthorA" }, 4.123f, "074754624X", 100);
+        testBooks.add(leadingZeros);
+        testBooks.add(oddRating);
+
+        assertEquals("ISBN with leading zeros not returned as expected.", "0074754624", testBooks.isbnAt(3));
+        assertEquals("Rating not returned as expected.", 4.17f, testBooks.ratingAt(3), 0f);
+        assertEquals("Non numeric ISBN not returned as expected.", "074754624X", testBooks.isbnAt(4));
+        assertEquals("Rating beyond hundredths not returned as expected.", 4.123f, testBooks.ratingAt(4), 0f);
+        assertEquals("Stored book not returned as expected.", leadingZeros, testBooks.get(3));
+        assertEquals("Stored book not returned as expected.", oddRating, testBooks.get(4));
+        assertEquals("Book string not returned as expected.", leadingZeros.toString(), testBooks.get(3).toString());
+    }
+
+    @Test
+    public void testAuthorsAreSharedAcrossEntries() {
+        assertEquals("Authors expected to be stored once.", 3, testBooks.getAuthorDictionary().size());
+        assertSame("Author names expected to be shared between entries.", testBooks.get(0).getAuthors()[0],
+                testBooks.get(1).getAuthors()[0]);
+    }
+
+    // ------------------------- modification tests --------------------
+
+    @Test
+    public void testRemoveManyCompacts() {
+        for (int i = 0; i < 1000; i++) {
+            testBooks.add(new BookEntry("Title " + i, new String[] { "Author " + i }, 1f, "ISBN" + i, i));
+        }
+        while (testBooks.size() > 2) {
+            testBooks.remove(0);
+        }
+
+        assertEquals("Remaining book not returned as expected.",
+                new BookEntry("Title 998", new String[] { "Author 998" }, 1f, "ISBN998", 998), testBooks.get(0));
+        assertEquals("Remaining book not returned as expected.",
+                new BookEntry("Title 999", new String[] { "Author 999" }, 1f, "ISBN999", 999), testBooks.get(1));
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testLibraryLoadDataColumnar() {
+        LibraryData library = new LibraryData(StorageMode.COLUMNAR);
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            library.loadData(Paths.get("booksTestData01.csv"));
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        assertTrue("Columnar library expected to use columnar storage.",
+                library.getBookData() instanceof ColumnarBookList);
+        assertEquals("Unexpected amount of books after loading file.", 2, library.getBookData().size());
+    }
+}
@@ -0,0 +1,27 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering the execution of a single library command.
+ */
+@Name("library.CommandExecute")
+@Label("Execute Library Command")
+@Category({ "Library Browser", "Commands" })
+@Description("Execution of a library command by the command interpreter.")
+public class CommandExecuteEvent extends Event {
+
+    /** Type of the executed command. */
+    @Label("Command Type")
+    String commandType;
+
+    /** Argument input the command was created with. */
+    @Label("Arguments")
+    String arguments;
+
+    /** Number of book entries scanned or added by the command. */
+    @Label("Rows Touched")
+    int rowsTouched;
+}
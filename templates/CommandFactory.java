@@ -34,6 +34,10 @@ public final class CommandFactory { // the final keyword prevents subclassing of
                 case SEARCH: return new SearchCmd(argumentInput);
                 case REMOVE: return new RemoveCmd(argumentInput);
                 case GROUP: return new GroupCmd(argumentInput);
+                case JOBS: return new JobsCmd(argumentInput);
+                case CANCEL: return new CancelCmd(argumentInput);
+                case WATCH: return new WatchCmd(argumentInput);
+                case LAG: return new LagCmd(argumentInput);
             }
         } catch (IllegalArgumentException e) {
             System.err.println("ERROR: " + e.getMessage());
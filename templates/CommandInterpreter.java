@@ -1,3 +1,5 @@
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -9,9 +11,28 @@ public class CommandInterpreter {
     /** Delimiter between command keyword and corresponding argument. */
     private static final String COMMAND_ARGUMENT_DELIMITER = " ";
 
+    /** Execution latency of commands per command type. */
+    private final Map<CommandType, LatencyHistogram> latencies;
+
+    /** Log for slow commands, null if slow commands are not logged. */
+    private final SlowCommandLog slowLog;
+
     /** Create a CommandInterpreter instance. */
     public CommandInterpreter() {
-        // nothing to do
+        this(null);
+    }
+
+    /**
+     * Create a CommandInterpreter instance which reports slow commands.
+     *
+     * @param slowLog log for slow commands or null if they should not be logged.
+     */
+    public CommandInterpreter(SlowCommandLog slowLog) {
+        this.slowLog = slowLog;
+        latencies = new EnumMap<>(CommandType.class);
+        for (CommandType type : CommandType.values()) {
+            latencies.put(type, new LatencyHistogram());
+        }
     }
 
     /**
@@ -42,6 +63,10 @@ public class CommandInterpreter {
 
     /**
      * Execute the given command.
+     *
+     * If the library follows the journal of another library, commands
+     * changing the book data are rejected, as are queries while the book
+     * data is staler than the follower allows, see JournalFollower.
      * 
      * @param command Command to be executed.
      * @param data book data to be considered for command execution.
@@ -51,7 +76,106 @@ public class CommandInterpreter {
         Objects.requireNonNull(command, "Given command must not be null.");
         Objects.requireNonNull(data, "Given data must not be null.");
 
+        JournalFollower follower = data.getFollower();
+        if (follower != null && !isAllowedOnFollower(command.getType(), follower)) {
+            return;
+        }
+
+        CommandExecuteEvent event = new CommandExecuteEvent();
+        int sizeBefore = data.getBookData().size();
+        event.begin();
+
+        long start = System.nanoTime();
         command.execute(data);
+        long elapsed = System.nanoTime() - start;
+        latencies.get(command.getType()).record(elapsed);
+
+        if (slowLog != null) {
+            slowLog.record(command.getType(), command.getArgumentInput(), data.getBookData().size(), elapsed);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.commandType = command.getType().name();
+            event.arguments = command.getArgumentInput();
+            event.rowsTouched = rowsTouched(command.getType(), sizeBefore, data.getBookData().size());
+            event.commit();
+        }
+
+        data.publishStatistics();
+    }
+
+    /**
+     * Get the execution latency histogram of the given command type.
+     * The histogram can be read from any thread.
+     *
+     * @param type command type
+     * @return latency histogram of all executed commands of this type.
+     * @throws NullPointerException If the given type is null.
+     */
+    public LatencyHistogram getLatencyHistogram(CommandType type) {
+        Objects.requireNonNull(type, "Given type must not be null.");
+
+        return latencies.get(type);
+    }
+
+    /**
+     * Number of book entries touched by a command. ADD touches the entries
+     * it added, all other commands except HELP, EXIT, JOBS, CANCEL, WATCH and LAG
+     * scan the whole library.
+     *
+     * @param type type of the executed command
+     * @param sizeBefore library size before execution
+     * @param sizeAfter library size after execution
+     * @return number of rows touched
+     */
+    private int rowsTouched(CommandType type, int sizeBefore, int sizeAfter) {
+        switch (type) {
+            case HELP:
+            case EXIT:
+            case JOBS:
+            case CANCEL:
+            case WATCH:
+            case LAG:
+                return 0;
+            case ADD:
+                return sizeAfter - sizeBefore;
+            default:
+                return sizeBefore;
+        }
+    }
+
+    /**
+     * Check whether a command may be executed on a library following a
+     * journal and report it otherwise.
+     *
+     * @param type type of the command
+     * @param follower follower applying the journal to the library
+     * @return false if the command changes the book data or queries too stale book data
+     */
+    private boolean isAllowedOnFollower(CommandType type, JournalFollower follower) {
+        switch (type) {
+            case ADD:
+            case REMOVE:
+            case WATCH:
+                System.err.println("ERROR: Library follows journal " + follower.getDirectory()
+                        + " and is read-only: " + type);
+                return false;
+            case LIST:
+            case SEARCH:
+            case GROUP:
+                if (follower.isStale()) {
+                    long staleness = follower.getStalenessMillis();
+                    System.err.println("ERROR: Library is "
+                            + (staleness < 0 ? "not restored from" : staleness + " ms behind")
+                            + " journal " + follower.getDirectory() + ", at most "
+                            + follower.getMaxStalenessMillis() + " ms allowed.");
+                    return false;
+                }
+                return true;
+            default:
+                return true;
+        }
     }
 
     /**
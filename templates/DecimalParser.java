@@ -0,0 +1,249 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Parser for the rating and page count columns of book data rows.
+ *
+ * Ratings in the data are short decimals like "4.17" and page counts are
+ * small numbers. These are parsed directly from the characters or bytes:
+ * a decimal with at most 24 bits of digits and at most ten fraction
+ * digits is the quotient of two exactly representable floats, so a single
+ * float division rounds it exactly like Float.parseFloat. Anything else,
+ * like signs, exponents, white space or more digits, is passed on to
+ * Float.parseFloat and Integer.parseInt, so results and failures are the
+ * same as theirs for every input.
+ */
+public final class DecimalParser {
+
+    /** Powers of ten exactly representable as float. */
+    private static final float[] POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f,
+            1e10f };
+
+    /** Largest digit value exactly representable as float. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
+
+    /** Number of digits that always fit into an int. */
+    private static final int MAX_INT_DIGITS = 9;
+
+    /** Not to be used. */
+    private DecimalParser() {
+        throw new UnsupportedOperationException("This constructor should never be used.");
+    }
+
+    /**
+     * Parse a rating, checking its range like the BookEntry constructor.
+     *
+     * @param value rating as text.
+     * @return parsed rating.
+     * @throws NullPointerException if the given value is null.
+     * @throws NumberFormatException if the value is no number.
+     * @throws IllegalArgumentException if the rating is out of range.
+     */
+    public static float parseRating(String value) {
+        return checkRating(parseFloat(value));
+    }
+
+    /**
+     * Parse a rating given as bytes, checking its range like the BookEntry
+     * constructor.
+     *
+     * @param data buffer holding the rating as UTF-8 text.
+     * @param offset start of the rating.
+     * @param length length of the rating.
+     * @return parsed rating.
+     * @throws NullPointerException if the given buffer is null.
+     * @throws IndexOutOfBoundsException if the range is outside of the buffer.
+     * @throws NumberFormatException if the value is no number.
+     * @throws IllegalArgumentException if the rating is out of range.
+     */
+    public static float parseRating(byte[] data, int offset, int length) {
+        return checkRating(parseFloat(data, offset, length));
+    }
+
+    /**
+     * Parse a page count, checking its range like the BookEntry constructor.
+     *
+     * @param value page count as text.
+     * @return parsed page count.
+     * @throws NullPointerException if the given value is null.
+     * @throws NumberFormatException if the value is no int.
+     * @throws IllegalArgumentException if the page count is negative.
+     */
+    public static int parsePages(String value) {
+        return checkPages(parseInt(value));
+    }
+
+    /**
+     * Parse a page count given as bytes, checking its range like the
+     * BookEntry constructor.
+     *
+     * @param data buffer holding the page count as UTF-8 text.
+     * @param offset start of the page count.
+     * @param length length of the page count.
+     * @return parsed page count.
+     * @throws NullPointerException if the given buffer is null.
+     * @throws IndexOutOfBoundsException if the range is outside of the buffer.
+     * @throws NumberFormatException if the value is no int.
+     * @throws IllegalArgumentException if the page count is negative.
+     */
+    public static int parsePages(byte[] data, int offset, int length) {
+        return checkPages(parseInt(data, offset, length));
+    }
+
+    /**
+     * Parse a float with the same result as Float.parseFloat.
+     *
+     * @param value number as text.
+     * @return parsed number.
+     * @throws NullPointerException if the given value is null.
+     * @throws NumberFormatException if the value is no number.
+     */
+    public static float parseFloat(String value) {
+        Objects.requireNonNull(value, "Given value must not be null.");
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return Float.parseFloat(value);
+                }
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return Float.parseFloat(value);
+            }
+        }
+
+        int scale = Math.max(fractionDigits, 0);
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return Float.parseFloat(value);
+        }
+        return (float) mantissa / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Parse a float given as bytes with the same result as Float.parseFloat
+     * of the decoded text.
+     *
+     * @param data buffer holding the number as UTF-8 text.
+     * @param offset start of the number.
+     * @param length length of the number.
+     * @return parsed number.
+     * @throws NullPointerException if the given buffer is null.
+     * @throws IndexOutOfBoundsException if the range is outside of the buffer.
+     * @throws NumberFormatException if the value is no number.
+     */
+    public static float parseFloat(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = data[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return Float.parseFloat(decode(data, offset, length));
+                }
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return Float.parseFloat(decode(data, offset, length));
+            }
+        }
+
+        int scale = Math.max(fractionDigits, 0);
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return Float.parseFloat(decode(data, offset, length));
+        }
+        return (float) mantissa / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Parse an int with the same result as Integer.parseInt.
+     *
+     * @param value number as text.
+     * @return parsed number.
+     * @throws NullPointerException if the given value is null.
+     * @throws NumberFormatException if the value is no int.
+     */
+    public static int parseInt(String value) {
+        Objects.requireNonNull(value, "Given value must not be null.");
+
+        int length = value.length();
+        if (length == 0 || length > MAX_INT_DIGITS) {
+            return Integer.parseInt(value);
+        }
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return Integer.parseInt(value);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Parse an int given as bytes with the same result as Integer.parseInt
+     * of the decoded text.
+     *
+     * @param data buffer holding the number as UTF-8 text.
+     * @param offset start of the number.
+     * @param length length of the number.
+     * @return parsed number.
+     * @throws NullPointerException if the given buffer is null.
+     * @throws IndexOutOfBoundsException if the range is outside of the buffer.
+     * @throws NumberFormatException if the value is no int.
+     */
+    public static int parseInt(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        if (length == 0 || length > MAX_INT_DIGITS) {
+            return Integer.parseInt(decode(data, offset, length));
+        }
+        int result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = data[i];
+            if (b < '0' || b > '9') {
+                return Integer.parseInt(decode(data, offset, length));
+            }
+            result = result * 10 + (b - '0');
+        }
+        return result;
+    }
+
+    private static String decode(byte[] data, int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static float checkRating(float rating) {
+        if (rating < 0 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 0 and 5.");
+        }
+        return rating;
+    }
+
+    private static int checkPages(int pages) {
+        if (pages < 0) {
+            throw new IllegalArgumentException("Number of pages cannot be negative.");
+        }
+        return pages;
+    }
+}
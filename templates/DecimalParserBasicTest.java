@@ -0,0 +1,137 @@
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DecimalParserBasicTest {
+
+    private static final long SEED = 20261019L;
+    private static final int RANDOM_SAMPLES = 200_000;
+
+    private static final String[] FLOAT_EDGE_CASES = { "", ".", "..", "5.", ".5", "0", "0.00", "-0.0", "+4.2",
+            "-4.2", "4.2.1", "1e3", "4.2f", "4.2d", " 4.2", "4.2 ", "NaN", "Infinity", "0x1p3", "4,2", "16777216",
+            "16777217", "1677721.7", "0.0000000001", "0.00000000001", "3.40282356e38", "00000000000000004.17",
+            "4.170000000000", "٤.2" };
+
+    private static final String[] INT_EDGE_CASES = { "", "0", "007", "-5", "+5", "-0", "999999999", "1000000000",
+            "2147483647", "2147483648", "-2147483648", "12a", " 12", "1.0", "٤٢" };
+
+    // ------------------------- float tests --------------------
+
+    @Test
+    public void testParseFloatAllTwoDecimalRatings() {
+        for (int i = 0; i <= 999; i++) {
+            checkFloat(i / 100 + "." + (i % 100 < 10 ? "0" : "") + i % 100);
+            checkFloat(i / 100 + "." + i % 100);
+        }
+    }
+
+    @Test
+    public void testParseFloatEdgeCases() {
+        for (String value : FLOAT_EDGE_CASES) {
+            checkFloat(value);
+        }
+    }
+
+    @Test
+    public void testParseFloatRandomDecimals() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            StringBuilder value = new StringBuilder();
+            appendDigits(value, random, random.nextInt(10));
+            if (random.nextInt(4) > 0) {
+                value.append('.');
+                appendDigits(value, random, random.nextInt(13));
+            }
+            checkFloat(value.toString());
+        }
+    }
+
+    // ------------------------- int tests --------------------
+
+    @Test
+    public void testParseIntEdgeCases() {
+        for (String value : INT_EDGE_CASES) {
+            checkInt(value);
+        }
+    }
+
+    @Test
+    public void testParseIntRandomNumbers() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            StringBuilder value = new StringBuilder();
+            appendDigits(value, random, random.nextInt(12));
+            checkInt(value.toString());
+        }
+    }
+
+    // ------------------------- range tests --------------------
+
+    @Test
+    public void testParseRatingRange() {
+        assertEquals("Upper bound expected to be valid.", 5f, DecimalParser.parseRating("5.00"), 0);
+        assertEquals("Lower bound expected to be valid.", 0f, DecimalParser.parseRating("0"), 0);
+        checkRejected(() -> DecimalParser.parseRating("5.01"), "Rating must be between 0 and 5.");
+        checkRejected(() -> DecimalParser.parseRating("-0.5"), "Rating must be between 0 and 5.");
+        byte[] bytes = "x7.5x".getBytes(StandardCharsets.UTF_8);
+        checkRejected(() -> DecimalParser.parseRating(bytes, 1, 3), "Rating must be between 0 and 5.");
+    }
+
+    @Test
+    public void testParsePagesRange() {
+        assertEquals("Zero pages expected to be valid.", 0, DecimalParser.parsePages("0"));
+        checkRejected(() -> DecimalParser.parsePages("-1"), "Number of pages cannot be negative.");
+        byte[] bytes = "x-12x".getBytes(StandardCharsets.UTF_8);
+        checkRejected(() -> DecimalParser.parsePages(bytes, 1, 3), "Number of pages cannot be negative.");
+    }
+
+    private static void appendDigits(StringBuilder value, Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            // Favour zeros to cover leading and trailing zeros.
+            value.append(random.nextInt(3) == 0 ? 0 : random.nextInt(10));
+        }
+    }
+
+    private static void checkFloat(String value) {
+        byte[] bytes = ("," + value + ",").getBytes(StandardCharsets.UTF_8);
+        Object expected = outcome(() -> Float.floatToRawIntBits(Float.parseFloat(value)));
+        assertEquals("Unexpected result for: " + value, expected,
+                outcome(() -> Float.floatToRawIntBits(DecimalParser.parseFloat(value))));
+        assertEquals("Unexpected result of bytes for: " + value, expected,
+                outcome(() -> Float.floatToRawIntBits(DecimalParser.parseFloat(bytes, 1, bytes.length - 2))));
+    }
+
+    private static void checkInt(String value) {
+        byte[] bytes = ("," + value + ",").getBytes(StandardCharsets.UTF_8);
+        Object expected = outcome(() -> Integer.parseInt(value));
+        assertEquals("Unexpected result for: " + value, expected, outcome(() -> DecimalParser.parseInt(value)));
+        assertEquals("Unexpected result of bytes for: " + value, expected,
+                outcome(() -> DecimalParser.parseInt(bytes, 1, bytes.length - 2)));
+    }
+
+    /** Result of the parse or the type and message of its failure. */
+    private static Object outcome(IntParse parse) {
+        try {
+            return parse.get();
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    private static void checkRejected(Runnable parse, String message) {
+        try {
+            parse.run();
+            fail("Value expected to be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unexpected failure message.", message, e.getMessage());
+        }
+    }
+
+    private interface IntParse {
+        int get();
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Input stream decompressing a gzip or zip compressed book data file on
+ * a background thread. Decompressed bytes are handed over in chunks
+ * through a small bounded queue, so inflating the next chunk overlaps
+ * with parsing the current one while only a few chunks are held in
+ * memory at any time.
+ *
+ * A zip file is expected to hold the book data as its first .csv entry,
+ * all other entries are ignored.
+ */
+public class DecompressingInputStream extends InputStream {
+
+    /** Size of a chunk of decompressed bytes. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /** Number of decompressed chunks the background thread may read ahead. */
+    private static final int READ_AHEAD_CHUNKS = 4;
+
+    /** Chunk marking the end of the decompressed data. */
+    private static final byte[] END = new byte[0];
+
+    /** Chunks decompressed but not read yet. */
+    private final BlockingQueue<byte[]> chunks;
+
+    /** Thread decompressing the source. */
+    private final Thread decompressor;
+
+    /** Failure of the background thread, reported once all chunks before it are read. */
+    private volatile IOException failure;
+
+    /** Chunk currently read from, END once the data is exhausted. */
+    private byte[] chunk;
+
+    /** Position in the current chunk. */
+    private int position;
+
+    /** Set once this stream has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Start decompressing the given source.
+     *
+     * @param source compressed data, closed once decompression finished.
+     * @param zip true if the source is a zip file, false for gzip.
+     * @throws NullPointerException if the given source is null.
+     */
+    public DecompressingInputStream(InputStream source, boolean zip) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+        chunks = new ArrayBlockingQueue<>(READ_AHEAD_CHUNKS);
+        chunk = null;
+        position = 0;
+
+        decompressor = new Thread(() -> decompress(source, zip), "library-decompress");
+        decompressor.setDaemon(true);
+        decompressor.start();
+    }
+
+    /**
+     * Is the given file compressed in a format this stream can read?
+     * @param file file to check.
+     * @return true if its name ends with .gz or .zip.
+     * @throws NullPointerException if the given file is null.
+     */
+    public static boolean isCompressed(Path file) {
+        Objects.requireNonNull(file, "Given file must not be null.");
+        return isCompressed(file.toString());
+    }
+
+    /**
+     * Is the given file name of a compressed file this stream can read?
+     * @param fileName file name to check.
+     * @return true if it ends with .gz or .zip.
+     * @throws NullPointerException if the given file name is null.
+     */
+    public static boolean isCompressed(String fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        return fileName.endsWith(".gz") || fileName.endsWith(".zip");
+    }
+
+    /**
+     * Decompress the given stream of a compressed file.
+     *
+     * @param file compressed file, its name selects zip or gzip.
+     * @param source compressed data of the file.
+     * @return decompressing stream.
+     * @throws NullPointerException if one of the given parameters is null.
+     */
+    public static DecompressingInputStream of(Path file, InputStream source) {
+        Objects.requireNonNull(file, "Given file must not be null.");
+        return new DecompressingInputStream(source, file.toString().endsWith(".zip"));
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return chunk[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+
+        int read = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null || chunk == END ? 0 : chunk.length - position;
+    }
+
+    /** Stop decompressing, bytes not read yet are discarded. */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            decompressor.interrupt();
+            chunks.clear();
+            chunk = END;
+        }
+    }
+
+    /**
+     * Make sure the current chunk has bytes left, waiting for the
+     * background thread if needed.
+     * @return false at the end of the data.
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        while (chunk != END && (chunk == null || position == chunk.length)) {
+            try {
+                chunk = chunks.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decompressed data.");
+            }
+        }
+
+        if (chunk == END && failure != null) {
+            throw failure;
+        }
+        return chunk != END;
+    }
+
+    /** Body of the background thread. */
+    private void decompress(InputStream source, boolean zip) {
+        try (InputStream raw = source;
+             InputStream in = zip ? firstCsvEntry(raw) : new GZIPInputStream(raw, CHUNK_SIZE)) {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int filled = 0;
+            int read;
+            while (!closed && (read = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+                filled += read;
+                if (filled == buffer.length) {
+                    chunks.put(buffer);
+                    buffer = new byte[CHUNK_SIZE];
+                    filled = 0;
+                }
+            }
+            if (filled > 0) {
+                chunks.put(Arrays.copyOf(buffer, filled));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // Closed by the reader, nobody waits for further chunks.
+        } catch (Throwable e) {
+            // Malformed data may also fail with unchecked exceptions, the reader must not wait forever.
+            failure = new IOException("Decompressing failed: " + e, e);
+        } finally {
+            endOfChunks();
+        }
+    }
+
+    /** Hand the end marker to the reader, unless it has closed this stream. */
+    private void endOfChunks() {
+        if (closed) {
+            chunks.offer(END);
+            return;
+        }
+        try {
+            chunks.put(END);
+        } catch (InterruptedException e) {
+            // Closed by the reader while the queue was full.
+        }
+    }
+
+    /** Position a zip stream at its first .csv entry. */
+    private static ZipInputStream firstCsvEntry(InputStream source) throws IOException {
+        ZipInputStream zip = new ZipInputStream(source);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().endsWith(".csv")) {
+                return zip;
+            }
+        }
+        zip.close();
+        throw new IOException("No .csv entry found in zip file.");
+    }
+}
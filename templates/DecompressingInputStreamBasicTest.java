@@ -0,0 +1,125 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DecompressingInputStreamBasicTest {
+
+    private static final Path TEST_PATH = Paths.get("booksTestData01.csv");
+
+    private byte[] content;
+    private Path testDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        content = Files.readAllBytes(TEST_PATH);
+        testDirectory = Files.createTempDirectory("library-compressed");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path file : LibraryFileLoader.findDataFiles(testDirectory.toString())) {
+            Files.delete(file);
+        }
+        Files.delete(testDirectory);
+    }
+
+    // ------------------------- stream tests --------------------
+
+    @Test
+    public void testGzipLargerThanChunk() throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int i = 0; i < 5000; i++) {
+            data.write(content);
+        }
+        byte[] expected = data.toByteArray();
+
+        try (InputStream in = new DecompressingInputStream(new ByteArrayInputStream(gzip(expected)), false)) {
+            assertArrayEquals("Decompressed data not as expected.", expected, in.readAllBytes());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptDataFailsOnRead() throws IOException {
+        try (InputStream in = new DecompressingInputStream(new ByteArrayInputStream(content), false)) {
+            in.readAllBytes();
+        }
+    }
+
+    @Test(timeout = 10_000, expected = IOException.class)
+    public void testUncheckedFailureFailsOnRead() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("test failure");
+            }
+        };
+        try (InputStream in = new DecompressingInputStream(failing, true)) {
+            in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testIsDataFile() {
+        assertTrue("Gzip file expected to be accepted.", LibraryFileLoader.isDataFile("books.csv.gz"));
+        assertTrue("Zip file expected to be accepted.", LibraryFileLoader.isDataFile("books.zip"));
+        assertFalse("Other gzip file not expected to be accepted.", LibraryFileLoader.isDataFile("books.txt.gz"));
+        assertFalse("Extension alone not expected to be accepted.", LibraryFileLoader.isDataFile(".zip"));
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testLoadCompressedFiles() throws IOException {
+        Path gzipFile = testDirectory.resolve("books.csv.gz");
+        Files.write(gzipFile, gzip(content));
+        Path zipFile = testDirectory.resolve("books.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            zip.putNextEntry(new ZipEntry("README.txt"));
+            zip.putNextEntry(new ZipEntry("books.csv"));
+            zip.write(content);
+        }
+
+        LibraryData plain = new LibraryData();
+        LibraryData gzipped = new LibraryData();
+        LibraryData zipped = new LibraryData(StorageMode.LAZY);
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            plain.loadData(TEST_PATH);
+            gzipped.loadData(gzipFile);
+            zipped.loadData(zipFile);
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        List<BookEntry> expected = plain.getBookData();
+        assertEquals("Books of gzip file not loaded as expected.", expected, gzipped.getBookData());
+        assertEquals("Books of zip file not loaded as expected.", expected, zipped.getBookData());
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches directories for new or changed book data files and loads them
+ * into a library as background load jobs. Events are collected until
+ * no further event arrived for the debounce delay, so a file written in
+ * several steps is only loaded once. Files changed continuously are
+ * loaded once the first collected event is older than the maximum delay.
+ * Files loaded before are loaded incrementally, see LibraryData.loadData.
+ *
+ * Files already in a directory when watching starts are not loaded.
+ */
+public class DirectoryWatcher {
+
+    /** Default time without events before changed files are loaded. */
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    /** Default time after the first event after which changed files are loaded even if events keep arriving. */
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+
+    /** Library the changed files are loaded into. */
+    private final LibraryData data;
+
+    /** Time without events before changed files are loaded. */
+    private final long debounceMillis;
+
+    /** Time after the first event after which changed files are loaded even if events keep arriving. */
+    private final long maxDelayMillis;
+
+    /** Watched directories by their watch key. */
+    private final Map<WatchKey, Path> directories;
+
+    /** Watch service, created with the first watched directory. */
+    private WatchService watchService;
+
+    /** Thread waiting for events, created with the first watched directory. */
+    private Thread watcher;
+
+    /**
+     * Create a watcher loading changed files into the given library.
+     *
+     * @param data library the changed files are loaded into.
+     * @throws NullPointerException if the given library is null.
+     */
+    public DirectoryWatcher(LibraryData data) {
+        this(data, DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Create a watcher with the given delays.
+     *
+     * @param data library the changed files are loaded into.
+     * @param debounceMillis time without events before changed files are loaded.
+     * @param maxDelayMillis time after the first event after which changed files are loaded anyway.
+     * @throws NullPointerException if the given library is null.
+     * @throws IllegalArgumentException if a delay is negative.
+     */
+    DirectoryWatcher(LibraryData data, long debounceMillis, long maxDelayMillis) {
+        this.data = Objects.requireNonNull(data, "Given data must not be null.");
+        if (debounceMillis < 0 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Given delays must not be negative: " + debounceMillis + ", "
+                    + maxDelayMillis);
+        }
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        directories = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Start watching the given directory for created and modified book
+     * data files.
+     *
+     * @param directory directory to watch.
+     * @return false if the directory is watched already.
+     * @throws IOException if the directory cannot be watched.
+     * @throws NullPointerException if the given directory is null.
+     */
+    public synchronized boolean watch(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "Given directory must not be null.");
+        Path watched = directory.toAbsolutePath().normalize();
+        if (directories.containsValue(watched)) {
+            return false;
+        }
+
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            watcher = new Thread(this::processEvents, "library-watch");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+        WatchKey key = watched.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, watched);
+        return true;
+    }
+
+    /**
+     * Get all watched directories.
+     * @return absolute paths of the watched directories, sorted.
+     */
+    public List<Path> getDirectories() {
+        List<Path> watched = new ArrayList<>(directories.values());
+        Collections.sort(watched);
+        return watched;
+    }
+
+    /** Stop watching all directories. Changed files not loaded yet are dropped. */
+    public synchronized void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Closing watch service failed: " + e);
+            }
+        }
+        directories.clear();
+    }
+
+    /** Body of the watcher thread. */
+    private void processEvents() {
+        TreeSet<Path> changed = new TreeSet<>();
+        long firstChange = 0;
+        try {
+            while (true) {
+                // Wait for the first event without limit, then until events stop arriving or the maximum delay passed.
+                WatchKey key;
+                if (changed.isEmpty()) {
+                    key = watchService.take();
+                    firstChange = System.nanoTime();
+                } else {
+                    long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstChange);
+                    long wait = Math.min(debounceMillis, maxDelayMillis - waited);
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.MILLISECONDS) : null;
+                }
+                if (key == null) {
+                    loadChanged(changed);
+                    changed.clear();
+                } else {
+                    collectChanged(key, changed);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Watching stopped.
+        }
+    }
+
+    /** Add the book data files changed according to the given key. */
+    private void collectChanged(WatchKey key, TreeSet<Path> changed) {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, check all files of the directory.
+                changed.addAll(LibraryFileLoader.findDataFiles(directory.toString()));
+            } else if (LibraryFileLoader.isDataFile(event.context().toString())) {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    /**
+     * Queue a load job for each changed file unless one is queued already.
+     * Jobs run one after another, so files are loaded in path order.
+     */
+    private void loadChanged(TreeSet<Path> changed) {
+        LoadJobManager jobs = data.getLoadJobs();
+        List<Path> queued = new ArrayList<>();
+        for (LoadJob job : jobs.getJobs()) {
+            if (job.getState() == LoadJob.State.QUEUED) {
+                queued.add(job.getFile());
+            }
+        }
+
+        try {
+            for (Path file : changed) {
+                if (Files.isRegularFile(file) && !queued.contains(file)) {
+                    jobs.submit(file);
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            // Load jobs have been shut down, the library is discarded.
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DirectoryWatcherBasicTest {
+
+    private static final String HEADER = "title,authors,rating,isbn,pages\n";
+    private static final String ROW_A = "TitleA,AuthorA,3.2,ISBNA,500\n";
+    private static final String ROW_B = "TitleB,AuthorA-AuthorB,4.3,ISBNB,400\n";
+
+    private LibraryData testLibrary;
+    private DirectoryWatcher testWatcher;
+    private Path testDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        testLibrary = new LibraryData();
+        testWatcher = new DirectoryWatcher(testLibrary, 50, 5000);
+        testDirectory = Files.createTempDirectory("library-watch");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        testWatcher.shutdown();
+        testLibrary.getLoadJobs().shutdown();
+        for (Path file : LibraryFileLoader.findDataFiles(testDirectory.toString())) {
+            Files.delete(file);
+        }
+        Files.deleteIfExists(testDirectory.resolve("notes.txt"));
+        Files.delete(testDirectory);
+    }
+
+    // ------------------------- watch tests --------------------
+
+    @Test
+    public void testWatchDirectoryOnce() throws IOException {
+        assertTrue("Directory expected to be watched.", testWatcher.watch(testDirectory));
+        assertFalse("Directory not expected to be watched twice.", testWatcher.watch(testDirectory));
+        assertEquals("Unexpected watched directories.", 1, testWatcher.getDirectories().size());
+    }
+
+    @Test
+    public void testNewAndAppendedFilesLoaded() throws IOException, InterruptedException {
+        testWatcher.watch(testDirectory);
+        Path feed = testDirectory.resolve("feed.csv");
+        Files.write(testDirectory.resolve("notes.txt"), ROW_B.getBytes(StandardCharsets.UTF_8));
+        Files.write(feed, (HEADER + ROW_A).getBytes(StandardCharsets.UTF_8));
+        awaitSize(1);
+
+        Files.write(feed, ROW_B.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        awaitSize(2);
+
+        for (LoadJob job : testLibrary.getLoadJobs().getJobs()) {
+            assertEquals("Watched file expected to be loaded without duplicates.", 0, job.getDuplicates());
+        }
+    }
+
+    @Test
+    public void testContinuouslyAppendedFileLoaded() throws IOException, InterruptedException {
+        testWatcher.shutdown();
+        testWatcher = new DirectoryWatcher(testLibrary, 200, 500);
+        testWatcher.watch(testDirectory);
+        Path feed = testDirectory.resolve("feed.csv");
+        Files.write(feed, HEADER.getBytes(StandardCharsets.UTF_8));
+
+        // Rows arrive faster than the debounce delay, so only the maximum delay loads them.
+        for (int i = 0; i < 500 && testLibrary.getBookData().isEmpty(); i++) {
+            String row = "Title" + i + ",Author,3.2,ISBN" + i + ",500\n";
+            Files.write(feed, row.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            Thread.sleep(20);
+        }
+        assertFalse("File expected to be loaded while rows are still appended.",
+                testLibrary.getBookData().isEmpty());
+    }
+
+    // ------------------------- command tests --------------------
+
+    @Test
+    public void testWatchCmdArguments() {
+        WatchCmd command = new WatchCmd(testDirectory.toString());
+        CommandTestUtils.checkArgumentInput(command, true, "");
+        CommandTestUtils.checkArgumentInput(command, true, testDirectory.toString());
+        CommandTestUtils.checkArgumentInput(command, false, testDirectory.resolve("missing").toString());
+    }
+
+    private void awaitSize(int size) throws InterruptedException {
+        for (int i = 0; i < 1000 && testLibrary.getBookData().size() < size; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals("Watched file not loaded as expected.", size, testLibrary.getBookData().size());
+    }
+}
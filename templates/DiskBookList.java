@@ -0,0 +1,1016 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Book storage keeping all book data in a file of fixed-size pages, see
+ * PageFile, so that the library can be larger than the heap. Each book
+ * is stored as one record holding all of its fields. Records are packed
+ * into data pages, leaf pages hold the address of each record in list
+ * order. Only the page and first index of each leaf are kept on the
+ * heap, pages are read through a bounded page cache whenever a book is
+ * accessed.
+ *
+ * Book data files are added with an external sort, see Ingest: parsed
+ * books are spilled in sorted runs, which are merged with a sorted index
+ * of the stored books to find duplicates. Books are then appended in
+ * their original order, so commands see the same books as with any
+ * other storage.
+ *
+ * Copies share the file. Pages written before a copy was made are never
+ * changed but copied when a list changes them. If the system property
+ * library.storage.file names a file, each frozen list is committed to it
+ * and a new list opened later holds the last committed books, otherwise
+ * a temporary file is used. The records of removed books stay in the
+ * file.
+ */
+public class DiskBookList extends BookStore {
+
+    /** System property naming the file the books are kept in. */
+    public static final String FILE_PROPERTY = "library.storage.file";
+
+    /** Number of record addresses a leaf page holds. */
+    private static final int LEAF_CAPACITY = PageFile.PAGE_SIZE / 8;
+
+    private static final int INITIAL_LEAVES = 16;
+
+    /** Root of the page file pointing at the chain holding the state of the list. */
+    private static final int STATE_ROOT = 0;
+
+    /** Root of the page file holding the journal sequence of the committed state. */
+    private static final int JOURNAL_ROOT = 1;
+
+    /** Number of rows merged between checks for cancellation. */
+    private static final int CANCEL_CHECK_ROWS = 1024;
+
+    /** Order of records, comparing their bytes. */
+    private static final Comparator<byte[]> KEY_ORDER = Arrays::compare;
+
+    /** File holding all pages, shared by all copies. */
+    private final PageFile file;
+
+    /** Number of books stored. */
+    private int size;
+
+    /** Number of leaf pages. */
+    private int leaves;
+
+    /** Leaf pages in list order. */
+    private long[] leafPages;
+
+    /** Index of the first book of each leaf, ascending. */
+    private int[] leafStarts;
+
+    /** Content of leaf pages changed but not written yet, by page. */
+    private Map<Long, byte[]> dirtyLeaves;
+
+    /** Leaf pages allocated by this list, which may be changed in place. */
+    private Set<Long> ownedLeaves;
+
+    /** Data page records are appended to, NO_PAGE if none. */
+    private long dataPage;
+
+    /** Content of the data page. */
+    private byte[] dataBuffer;
+
+    /** Number of bytes used in the data page. */
+    private int dataOffset;
+
+    /** Does this list append to the data page, which then is not used by copies? */
+    private boolean dataOwned;
+
+    /** Was the data page changed since it was written? */
+    private boolean dataDirty;
+
+    /** Chain of sorted records of the books stored at the last ingest with their count, NO_PAGE if none. */
+    private long keyIndex;
+
+    /** Change of the count of each record since the last ingest. */
+    private Map<ByteBuffer, Integer> keyChanges;
+
+    /** Pages of the chain holding the last committed state. */
+    private List<Long> stateChain;
+
+    /** Pages used by the last commit but no longer by this list. */
+    private List<Long> unusedPages;
+
+    /** Sequence of the last journaled change this list holds, 0 if not journaled. */
+    private long journalSequence;
+
+    /** Was this list changed since the last commit? */
+    private boolean changed;
+
+    /**
+     * Create a list using the configured number of cached pages, kept in
+     * the file configured via system property if set.
+     *
+     * @throws UncheckedIOException if the file cannot be opened.
+     */
+    public DiskBookList() {
+        this(openConfiguredFile());
+    }
+
+    /**
+     * Create an empty list backed by a new temporary file.
+     *
+     * @param cachePages maximum number of cached pages.
+     * @throws IllegalArgumentException if the number of pages is not positive.
+     * @throws UncheckedIOException if the file cannot be created.
+     */
+    public DiskBookList(int cachePages) {
+        this(createTemporaryFile(cachePages));
+    }
+
+    /**
+     * Create a list backed by the given file, holding the books of its
+     * last commit.
+     *
+     * @param file file to keep the books in.
+     * @throws NullPointerException if the given file is null.
+     * @throws UncheckedIOException if reading the committed state failed.
+     */
+    public DiskBookList(PageFile file) {
+        this.file = Objects.requireNonNull(file, "Given file must not be null.");
+        size = 0;
+        leaves = 0;
+        leafPages = new long[INITIAL_LEAVES];
+        leafStarts = new int[INITIAL_LEAVES];
+        dirtyLeaves = new HashMap<>();
+        ownedLeaves = new HashSet<>();
+        dataPage = PageFile.NO_PAGE;
+        dataBuffer = null;
+        dataOffset = 0;
+        dataOwned = false;
+        dataDirty = false;
+        keyIndex = PageFile.NO_PAGE;
+        keyChanges = new HashMap<>();
+        stateChain = new ArrayList<>();
+        unusedPages = new ArrayList<>();
+        journalSequence = Math.max(0, file.getRoot(JOURNAL_ROOT));
+        changed = false;
+
+        if (file.getRoot(STATE_ROOT) != PageFile.NO_PAGE) {
+            try {
+                readState(file.getRoot(STATE_ROOT));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Read the book at the given position.
+     *
+     * @param index position of the book.
+     * @return new book entry holding the stored fields.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     * @throws UncheckedIOException if reading the record failed.
+     */
+    @Override
+    public BookEntry get(int index) {
+        Objects.checkIndex(index, size);
+        return decode(record(index));
+    }
+
+    @Override
+    public String titleAt(int index) {
+        Objects.checkIndex(index, size);
+        byte[] record = record(index);
+        return new String(record, 4, readInt(record, 0), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String[] authorsAt(int index) {
+        Objects.checkIndex(index, size);
+        byte[] record = record(index);
+        int position = 4 + readInt(record, 0);
+        position += 4 + readInt(record, position);
+        return readAuthors(record, position);
+    }
+
+    /**
+     * Append the given book. Books can only be added at the end.
+     *
+     * @param index must be equal to the current size.
+     * @param book book to append.
+     * @throws NullPointerException if the given book is null.
+     * @throws UnsupportedOperationException if the index is not the end of the list.
+     */
+    @Override
+    public void add(int index, BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        checkNotFrozen();
+        if (index != size) {
+            throw new UnsupportedOperationException("Disk storage only supports appending books.");
+        }
+
+        byte[] record = encode(book);
+        append(record);
+        keyChanges.merge(ByteBuffer.wrap(record), 1, Integer::sum);
+    }
+
+    @Override
+    public BookEntry remove(int index) {
+        checkNotFrozen();
+        Objects.checkIndex(index, size);
+        byte[] record = record(index);
+
+        int leaf = leafOf(index);
+        int count = leafSize(leaf);
+        if (count == 1) {
+            long page = leafPages[leaf];
+            dirtyLeaves.remove(page);
+            ownedLeaves.remove(page);
+            unusedPages.add(page);
+            System.arraycopy(leafPages, leaf + 1, leafPages, leaf, leaves - leaf - 1);
+            System.arraycopy(leafStarts, leaf + 1, leafStarts, leaf, leaves - leaf - 1);
+            leaves--;
+        } else {
+            byte[] addresses = ownLeaf(leaf);
+            int slot = index - leafStarts[leaf];
+            System.arraycopy(addresses, 8 * (slot + 1), addresses, 8 * slot, 8 * (count - slot - 1));
+            leaf++;
+        }
+        for (int l = leaf; l < leaves; l++) {
+            leafStarts[l]--;
+        }
+
+        size--;
+        modCount++;
+        changed = true;
+        keyChanges.merge(ByteBuffer.wrap(record), -1, Integer::sum);
+        return decode(record);
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        for (int l = 0; l < leaves; l++) {
+            unusedPages.add(leafPages[l]);
+        }
+        if (keyIndex != PageFile.NO_PAGE) {
+            PageFile.ChainInput index = file.readChain(keyIndex);
+            try {
+                index.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            unusedPages.addAll(index.getPages());
+        }
+
+        size = 0;
+        leaves = 0;
+        dirtyLeaves = new HashMap<>();
+        ownedLeaves = new HashSet<>();
+        keyIndex = PageFile.NO_PAGE;
+        keyChanges = new HashMap<>();
+        modCount++;
+        changed = true;
+    }
+
+    /**
+     * Writes all pages of this list and commits them if the file is kept.
+     * @throws UncheckedIOException if writing failed, the list is not frozen then.
+     */
+    @Override
+    public void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        flush();
+        if (changed && file.isDurable()) {
+            commit();
+        }
+        super.freeze();
+    }
+
+    /** The copy shares the file, pages written by this list are copied before they are changed. */
+    @Override
+    public DiskBookList copy() {
+        flush();
+        DiskBookList copy = new DiskBookList(file, this);
+        // Pages written so far are shared now, only the copy may append to the data page.
+        ownedLeaves = new HashSet<>();
+        dataOwned = false;
+        return copy;
+    }
+
+    /** Leaf directory and pending index changes, the page cache is shared by all copies. */
+    @Override
+    public long estimateBytes() {
+        return 12L * leafPages.length + 64L * keyChanges.size()
+                + (long) PageFile.PAGE_SIZE * (file.getCache().getCachedPages() + dirtyLeaves.size() + 1);
+    }
+
+    /**
+     * @return sequence of the last journaled change this list holds, 0 if not journaled.
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    /**
+     * Set the sequence of the last journaled change, committed with the
+     * books so that only later changes are replayed, see MutationJournal.
+     *
+     * @param sequence sequence of the journal commit.
+     */
+    public void setJournalSequence(long sequence) {
+        checkNotFrozen();
+        if (sequence != journalSequence) {
+            journalSequence = sequence;
+            changed = true;
+        }
+    }
+
+    /**
+     * @return cache of the pages of the file holding the books.
+     */
+    public PageCache getPageCache() {
+        return file.getCache();
+    }
+
+    /**
+     * Close the file holding the books. Neither this list nor any copy
+     * may be used afterwards.
+     * @throws UncheckedIOException if closing failed.
+     */
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Merge the books collected by the given ingest into this list. Books
+     * of discarded files are skipped, books already stored or seen before
+     * in the ingest are duplicates. All other books are appended in the
+     * order they were added to the ingest.
+     *
+     * @param ingest books to merge.
+     * @param duplicates consumer of duplicate books in ingest order or null.
+     * @param job job to check for cancellation or null.
+     * @return number of books appended per file of the ingest.
+     * @throws NullPointerException if the given ingest is null.
+     * @throws UncheckedIOException if reading or writing a file failed.
+     * @throws java.util.concurrent.CancellationException if the job was cancelled.
+     */
+    public int[] merge(Ingest ingest, Consumer<BookEntry> duplicates, LoadJob job) {
+        Objects.requireNonNull(ingest, "Given ingest must not be null.");
+        checkNotFrozen();
+
+        int[] added = new int[ingest.discarded.length];
+        PageFile.ChainInput storedIndex = keyIndex == PageFile.NO_PAGE ? null : file.readChain(keyIndex);
+        long mergedIndex;
+        try {
+            mergedIndex = matchKeys(ingest, storedIndex, job);
+
+            try (ExternalSorter.Reader outcomes = ingest.outcomes.sorted()) {
+                long merged = 0;
+                for (byte[] outcome = outcomes.next(); outcome != null; outcome = outcomes.next()) {
+                    int fileIndex = readInt(outcome, 9);
+                    if (job != null && merged++ % CANCEL_CHECK_ROWS == 0) {
+                        job.checkCancelled();
+                    }
+                    if (ingest.discarded[fileIndex]) {
+                        continue;
+                    }
+                    byte[] record = Arrays.copyOfRange(outcome, 13, outcome.length);
+                    if (outcome[8] == Ingest.ADDED) {
+                        append(record);
+                        added[fileIndex]++;
+                    } else if (duplicates != null) {
+                        duplicates.accept(decode(record));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (storedIndex != null) {
+            unusedPages.addAll(storedIndex.getPages());
+        }
+        keyIndex = mergedIndex;
+        keyChanges = new HashMap<>();
+        changed = true;
+        return added;
+    }
+
+    /**
+     * Join the sorted books of the ingest with the stored books, deciding
+     * which books are added. Writes the index of the books stored after
+     * the merge and passes the outcome of each book to the ingest.
+     *
+     * @return first page of the written index.
+     */
+    private long matchKeys(Ingest ingest, PageFile.ChainInput storedIndex, LoadJob job) throws IOException {
+        PageFile.ChainOutput mergedIndex = file.writeChain();
+        try (ExternalSorter.Reader candidates = ingest.candidates.sorted();
+             KeyCursor stored = new KeyCursor(storedIndex, keyChanges);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(mergedIndex, 64 * 1024))) {
+            byte[] previous = null;
+            long matched = 0;
+            for (byte[] candidate = candidates.next(); candidate != null; candidate = candidates.next()) {
+                if (job != null && matched++ % CANCEL_CHECK_ROWS == 0) {
+                    job.checkCancelled();
+                }
+                if (ingest.discarded[readInt(candidate, candidate.length - 4)]) {
+                    continue;
+                }
+
+                byte[] key = Arrays.copyOf(candidate, candidate.length - Ingest.CANDIDATE_SUFFIX);
+                if (previous != null && Arrays.equals(previous, key)) {
+                    ingest.outcome(candidate, Ingest.DUPLICATE);
+                    continue;
+                }
+                previous = key;
+
+                while (stored.key != null && KEY_ORDER.compare(stored.key, key) < 0) {
+                    writeKey(out, stored.key, stored.count);
+                    stored.advance();
+                }
+                if (stored.key != null && Arrays.equals(stored.key, key)) {
+                    ingest.outcome(candidate, Ingest.DUPLICATE);
+                    writeKey(out, key, stored.count);
+                    stored.advance();
+                } else {
+                    ingest.outcome(candidate, Ingest.ADDED);
+                    writeKey(out, key, 1);
+                }
+            }
+
+            while (stored.key != null) {
+                writeKey(out, stored.key, stored.count);
+                stored.advance();
+            }
+        }
+        return mergedIndex.finish();
+    }
+
+    /** Copy of the given list, sharing its pages. */
+    private DiskBookList(PageFile file, DiskBookList source) {
+        this.file = file;
+        size = source.size;
+        leaves = source.leaves;
+        leafPages = source.leafPages.clone();
+        leafStarts = source.leafStarts.clone();
+        dirtyLeaves = new HashMap<>();
+        ownedLeaves = new HashSet<>();
+        dataPage = source.dataPage;
+        dataBuffer = source.dataBuffer == null ? null : source.dataBuffer.clone();
+        dataOffset = source.dataOffset;
+        dataOwned = source.dataOwned;
+        dataDirty = false;
+        keyIndex = source.keyIndex;
+        keyChanges = new HashMap<>(source.keyChanges);
+        stateChain = source.stateChain;
+        unusedPages = new ArrayList<>();
+        journalSequence = source.journalSequence;
+        changed = source.changed;
+    }
+
+    /** Read the record of the book at the given index. */
+    private byte[] record(int index) {
+        int leaf = leafOf(index);
+        int slot = index - leafStarts[leaf];
+        long page = leafPages[leaf];
+        byte[] addresses = dirtyLeaves.get(page);
+        long address;
+        if (addresses != null) {
+            address = readLong(addresses, 8 * slot);
+        } else {
+            byte[] bytes = new byte[8];
+            file.read(page * PageFile.PAGE_SIZE + 8 * slot, bytes, 0, bytes.length);
+            address = readLong(bytes, 0);
+        }
+
+        byte[] header = new byte[4];
+        readBytes(address, header);
+        byte[] record = new byte[readInt(header, 0)];
+        readBytes(address + 4, record);
+        return record;
+    }
+
+    /** Read bytes from the data page kept in memory or the file. */
+    private void readBytes(long address, byte[] target) {
+        byte[] buffer = dataBuffer;
+        if (buffer != null && address / PageFile.PAGE_SIZE == dataPage) {
+            System.arraycopy(buffer, (int) (address % PageFile.PAGE_SIZE), target, 0, target.length);
+        } else {
+            file.read(address, target, 0, target.length);
+        }
+    }
+
+    private int leafOf(int index) {
+        int leaf = Arrays.binarySearch(leafStarts, 0, leaves, index);
+        return leaf >= 0 ? leaf : -leaf - 2;
+    }
+
+    private int leafSize(int leaf) {
+        return (leaf + 1 < leaves ? leafStarts[leaf + 1] : size) - leafStarts[leaf];
+    }
+
+    /** Get the content of a leaf to change, copying the leaf page if it is shared. */
+    private byte[] ownLeaf(int leaf) {
+        long page = leafPages[leaf];
+        byte[] addresses = dirtyLeaves.get(page);
+        if (addresses != null) {
+            return addresses;
+        }
+
+        addresses = file.readPage(page);
+        if (!ownedLeaves.contains(page)) {
+            unusedPages.add(page);
+            page = file.allocate();
+            leafPages[leaf] = page;
+            ownedLeaves.add(page);
+        }
+        dirtyLeaves.put(page, addresses);
+        return addresses;
+    }
+
+    private void append(byte[] record) {
+        long address = appendRecord(record);
+
+        byte[] addresses;
+        int count = leaves == 0 ? LEAF_CAPACITY : leafSize(leaves - 1);
+        if (count == LEAF_CAPACITY) {
+            if (leaves > 0) {
+                flushLeaf(leafPages[leaves - 1]);
+            }
+            if (leaves == leafPages.length) {
+                leafPages = Arrays.copyOf(leafPages, leaves * 2);
+                leafStarts = Arrays.copyOf(leafStarts, leaves * 2);
+            }
+            long page = file.allocate();
+            leafPages[leaves] = page;
+            leafStarts[leaves] = size;
+            leaves++;
+            ownedLeaves.add(page);
+            addresses = new byte[PageFile.PAGE_SIZE];
+            dirtyLeaves.put(page, addresses);
+            count = 0;
+        } else {
+            addresses = ownLeaf(leaves - 1);
+        }
+        ByteBuffer.wrap(addresses).putLong(8 * count, address);
+
+        size++;
+        modCount++;
+        changed = true;
+    }
+
+    /**
+     * Store a length prefixed record. Records never span data pages,
+     * records larger than a page are written to pages of their own.
+     *
+     * @return address of the record.
+     */
+    private long appendRecord(byte[] record) {
+        int length = 4 + record.length;
+        if (length > PageFile.PAGE_SIZE) {
+            int pages = (length + PageFile.PAGE_SIZE - 1) / PageFile.PAGE_SIZE;
+            ByteBuffer data = ByteBuffer.allocate(pages * PageFile.PAGE_SIZE).putInt(record.length).put(record);
+            long first = file.allocateRun(pages);
+            for (int p = 0; p < pages; p++) {
+                file.write(first + p, Arrays.copyOfRange(data.array(), p * PageFile.PAGE_SIZE,
+                        (p + 1) * PageFile.PAGE_SIZE));
+            }
+            return first * PageFile.PAGE_SIZE;
+        }
+
+        if (!dataOwned || dataOffset + length > PageFile.PAGE_SIZE) {
+            flushData();
+            dataPage = file.allocate();
+            dataBuffer = new byte[PageFile.PAGE_SIZE];
+            dataOffset = 0;
+            dataOwned = true;
+        }
+        long address = dataPage * PageFile.PAGE_SIZE + dataOffset;
+        ByteBuffer.wrap(dataBuffer, dataOffset, length).putInt(record.length).put(record);
+        dataOffset += length;
+        dataDirty = true;
+        return address;
+    }
+
+    /** Write the data page and all changed leaves. */
+    private void flush() {
+        flushData();
+        for (Map.Entry<Long, byte[]> leaf : dirtyLeaves.entrySet()) {
+            file.write(leaf.getKey(), leaf.getValue());
+        }
+        dirtyLeaves.clear();
+    }
+
+    private void flushData() {
+        if (dataDirty) {
+            file.write(dataPage, dataBuffer);
+            dataDirty = false;
+        }
+    }
+
+    private void flushLeaf(long page) {
+        byte[] addresses = dirtyLeaves.remove(page);
+        if (addresses != null) {
+            file.write(page, addresses);
+        }
+    }
+
+    /** Write the state of this list to a chain of pages and commit it with all written pages. */
+    private void commit() {
+        PageFile.ChainOutput chain = file.writeChain();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(chain))) {
+            out.writeInt(size);
+            out.writeLong(dataPage);
+            out.writeInt(dataOffset);
+            out.writeLong(keyIndex);
+            out.writeInt(leaves);
+            for (int l = 0; l < leaves; l++) {
+                out.writeLong(leafPages[l]);
+                out.writeInt(leafStarts[l]);
+            }
+            out.writeInt(keyChanges.size());
+            for (Map.Entry<ByteBuffer, Integer> change : keyChanges.entrySet()) {
+                writeKey(out, change.getKey().array(), change.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long[] roots = new long[PageFile.ROOT_COUNT];
+        Arrays.fill(roots, PageFile.NO_PAGE);
+        roots[STATE_ROOT] = chain.finish();
+        roots[JOURNAL_ROOT] = journalSequence;
+        List<Long> unused = new ArrayList<>(unusedPages);
+        unused.addAll(stateChain);
+        file.commit(roots, unused);
+
+        stateChain = chain.getPages();
+        unusedPages = new ArrayList<>();
+        changed = false;
+    }
+
+    /** Read the state written by the last commit. */
+    private void readState(long first) throws IOException {
+        PageFile.ChainInput chain = file.readChain(first);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(chain));
+        size = in.readInt();
+        dataPage = in.readLong();
+        dataOffset = in.readInt();
+        keyIndex = in.readLong();
+        leaves = in.readInt();
+        leafPages = new long[Math.max(INITIAL_LEAVES, leaves)];
+        leafStarts = new int[leafPages.length];
+        for (int l = 0; l < leaves; l++) {
+            leafPages[l] = in.readLong();
+            leafStarts[l] = in.readInt();
+        }
+        int changes = in.readInt();
+        for (int c = 0; c < changes; c++) {
+            byte[] key = new byte[in.readInt()];
+            in.readFully(key);
+            keyChanges.put(ByteBuffer.wrap(key), in.readInt());
+        }
+        stateChain = chain.getPages();
+
+        if (dataPage != PageFile.NO_PAGE) {
+            dataBuffer = file.readPage(dataPage);
+            dataOwned = true;
+        }
+    }
+
+    private static void writeKey(DataOutputStream out, byte[] key, int count) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(count);
+    }
+
+    /**
+     * Encode all fields of a book. Equal books have equal records, the
+     * rating is stored like Float.compare distinguishes ratings.
+     */
+    private static byte[] encode(BookEntry book) {
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] isbn = book.getISBN().getBytes(StandardCharsets.UTF_8);
+        String[] authors = book.getAuthors();
+        byte[][] authorBytes = new byte[authors.length][];
+
+        int length = 20 + title.length + isbn.length;
+        for (int a = 0; a < authors.length; a++) {
+            authorBytes[a] = authors[a].getBytes(StandardCharsets.UTF_8);
+            length += 4 + authorBytes[a].length;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(title.length).put(title);
+        record.putInt(isbn.length).put(isbn);
+        record.putInt(authors.length);
+        for (byte[] author : authorBytes) {
+            record.putInt(author.length).put(author);
+        }
+        record.putInt(Float.floatToIntBits(book.getRating()));
+        record.putInt(book.getPages());
+        return record.array();
+    }
+
+    private static BookEntry decode(byte[] record) {
+        int position = 0;
+        String title = readString(record, position);
+        position += 4 + readInt(record, position);
+        String isbn = readString(record, position);
+        position += 4 + readInt(record, position);
+        String[] authors = readAuthors(record, position);
+        position = record.length - 8;
+        float rating = Float.intBitsToFloat(readInt(record, position));
+        return new BookEntry(title, authors, rating, isbn, readInt(record, position + 4));
+    }
+
+    private static String readString(byte[] record, int position) {
+        return new String(record, position + 4, readInt(record, position), StandardCharsets.UTF_8);
+    }
+
+    /** Read the author count followed by length prefixed author names. */
+    private static String[] readAuthors(byte[] record, int position) {
+        String[] authors = new String[readInt(record, position)];
+        position += 4;
+        for (int a = 0; a < authors.length; a++) {
+            authors[a] = readString(record, position);
+            position += 4 + readInt(record, position);
+        }
+        return authors;
+    }
+
+    private static int readInt(byte[] data, int position) {
+        return (data[position] & 0xFF) << 24 | (data[position + 1] & 0xFF) << 16
+                | (data[position + 2] & 0xFF) << 8 | data[position + 3] & 0xFF;
+    }
+
+    private static long readLong(byte[] data, int position) {
+        return (long) readInt(data, position) << 32 | readInt(data, position + 4) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Books of one or more book data files collected for a merge into a
+     * disk list. Books are sorted externally in runs of bounded size while
+     * they are added, so collecting needs no access to the list and only a
+     * bounded amount of heap.
+     *
+     * Duplicates within a file are already dropped from the runs. Their
+     * outcome is only kept if duplicates are to be reported.
+     */
+    public static final class Ingest implements AutoCloseable {
+
+        /** Heap bytes of books collected per sorted run if not given. */
+        public static final long DEFAULT_BATCH_BYTES = 16L * 1024 * 1024;
+
+        /** Sequence number and file index appended to each collected record. */
+        private static final int CANDIDATE_SUFFIX = 12;
+
+        private static final byte DUPLICATE = 0;
+        private static final byte ADDED = 1;
+
+        /** Collected books ordered by record, then by sequence number. */
+        private static final Comparator<byte[]> CANDIDATE_ORDER = (a, b) -> {
+            int compared = Arrays.compare(a, 0, a.length - CANDIDATE_SUFFIX, b, 0, b.length - CANDIDATE_SUFFIX);
+            return compared != 0 ? compared
+                    : Long.compare(readLong(a, a.length - CANDIDATE_SUFFIX), readLong(b, b.length - CANDIDATE_SUFFIX));
+        };
+
+        /** Collected books of the same file with equal records. */
+        private static final Comparator<byte[]> SAME_FILE_ORDER = (a, b) -> {
+            int compared = Arrays.compare(a, 0, a.length - CANDIDATE_SUFFIX, b, 0, b.length - CANDIDATE_SUFFIX);
+            return compared != 0 ? compared : Integer.compare(readInt(a, a.length - 4), readInt(b, b.length - 4));
+        };
+
+        /** Outcomes ordered by sequence number. */
+        private static final Comparator<byte[]> OUTCOME_ORDER = (a, b) -> Long.compare(readLong(a, 0),
+                readLong(b, 0));
+
+        /** Collected books, sorted by record. */
+        private final ExternalSorter candidates;
+
+        /** Outcome of each book, sorted by sequence number. */
+        private final ExternalSorter outcomes;
+
+        /** Files whose books must not be merged. */
+        private final boolean[] discarded;
+
+        /** Sequence number of the next book. */
+        private long sequence;
+
+        /**
+         * Create an empty ingest with the default batch size.
+         *
+         * @param files number of files the books are read from.
+         * @param keepDuplicates true to report duplicates when merging.
+         */
+        public Ingest(int files, boolean keepDuplicates) {
+            this(files, keepDuplicates, DEFAULT_BATCH_BYTES);
+        }
+
+        /**
+         * Create an empty ingest.
+         *
+         * @param files number of files the books are read from.
+         * @param keepDuplicates true to report duplicates when merging.
+         * @param maxBatchBytes heap bytes of books collected per sorted run.
+         * @throws IllegalArgumentException if the number of files is negative or the batch size not positive.
+         */
+        public Ingest(int files, boolean keepDuplicates, long maxBatchBytes) {
+            if (files < 0) {
+                throw new IllegalArgumentException("Given number of files must not be negative: " + files);
+            }
+            outcomes = new ExternalSorter(OUTCOME_ORDER, maxBatchBytes);
+            Consumer<byte[]> dropped = keepDuplicates ? record -> outcome(record, DUPLICATE) : null;
+            candidates = new ExternalSorter(CANDIDATE_ORDER, SAME_FILE_ORDER, dropped, maxBatchBytes);
+            discarded = new boolean[files];
+            sequence = 0;
+        }
+
+        /**
+         * Collect a book read from the given file. Books have to be added
+         * in the order they are read.
+         *
+         * @param book book to collect.
+         * @param file index of the file holding the book.
+         * @throws NullPointerException if the given book is null.
+         * @throws IndexOutOfBoundsException if the file index is out of range.
+         * @throws UncheckedIOException if spilling a sorted run failed.
+         */
+        public void add(BookEntry book, int file) {
+            Objects.requireNonNull(book, "Given book must not be null.");
+            Objects.checkIndex(file, discarded.length);
+
+            byte[] record = encode(book);
+            byte[] candidate = Arrays.copyOf(record, record.length + CANDIDATE_SUFFIX);
+            ByteBuffer.wrap(candidate, record.length, CANDIDATE_SUFFIX).putLong(sequence++).putInt(file);
+            try {
+                candidates.add(candidate);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Do not merge the books collected from the given file, for example
+         * because it could only be read partially.
+         *
+         * @param file index of the file.
+         * @throws IndexOutOfBoundsException if the file index is out of range.
+         */
+        public void discard(int file) {
+            Objects.checkIndex(file, discarded.length);
+            discarded[file] = true;
+        }
+
+        /**
+         * @return number of sorted runs spilled to disk so far.
+         */
+        public int getRunCount() {
+            return candidates.getRunCount();
+        }
+
+        /** Delete all temporary files. */
+        @Override
+        public void close() {
+            try {
+                candidates.close();
+                outcomes.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** Record the outcome of a collected book, to be applied in sequence order. */
+        private void outcome(byte[] candidate, byte kind) {
+            int length = candidate.length - CANDIDATE_SUFFIX;
+            byte[] outcome = new byte[13 + length];
+            ByteBuffer.wrap(outcome).putLong(readLong(candidate, length)).put(kind)
+                    .putInt(readInt(candidate, candidate.length - 4)).put(candidate, 0, length);
+            try {
+                outcomes.add(outcome);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Sorted records of the stored books with their count, merged from the
+     * key index and the changes since it was written. Records with a count
+     * of zero are skipped.
+     */
+    private static final class KeyCursor implements AutoCloseable {
+
+        private final DataInputStream in;
+        private final List<Map.Entry<ByteBuffer, Integer>> changes;
+        private int change;
+
+        /** Pending record of the index, null at its end. */
+        private byte[] indexKey;
+        private int indexCount;
+
+        /** Current record, null at the end. */
+        private byte[] key;
+        private int count;
+
+        private KeyCursor(PageFile.ChainInput index, Map<ByteBuffer, Integer> keyChanges) throws IOException {
+            in = index == null ? null : new DataInputStream(new BufferedInputStream(index, 64 * 1024));
+            changes = new ArrayList<>(keyChanges.entrySet());
+            changes.sort((a, b) -> KEY_ORDER.compare(a.getKey().array(), b.getKey().array()));
+            change = 0;
+            readIndex();
+            advance();
+        }
+
+        /** Move to the next stored record. */
+        private void advance() throws IOException {
+            do {
+                byte[] changed = change < changes.size() ? changes.get(change).getKey().array() : null;
+                int compared = indexKey == null ? 1 : changed == null ? -1 : KEY_ORDER.compare(indexKey, changed);
+                if (indexKey == null && changed == null) {
+                    key = null;
+                    return;
+                } else if (compared < 0) {
+                    key = indexKey;
+                    count = indexCount;
+                    readIndex();
+                } else {
+                    key = changed;
+                    count = changes.get(change++).getValue();
+                    if (compared == 0) {
+                        count += indexCount;
+                        readIndex();
+                    }
+                }
+            } while (count <= 0);
+        }
+
+        private void readIndex() throws IOException {
+            if (in == null) {
+                indexKey = null;
+                return;
+            }
+            try {
+                indexKey = new byte[in.readInt()];
+            } catch (EOFException e) {
+                indexKey = null;
+                return;
+            }
+            in.readFully(indexKey);
+            indexCount = in.readInt();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+
+    private static PageFile openConfiguredFile() {
+        String path = System.getProperty(FILE_PROPERTY);
+        try {
+            return path == null ? PageFile.createTemporary(PageCache.capacityFromSystemProperty())
+                    : PageFile.open(Paths.get(path.strip()), PageCache.capacityFromSystemProperty());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PageFile createTemporaryFile(int cachePages) {
+        try {
+            return PageFile.createTemporary(cachePages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DiskBookListBasicTest extends BookStoreTest<DiskBookList> {
+
+    /** Small batches, so that ingests spill many runs. */
+    private static final long BATCH_BYTES = 2048;
+
+    @Override
+    protected DiskBookList createBooks() {
+        return new DiskBookList(2);
+    }
+
+    // ------------------------- access tests --------------------
+
+    @Test
+    public void testReadThroughBoundedCache() {
+        List<BookEntry> books = randomBooks(5000, 5000);
+        DiskBookList stored = new DiskBookList(2);
+        stored.addAll(books);
+
+        for (int i = books.size() - 1; i >= 0; i -= 7) {
+            assertEquals("Stored book not returned as expected.", books.get(i), stored.get(i));
+        }
+        PageCache cache = stored.getPageCache();
+        assertTrue("Pages expected to be read from the file.", cache.getMisses() > 2);
+        assertTrue("Cache expected to be bounded.", cache.getCachedPages() <= cache.getCapacity());
+    }
+
+    @Test
+    public void testRemoveAndCopy() {
+        DiskBookList copy = testBooks.copy();
+        copy.add(BOOK_A);
+        Iterator<BookEntry> books = copy.iterator();
+        books.next();
+        books.remove();
+
+        assertEquals("Copy expected to be changed.", Arrays.asList(BOOK_B, BOOK_C, BOOK_A), copy);
+        assertEquals("Original not expected to change.", Arrays.asList(BOOK_A, BOOK_B, BOOK_C), testBooks);
+    }
+
+    @Test
+    public void testBookLargerThanPage() {
+        char[] title = new char[3 * PageFile.PAGE_SIZE];
+        Arrays.fill(title, 'T');
+        BookEntry large = new BookEntry(new String(title), new String[] { "AuthorA" }, 3.2f, "ISBNL", 500);
+        testBooks.add(large);
+        testBooks.add(BOOK_A);
+
+        assertEquals("Large book not returned as expected.", large, testBooks.get(3));
+        assertEquals("Book after large book not returned as expected.", BOOK_A, testBooks.get(4));
+    }
+
+    // ------------------------- persistence tests --------------------
+
+    @Test
+    public void testReopenHoldsCommittedBooks() throws IOException {
+        Path path = Files.createTempFile("library-store", ".pages");
+        try {
+            List<BookEntry> books = new ArrayList<>(new LinkedHashSet<>(randomBooks(3000, 3000)));
+            DiskBookList stored = new DiskBookList(PageFile.open(path, 4));
+            stored.addAll(books);
+            stored.freeze();
+            DiskBookList changed = stored.copy();
+            changed.remove(1500);
+            changed.remove(0);
+            changed.add(BOOK_A);
+            merge(changed, Arrays.asList(BOOK_B, books.get(10)));
+            changed.freeze();
+            // Changes of an unfrozen copy are not committed.
+            DiskBookList uncommitted = changed.copy();
+            uncommitted.add(BOOK_C);
+            changed.close();
+
+            List<BookEntry> expected = new ArrayList<>(books);
+            expected.remove(1500);
+            expected.remove(0);
+            expected.add(BOOK_A);
+            expected.add(BOOK_B);
+            DiskBookList reopened = new DiskBookList(PageFile.open(path, 4));
+            try {
+                assertEquals("Committed books expected after reopening.", expected, reopened);
+                assertArrayEquals("Stored books expected to be duplicates.", new int[] { 1 },
+                        merge(reopened, Arrays.asList(BOOK_A, books.get(1500), books.get(20))));
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    // ------------------------- ingest tests --------------------
+
+    @Test
+    public void testIngestMatchesSequentialMerge() {
+        List<BookEntry> first = randomBooks(3000, 1000);
+        List<BookEntry> second = randomBooks(2000, 1500);
+        List<BookEntry> duplicates = new ArrayList<>();
+        int[] added;
+        try (DiskBookList.Ingest ingest = new DiskBookList.Ingest(2, true, BATCH_BYTES)) {
+            first.forEach(book -> ingest.add(book, 0));
+            second.forEach(book -> ingest.add(book, 1));
+            assertTrue("Books expected to be spilled in runs.", ingest.getRunCount() > ExternalSorter.MAX_FAN_IN);
+            added = testBooks.merge(ingest, duplicates::add, null);
+        }
+
+        List<BookEntry> expected = new ArrayList<>(Arrays.asList(BOOK_A, BOOK_B, BOOK_C));
+        List<BookEntry> expectedDuplicates = new ArrayList<>();
+        LinkedHashSet<BookEntry> seen = new LinkedHashSet<>(expected);
+        for (BookEntry book : first) {
+            (seen.add(book) ? expected : expectedDuplicates).add(book);
+        }
+        int firstAdded = expected.size() - 3;
+        for (BookEntry book : second) {
+            (seen.add(book) ? expected : expectedDuplicates).add(book);
+        }
+
+        assertEquals("Books expected to be appended in ingest order.", expected, testBooks);
+        assertEquals("Duplicates expected in ingest order.", expectedDuplicates, duplicates);
+        assertArrayEquals("Unexpected number of added books per file.",
+                new int[] { firstAdded, expected.size() - 3 - firstAdded }, added);
+    }
+
+    @Test
+    public void testIngestAfterChanges() {
+        BookEntry added = new BookEntry("TitleD", new String[] { "AuthorD" }, 2.5f, "ISBND", 200);
+        merge(testBooks, Arrays.asList(BOOK_A, BOOK_B));
+        testBooks.remove(0);
+        testBooks.add(added);
+
+        int[] counts = merge(testBooks, Arrays.asList(BOOK_A, BOOK_B, added, BOOK_C));
+
+        assertArrayEquals("Only removed book expected to be added again.", new int[] { 1 }, counts);
+        assertEquals("Unexpected books after ingest.", Arrays.asList(BOOK_B, BOOK_C, added, BOOK_A), testBooks);
+    }
+
+    @Test
+    public void testDiscardedFileNotMerged() {
+        DiskBookList stored = new DiskBookList(4);
+        int[] added;
+        try (DiskBookList.Ingest ingest = new DiskBookList.Ingest(2, false, BATCH_BYTES)) {
+            ingest.add(BOOK_A, 0);
+            ingest.add(BOOK_B, 0);
+            ingest.add(BOOK_B, 1);
+            ingest.add(BOOK_C, 1);
+            ingest.discard(0);
+            added = stored.merge(ingest, null, null);
+        }
+
+        assertArrayEquals("Unexpected number of added books per file.", new int[] { 0, 2 }, added);
+        assertEquals("Books of discarded file not expected.", Arrays.asList(BOOK_B, BOOK_C), stored);
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testLibraryLoadMatchesHeapStorage() {
+        LibraryData heap = new LibraryData();
+        LibraryData disk = new LibraryData(StorageMode.DISK);
+        List<Path> files = Arrays.asList(Paths.get("books02.csv"), Paths.get("books01.csv"));
+
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        String heapOutput;
+        try {
+            heap.loadData(Paths.get("books01.csv"));
+            heap.loadData(files);
+            heapOutput = intercept.getCapturedStdOut();
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            assertTrue("File expected to be loaded.", disk.loadData(Paths.get("books01.csv")));
+            assertTrue("Files expected to be loaded.", disk.loadData(files));
+            assertEquals("Unexpected output of disk storage.", heapOutput, intercept.getCapturedStdOut());
+        } finally {
+            intercept.stdCaptureStop();
+        }
+        assertEquals("Disk storage expected to hold the same books.", heap.getBookData(), disk.getBookData());
+    }
+
+    private static int[] merge(DiskBookList books, List<BookEntry> loaded) {
+        try (DiskBookList.Ingest ingest = new DiskBookList.Ingest(1, false, BATCH_BYTES)) {
+            loaded.forEach(book -> ingest.add(book, 0));
+            return books.merge(ingest, null, null);
+        }
+    }
+
+    /** Books with a title out of the given number of titles, so that some are equal. */
+    private static List<BookEntry> randomBooks(int count, int titles) {
+        Random random = new Random(titles);
+        List<BookEntry> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int title = random.nextInt(titles);
+            books.add(new BookEntry("Title " + title, new String[] { "Author " + title % 17 }, (title % 50) / 10f,
+                    "ISBN" + title, title % 700));
+        }
+        return books;
+    }
+}
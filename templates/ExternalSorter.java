@@ -0,0 +1,393 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sorts more records than fit into memory. Records are collected in a
+ * batch of bounded size, which is sorted and spilled to a temporary run
+ * file once full. Reading the sorted records merges all runs, in several
+ * passes if there are more runs than can be merged at once.
+ *
+ * Records with the same key are optionally combined: only the first of
+ * them in sort order is kept, the others are passed to a consumer of
+ * dropped records. Runs are spilled without such duplicates, so a feed
+ * with many duplicates needs less disk space and merge work.
+ *
+ * Records are byte arrays which must not be changed once added. A sorter
+ * is used by a single thread and deletes its temporary files on close.
+ */
+public class ExternalSorter implements AutoCloseable {
+
+    /** Maximum number of runs merged at once. */
+    public static final int MAX_FAN_IN = 64;
+
+    /** Approximate heap bytes of a batched record besides its content. */
+    private static final int RECORD_OVERHEAD_BYTES = 24;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Order of the sorted records. */
+    private final Comparator<byte[]> order;
+
+    /** Order deciding which records have the same key, null to keep all records. */
+    private final Comparator<byte[]> keyOrder;
+
+    /** Consumer of records dropped as duplicate, null to discard them. */
+    private final Consumer<byte[]> dropped;
+
+    /** Maximum heap bytes of the current batch. */
+    private final long maxBatchBytes;
+
+    /** Records not spilled yet. */
+    private List<byte[]> batch;
+
+    /** Estimated heap bytes of the current batch. */
+    private long batchBytes;
+
+    /** Spilled runs not merged yet. */
+    private final List<Path> runs;
+
+    /** Directory of the run files, created on the first spill. */
+    private Path directory;
+
+    /** Number of records added. */
+    private long added;
+
+    /** True once the sorted records have been read. */
+    private boolean sorted;
+
+    /**
+     * Create a sorter keeping all records.
+     *
+     * @param order order of the sorted records.
+     * @param maxBatchBytes heap bytes of records collected before a run is spilled.
+     * @throws NullPointerException if the given order is null.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public ExternalSorter(Comparator<byte[]> order, long maxBatchBytes) {
+        this(order, null, null, maxBatchBytes);
+    }
+
+    /**
+     * Create a sorter combining records with the same key. The key order
+     * must be consistent with the order, so that records with the same key
+     * are sorted next to each other.
+     *
+     * @param order order of the sorted records.
+     * @param keyOrder order comparing the keys of records, null to keep all records.
+     * @param dropped consumer of records dropped as duplicate or null.
+     * @param maxBatchBytes heap bytes of records collected before a run is spilled.
+     * @throws NullPointerException if the given order is null.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public ExternalSorter(Comparator<byte[]> order, Comparator<byte[]> keyOrder, Consumer<byte[]> dropped,
+                          long maxBatchBytes) {
+        this.order = Objects.requireNonNull(order, "Given order must not be null.");
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Given batch size must be positive: " + maxBatchBytes);
+        }
+        this.keyOrder = keyOrder;
+        this.dropped = dropped;
+        this.maxBatchBytes = maxBatchBytes;
+        batch = new ArrayList<>();
+        batchBytes = 0;
+        runs = new ArrayList<>();
+        added = 0;
+        sorted = false;
+    }
+
+    /**
+     * Add a record, spilling the batch to a run file once it is full.
+     *
+     * @param record record to sort.
+     * @throws IOException if spilling the batch failed.
+     * @throws NullPointerException if the given record is null.
+     * @throws IllegalStateException if the sorted records have been read already.
+     */
+    public void add(byte[] record) throws IOException {
+        Objects.requireNonNull(record, "Given record must not be null.");
+        if (sorted) {
+            throw new IllegalStateException("Records must not be added once sorted.");
+        }
+
+        batch.add(record);
+        batchBytes += RECORD_OVERHEAD_BYTES + record.length;
+        added++;
+        if (batchBytes >= maxBatchBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * @return number of records added, including duplicates.
+     */
+    public long getAddedCount() {
+        return added;
+    }
+
+    /**
+     * @return number of run files spilled so far.
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Read all records in sorted order. Records of a batch which was never
+     * spilled are read from memory. Afterwards no more records can be added.
+     *
+     * @return reader of the sorted records, to be closed after use.
+     * @throws IOException if merging the runs failed.
+     * @throws IllegalStateException if the sorted records have been read already.
+     */
+    public Reader sorted() throws IOException {
+        if (sorted) {
+            throw new IllegalStateException("Sorted records can only be read once.");
+        }
+        sorted = true;
+
+        if (runs.isEmpty()) {
+            List<byte[]> records = sortBatch();
+            batch = null;
+            return new BatchReader(records);
+        }
+
+        spill();
+        while (runs.size() > MAX_FAN_IN) {
+            List<Path> merged = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+            runs.removeAll(merged);
+            Path run = newRun();
+            try (Reader reader = new MergeReader(merged);
+                 DataOutputStream out = openRun(run)) {
+                for (byte[] record = reader.next(); record != null; record = reader.next()) {
+                    writeRecord(out, record);
+                }
+            }
+            runs.add(run);
+            for (Path file : merged) {
+                Files.delete(file);
+            }
+        }
+        return new MergeReader(new ArrayList<>(runs));
+    }
+
+    /** Delete all run files. */
+    @Override
+    public void close() throws IOException {
+        batch = null;
+        if (directory != null) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+            directory = null;
+        }
+        runs.clear();
+    }
+
+    /** Sort the batch and write it to a new run file. */
+    private void spill() throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<byte[]> records = sortBatch();
+        Path run = newRun();
+        try (DataOutputStream out = openRun(run)) {
+            for (byte[] record : records) {
+                writeRecord(out, record);
+            }
+        }
+        runs.add(run);
+        batch = new ArrayList<>();
+        batchBytes = 0;
+    }
+
+    /** Sort the batch, dropping records with the same key as their predecessor. */
+    private List<byte[]> sortBatch() {
+        batch.sort(order);
+        if (keyOrder == null) {
+            return batch;
+        }
+
+        List<byte[]> unique = new ArrayList<>(batch.size());
+        byte[] previous = null;
+        for (byte[] record : batch) {
+            if (previous != null && keyOrder.compare(previous, record) == 0) {
+                drop(record);
+            } else {
+                unique.add(record);
+                previous = record;
+            }
+        }
+        return unique;
+    }
+
+    private void drop(byte[] record) {
+        if (dropped != null) {
+            dropped.accept(record);
+        }
+    }
+
+    private Path newRun() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("library-sort");
+        }
+        return Files.createTempFile(directory, "run", ".dat");
+    }
+
+    private static DataOutputStream openRun(Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE));
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] record) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    /** Reader of sorted records. */
+    public interface Reader extends AutoCloseable {
+
+        /**
+         * Read the next record.
+         * @return next record in sorted order or null at the end.
+         * @throws IOException if reading a run failed.
+         */
+        byte[] next() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /** Reader of a batch sorted in memory. */
+    private static final class BatchReader implements Reader {
+
+        private final List<byte[]> records;
+        private int position;
+
+        private BatchReader(List<byte[]> records) {
+            this.records = records;
+            position = 0;
+        }
+
+        @Override
+        public byte[] next() {
+            return position < records.size() ? records.get(position++) : null;
+        }
+
+        @Override
+        public void close() {
+            position = records.size();
+        }
+    }
+
+    /** Reader merging sorted runs, dropping records with the same key across runs. */
+    private final class MergeReader implements Reader {
+
+        /** Current record of each run, ordered by record and then by run. */
+        private final PriorityQueue<RunReader> heads;
+
+        private final List<RunReader> readers;
+
+        /** Last record returned, to detect duplicates across runs. */
+        private byte[] previous;
+
+        private MergeReader(List<Path> files) throws IOException {
+            heads = new PriorityQueue<>(Math.max(1, files.size()), (a, b) -> {
+                int compared = order.compare(a.current, b.current);
+                return compared != 0 ? compared : Integer.compare(a.index, b.index);
+            });
+            readers = new ArrayList<>();
+            try {
+                for (Path file : files) {
+                    RunReader reader = new RunReader(file, readers.size());
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public byte[] next() throws IOException {
+            while (!heads.isEmpty()) {
+                RunReader head = heads.poll();
+                byte[] record = head.current;
+                if (head.advance()) {
+                    heads.add(head);
+                }
+                if (keyOrder != null && previous != null && keyOrder.compare(previous, record) == 0) {
+                    drop(record);
+                    continue;
+                }
+                previous = record;
+                return record;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (RunReader reader : readers) {
+                try {
+                    reader.in.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            heads.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /** Sequential reader of a single run file. */
+    private static final class RunReader {
+
+        private final DataInputStream in;
+
+        /** Position of the run, breaking ties so that earlier runs come first. */
+        private final int index;
+
+        private byte[] current;
+
+        private RunReader(Path file, int index) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            this.index = index;
+        }
+
+        /** Read the next record of the run, false at its end. */
+        private boolean advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            current = new byte[length];
+            in.readFully(current);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalSorterBasicTest {
+
+    private static final long SEED = 47L;
+
+    /** Records holding a key int followed by a sequence int. */
+    private static final Comparator<byte[]> ORDER = Arrays::compareUnsigned;
+    private static final Comparator<byte[]> KEY_ORDER = (a, b) -> Arrays.compareUnsigned(a, 0, 4, b, 0, 4);
+
+    // ------------------------- sort tests --------------------
+
+    @Test
+    public void testSortInMemory() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(ORDER, 1 << 20)) {
+            List<byte[]> records = randomRecords(1000, 100_000);
+            for (byte[] record : records) {
+                sorter.add(record);
+            }
+            assertEquals("Small input not expected to be spilled.", 0, sorter.getRunCount());
+            checkSorted(records, read(sorter));
+        }
+    }
+
+    @Test
+    public void testSortSpillsAndMergesInPasses() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(ORDER, 1024)) {
+            List<byte[]> records = randomRecords(10_000, 100_000);
+            for (byte[] record : records) {
+                sorter.add(record);
+            }
+            assertTrue("More runs than merged at once expected.", sorter.getRunCount() > ExternalSorter.MAX_FAN_IN);
+            assertEquals("Unexpected number of added records.", records.size(), sorter.getAddedCount());
+            checkSorted(records, read(sorter));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterSortedFails() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(ORDER, 1024)) {
+            read(sorter);
+            sorter.add(record(1, 1));
+        }
+    }
+
+    // ------------------------- duplicate tests --------------------
+
+    @Test
+    public void testDuplicatesDropped() throws IOException {
+        List<byte[]> dropped = new ArrayList<>();
+        try (ExternalSorter sorter = new ExternalSorter(ORDER, KEY_ORDER, dropped::add, 1024)) {
+            List<byte[]> records = randomRecords(10_000, 500);
+            for (byte[] record : records) {
+                sorter.add(record);
+            }
+            List<byte[]> sorted = read(sorter);
+
+            TreeSet<Integer> keys = new TreeSet<>();
+            records.forEach(record -> keys.add(ByteBuffer.wrap(record).getInt()));
+            assertEquals("One record per key expected.", keys.size(), sorted.size());
+            assertEquals("Other records expected to be dropped.", records.size(), sorted.size() + dropped.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                assertEquals("Unexpected key order.", (int) keys.pollFirst(), ByteBuffer.wrap(sorted.get(i)).getInt());
+            }
+            for (byte[] record : dropped) {
+                byte[] kept = sorted.get(Collections.binarySearch(sorted, record, KEY_ORDER));
+                assertTrue("First record of each key expected to be kept.", ORDER.compare(kept, record) < 0);
+            }
+        }
+    }
+
+    private static List<byte[]> randomRecords(int count, int keys) {
+        Random random = new Random(SEED);
+        List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(record(random.nextInt(keys), i));
+        }
+        return records;
+    }
+
+    private static byte[] record(int key, int sequence) {
+        return ByteBuffer.allocate(8).putInt(key).putInt(sequence).array();
+    }
+
+    private static List<byte[]> read(ExternalSorter sorter) throws IOException {
+        List<byte[]> sorted = new ArrayList<>();
+        try (ExternalSorter.Reader reader = sorter.sorted()) {
+            for (byte[] record = reader.next(); record != null; record = reader.next()) {
+                sorted.add(record);
+            }
+        }
+        return sorted;
+    }
+
+    private static void checkSorted(List<byte[]> records, List<byte[]> sorted) {
+        List<byte[]> expected = new ArrayList<>(records);
+        expected.sort(ORDER);
+        assertEquals("Unexpected number of sorted records.", expected.size(), sorted.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue("Records not sorted as expected.", Arrays.equals(expected.get(i), sorted.get(i)));
+        }
+    }
+}
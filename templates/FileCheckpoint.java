@@ -0,0 +1,104 @@
+/**
+ * Position up to which a book data file has been ingested, together with
+ * a CRC32 checksum of all bytes before it. A later load of the same file
+ * only needs to parse the bytes appended after the checkpoint as long as
+ * the file still starts with the checksummed bytes.
+ *
+ * Instances are immutable.
+ */
+public final class FileCheckpoint {
+
+    /** Checkpoint at the start of a file, nothing has been ingested yet. */
+    public static final FileCheckpoint START = new FileCheckpoint(0, 0, 0, true);
+
+    /** Number of bytes ingested. */
+    private final long offset;
+
+    /** Number of lines ingested, including a last line without line break. */
+    private final long lines;
+
+    /** CRC32 checksum of the ingested bytes. */
+    private final long checksum;
+
+    /** Do the ingested bytes end with a line break? */
+    private final boolean lineComplete;
+
+    /**
+     * Create a checkpoint.
+     *
+     * @param offset number of bytes ingested.
+     * @param lines number of lines ingested, including a last line without line break.
+     * @param checksum CRC32 checksum of the ingested bytes.
+     * @param lineComplete true if the ingested bytes end with a line break
+     * or are empty.
+     * @throws IllegalArgumentException if the offset or line count is negative.
+     */
+    public FileCheckpoint(long offset, long lines, long checksum, boolean lineComplete) {
+        if (offset < 0 || lines < 0) {
+            throw new IllegalArgumentException("Given offset and lines must not be negative: " + offset + ", "
+                    + lines);
+        }
+        this.offset = offset;
+        this.lines = lines;
+        this.checksum = checksum;
+        this.lineComplete = lineComplete;
+    }
+
+    /**
+     * @return number of bytes ingested.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Number of lines ingested. Line numbers of appended rows continue
+     * after it.
+     * @return number of lines including a last line without line break.
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * @return CRC32 checksum of the ingested bytes.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Do the ingested bytes end with a line break? If not, the last row
+     * has been ingested without line break and appended bytes have to
+     * start a new line, otherwise that row has been changed.
+     * @return true if the ingested bytes end with a line break or are empty.
+     */
+    public boolean isLineComplete() {
+        return lineComplete;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileCheckpoint)) {
+            return false;
+        }
+        FileCheckpoint other = (FileCheckpoint) o;
+        return offset == other.offset && lines == other.lines && checksum == other.checksum
+                && lineComplete == other.lineComplete;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((Long.hashCode(offset) * 31 + Long.hashCode(lines)) * 31 + Long.hashCode(checksum)) * 2
+                + (lineComplete ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "FileCheckpoint[offset=" + offset + ", lines=" + lines + ", checksum=" + Long.toHexString(checksum)
+                + ", lineComplete=" + lineComplete + "]";
+    }
+}
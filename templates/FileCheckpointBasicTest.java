@@ -0,0 +1,160 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileCheckpointBasicTest {
+
+    private static final String HEADER = "title,authors,rating,isbn,pages\n";
+    private static final String ROW_A = "TitleA,AuthorA,3.2,ISBNA,500\n";
+    private static final String ROW_B = "TitleB,AuthorA-AuthorB,4.3,ISBNB,400\n";
+    private static final String ROW_C = "TitleC,AuthorC,2.5,ISBNC,300\n";
+
+    private Path testFile;
+
+    @Before
+    public void setup() throws IOException {
+        testFile = Files.createTempFile("library-feed", ".csv");
+        write(HEADER + ROW_A + ROW_B);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    // ------------------------- loader tests --------------------
+
+    @Test
+    public void testCheckpointAtEndOfFile() throws IOException {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        List<BookEntry> books = loader.readBooks(testFile, FileCheckpoint.START, null);
+
+        FileCheckpoint checkpoint = loader.getCheckpoint();
+        assertEquals("Unexpected number of books read.", 2, books.size());
+        assertNotNull("Checkpoint expected after reading.", checkpoint);
+        assertEquals("Checkpoint expected at end of file.", Files.size(testFile), checkpoint.getOffset());
+        assertTrue("File expected to end with line break.", checkpoint.isLineComplete());
+    }
+
+    @Test
+    public void testReadAppendedRowsOnly() throws IOException {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.readBooks(testFile, FileCheckpoint.START, null);
+        append(ROW_C);
+
+        List<BookEntry> books = loader.readBooks(testFile, loader.getCheckpoint(), null);
+        assertEquals("Only appended row expected to be read.", 1, books.size());
+        assertEquals("Unexpected appended book.", "TitleC", books.get(0).getTitle());
+    }
+
+    @Test
+    public void testChangedPrefixReadsAllRows() throws IOException {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.readBooks(testFile, FileCheckpoint.START, null);
+        write(HEADER + ROW_B + ROW_A + ROW_C);
+
+        assertEquals("All rows expected to be read after change.", 3,
+                loader.readBooks(testFile, loader.getCheckpoint(), null).size());
+    }
+
+    @Test
+    public void testContinuedLastRowReadsAllRows() throws IOException {
+        write(HEADER + ROW_A + ROW_B.trim());
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.readBooks(testFile, FileCheckpoint.START, null);
+        FileCheckpoint checkpoint = loader.getCheckpoint();
+        assertFalse("File not expected to end with line break.", checkpoint.isLineComplete());
+
+        append("\n" + ROW_C);
+        assertEquals("Row after line break expected to be read.", 1,
+                loader.readBooks(testFile, checkpoint, null).size());
+
+        write(HEADER + ROW_A + ROW_B.trim());
+        append("0\n");
+        assertEquals("All rows expected to be read after last row was continued.", 2,
+                loader.readBooks(testFile, checkpoint, null).size());
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testReloadIngestsAppendedRows() throws IOException {
+        for (StorageMode mode : StorageMode.values()) {
+            LibraryData library = new LibraryData(mode);
+            String output = load(library);
+            assertTrue("Books expected to be added in mode " + mode, output.contains("2 new book entries added."));
+
+            append(ROW_C);
+            output = load(library);
+            assertTrue("Appended book expected to be added in mode " + mode,
+                    output.contains("1 new book entries added."));
+            assertFalse("Ingested rows not expected to be reported in mode " + mode, output.contains("Duplicate"));
+            assertEquals("Unexpected number of books in mode " + mode, 3, library.getBookData().size());
+
+            write(HEADER + ROW_A + ROW_B);
+        }
+    }
+
+    @Test
+    public void testReloadChangedFileMergesAllRows() throws IOException {
+        LibraryData library = new LibraryData();
+        load(library);
+        write(HEADER + ROW_C + ROW_A);
+
+        String output = load(library);
+        assertTrue("Changed file expected to be loaded again.", output.contains("Duplicate"));
+        assertEquals("Unexpected number of books.", 3, library.getBookData().size());
+    }
+
+    @Test
+    public void testReloadAfterRemoveAddsRemovedBook() throws IOException {
+        for (StorageMode mode : StorageMode.values()) {
+            LibraryData library = new LibraryData(mode);
+            load(library);
+            CommandInterpreter interpreter = new CommandInterpreter();
+            StdStreamIntercept intercept = new StdStreamIntercept();
+            intercept.stdCaptureStart();
+            try {
+                interpreter.executeCommand(interpreter.parseCommand("REMOVE TITLE TitleA"), library);
+            } finally {
+                intercept.stdCaptureStop();
+            }
+
+            String output = load(library);
+            assertTrue("Removed book expected to be added again in mode " + mode,
+                    output.contains("1 new book entries added."));
+            assertEquals("Unexpected number of books in mode " + mode, 2, library.getBookData().size());
+        }
+    }
+
+    private String load(LibraryData library) {
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            library.loadData(testFile);
+            return intercept.getCapturedStdOut();
+        } finally {
+            intercept.stdCaptureStop();
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(testFile, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(testFile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
@@ -90,22 +90,25 @@ public class GroupCmd extends LibraryCommand{
         List<String> titles = new ArrayList<>();
         bookMap.put('0', titles);
 
-        for (BookEntry book : books) {
+        for (int i = 0; i < books.size(); i++) {
+
+            // Only titles are read, so book stores do not need to create entries.
+            String title = BookStore.titleOf(books, i);
 
             // Store the first character of the title.
-            char firstChar = book.getTitle().toUpperCase().charAt(0);
+            char firstChar = BookStore.titleInitialOf(books, i);
 
             if (Character.isLetter(firstChar)) {
                 // Sort titles alphabetically by creating a new list.
                 List<String> sortTitle = new ArrayList<>();
                 sortTitle = bookMap.get(firstChar);
-                sortTitle.add(book.getTitle());
+                sortTitle.add(title);
                 bookMap.replace(firstChar, sortTitle);
             } else {
                 // Sort titles in ascending order of numbers by creating a new list.
                 List<String> sortTitle = new ArrayList<>();
                 sortTitle = bookMap.get('0');
-                sortTitle.add(book.getTitle());
+                sortTitle.add(title);
                 bookMap.replace('0', sortTitle);
             }
         }
@@ -163,9 +166,9 @@ public class GroupCmd extends LibraryCommand{
 
         List<String> authors = new ArrayList<>();
 
-        // Take all book authors from BookEntry.
-        for (BookEntry book : books) {
-            authors.addAll(Arrays.asList(book.getAuthors()));
+        // Take all book authors, book stores do not need to create entries for this.
+        for (int i = 0; i < books.size(); i++) {
+            authors.addAll(Arrays.asList(BookStore.authorsOf(books, i)));
         }
 
         // Sort Authors and group them in terms of same first alphabet.
@@ -179,10 +182,11 @@ public class GroupCmd extends LibraryCommand{
         }
 
 
-        for (BookEntry book : books) {
-            for (String author : book.getAuthors()) {
+        for (int i = 0; i < books.size(); i++) {
+            String title = BookStore.titleOf(books, i);
+            for (String author : BookStore.authorsOf(books, i)) {
                 List<String> values = bookMap.get(author);
-                values.add(book.getTitle());
+                values.add(title);
                 bookMap.replace(author, values);
             }
         }
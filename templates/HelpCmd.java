@@ -36,11 +36,15 @@ public class HelpCmd extends LibraryCommand {
 
         bld.append(padding).append(CommandType.HELP);
         bld.append(padding).append(CommandType.EXIT);
-        bld.append(padding).append(CommandType.ADD).append(" path/to/book/data.csv");
+        bld.append(padding).append(CommandType.ADD).append(" path/to/book/data.csv[.gz]|path/to/data.zip [ASYNC]|path/to/directory|path/to/books*.csv");
         bld.append(padding).append(CommandType.LIST).append(" [short|long]");
         bld.append(padding).append(CommandType.SEARCH).append(" <value>");
         bld.append(padding).append(CommandType.REMOVE).append(" TITLE|AUTHOR <value>");
         bld.append(padding).append(CommandType.GROUP).append(" TITLE|AUTHOR");
+        bld.append(padding).append(CommandType.JOBS);
+        bld.append(padding).append(CommandType.CANCEL).append(" <job id>");
+        bld.append(padding).append(CommandType.WATCH).append(" [path/to/directory]");
+        bld.append(padding).append(CommandType.LAG);
 
         return bld.toString();
     }
@@ -0,0 +1,66 @@
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Jobs command used to show progress of background load jobs.
+ */
+public class JobsCmd extends LibraryCommand {
+
+    /**
+     * Create a jobs command.
+     *
+     * @param argumentInput argument input is expected to be blank
+     * @throws IllegalArgumentException if given arguments are invalid
+     * @throws NullPointerException if the given argumentInput is null.
+     */
+    public JobsCmd(String argumentInput) {
+        super(CommandType.JOBS, argumentInput);
+    }
+
+    /**
+     * Print one line per load job with its state and progress.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException if given data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        List<LoadJob> jobs = data.getLoadJobs().getJobs();
+
+        if (jobs.isEmpty()) {
+            System.out.println("No load jobs.");
+        }
+        for (LoadJob job : jobs) {
+            System.out.println(describe(job));
+        }
+    }
+
+    /**
+     * Describe state and progress of a single job.
+     * @param job job to describe
+     * @return single line description
+     */
+    private static String describe(LoadJob job) {
+        String prefix = "[" + job.getId() + "] " + job.getState() + " " + job.getFile() + ": ";
+
+        switch (job.getState()) {
+            case COMPLETED:
+                return prefix + job.getRowsParsed() + " rows, " + job.getBooksAdded() + " added, "
+                        + job.getDuplicates() + " duplicates"
+                        + (job.getRejectedRows() > 0 ? ", " + job.getRejectedRows() + " rejected" : "");
+            case CANCELLED:
+                return prefix + job.getRowsParsed() + " rows parsed, no books added";
+            case FAILED:
+                return prefix + job.getFailure();
+            case QUEUED:
+                return prefix + "waiting";
+            default:
+                double eta = job.getEtaSeconds();
+                return prefix + String.format(Locale.ROOT, "%d rows, %.1f/%.1f MB, %.0f rows/s, ETA %s",
+                        job.getRowsParsed(), job.getBytesProcessed() / 1e6, job.getTotalBytes() / 1e6,
+                        job.getRowsPerSecond(), eta < 0 ? "unknown" : String.format(Locale.ROOT, "%.0fs", eta));
+        }
+    }
+}
@@ -0,0 +1,365 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the journal another library process appends to, see
+ * MutationJournal, to a read-only library, so that queries can be served
+ * by several processes sharing the journal directory.
+ *
+ * The follower restores the library from the snapshot of the journal and
+ * then polls the journal for committed batches, which are applied as a
+ * single change of the book data per poll. If the journal no longer
+ * reaches back to the last applied commit, because the primary wrote a
+ * newer snapshot meanwhile, or applying failed, the library is restored
+ * from the snapshot again.
+ *
+ * The staleness of the library is the time since the follower last read
+ * all committed batches of the journal. Queries are rejected while it
+ * exceeds the configured bound, see CommandInterpreter.
+ */
+public class JournalFollower implements AutoCloseable {
+
+    /** System property naming the journal directory to follow, enables follower mode. */
+    public static final String PROPERTY = "library.follow";
+
+    /** System property setting the time between polls of the journal. */
+    public static final String POLL_PROPERTY = "library.follow.pollMs";
+
+    /** System property setting the staleness up to which queries are served. */
+    public static final String STALENESS_PROPERTY = "library.follow.maxStalenessMs";
+
+    /** Time between polls of the journal if none is configured. */
+    public static final long DEFAULT_POLL_MILLIS = 100;
+
+    /** Staleness up to which queries are served if none is configured. */
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 5000;
+
+    /** Library the journal is applied to. */
+    private final LibraryData data;
+
+    /** Directory of the followed journal. */
+    private final Path directory;
+
+    private final long pollMillis;
+    private final long maxStalenessMillis;
+
+    /** Reader of the journal after the last applied commit, null until restored from the snapshot. */
+    private MutationJournal.Reader reader;
+
+    /** Sequence of the last applied commit. */
+    private volatile long appliedSequence;
+
+    /** Number of applied batches. */
+    private volatile long batchesApplied;
+
+    /** Number of restores from the snapshot. */
+    private volatile long restores;
+
+    /** Journal bytes not applied after the last poll. */
+    private volatile long unreadBytes;
+
+    /** Start of the last poll which read all committed batches, see System.nanoTime. */
+    private volatile long caughtUpNanos;
+    private volatile boolean caughtUp;
+
+    /** Failure of the last poll, null if it succeeded. */
+    private volatile String failure;
+
+    /** Thread polling the journal, null until started. */
+    private Thread poller;
+    private boolean stopped;
+
+    /**
+     * Create a follower applying the journal in the given directory to the
+     * given library. Nothing is applied before polling.
+     *
+     * @param data library to apply the journal to, empty unless it is disk storage restored before.
+     * @param directory directory of the followed journal.
+     * @param pollMillis time between polls of the journal.
+     * @param maxStalenessMillis staleness up to which queries are served.
+     * @throws NullPointerException if the given library or directory is null.
+     * @throws IllegalArgumentException if a time is not positive.
+     */
+    public JournalFollower(LibraryData data, Path directory, long pollMillis, long maxStalenessMillis) {
+        this.data = Objects.requireNonNull(data, "Given data must not be null.");
+        this.directory = Objects.requireNonNull(directory, "Given directory must not be null.");
+        if (pollMillis <= 0 || maxStalenessMillis <= 0) {
+            throw new IllegalArgumentException("Given times must be positive: " + pollMillis + ", "
+                    + maxStalenessMillis);
+        }
+        this.pollMillis = pollMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+        reader = null;
+        appliedSequence = 0;
+        caughtUp = false;
+        failure = null;
+        stopped = false;
+    }
+
+    /**
+     * Start following the journal in the directory named by the system
+     * property.
+     *
+     * @param data library to apply the journal to.
+     * @return started follower or null if none is configured or the configuration is invalid.
+     */
+    public static JournalFollower startIfConfigured(LibraryData data) {
+        String directory = System.getProperty(PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return null;
+        }
+
+        try {
+            JournalFollower follower = new JournalFollower(data, Paths.get(directory.strip()),
+                    Long.getLong(POLL_PROPERTY, DEFAULT_POLL_MILLIS),
+                    Long.getLong(STALENESS_PROPERTY, DEFAULT_MAX_STALENESS_MILLIS));
+            follower.start();
+            return follower;
+        } catch (RuntimeException e) {
+            System.err.println("ERROR: Following journal failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Apply the journal written so far and keep polling it in the
+     * background. Failures are reported and retried with the next poll.
+     *
+     * @throws IllegalStateException if the follower was started already.
+     */
+    public synchronized void start() {
+        if (poller != null) {
+            throw new IllegalStateException("Follower was started already.");
+        }
+
+        pollReporting();
+        poller = new Thread(this::follow, "library-follow");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Apply all batches committed since the last poll. Without a reader
+     * the library is restored from the snapshot first.
+     *
+     * Must not be called concurrently, nor after the follower was started.
+     *
+     * @return number of applied batches.
+     * @throws IOException if reading the journal failed, the next poll restores from the snapshot.
+     * @throws IllegalStateException if the journal does not match the book data.
+     */
+    int poll() throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (reader == null) {
+                open();
+            }
+            List<MutationJournal.Mutation> first = reader.nextBatch();
+            int applied = 0;
+            if (first != null) {
+                // Batches written meanwhile are applied as part of the same change.
+                applied = data.updateBookData(books -> {
+                    LibraryData.apply(books, first);
+                    try {
+                        int replayed = 1 + LibraryData.replay(books, reader);
+                        storeSequence(books, reader.getCommittedSequence());
+                        return replayed;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                appliedSequence = reader.getCommittedSequence();
+                batchesApplied += applied;
+            }
+            unreadBytes = reader.getUnreadBytes();
+            caughtUpNanos = start;
+            caughtUp = true;
+            return applied;
+        } catch (UncheckedIOException e) {
+            closeReader();
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            closeReader();
+            throw e;
+        }
+    }
+
+    /**
+     * @return directory of the followed journal.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return sequence of the last applied commit, 0 if none.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return number of batches applied since the follower was created.
+     */
+    public long getBatchesApplied() {
+        return batchesApplied;
+    }
+
+    /**
+     * @return number of times the library was restored from the snapshot.
+     */
+    public long getRestores() {
+        return restores;
+    }
+
+    /**
+     * @return journal bytes which were written but not applied at the last poll.
+     */
+    public long getUnreadBytes() {
+        return unreadBytes;
+    }
+
+    /**
+     * Time since the follower last read all committed batches of the
+     * journal, an upper bound of the time by which the book data lags
+     * behind the primary library.
+     *
+     * @return staleness in milliseconds or -1 if the journal was never read completely.
+     */
+    public long getStalenessMillis() {
+        return caughtUp ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - caughtUpNanos) : -1;
+    }
+
+    /**
+     * @return staleness up to which queries are served.
+     */
+    public long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+
+    /**
+     * Is the book data too stale to serve queries?
+     * @return true if the staleness exceeds the bound or the journal was never read completely.
+     */
+    public boolean isStale() {
+        long staleness = getStalenessMillis();
+        return staleness < 0 || staleness > maxStalenessMillis;
+    }
+
+    /**
+     * @return failure of the last poll or null if it succeeded.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /** Stop polling the journal. The library keeps the book data applied so far. */
+    @Override
+    public void close() {
+        Thread stopping;
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+            stopping = poller;
+        }
+        if (stopping != null) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeReader();
+    }
+
+    /** Poll the journal until the follower is closed. */
+    private void follow() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    if (!stopped) {
+                        wait(pollMillis);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (stopped) {
+                    return;
+                }
+            }
+            pollReporting();
+        }
+    }
+
+    /** Poll the journal, reporting a failure once until a poll succeeds again. */
+    private void pollReporting() {
+        try {
+            poll();
+            failure = null;
+        } catch (IOException | RuntimeException e) {
+            String message = e.toString();
+            if (!message.equals(failure)) {
+                System.err.println("ERROR: Following journal failed: " + message);
+            }
+            failure = message;
+        }
+    }
+
+    /**
+     * Open a reader after the last commit held by disk storage restored
+     * before, otherwise restore the library from the snapshot.
+     */
+    private void open() throws IOException {
+        List<BookEntry> books = data.getBookData();
+        long stored = books instanceof DiskBookList ? ((DiskBookList) books).getJournalSequence() : 0;
+        if (stored > 0 && restores == 0) {
+            try {
+                reader = MutationJournal.read(directory, stored);
+                appliedSequence = stored;
+                return;
+            } catch (IOException e) {
+                // The journal no longer reaches back to the stored commit.
+            }
+        }
+
+        long sequence = data.updateBookData(next -> {
+            if (stored == 0 && restores == 0 && !next.isEmpty()) {
+                throw new IllegalStateException("Library must be empty to follow a journal.");
+            }
+            next.clear();
+            try {
+                long restored = MutationJournal.readSnapshot(directory, next::add);
+                storeSequence(next, restored);
+                return restored;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        restores++;
+        appliedSequence = sequence;
+        reader = MutationJournal.read(directory, sequence);
+    }
+
+    /** Let disk storage record the applied commit, so that it is followed from there when reopened. */
+    private static void storeSequence(List<BookEntry> books, long sequence) {
+        if (books instanceof DiskBookList) {
+            ((DiskBookList) books).setJournalSequence(sequence);
+        }
+    }
+
+    private void closeReader() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Closing journal reader failed: " + e);
+            }
+            reader = null;
+        }
+    }
+}
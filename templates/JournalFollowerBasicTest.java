@@ -0,0 +1,148 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JournalFollowerBasicTest {
+
+    private Path testDirectory;
+    private LibraryData primary;
+
+    @Before
+    public void setup() throws IOException {
+        testDirectory = Files.createTempDirectory("library-follow");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (primary != null) {
+            primary.close();
+        }
+        try (Stream<Path> files = Files.walk(testDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // ------------------------- follow tests --------------------
+
+    @Test
+    public void testFollowerAppliesCommittedChanges() throws IOException {
+        openPrimary(MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+        primary.updateBookData(books -> books.addAll(Arrays.asList(BookStoreTest.BOOK_A, BookStoreTest.BOOK_B)));
+
+        for (StorageMode mode : new StorageMode[] { StorageMode.HEAP, StorageMode.DISK }) {
+            LibraryData replica = new LibraryData(mode);
+            JournalFollower follower = follower(replica);
+            try {
+                assertEquals("Unexpected number of applied batches.", 1, follower.poll());
+                assertEquals("Unexpected books followed.", primary.getBookData(), replica.getBookData());
+
+                long version = replica.getVersion();
+                assertEquals("No batch expected.", 0, follower.poll());
+                assertEquals("Unchanged book data expected not to be published again.", version,
+                        replica.getVersion());
+            } finally {
+                follower.close();
+                replica.close();
+            }
+        }
+
+        LibraryData replica = new LibraryData();
+        JournalFollower follower = follower(replica);
+        try {
+            follower.poll();
+            primary.updateBookData(books -> books.remove(BookStoreTest.BOOK_A));
+            primary.updateBookData(books -> books.add(BookStoreTest.BOOK_C));
+            assertEquals("Both changes expected to be applied together.", 2, follower.poll());
+            assertEquals("Unexpected books followed.", Arrays.asList(BookStoreTest.BOOK_B, BookStoreTest.BOOK_C),
+                    replica.getBookData());
+            assertEquals("Unexpected applied commit.", primary.getJournal().getLastSequence(),
+                    follower.getAppliedSequence());
+            assertTrue("Follower expected to be caught up.", !follower.isStale());
+        } finally {
+            follower.close();
+        }
+    }
+
+    @Test
+    public void testFollowerRestoresFromNewerSnapshot() throws IOException {
+        openPrimary(256);
+        primary.updateBookData(books -> books.add(BookStoreTest.BOOK_A));
+        LibraryData replica = new LibraryData();
+        JournalFollower follower = follower(replica);
+        try {
+            follower.poll();
+            for (int i = 0; i < 20; i++) {
+                BookEntry book = new BookEntry("Title " + i, new String[] { "Author" }, 1.0f, "ISBN" + i, i);
+                primary.updateBookData(books -> books.add(book));
+            }
+
+            try {
+                follower.poll();
+            } catch (IOException e) {
+                // expected, the segments after the applied commit were deleted
+            }
+            follower.poll();
+            assertEquals("Unexpected books followed.", primary.getBookData(), replica.getBookData());
+            assertTrue("Follower expected to restore from the snapshot again.", follower.getRestores() > 1);
+        } finally {
+            follower.close();
+        }
+    }
+
+    // ------------------------- command tests --------------------
+
+    @Test
+    public void testFollowerRejectsChangesAndStaleQueries() throws IOException {
+        openPrimary(MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+        primary.updateBookData(books -> books.add(BookStoreTest.BOOK_A));
+        LibraryData replica = new LibraryData();
+        JournalFollower follower = follower(replica);
+        replica.setFollower(follower);
+        CommandInterpreter interpreter = new CommandInterpreter();
+
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            interpreter.executeCommand(interpreter.parseCommand("SEARCH Title"), replica);
+            assertTrue("Query before catching up expected to be rejected.",
+                    intercept.getCapturedStdErr().contains("not restored from journal"));
+
+            follower.poll();
+            interpreter.executeCommand(interpreter.parseCommand("SEARCH Title"), replica);
+            assertTrue("Query expected to be served.", intercept.getCapturedStdOut().contains("TitleA"));
+
+            interpreter.executeCommand(interpreter.parseCommand("REMOVE TITLE TitleA"), replica);
+            assertTrue("Change expected to be rejected.", intercept.getCapturedStdErr().contains("read-only"));
+            assertEquals("Book data expected to be unchanged.", Arrays.asList(BookStoreTest.BOOK_A),
+                    replica.getBookData());
+
+            interpreter.executeCommand(interpreter.parseCommand("LAG"), replica);
+            assertTrue("Applied commit expected.", intercept.getCapturedStdOut().contains("Applied commit: 2"));
+        } finally {
+            intercept.stdCaptureStop();
+            follower.close();
+        }
+    }
+
+    private void openPrimary(long snapshotBytes) throws IOException {
+        primary = new LibraryData();
+        primary.openJournal(new MutationJournal(testDirectory, snapshotBytes));
+    }
+
+    private JournalFollower follower(LibraryData replica) {
+        return new JournalFollower(replica, testDirectory, JournalFollower.DEFAULT_POLL_MILLIS,
+                JournalFollower.DEFAULT_MAX_STALENESS_MILLIS);
+    }
+}
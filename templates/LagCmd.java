@@ -0,0 +1,52 @@
+import java.util.Objects;
+
+/**
+ * Lag command used to show how far a library following the journal of
+ * another library lags behind it, or how far the journal of a library
+ * has been written.
+ */
+public class LagCmd extends LibraryCommand {
+
+    /**
+     * Create a lag command.
+     *
+     * @param argumentInput argument input is expected to be blank
+     * @throws IllegalArgumentException if given arguments are invalid
+     * @throws NullPointerException if the given argumentInput is null.
+     */
+    public LagCmd(String argumentInput) {
+        super(CommandType.LAG, argumentInput);
+    }
+
+    /**
+     * Print the replication state of the library.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException if given data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        JournalFollower follower = data.getFollower();
+        MutationJournal journal = data.getJournal();
+
+        if (follower != null) {
+            long staleness = follower.getStalenessMillis();
+            System.out.println("Following journal: " + follower.getDirectory());
+            System.out.println("Applied commit: " + follower.getAppliedSequence() + " ("
+                    + follower.getBatchesApplied() + " batches, " + follower.getRestores() + " restores)");
+            System.out.println("Unapplied journal bytes: " + follower.getUnreadBytes());
+            System.out.println("Staleness: " + (staleness < 0 ? "never caught up" : staleness + " ms")
+                    + " (at most " + follower.getMaxStalenessMillis() + " ms)");
+            if (follower.getFailure() != null) {
+                System.out.println("Last failure: " + follower.getFailure());
+            }
+        } else if (journal != null) {
+            System.out.println("Writing journal: " + journal.getDirectory());
+            System.out.println("Last sequence: " + journal.getLastSequence() + " (durable "
+                    + journal.getDurableSequence() + ")");
+        } else {
+            System.out.println("Library neither writes nor follows a journal.");
+        }
+    }
+}
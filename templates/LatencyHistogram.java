@@ -0,0 +1,78 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed bucket latency histogram which can be updated from one thread
+ * and read from another without any locking.
+ */
+public class LatencyHistogram {
+
+    /** Upper bucket bounds in nanoseconds, the last bucket is unbounded. */
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    /** Number of observations per bucket (not cumulative). */
+    private final AtomicLongArray bucketCounts;
+
+    /** Sum of all observed latencies in nanoseconds. */
+    private final LongAdder sumNanos;
+
+    /** Create an empty histogram. */
+    public LatencyHistogram() {
+        bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_NANOS.length + 1);
+        sumNanos = new LongAdder();
+    }
+
+    /**
+     * Record a single observation.
+     *
+     * @param nanos observed latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        bucketCounts.incrementAndGet(bucket);
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Number of buckets including the unbounded one.
+     * @return number of buckets.
+     */
+    public int getBucketCount() {
+        return bucketCounts.length();
+    }
+
+    /**
+     * Upper bound of the given bucket.
+     *
+     * @param bucket bucket index.
+     * @return upper bound in nanoseconds or Long.MAX_VALUE for the unbounded bucket.
+     */
+    public long getBucketBound(int bucket) {
+        return bucket < BUCKET_BOUNDS_NANOS.length ? BUCKET_BOUNDS_NANOS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Number of observations that fell into the given bucket.
+     *
+     * @param bucket bucket index.
+     * @return observations in this bucket only.
+     */
+    public long getBucketObservations(int bucket) {
+        return bucketCounts.get(bucket);
+    }
+
+    /**
+     * @return sum of all observed latencies in nanoseconds.
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+}
@@ -0,0 +1,381 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Book storage keeping the raw CSV bytes of every row and parsing a row
+ * into a BookEntry only when the book is first accessed. Parsed entries
+ * are kept, this is safe for frozen snapshots read by several threads as
+ * parsing the same row twice results in equal entries.
+ *
+ * Titles are extracted when a row is added, so title-only commands never
+ * split authors or create the ISBN, the author names or the BookEntry.
+ * Rows read from a file by LibraryFileLoader.loadRawRows are checked when
+ * loaded, which parses their rating and page count once without keeping
+ * them. Rows added otherwise are not checked, a malformed row then fails
+ * once its book is read.
+ *
+ * Removed rows leave unused bytes behind which are reclaimed once they
+ * make up more than half of the retained bytes.
+ */
+public class LazyBookList extends BookStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Retained bytes below this size are never compacted. */
+    private static final int MIN_COMPACTION_SIZE = 4096;
+
+    /** Number of books stored. */
+    private int size;
+
+    /** Title per book, extracted eagerly. */
+    private String[] titles;
+
+    /** Parsed entry per book, null until the book is first accessed. */
+    private BookEntry[] entries;
+
+    /** Start of the raw row of each book. */
+    private int[] rowOffsets;
+
+    /** Length of the raw row of each book, 0 for books added as entries. */
+    private int[] rowLengths;
+
+    /** Raw rows of all books. */
+    private byte[] rows;
+
+    /** Number of used bytes in the raw rows. */
+    private int rowsLength;
+
+    /** Number of bytes in the raw rows belonging to removed books. */
+    private int deadRows;
+
+    /** Parser used to materialize entries. */
+    private final LibraryFileLoader parser;
+
+    /** Create an empty lazy book list with its own author dictionary. */
+    public LazyBookList() {
+        this(new AuthorDictionary());
+    }
+
+    /**
+     * Create an empty lazy book list.
+     *
+     * @param authorDictionary dictionary providing canonical author names for parsed books.
+     * @throws NullPointerException if the given dictionary is null.
+     */
+    public LazyBookList(AuthorDictionary authorDictionary) {
+        this(new LibraryFileLoader(Objects.requireNonNull(authorDictionary, "Given dictionary must not be null.")));
+    }
+
+    /** Create an empty lazy book list using the given parser. */
+    private LazyBookList(LibraryFileLoader parser) {
+        this.parser = parser;
+        size = 0;
+        titles = new String[INITIAL_CAPACITY];
+        entries = new BookEntry[INITIAL_CAPACITY];
+        rowOffsets = new int[INITIAL_CAPACITY];
+        rowLengths = new int[INITIAL_CAPACITY];
+        rows = new byte[INITIAL_CAPACITY * 64];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the book at the given position, parsing its row on first access.
+     *
+     * @param index position of the book.
+     * @return parsed book entry.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     * @throws IllegalArgumentException if the row holds an invalid number or rating.
+     * @throws ArrayIndexOutOfBoundsException if the row has too few columns.
+     */
+    @Override
+    public BookEntry get(int index) {
+        Objects.checkIndex(index, size);
+
+        if (entries[index] == null) {
+            entries[index] = parser.separateDetails(rows, rowOffsets[index], rowLengths[index]);
+        }
+        return entries[index];
+    }
+
+    @Override
+    public String titleAt(int index) {
+        Objects.checkIndex(index, size);
+        return titles[index];
+    }
+
+    /**
+     * ISBN of the book at the given position, read from the raw row
+     * without parsing it. Rows with too few columns have an empty ISBN.
+     */
+    @Override
+    public String isbnAt(int index) {
+        Objects.checkIndex(index, size);
+        if (entries[index] != null) {
+            return entries[index].getISBN();
+        }
+
+        int end = rowOffsets[index] + rowLengths[index];
+        int start = rowOffsets[index];
+        for (int field = 0; field < 3 && start <= end; start++) {
+            if (start == end || rows[start] == ',') {
+                field++;
+            }
+        }
+        int isbnEnd = start;
+        while (isbnEnd < end && rows[isbnEnd] != ',') {
+            isbnEnd++;
+        }
+        return start > end ? "" : new String(rows, start, isbnEnd - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Has the book at the given position been parsed already?
+     * @param index position of the book.
+     * @return true if the entry has been created.
+     */
+    public boolean isMaterialized(int index) {
+        Objects.checkIndex(index, size);
+        return entries[index] != null;
+    }
+
+    /**
+     * Append a raw CSV row. Only the title is extracted.
+     *
+     * @param data buffer holding the row.
+     * @param offset start of the row.
+     * @param length length of the row without line break.
+     * @throws NullPointerException if the given buffer is null.
+     */
+    public void addRow(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        checkNotFrozen();
+
+        int titleEnd = offset;
+        while (titleEnd < offset + length && data[titleEnd] != ',') {
+            titleEnd++;
+        }
+
+        ensureCapacity(size + 1);
+        titles[size] = new String(data, offset, titleEnd - offset, StandardCharsets.UTF_8);
+        entries[size] = null;
+        rowOffsets[size] = appendRowBytes(data, offset, length);
+        rowLengths[size] = length;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Append a row of another lazy book list without parsing it.
+     *
+     * @param source list holding the row.
+     * @param index position of the row in the source list.
+     * @throws NullPointerException if the given source is null.
+     */
+    public void addRow(LazyBookList source, int index) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+        Objects.checkIndex(index, source.size);
+
+        if (source.rowLengths[index] == 0) {
+            add(source.get(index));
+        } else {
+            addRow(source.rows, source.rowOffsets[index], source.rowLengths[index]);
+            entries[size - 1] = source.entries[index];
+        }
+    }
+
+    /**
+     * Does this list hold a book equal to the given row of another list?
+     * Rows are compared by title first, then by raw bytes and only parsed
+     * if their bytes differ.
+     *
+     * @param source list holding the row.
+     * @param index position of the row in the source list.
+     * @return true if an equal book is stored.
+     */
+    public boolean containsRow(LazyBookList source, int index) {
+        return containsRow(source, index, new BookIndex(this));
+    }
+
+    /**
+     * Does this list hold a book equal to the given row of another list?
+     * Candidates are looked up in the given index of this list.
+     *
+     * @param source list holding the row.
+     * @param index position of the row in the source list.
+     * @param stored index of this list.
+     * @return true if an equal book is stored.
+     * @throws NullPointerException if the given source or index is null.
+     */
+    public boolean containsRow(LazyBookList source, int index, BookIndex stored) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+        Objects.requireNonNull(stored, "Given index must not be null.");
+
+        String title = source.titleAt(index);
+        for (int i = stored.first(title, source.isbnAt(index)); i >= 0; i = stored.next(i)) {
+            if (titles[i].equals(title) && (sameRow(i, source, index) || get(i).equals(source.get(index)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Append an already parsed book. It is kept as entry without raw row.
+     *
+     * @param index must be equal to the current size.
+     * @param book book to append.
+     * @throws NullPointerException if the given book is null.
+     * @throws UnsupportedOperationException if the index is not the end of the list.
+     */
+    @Override
+    public void add(int index, BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        checkNotFrozen();
+        if (index != size) {
+            throw new UnsupportedOperationException("Lazy storage only supports appending books.");
+        }
+
+        ensureCapacity(size + 1);
+        titles[size] = book.getTitle();
+        entries[size] = book;
+        rowOffsets[size] = rowsLength;
+        rowLengths[size] = 0;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public BookEntry remove(int index) {
+        checkNotFrozen();
+        BookEntry removed = get(index);
+
+        deadRows += rowLengths[index];
+        int moved = size - index - 1;
+        System.arraycopy(titles, index + 1, titles, index, moved);
+        System.arraycopy(entries, index + 1, entries, index, moved);
+        System.arraycopy(rowOffsets, index + 1, rowOffsets, index, moved);
+        System.arraycopy(rowLengths, index + 1, rowLengths, index, moved);
+        size--;
+        titles[size] = null;
+        entries[size] = null;
+        modCount++;
+
+        if (deadRows > MIN_COMPACTION_SIZE && deadRows > rowsLength / 2) {
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        Arrays.fill(titles, 0, size, null);
+        Arrays.fill(entries, 0, size, null);
+        size = 0;
+        rowsLength = 0;
+        deadRows = 0;
+        modCount++;
+    }
+
+    /** The copy shares all entries parsed so far. */
+    @Override
+    public LazyBookList copy() {
+        LazyBookList copy = new LazyBookList(parser);
+        copy.size = size;
+        copy.titles = titles.clone();
+        copy.entries = entries.clone();
+        copy.rowOffsets = rowOffsets.clone();
+        copy.rowLengths = rowLengths.clone();
+        copy.rows = rows.clone();
+        copy.rowsLength = rowsLength;
+        copy.deadRows = deadRows;
+        return copy;
+    }
+
+    /**
+     * Find a book by comparing titles first and only parsing rows whose
+     * title matches.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof BookEntry)) {
+            return -1;
+        }
+
+        BookEntry book = (BookEntry) o;
+        for (int i = 0; i < size; i++) {
+            if (titles[i].equals(book.getTitle()) && get(i).equals(book)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public long estimateBytes() {
+        long bytes = rows.length + 4L * (titles.length + entries.length + rowOffsets.length + rowLengths.length);
+        for (int i = 0; i < size; i++) {
+            bytes += 40 + titles[i].length();
+            if (entries[i] != null) {
+                // Entry, ISBN and author array, the title is shared.
+                bytes += 48 + 40 + entries[i].getISBN().length() + 16 + 4L * entries[i].getAuthors().length;
+            }
+        }
+        return bytes;
+    }
+
+    private boolean sameRow(int index, LazyBookList source, int sourceIndex) {
+        int length = rowLengths[index];
+        return length > 0 && length == source.rowLengths[sourceIndex]
+                && Arrays.equals(rows, rowOffsets[index], rowOffsets[index] + length,
+                        source.rows, source.rowOffsets[sourceIndex], source.rowOffsets[sourceIndex] + length);
+    }
+
+    private int appendRowBytes(byte[] data, int offset, int length) {
+        int needed = rowsLength + length;
+        if (needed > rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(needed, rows.length * 2));
+        }
+
+        int start = rowsLength;
+        System.arraycopy(data, offset, rows, start, length);
+        rowsLength = needed;
+        return start;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > titles.length) {
+            int grown = Math.max(capacity, titles.length * 2);
+            titles = Arrays.copyOf(titles, grown);
+            entries = Arrays.copyOf(entries, grown);
+            rowOffsets = Arrays.copyOf(rowOffsets, grown);
+            rowLengths = Arrays.copyOf(rowLengths, grown);
+        }
+    }
+
+    /** Rewrite the raw rows so they only hold books still stored. */
+    private void compact() {
+        byte[] compactRows = new byte[rowsLength - deadRows];
+        int position = 0;
+
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(rows, rowOffsets[i], compactRows, position, rowLengths[i]);
+            rowOffsets[i] = position;
+            position += rowLengths[i];
+        }
+
+        rows = compactRows;
+        rowsLength = position;
+        deadRows = 0;
+    }
+}
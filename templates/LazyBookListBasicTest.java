@@ -0,0 +1,112 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyBookListBasicTest {
+
+    private static final String ROW_A = "TitleA,AuthorA,3.2,ISBNA,500";
+    private static final String ROW_B = "TitleB,AuthorA-AuthorB,4.3,ISBNB,400";
+    private static final String ROW_BROKEN = "Broken,AuthorC,not a rating,ISBNC,300";
+
+    private static final BookEntry BOOK_A = new BookEntry("TitleA", new String[] { "AuthorA" }, 3.2f, "ISBNA", 500);
+    private static final BookEntry BOOK_B = new BookEntry("TitleB", new String[] { "AuthorA", "AuthorB" }, 4.3f,
+            "ISBNB", 400);
+
+    private LazyBookList testBooks;
+
+    @Before
+    public void setup() {
+        testBooks = new LazyBookList();
+        addRow(testBooks, ROW_A);
+        addRow(testBooks, ROW_B);
+        addRow(testBooks, ROW_BROKEN);
+    }
+
+    // ------------------------- access tests --------------------
+
+    @Test
+    public void testTitlesWithoutParsing() {
+        assertEquals("Unexpected size of lazy book list.", 3, testBooks.size());
+        assertEquals("Unexpected title.", "TitleA", testBooks.titleAt(0));
+        assertEquals("Title not read as expected through BookStore.", "Broken", BookStore.titleOf(testBooks, 2));
+        assertEquals("Unexpected ISBN.", "ISBNB", testBooks.isbnAt(1));
+        LazyBookList shortRow = new LazyBookList();
+        addRow(shortRow, "TitleA,AuthorA");
+        assertEquals("Row with too few columns expected to have an empty ISBN.", "", BookStore.isbnOf(shortRow, 0));
+        assertFalse("Reading a title is not expected to parse the row.", testBooks.isMaterialized(0));
+    }
+
+    @Test
+    public void testGetParsesOnFirstAccess() {
+        assertEquals("Stored book not returned as expected.", BOOK_B, testBooks.get(1));
+        assertTrue("Accessed book expected to be kept.", testBooks.isMaterialized(1));
+        assertFalse("Other books are not expected to be parsed.", testBooks.isMaterialized(0));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testMalformedRowFailsOnAccess() {
+        testBooks.get(2);
+    }
+
+    @Test
+    public void testContainsRow() {
+        LazyBookList other = new LazyBookList();
+        addRow(other, "TitleB,AuthorA-AuthorB,4.30,ISBNB,400");
+        addRow(other, "TitleA,AuthorA,3.2,ISBNA,501");
+
+        assertTrue("Row with equal details expected to be found.", testBooks.containsRow(other, 0));
+        assertFalse("Row with different pages not expected to be found.", testBooks.containsRow(other, 1));
+        assertTrue("Added entry expected to be found.", testBooks.contains(BOOK_A));
+    }
+
+    // ------------------------- modification tests --------------------
+
+    @Test
+    public void testRemoveManyCompacts() {
+        testBooks = new LazyBookList();
+        for (int i = 0; i < 1000; i++) {
+            addRow(testBooks, "Title " + i + ",Author " + i + ",1.0,ISBN" + i + "," + i);
+        }
+        testBooks.add(BOOK_A);
+        while (testBooks.size() > 3) {
+            testBooks.remove(0);
+        }
+
+        assertEquals("Remaining book not returned as expected.",
+                new BookEntry("Title 998", new String[] { "Author 998" }, 1f, "ISBN998", 998), testBooks.get(0));
+        assertEquals("Remaining book not returned as expected.",
+                new BookEntry("Title 999", new String[] { "Author 999" }, 1f, "ISBN999", 999), testBooks.get(1));
+        assertEquals("Added entry not returned as expected.", BOOK_A, testBooks.get(2));
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testLibraryLoadDataLazy() {
+        LibraryData library = new LibraryData(StorageMode.LAZY);
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            library.loadData(Paths.get("booksTestData01.csv"));
+            library.loadData(Paths.get("booksTestData01.csv"));
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        List<BookEntry> books = library.getBookData();
+        assertTrue("Lazy library expected to use lazy storage.", books instanceof LazyBookList);
+        assertEquals("Duplicates not expected to be added.", 2, books.size());
+    }
+
+    private static void addRow(LazyBookList books, String row) {
+        byte[] data = row.getBytes(StandardCharsets.UTF_8);
+        books.addRow(data, 0, data.length);
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Scanner;
 
 /**
@@ -11,6 +12,8 @@ public class LibraryBrowser {
     private final LibraryData data;
     /** Create and handle commands created via user input. */
     private final CommandInterpreter cmdIntrp;
+    /** Log for slow commands, null if not configured. */
+    private final SlowCommandLog slowLog;
     /** 
      * Used to read user input from StdIO. 
      * Only close shortly before program exit.
@@ -21,15 +24,70 @@ public class LibraryBrowser {
      * Create library browser.
      */
     public LibraryBrowser() {
-        data = new LibraryData();
-        cmdIntrp = new CommandInterpreter();
+        data = new LibraryData(StorageMode.fromSystemProperty());
+        data.setQuarantine(Quarantine.openIfConfigured());
+        data.setFollower(JournalFollower.startIfConfigured(data));
+        if (data.getFollower() == null) {
+            openJournal();
+        }
+        slowLog = SlowCommandLog.openIfConfigured();
+        cmdIntrp = new CommandInterpreter(slowLog);
         stdInScan = new Scanner(System.in);
     }
 
-    /** Run the library browser and start the corresponding main loop. */
+    /**
+     * Run the library browser and start the corresponding main loop.
+     *
+     * If the system property library.metrics.port is set, metrics are
+     * served on that localhost port while the main loop is running.
+     * If library.slowlog.thresholdMs is set, slow commands are logged.
+     * If library.follow names the journal directory of another library
+     * browser, the library follows its changes and is read-only.
+     */
     public void run() {
+        MetricsServer metricsServer = MetricsServer.startIfConfigured(data, cmdIntrp);
+
         mainLoop();
         stdInScan.close();
+        data.getDirectoryWatcher().shutdown();
+        data.getLoadJobs().shutdown();
+        if (data.getFollower() != null) {
+            data.getFollower().close();
+        }
+        data.close();
+        if (data.getQuarantine() != null) {
+            data.getQuarantine().close();
+        }
+
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+        if (slowLog != null) {
+            slowLog.close();
+        }
+    }
+
+    /**
+     * Restore the library from the journal named by system property
+     * library.journal and journal all changes. Without a journal changes
+     * are lost on exit.
+     */
+    private void openJournal() {
+        MutationJournal journal = MutationJournal.openIfConfigured();
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            data.openJournal(journal);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: Restoring library from journal failed: " + e);
+            try {
+                journal.close();
+            } catch (IOException closeFailure) {
+                System.err.println("ERROR: Closing journal failed: " + closeFailure);
+            }
+        }
     }
 
     /**
@@ -9,6 +9,9 @@ public abstract class LibraryCommand<PATH> {
 	/** This commands specific type. */
 	private CommandType type;
 
+	/** Argument input this command was created with. */
+	private String argumentInput;
+
 	/**
 	 * Create the specified command and initialise it with 
 	 * the given command argument.
@@ -24,6 +27,7 @@ public abstract class LibraryCommand<PATH> {
 		Objects.requireNonNull(type, "Given type must not be null.");
 		Objects.requireNonNull(argumentInput, "Given argument input must not be null.");
 		this.type = type;
+		this.argumentInput = argumentInput;
 
 		if (!parseArguments(argumentInput)) {
 		    throw new IllegalArgumentException("Invalid argument for " + type + " command: " + argumentInput);
@@ -51,6 +55,14 @@ public abstract class LibraryCommand<PATH> {
 		return type;
 	}
 
+	/**
+	 * The argument input this command was created with.
+	 * @return argument input of this command
+	 */
+	public String getArgumentInput() {
+		return argumentInput;
+	}
+
 	/**
 	 * Execute the specific command.
 	 *
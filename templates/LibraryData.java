@@ -1,32 +1,476 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /** 
  * Class responsible for handling currently loaded
  * book data and loading additional data from file.
+ *
+ * Book data is published as immutable snapshots. Readers take the current
+ * snapshot without locking and are never affected by later changes.
+ * Writers are serialized on this instance, change a copy of the current
+ * snapshot and publish it as the next version.
+ *
+ * With a journal, see openJournal, every change is journaled before it is
+ * published and made durable before the writer returns.
  */
 public class LibraryData {
 
-    /** Currently loaded book data. */
-    private final List<BookEntry> books;
+    /** Approximate heap bytes of a BookEntry instance without its strings. */
+    private static final int ENTRY_OVERHEAD_BYTES = 48;
+
+    /** Approximate heap bytes of a String instance without its characters. */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    /** Approximate heap bytes of an array instance without its elements. */
+    private static final int ARRAY_OVERHEAD_BYTES = 16;
+
+    /** Number of rows merged for a job between checks for cancellation. */
+    private static final int CANCEL_CHECK_ROWS = 1024;
+
+    /** Currently loaded book data, an immutable snapshot replaced on every change. */
+    private volatile List<BookEntry> books;
+
+    /** Number of snapshots published since this library was created. */
+    private volatile long version;
+
+    /** Canonical author names shared by all books of this library. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Load counters and size gauges of this library. */
+    private final LoadStatistics statistics;
+
+    /** Snapshot for which the statistics were last published. */
+    private volatile List<BookEntry> publishedBooks;
+
+    /** Background load jobs of this library. */
+    private final LoadJobManager loadJobs;
+
+    /** Watcher loading changed files of watched directories. */
+    private final DirectoryWatcher directoryWatcher;
+
+    /** Checkpoint up to which each loaded file has been ingested, by absolute path. */
+    private final Map<Path, FileCheckpoint> checkpoints;
+
+    /** Quarantine for malformed rows, null to fail loads on malformed rows. */
+    private volatile Quarantine quarantine;
+
+    /** Journal of changes to the book data, null if changes are not journaled. */
+    private volatile MutationJournal journal;
+
+    /** Is a snapshot of the book data being written to the journal? */
+    private boolean snapshotting;
+
+    /** Follower applying the journal of another library, null if this library is not read-only. */
+    private volatile JournalFollower follower;
 
     /** Create a new and empty book library. */
     public LibraryData() {
-        books = new ArrayList<>();
+        this(StorageMode.HEAP);
+    }
+
+    /**
+     * Create a new and empty book library using the given storage layout.
+     * @param mode storage layout for book data
+     * @throws NullPointerException if the given mode is null
+     */
+    public LibraryData(StorageMode mode) {
+        Objects.requireNonNull(mode, "Given storage mode must not be null.");
+
+        authorDictionary = new AuthorDictionary();
+        List<BookEntry> empty;
+        switch (mode) {
+            case COLUMNAR:
+                empty = new ColumnarBookList(authorDictionary);
+                break;
+            case LAZY:
+                empty = new LazyBookList(authorDictionary);
+                break;
+            case OFF_HEAP:
+                empty = new OffHeapBookList();
+                break;
+            case DISK:
+                empty = new DiskBookList();
+                break;
+            default:
+                empty = new ArrayList<>();
+                break;
+        }
+        books = freeze(empty);
+        version = 0;
+        statistics = new LoadStatistics();
+        publishedBooks = null;
+        loadJobs = new LoadJobManager(this);
+        directoryWatcher = new DirectoryWatcher(this);
+        checkpoints = new ConcurrentHashMap<>();
+        quarantine = null;
+        journal = null;
+        snapshotting = false;
+        follower = null;
     }
 
     /** 
-     * Get all available book entries.
+     * Get all available book entries. The returned list is a snapshot which
+     * cannot be changed and does not reflect later changes to the library.
      * @return available book entries
      */
     public List<BookEntry> getBookData() {
         return books;
     }
 
+    /**
+     * Get the number of snapshots published so far. It changes whenever
+     * the book data changes.
+     * @return current version of the book data
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Change the book data. The given update is applied to a modifiable copy
+     * of the current snapshot, which is published afterwards. If the update
+     * throws, the library keeps its current book data.
+     *
+     * Updates are serialized, readers keep working on the previous snapshot
+     * until the update has completed. With a journal, the books added and
+     * removed by the update are journaled and forced to the storage device
+     * before this method returns.
+     *
+     * If the update leaves fewer books than before, the checkpoints of all
+     * loaded files are forgotten, so that loading a file again adds the
+     * removed books back instead of skipping the rows ingested before.
+     *
+     * @param update change to apply to the book data
+     * @param <T> result type of the update
+     * @return result of the update
+     * @throws NullPointerException if the given update is null
+     * @throws UncheckedIOException if writing to the journal failed
+     */
+    public <T> T updateBookData(Function<List<BookEntry>, T> update) {
+        Objects.requireNonNull(update, "Given update must not be null.");
+
+        T result;
+        MutationJournal log;
+        long commit;
+        synchronized (this) {
+            List<BookEntry> current = books;
+            List<BookEntry> next = current instanceof BookStore ? ((BookStore) current).copy()
+                    : new ArrayList<>(current);
+            log = journal;
+            if (log == null) {
+                result = update.apply(next);
+                books = freeze(next);
+                forgetCheckpointsIfRemoved(current, next);
+                version++;
+                return result;
+            }
+
+            long start = log.getLastSequence();
+            try {
+                JournaledList journaled = new JournaledList(next, log);
+                result = update.apply(journaled);
+                journaled.appendStoredBooks();
+                if (next instanceof DiskBookList) {
+                    ((DiskBookList) next).setJournalSequence(log.getLastSequence() + 1);
+                }
+                books = freeze(next);
+                forgetCheckpointsIfRemoved(current, next);
+            } catch (RuntimeException | Error e) {
+                if (log.getLastSequence() != start) {
+                    log.appendAbort();
+                }
+                throw e;
+            }
+            commit = log.appendCommit();
+            version++;
+        }
+
+        log.sync(commit);
+        snapshotIfDue(log);
+        return result;
+    }
+
+    /**
+     * Restore the book data from the snapshot and journal in the directory
+     * of the given journal and journal all later changes to it. Disk
+     * storage kept in a file replays only the commits after the last one
+     * it stored.
+     *
+     * @param journal journal to restore from and append to
+     * @return number of replayed changes
+     * @throws IOException if reading the snapshot or journal failed
+     * @throws NullPointerException if the given journal is null
+     * @throws IllegalStateException if the library holds books not restored from the journal
+     *         or the journal does not match the book data
+     */
+    public synchronized int openJournal(MutationJournal journal) throws IOException {
+        Objects.requireNonNull(journal, "Given journal must not be null.");
+        if (this.journal != null) {
+            throw new IllegalStateException("Library is journaled already.");
+        }
+
+        List<BookEntry> current = books;
+        List<BookEntry> next = current instanceof BookStore ? ((BookStore) current).copy() : new ArrayList<>(current);
+        long sequence = next instanceof DiskBookList ? ((DiskBookList) next).getJournalSequence() : 0;
+        if (sequence == 0) {
+            if (!next.isEmpty()) {
+                throw new IllegalStateException("Library must be empty to restore it from a journal.");
+            }
+            sequence = MutationJournal.readSnapshot(journal.getDirectory(), next::add);
+        }
+
+        int replayed;
+        try (MutationJournal.Reader reader = MutationJournal.read(journal.getDirectory(), sequence)) {
+            replayed = replay(next, reader);
+            sequence = reader.getCommittedSequence();
+        }
+        // Stored books may reach further than the journal if it lost its last commit in a crash.
+        journal.skipTo(sequence);
+        if (next instanceof DiskBookList) {
+            ((DiskBookList) next).setJournalSequence(sequence);
+        }
+        books = freeze(next);
+        version++;
+        this.journal = journal;
+        return replayed;
+    }
+
+    /**
+     * Get the journal changes to the book data are written to.
+     * @return journal or null if changes are not journaled
+     */
+    public MutationJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Apply all committed changes the given reader reads to the book data.
+     *
+     * @param books modifiable book data holding all changes before the reader's position
+     * @param reader journal reader
+     * @return number of applied changes
+     * @throws IOException if reading the journal failed
+     * @throws IllegalStateException if a removed book does not match the book data
+     */
+    static int replay(List<BookEntry> books, MutationJournal.Reader reader) throws IOException {
+        int replayed = 0;
+        for (List<MutationJournal.Mutation> batch = reader.nextBatch(); batch != null; batch = reader.nextBatch()) {
+            apply(books, batch);
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /**
+     * Apply a committed batch of a journal to the book data.
+     *
+     * @param books modifiable book data holding all changes before the batch
+     * @param batch mutations of the batch in order
+     * @throws IllegalStateException if a removed book does not match the book data
+     */
+    static void apply(List<BookEntry> books, List<MutationJournal.Mutation> batch) {
+        for (MutationJournal.Mutation mutation : batch) {
+            if (mutation.isAdded()) {
+                books.add(mutation.getIndex(), mutation.getBook());
+            } else if (mutation.getIndex() >= books.size()
+                    || !books.remove(mutation.getIndex()).equals(mutation.getBook())) {
+                throw new IllegalStateException("Journal does not match the book data at sequence "
+                        + mutation.getSequence() + ".");
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot of the current book data once the journal has grown
+     * enough. Later changes go to a new journal segment meanwhile.
+     */
+    private void snapshotIfDue(MutationJournal log) {
+        List<BookEntry> snapshot;
+        long sequence;
+        synchronized (this) {
+            if (snapshotting || journal != log || !log.isSnapshotDue()) {
+                return;
+            }
+            snapshotting = true;
+            snapshot = books;
+            sequence = log.rotate();
+        }
+
+        try {
+            log.writeSnapshot(snapshot, sequence);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: Writing library snapshot failed: " + e);
+        } finally {
+            synchronized (this) {
+                snapshotting = false;
+            }
+        }
+    }
+
+    /**
+     * Get the dictionary of author names shared by all books loaded into
+     * this library.
+     * @return author dictionary of this library
+     */
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    /**
+     * Release the storage of the book data, closing the journal and the
+     * file of disk storage. The library must not be used afterwards.
+     *
+     * Calls are serialized with changes to the book data.
+     */
+    public synchronized void close() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("ERROR: Closing journal failed: " + e);
+            }
+            journal = null;
+        }
+        if (books instanceof DiskBookList) {
+            ((DiskBookList) books).close();
+        }
+    }
+
+    /**
+     * Get the background load jobs of this library.
+     * @return load job manager of this library
+     */
+    public LoadJobManager getLoadJobs() {
+        return loadJobs;
+    }
+
+    /**
+     * Parse loaded files leniently: malformed rows are rejected into the
+     * given quarantine and reported instead of failing the load.
+     * @param quarantine quarantine for malformed rows or null to fail loads on malformed rows
+     */
+    public void setQuarantine(Quarantine quarantine) {
+        this.quarantine = quarantine;
+    }
+
+    /**
+     * Get the quarantine for malformed rows.
+     * @return quarantine or null if loads fail on malformed rows
+     */
+    public Quarantine getQuarantine() {
+        return quarantine;
+    }
+
+    /**
+     * Make this library a read-only follower of the journal of another
+     * library. Commands changing the book data are rejected, see
+     * CommandInterpreter.
+     * @param follower follower applying the journal to this library or null to make it modifiable
+     */
+    public void setFollower(JournalFollower follower) {
+        this.follower = follower;
+    }
+
+    /**
+     * Get the follower applying the journal of another library.
+     * @return follower or null if this library is not a follower
+     */
+    public JournalFollower getFollower() {
+        return follower;
+    }
+
+    /**
+     * Get the watcher loading changed files of watched directories.
+     * @return directory watcher of this library
+     */
+    public DirectoryWatcher getDirectoryWatcher() {
+        return directoryWatcher;
+    }
+
+    /**
+     * Get load counters and size gauges of this library. These can be
+     * read from any thread.
+     * @return statistics of this library
+     */
+    public LoadStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Publish the size of the current snapshot to the statistics. The heap
+     * estimate is only computed once the statistics are read, at most once
+     * per snapshot.
+     *
+     * Calls never wait for changes to the book data. A call racing with
+     * another one publishes again if its snapshot has been replaced.
+     */
+    public void publishStatistics() {
+        List<BookEntry> snapshot;
+        do {
+            snapshot = books;
+            if (snapshot != publishedBooks) {
+                List<BookEntry> published = snapshot;
+                AtomicLong estimate = new AtomicLong(-1);
+                publishedBooks = published;
+                statistics.publishLibrarySize(published.size(), () -> {
+                    if (estimate.get() < 0) {
+                        estimate.set(estimateBytes(published));
+                    }
+                    return estimate.get();
+                });
+            }
+        } while (snapshot != books);
+    }
+
+    /**
+     * Estimate the heap bytes held by the given snapshot and the author names.
+     * @param snapshot published book data
+     * @return estimated size in bytes
+     */
+    private long estimateBytes(List<BookEntry> snapshot) {
+        long bytes = authorDictionary.estimateBytes();
+        if (snapshot instanceof BookStore) {
+            bytes += ((BookStore) snapshot).estimateBytes();
+        } else {
+            for (BookEntry book : snapshot) {
+                bytes += estimateBytes(book);
+            }
+        }
+        return bytes;
+    }
+
     /**
      * Initiate book data loading for the given path.
+     *
+     * With lazy storage only titles are read while loading, rows are only
+     * checked without creating their books. The file is read and parsed
+     * before the book data is locked for merging.
+     *
+     * A file loaded before is loaded incrementally: only rows appended
+     * since the last load are parsed, provided the file still starts with
+     * the bytes ingested then. Otherwise the whole file is loaded again.
+     *
+     * With a quarantine, malformed rows are rejected and reported while
+     * all other rows are loaded, see setQuarantine.
+     *
      * @param libraryFile specified path to book data file
      * @return true if loading was successful, false otherwise
      * @throws NullPointerException if the given path is null
@@ -35,13 +479,41 @@ public class LibraryData {
     public boolean loadData(Path libraryFile) {
         Objects.requireNonNull(libraryFile, "Given file path must not be null.");
                
-        LibraryFileLoader loader = new LibraryFileLoader();
-        boolean success = loader.loadFileContent(libraryFile);
+        long start = System.nanoTime();
+        LibraryFileLoader loader = newLoader(loadDictionary());
+        boolean success;
+        int rows = 0;
+        int added = 0;
+
+        if (books instanceof DiskBookList) {
+            int[] fileRows = new int[1];
+            int[] fileAdded = ingestFiles(Collections.singletonList(libraryFile), Collections.singletonList(loader),
+                    fileRows, null);
+            success = fileRows[0] >= 0;
+            rows = fileRows[0];
+            added = fileAdded[0];
+        } else if (books instanceof LazyBookList) {
+            LazyBookList loaded = loader.loadRawRows(libraryFile, checkpointOf(libraryFile));
+            success = loaded != null;
+            if (success) {
+                rows = loaded.size();
+                added = mergeRows(loaded);
+            }
+        } else {
+            List<BookEntry> loaded = readEntries(loader, libraryFile, checkpointOf(libraryFile));
+            success = loaded != null;
+            if (success) {
+                rows = loaded.size();
+                added = mergeEntries(loaded);
+            }
+        }
 
         if (success) {
-            List<BookEntry> loaded = loader.parseFileContent();
-            int added = mergeEntries(loaded);
+            recordCheckpoint(libraryFile, loader);
             System.out.println(added + " new book entries added.");
+            recordRejected(libraryFile, loader, true);
+            statistics.recordLoad(rows, fileSize(libraryFile), System.nanoTime() - start);
+            publishStatistics();
         } else {
             System.err.println("ERROR: Loading book data failed for file: " + libraryFile);
         }
@@ -49,26 +521,578 @@ public class LibraryData {
         return success;
     }
 
+    /**
+     * Initiate book data loading for several files. Files are read and
+     * parsed concurrently and merged in sorted path order once all of them
+     * are parsed, so that duplicates are handled as if the files were
+     * added one after another. The book data is only locked for merging,
+     * all books are published in a single update.
+     *
+     * Files which cannot be loaded are reported and skipped. Added and
+     * duplicate books are printed per file once all files are merged.
+     *
+     * @param libraryFiles specified paths to book data files
+     * @return true if all files were loaded successfully, false otherwise
+     * @throws NullPointerException if the given list or any path is null
+     */
+    public boolean loadData(List<Path> libraryFiles) {
+        Objects.requireNonNull(libraryFiles, "Given file paths must not be null.");
+        List<Path> files = new ArrayList<>(libraryFiles);
+        files.forEach(file -> Objects.requireNonNull(file, "Given file path must not be null."));
+        Collections.sort(files);
+
+        if (books instanceof DiskBookList) {
+            return ingestData(files);
+        }
+
+        boolean lazy = books instanceof LazyBookList;
+        AuthorDictionary names = loadDictionary();
+        int threads = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors() * 2));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        List<LibraryFileLoader> loaders = new ArrayList<>();
+        List<Future<List<BookEntry>>> parsed = new ArrayList<>();
+        for (Path file : files) {
+            LibraryFileLoader loader = newLoader(names);
+            FileCheckpoint from = checkpointOf(file);
+            loaders.add(loader);
+            parsed.add(executor.submit(() -> lazy ? loader.loadRawRows(file, from) : readEntries(loader, file, from)));
+        }
+        executor.shutdown();
+
+        List<List<BookEntry>> fileBooks = new ArrayList<>();
+        int[] rows = new int[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            fileBooks.add(awaitParsed(parsed.get(i)));
+            rows[i] = fileBooks.get(i) == null ? -1 : fileBooks.get(i).size();
+        }
+
+        int[] added = new int[files.size()];
+        updateBookData(bookData -> {
+            Collection<BookEntry> existing = index(bookData);
+            for (int i = 0; i < files.size(); i++) {
+                if (rows[i] >= 0) {
+                    added[i] = lazy ? mergeRows((LazyBookList) storeOf(bookData), (BookIndex) existing,
+                            (LazyBookList) fileBooks.get(i), null)
+                            : mergeEntries(bookData, existing, fileBooks.get(i), null);
+                }
+            }
+            return null;
+        });
+
+        return reportLoads(files, loaders, rows, added, System.nanoTime() - start);
+    }
+
+    /**
+     * Load several files into disk storage, see loadData. Files are read
+     * one after another and merged in a single update.
+     *
+     * @param files files to load in sorted order
+     * @return true if all files were loaded successfully, false otherwise
+     */
+    private boolean ingestData(List<Path> files) {
+        long start = System.nanoTime();
+        AuthorDictionary names = loadDictionary();
+        List<LibraryFileLoader> loaders = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            loaders.add(newLoader(names));
+        }
+
+        int[] rows = new int[files.size()];
+        int[] added = ingestFiles(files, loaders, rows, null);
+        return reportLoads(files, loaders, rows, added, System.nanoTime() - start);
+    }
+
+    /**
+     * Report the outcome of loading several files and record it in the
+     * statistics and checkpoints. The load time is shared evenly between
+     * the loaded files.
+     *
+     * @param files loaded files
+     * @param loaders loader per file
+     * @param rows number of books read per file, -1 for files which could not be loaded
+     * @param added number of books added per file
+     * @param elapsed time spent loading all files in nanoseconds
+     * @return true if all files were loaded successfully, false otherwise
+     */
+    private boolean reportLoads(List<Path> files, List<LibraryFileLoader> loaders, int[] rows, int[] added,
+                                long elapsed) {
+        int loadedFiles = 0;
+        for (int i = 0; i < files.size(); i++) {
+            if (rows[i] < 0) {
+                System.err.println("ERROR: Loading book data failed for file: " + files.get(i));
+            } else {
+                loadedFiles++;
+            }
+        }
+
+        int total = 0;
+        for (int i = 0; i < files.size(); i++) {
+            if (rows[i] >= 0) {
+                int rejected = loaders.get(i).getRejectedRows();
+                System.out.println(files.get(i) + ": " + added[i] + " added, " + (rows[i] - added[i])
+                        + " duplicates" + (rejected > 0 ? ", " + rejected + " rejected" : ""));
+                recordRejected(files.get(i), loaders.get(i), false);
+                statistics.recordLoad(rows[i], fileSize(files.get(i)), elapsed / loadedFiles);
+                recordCheckpoint(files.get(i), loaders.get(i));
+                total += added[i];
+            }
+        }
+        System.out.println(total + " new book entries added from " + loadedFiles + " files.");
+        publishStatistics();
+        return loadedFiles == files.size();
+    }
+
+    /**
+     * Load files into disk storage by external sorting. The books of the
+     * files are collected in sorted runs on disk while the files are read,
+     * before the book data is locked for merging, so that files larger
+     * than the heap can be loaded. Duplicates are printed unless loading
+     * for a job.
+     *
+     * Unless loading for a job, files which cannot be read are reported
+     * and skipped, as are files with malformed rows if several files are
+     * loaded.
+     *
+     * @param files files to load in this order
+     * @param loaders loader per file
+     * @param rows receives the number of books read per file, -1 for files which could not be loaded
+     * @param job job to report progress to or null
+     * @return number of books added per file
+     * @throws UncheckedIOException if reading a file failed while loading for a job
+     */
+    private int[] ingestFiles(List<Path> files, List<LibraryFileLoader> loaders, int[] rows, LoadJob job) {
+        try (DiskBookList.Ingest ingest = new DiskBookList.Ingest(files.size(), job == null)) {
+            boolean loaded = false;
+            for (int i = 0; i < files.size(); i++) {
+                int fileIndex = i;
+                try {
+                    rows[i] = loaders.get(i).readBooks(files.get(i), checkpointOf(files.get(i)), job,
+                            book -> ingest.add(book, fileIndex));
+                    loaded = true;
+                    continue;
+                } catch (IOException e) {
+                    if (job != null) {
+                        throw new UncheckedIOException(e);
+                    }
+                    System.err.println("ERROR: Reading file content failed: " + e);
+                } catch (RuntimeException e) {
+                    if (job != null || files.size() == 1) {
+                        throw e;
+                    }
+                    System.err.println("ERROR: Parsing book data failed: " + e);
+                }
+                rows[i] = -1;
+                ingest.discard(i);
+            }
+
+            if (!loaded) {
+                return new int[files.size()];
+            }
+            return updateBookData(bookData -> ((DiskBookList) storeOf(bookData)).merge(ingest,
+                    job == null ? entry -> System.out.println("Duplicate entry found for book: " + entry) : null,
+                    job));
+        }
+    }
+
+    /**
+     * Author dictionary for loading a file. Off-heap and disk storage keep
+     * author names out of the heap, so they are only shared while loading.
+     */
+    private AuthorDictionary loadDictionary() {
+        List<BookEntry> snapshot = books;
+        return snapshot instanceof OffHeapBookList || snapshot instanceof DiskBookList ? new AuthorDictionary()
+                : authorDictionary;
+    }
+
+    /**
+     * Read and parse the rows of a book data file appended since the given
+     * checkpoint, all rows if the file changed otherwise. Compressed files
+     * are parsed while they are decompressed.
+     * @return parsed books or null if reading the file failed
+     */
+    private static List<BookEntry> readEntries(LibraryFileLoader loader, Path file, FileCheckpoint from) {
+        try {
+            return loader.readBooks(file, from, null);
+        } catch (IOException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Wait for a file of a multi-file load to be parsed. Failures are
+     * reported as error.
+     * @return parsed books or null if the file could not be loaded
+     */
+    private static List<BookEntry> awaitParsed(Future<List<BookEntry>> parsed) {
+        try {
+            List<BookEntry> fileBooks = parsed.get();
+            if (fileBooks != null) {
+                return fileBooks;
+            }
+        } catch (ExecutionException e) {
+            System.err.println("ERROR: Parsing book data failed: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parsed.cancel(true);
+        }
+        return null;
+    }
+
+    /**
+     * Load book data for the given path as part of a background job. The
+     * job reports progress while the file is parsed. Nothing is printed,
+     * the outcome is recorded in the job instead.
+     *
+     * Books are only merged once the whole file has been parsed and are
+     * published in a single update, so a cancelled or failed job leaves
+     * the library unchanged.
+     *
+     * @param libraryFile specified path to book data file
+     * @param job job to report progress and outcome to
+     * @return true if loading was successful, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean loadData(Path libraryFile, LoadJob job) {
+        Objects.requireNonNull(libraryFile, "Given file path must not be null.");
+        Objects.requireNonNull(job, "Given job must not be null.");
+
+        long start = System.nanoTime();
+        LibraryFileLoader loader = newLoader(loadDictionary());
+
+        try {
+            job.start();
+            job.checkCancelled();
+
+            int rows;
+            int added;
+            if (books instanceof DiskBookList) {
+                int[] fileRows = new int[1];
+                added = ingestFiles(Collections.singletonList(libraryFile), Collections.singletonList(loader),
+                        fileRows, job)[0];
+                rows = fileRows[0];
+            } else if (books instanceof LazyBookList) {
+                LazyBookList loaded = loader.loadRawRows(libraryFile, checkpointOf(libraryFile));
+                if (loaded == null) {
+                    job.fail("Reading file content failed.");
+                    return false;
+                }
+                job.progress(loaded.size(), fileSize(libraryFile));
+                rows = loaded.size();
+                added = updateBookData(bookData -> mergeRows((LazyBookList) storeOf(bookData),
+                        (BookIndex) index(bookData), loaded, job));
+            } else {
+                List<BookEntry> loaded = loader.readBooks(libraryFile, checkpointOf(libraryFile), job);
+                rows = loaded.size();
+                added = updateBookData(bookData -> mergeEntries(bookData, index(bookData), loaded, job));
+            }
+
+            recordCheckpoint(libraryFile, loader);
+            recordRejected(libraryFile, loader, false);
+            job.complete(added, rows - added, loader.getRejectedRows());
+            statistics.recordLoad(rows, fileSize(libraryFile), System.nanoTime() - start);
+            publishStatistics();
+            return true;
+        } catch (CancellationException e) {
+            job.cancelled();
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.toString());
+        }
+        return false;
+    }
+
     /**
      * Merge the list of book entries with the
      * entries already loaded.
      * 
      * Duplicate entries will be discarded (This requires .equals to be
-     * implemented for BookEntry).
+     * implemented for BookEntry). Entries are looked up through a hash
+     * index built for this merge, see index method.
      * 
      * @param loaded list of book entries to be merged with data already loaded
      * @return number of book entries added to the library
      */
     private int mergeEntries(List<BookEntry> loaded) {
+        return updateBookData(bookData -> mergeEntries(bookData, index(bookData), loaded, null));
+    }
+
+    /**
+     * Merge the list of book entries into the given book data. Duplicates
+     * are printed unless merging for a job.
+     *
+     * @param books modifiable book data
+     * @param existing index of the given book data, see index method
+     * @param loaded list of book entries to be merged
+     * @param job job to check for cancellation or null
+     * @return number of book entries added
+     */
+    private static int mergeEntries(List<BookEntry> books, Collection<BookEntry> existing,
+                                    List<BookEntry> loaded, LoadJob job) {
+        MergeEntriesEvent event = new MergeEntriesEvent();
+        event.begin();
+
         int count = 0;
-        for (BookEntry entry : loaded) {
-            if (!books.contains(entry)) {
+        for (int i = 0; i < loaded.size(); i++) {
+            BookEntry entry = loaded.get(i);
+            if (job != null && i % CANCEL_CHECK_ROWS == 0) {
+                job.checkCancelled();
+            }
+            if (!existing.contains(entry)) {
                 books.add(entry);
+                if (existing != books) {
+                    existing.add(entry);
+                }
                 count++;
-            } else {
+            } else if (job == null) {
                 System.out.println("Duplicate entry found for book: " + entry);
             }
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.added = count;
+            event.duplicates = loaded.size() - count;
+            event.librarySize = books.size();
+            event.commit();
+        }
         return count;
     }
+
+    /**
+     * Merge raw rows into the lazy book data without parsing them. Rows
+     * are only parsed if a stored book has the same title but different
+     * raw bytes.
+     *
+     * @param loaded raw rows to be merged with data already loaded
+     * @return number of book entries added to the library
+     */
+    private int mergeRows(LazyBookList loaded) {
+        return updateBookData(bookData -> mergeRows((LazyBookList) storeOf(bookData), (BookIndex) index(bookData),
+                loaded, null));
+    }
+
+    /**
+     * Merge raw rows into the given lazy book data. Duplicates are printed
+     * unless merging for a job.
+     *
+     * @param library modifiable book data
+     * @param stored index of the given book data, rows added are indexed as well
+     * @param loaded raw rows to be merged
+     * @param job job to check for cancellation or null
+     * @return number of book entries added
+     */
+    private static int mergeRows(LazyBookList library, BookIndex stored, LazyBookList loaded, LoadJob job) {
+        MergeEntriesEvent event = new MergeEntriesEvent();
+        event.begin();
+
+        int count = 0;
+        for (int i = 0; i < loaded.size(); i++) {
+            if (job != null && i % CANCEL_CHECK_ROWS == 0) {
+                job.checkCancelled();
+            }
+            if (!library.containsRow(loaded, i, stored)) {
+                library.addRow(loaded, i);
+                stored.indexLast();
+                count++;
+            } else if (job == null) {
+                System.out.println("Duplicate entry found for book: " + loaded.get(i));
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.added = count;
+            event.duplicates = loaded.size() - count;
+            event.librarySize = library.size();
+            event.commit();
+        }
+        return count;
+    }
+
+    /**
+     * Collection to look up existing books in while merging. Books held in
+     * a plain list are indexed in a hash set, book stores in a book index
+     * hashing their titles so that they do not need to create all entries.
+     * Books added while merging must be added to the index as well.
+     *
+     * @param books book data to index
+     * @return hash index of the book data
+     */
+    private static Collection<BookEntry> index(List<BookEntry> books) {
+        List<BookEntry> store = storeOf(books);
+        return store instanceof BookStore ? new BookIndex(store) : new HashSet<>(books);
+    }
+
+    /**
+     * Book data an update changes, stores only append to it directly.
+     * @param books book data passed to an update
+     * @return underlying book data if it is journaled, otherwise the given book data
+     */
+    private static List<BookEntry> storeOf(List<BookEntry> books) {
+        return books instanceof JournaledList ? ((JournaledList) books).books : books;
+    }
+
+    /**
+     * Make the given book data immutable so it can be published.
+     * @param books book data not referenced by anyone else
+     * @return immutable view of the book data
+     */
+    private static List<BookEntry> freeze(List<BookEntry> books) {
+        if (books instanceof BookStore) {
+            ((BookStore) books).freeze();
+            return books;
+        }
+        return Collections.unmodifiableList(books);
+    }
+
+    /**
+     * Create a loader for a file, parsing leniently if this library has a
+     * quarantine.
+     * @param names dictionary providing canonical author names
+     * @return new loader
+     */
+    private LibraryFileLoader newLoader(AuthorDictionary names) {
+        LibraryFileLoader loader = new LibraryFileLoader(names);
+        loader.setQuarantine(quarantine);
+        return loader;
+    }
+
+    /**
+     * Count the malformed rows the given loader rejected and write them
+     * to the quarantine file.
+     * @param print true to report rejected rows as error
+     */
+    private void recordRejected(Path file, LibraryFileLoader loader, boolean print) {
+        int rejected = loader.getRejectedRows();
+        Quarantine rejects = quarantine;
+        if (rejected == 0 || rejects == null) {
+            return;
+        }
+
+        rejects.flush();
+        statistics.recordRejected(rejected);
+        if (print) {
+            System.err.println("ERROR: " + rejected + " malformed rows of file " + file
+                    + " rejected to quarantine file: " + rejects.getFile());
+        }
+    }
+
+    /**
+     * Get the checkpoint up to which the given file has been ingested.
+     * @return checkpoint of the last load or the start of the file if not loaded yet
+     */
+    private FileCheckpoint checkpointOf(Path file) {
+        return checkpoints.getOrDefault(file.toAbsolutePath().normalize(), FileCheckpoint.START);
+    }
+
+    /**
+     * Forget the checkpoints of all loaded files if books were removed by
+     * an update, as rows before a checkpoint are no longer known to be stored.
+     * @param before book data before the update
+     * @param after book data after the update
+     */
+    private void forgetCheckpointsIfRemoved(List<BookEntry> before, List<BookEntry> after) {
+        if (after.size() < before.size()) {
+            checkpoints.clear();
+        }
+    }
+
+    /** Remember the checkpoint reached by the given loader for the next load of the file. */
+    private void recordCheckpoint(Path file, LibraryFileLoader loader) {
+        Path key = file.toAbsolutePath().normalize();
+        if (loader.getCheckpoint() != null) {
+            checkpoints.put(key, loader.getCheckpoint());
+        } else {
+            checkpoints.remove(key);
+        }
+    }
+
+    /**
+     * Size of the given file, used for load statistics only.
+     * @param file file to check
+     * @return size in bytes or 0 if the size cannot be determined
+     */
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException | SecurityException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Rough estimate of the heap bytes held by a single book entry. Author
+     * names are shared through the author dictionary and not counted here.
+     * @param book book entry to estimate
+     * @return estimated size in bytes
+     */
+    private static long estimateBytes(BookEntry book) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        bytes += STRING_OVERHEAD_BYTES + book.getTitle().length();
+        bytes += STRING_OVERHEAD_BYTES + book.getISBN().length();
+        bytes += ARRAY_OVERHEAD_BYTES + 4L * book.getAuthors().length;
+        return bytes;
+    }
+
+    /**
+     * Book data passed to an update of a journaled library. Books added
+     * or removed through it are journaled immediately, books appended to
+     * the underlying store directly are journaled once the update is done.
+     */
+    private static final class JournaledList extends AbstractList<BookEntry> {
+
+        private final List<BookEntry> books;
+        private final MutationJournal journal;
+
+        /** Number of books after the changes journaled so far. */
+        private int journaledSize;
+
+        private JournaledList(List<BookEntry> books, MutationJournal journal) {
+            this.books = books;
+            this.journal = journal;
+            journaledSize = books.size();
+        }
+
+        @Override
+        public BookEntry get(int index) {
+            return books.get(index);
+        }
+
+        @Override
+        public int size() {
+            return books.size();
+        }
+
+        @Override
+        public boolean contains(Object book) {
+            return books.contains(book);
+        }
+
+        @Override
+        public void add(int index, BookEntry book) {
+            books.add(index, book);
+            journal.appendAdded(index, book);
+            journaledSize++;
+            modCount++;
+        }
+
+        @Override
+        public BookEntry remove(int index) {
+            BookEntry removed = books.remove(index);
+            journal.appendRemoved(index, removed);
+            journaledSize--;
+            modCount++;
+            return removed;
+        }
+
+        /** Journal the books appended to the store directly. */
+        private void appendStoredBooks() {
+            for (int i = journaledSize; i < books.size(); i++) {
+                journal.appendAdded(i, books.get(i));
+            }
+            journaledSize = books.size();
+        }
+    }
 }
@@ -0,0 +1,148 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryDataBasicTest {
+
+    private static final BookEntry BOOK_A = new BookEntry("TitleA", new String[] { "AuthorA" }, 3.2f, "ISBNA", 500);
+    private static final BookEntry BOOK_B = new BookEntry("TitleB", new String[] { "AuthorB" }, 4.3f, "ISBNB", 400);
+
+    private LibraryData testLibrary;
+
+    @Before
+    public void setup() {
+        testLibrary = new LibraryData();
+        testLibrary.updateBookData(books -> books.add(BOOK_A));
+    }
+
+    // ------------------------- snapshot tests --------------------
+
+    @Test
+    public void testSnapshotUnaffectedByUpdate() {
+        List<BookEntry> snapshot = testLibrary.getBookData();
+        long version = testLibrary.getVersion();
+
+        testLibrary.updateBookData(books -> books.add(BOOK_B));
+
+        assertEquals("Earlier snapshot not expected to change.", 1, snapshot.size());
+        assertEquals("Update expected to be visible in new snapshot.", 2, testLibrary.getBookData().size());
+        assertNotEquals("Version expected to change with update.", version, testLibrary.getVersion());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotNotModifiable() {
+        testLibrary.getBookData().add(BOOK_B);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testStoreSnapshotNotModifiable() {
+        LibraryData columnar = new LibraryData(StorageMode.COLUMNAR);
+        columnar.updateBookData(books -> books.add(BOOK_A));
+        columnar.getBookData().remove(0);
+    }
+
+    @Test
+    public void testFailedUpdateKeepsSnapshot() {
+        List<BookEntry> snapshot = testLibrary.getBookData();
+        try {
+            testLibrary.updateBookData(books -> {
+                books.clear();
+                throw new IllegalStateException("test failure");
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertSame("Snapshot expected to be kept after failed update.", snapshot, testLibrary.getBookData());
+    }
+
+    @Test
+    public void testPublishStatisticsDuringUpdate() throws Exception {
+        CountDownLatch updating = new CountDownLatch(1);
+        CountDownLatch published = new CountDownLatch(1);
+        Thread writer = new Thread(() -> testLibrary.updateBookData(books -> {
+            updating.countDown();
+            try {
+                published.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return books.add(BOOK_B);
+        }));
+        writer.start();
+        updating.await();
+
+        testLibrary.publishStatistics();
+        published.countDown();
+        writer.join();
+        assertEquals("Snapshot size expected while the update was running.", 1,
+                testLibrary.getStatistics().getBookCount());
+        assertTrue("Heap estimate expected.", testLibrary.getStatistics().getEstimatedBytes() > 0);
+
+        testLibrary.publishStatistics();
+        assertEquals("New snapshot size expected.", 2, testLibrary.getStatistics().getBookCount());
+    }
+
+    // ------------------------- multi-file load tests --------------------
+
+    @Test
+    public void testFindDataFiles() {
+        List<Path> files = LibraryFileLoader.findDataFiles("books0*.csv");
+        assertEquals("Unexpected files matched by pattern.", Arrays.asList(Paths.get("books01.csv"),
+                Paths.get("books02.csv"), Paths.get("books03.csv"), Paths.get("books04.csv"),
+                Paths.get("books05.csv")), files);
+        assertTrue("No files expected for pattern without match.",
+                LibraryFileLoader.findDataFiles("noSuchFile*.csv").isEmpty());
+    }
+
+    @Test
+    public void testLoadMultipleFilesMatchesSequentialLoad() {
+        List<Path> files = Arrays.asList(Paths.get("booksTestData01.csv"), Paths.get("books02.csv"),
+                Paths.get("books01.csv"));
+        LibraryData sequential = new LibraryData();
+        LibraryData parallel = new LibraryData();
+
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        boolean loaded;
+        try {
+            sequential.loadData(Paths.get("books01.csv"));
+            sequential.loadData(Paths.get("books02.csv"));
+            sequential.loadData(Paths.get("booksTestData01.csv"));
+            loaded = parallel.loadData(files);
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        assertTrue("All files expected to be loaded.", loaded);
+        assertEquals("Files expected to be merged in sorted order.", sequential.getBookData(),
+                parallel.getBookData());
+    }
+
+    @Test
+    public void testLoadMultipleFilesSkipsMissingFile() {
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        boolean loaded;
+        try {
+            loaded = testLibrary.loadData(Arrays.asList(Paths.get("books01.csv"), Paths.get("noSuchFile.csv")));
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        assertFalse("Missing file expected to be reported.", loaded);
+        assertEquals("Books of readable file expected to be added.", 25, testLibrary.getBookData().size());
+    }
+}
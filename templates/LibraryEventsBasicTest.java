@@ -0,0 +1,101 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryEventsBasicTest {
+
+    private static final String CONTENT = "title,authors,average_rating,isbn,# num_pages\n"
+            + "TitleA,AuthorA,3.2,ISBNA,500\n"
+            + "TitleB,AuthorA-AuthorB,4.3,ISBNB,400\n"
+            + "TitleA,AuthorA,3.2,ISBNA,500\n";
+
+    private Path testFile;
+    private Path recordingFile;
+
+    @Before
+    public void setup() throws IOException {
+        testFile = Files.createTempFile("events", ".csv");
+        Files.write(testFile, CONTENT.getBytes(StandardCharsets.US_ASCII));
+        recordingFile = Files.createTempFile("events", ".jfr");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+        Files.deleteIfExists(recordingFile);
+    }
+
+    // ------------------------- event tests --------------------
+
+    @Test
+    public void testEventsEmitted() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("library.LoadFile");
+            recording.enable("library.ParseFile");
+            recording.enable("library.MergeEntries");
+            recording.enable("library.CommandExecute");
+            recording.start();
+
+            LibraryFileLoader loader = new LibraryFileLoader();
+            assertTrue("File expected to be loaded.", loader.loadFileContent(testFile));
+            loader.parseFileContent();
+
+            LibraryData library = new LibraryData();
+            CommandInterpreter interpreter = new CommandInterpreter();
+            interpreter.executeCommand(interpreter.parseCommand("ADD " + testFile), library);
+
+            recording.stop();
+            recording.dump(recordingFile);
+            events = RecordingFile.readAllEvents(recordingFile);
+        }
+
+        List<RecordedEvent> loads = eventsNamed(events, "library.LoadFile");
+        assertEquals("Unexpected number of load events.", 2, loads.size());
+        RecordedEvent load = loads.get(0);
+        assertEquals("Unexpected path.", testFile.toString(), load.getString("path"));
+        assertTrue("Load expected to succeed.", load.getBoolean("success"));
+        assertEquals("Unexpected lines.", 4, load.getInt("lines"));
+        assertEquals("Unexpected bytes.", CONTENT.length(), load.getLong("bytes"));
+
+        List<RecordedEvent> parses = eventsNamed(events, "library.ParseFile");
+        assertEquals("Unexpected number of parse events.", 1, parses.size());
+        assertEquals("Unexpected rows.", 3, parses.get(0).getInt("rows"));
+        assertEquals("Unexpected parse errors.", 0, parses.get(0).getInt("parseErrors"));
+
+        List<RecordedEvent> merges = eventsNamed(events, "library.MergeEntries");
+        assertEquals("Unexpected number of merge events.", 1, merges.size());
+        assertEquals("Unexpected added books.", 2, merges.get(0).getInt("added"));
+        assertEquals("Unexpected duplicates.", 1, merges.get(0).getInt("duplicates"));
+        assertEquals("Unexpected library size.", 2, merges.get(0).getInt("librarySize"));
+
+        List<RecordedEvent> commands = eventsNamed(events, "library.CommandExecute");
+        assertEquals("Unexpected number of command events.", 1, commands.size());
+        assertEquals("Unexpected command type.", "ADD", commands.get(0).getString("commandType"));
+        assertEquals("Unexpected arguments.", testFile.toString(), commands.get(0).getString("arguments"));
+        assertEquals("Unexpected rows touched.", 2, commands.get(0).getInt("rowsTouched"));
+    }
+
+    private static List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> named = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                named.add(event);
+            }
+        }
+        return named;
+    }
+}
@@ -1,10 +1,22 @@
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /** 
  * Class responsible for loading
@@ -12,6 +24,15 @@ import java.util.Objects;
  */
 public class LibraryFileLoader {
 
+    /** Extensions of files holding book data, see isDataFile. */
+    private static final String[] DATA_FILE_EXTENSIONS = { ".csv", ".csv.gz", ".zip" };
+
+    /** Number of details of a book in a row. */
+    private static final int DETAIL_COUNT = 5;
+
+    /** Number of rows parsed between progress reports. */
+    private static final int PROGRESS_ROWS = 1024;
+
     /**
      * Contains all lines read from a book data file using
      * the loadFileContent method.
@@ -24,9 +45,60 @@ public class LibraryFileLoader {
      */
     private List<String> fileContent;
 
+    /** Dictionary providing canonical instances of parsed author names. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Checkpoint at the end of the data read last, see getCheckpoint. */
+    private FileCheckpoint checkpoint;
+
+    /** File the content was loaded from, null if no content has been loaded. */
+    private Path contentFile;
+
+    /** Quarantine receiving malformed rows, null to fail on the first malformed row. */
+    private Quarantine quarantine;
+
+    /** Number of malformed rows rejected while parsing last. */
+    private int rejectedRows;
+
     /** Create a new loader. No file content has been loaded yet. */
     public LibraryFileLoader() { 
+        this(new AuthorDictionary());
+    }
+
+    /**
+     * Create a new loader sharing author names through the given dictionary.
+     * No file content has been loaded yet.
+     *
+     * @param authorDictionary dictionary providing canonical author names.
+     * @throws NullPointerException if the given dictionary is null.
+     */
+    public LibraryFileLoader(AuthorDictionary authorDictionary) {
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given dictionary must not be null.");
         fileContent = null;
+        checkpoint = null;
+        contentFile = null;
+        quarantine = null;
+        rejectedRows = 0;
+    }
+
+    /**
+     * Parse leniently, rejecting malformed rows into the given quarantine
+     * instead of failing. Lazy loading with loadRawRows checks and rejects
+     * rows the same way.
+     *
+     * @param quarantine quarantine receiving malformed rows or null to
+     * fail on the first malformed row.
+     */
+    public void setQuarantine(Quarantine quarantine) {
+        this.quarantine = quarantine;
+    }
+
+    /**
+     * Get the number of malformed rows rejected while parsing last.
+     * @return rejected rows of the last parseFileContent, readBooks or loadRawRows call.
+     */
+    public int getRejectedRows() {
+        return rejectedRows;
     }
 
     /**
@@ -44,16 +116,122 @@ public class LibraryFileLoader {
         Objects.requireNonNull(fileName, "Given filename must not be null.");
         boolean success = false;
 
+        LoadFileEvent event = new LoadFileEvent();
+        event.begin();
+
         try {
             fileContent = Files.readAllLines(fileName);
+            contentFile = fileName;
             success = true;
         } catch (IOException | SecurityException e) {
             System.err.println("ERROR: Reading file content failed: " + e);
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = fileName.toString();
+            event.success = success;
+            if (success) {
+                event.lines = fileContent.size();
+                event.bytes = fileName.toFile().length();
+            }
+            event.commit();
+        }
+
         return success;
     }
 
+    /**
+     * Does the given file name denote a book data file? Book data is read
+     * from .csv files, .csv.gz files and zip files holding a .csv file.
+     *
+     * @param fileName file name to check.
+     * @return true if it ends with .csv, .csv.gz or .zip and has a name
+     * before the extension.
+     * @throws NullPointerException if the given file name is null.
+     */
+    public static boolean isDataFile(String fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        for (String extension : DATA_FILE_EXTENSIONS) {
+            if (fileName.length() > extension.length() && fileName.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does the given file name contain glob pattern characters?
+     * @param fileName file name to check.
+     * @return true if it contains any of *, ?, [ or {.
+     * @throws NullPointerException if the given file name is null.
+     */
+    public static boolean isGlobPattern(String fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        return firstGlobCharacter(fileName) >= 0;
+    }
+
+    /**
+     * Find the book data files named by a directory or glob pattern.
+     * A directory yields the book data files directly inside it. A glob
+     * pattern such as "data/books*.csv" or "data/**.csv" is matched
+     * against paths below the directory preceding its first pattern
+     * character. Only regular files accepted by isDataFile are returned.
+     *
+     * @param source directory or glob pattern.
+     * @return matching files sorted by path, empty if none match or the
+     * files cannot be listed.
+     * @throws NullPointerException if the given source is null.
+     */
+    public static List<Path> findDataFiles(String source) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+
+        Path base;
+        int depth;
+        PathMatcher matcher;
+        try {
+            int globStart = firstGlobCharacter(source);
+            if (globStart < 0) {
+                base = Paths.get(source);
+                depth = 1;
+                matcher = path -> true;
+            } else {
+                int baseEnd = source.lastIndexOf('/', globStart);
+                base = baseEnd < 0 ? Paths.get("") : Paths.get(source.substring(0, Math.max(1, baseEnd)));
+                String pattern = source.substring(baseEnd + 1);
+                depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/").length;
+                matcher = FileSystems.getDefault().getPathMatcher("glob:" + source);
+            }
+        } catch (IllegalArgumentException e) {
+            // Includes invalid paths and malformed patterns.
+            System.err.println("ERROR: Invalid file pattern: " + e.getMessage());
+            return Collections.emptyList();
+        }
+
+        if (!Files.isDirectory(base)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> paths = Files.walk(base, depth)) {
+            return paths.filter(path -> isDataFile(path.toString()))
+                    .filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException | SecurityException e) {
+            System.err.println("ERROR: Listing files failed: " + e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static int firstGlobCharacter(String fileName) {
+        for (int i = 0; i < fileName.length(); i++) {
+            if ("*?[{".indexOf(fileName.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Has file content been loaded already?
      * @return true if file content has been loaded already.
@@ -71,11 +249,23 @@ public class LibraryFileLoader {
 
         // Create ArrayList to parse
         List<BookEntry> books = new ArrayList<>();
+        rejectedRows = 0;
+
+        ParseFileEvent event = new ParseFileEvent();
+        event.begin();
 
         // Iteration starts at 1 because the first line is the column header and not actual data.
         if (contentLoaded()) {
-            for (int i = 1; i < fileContent.size(); i++) {
-                books.add(separateDetails(fileContent.get(i)));
+            try {
+                for (int i = 1; i < fileContent.size(); i++) {
+                    parseRow(contentFile, i + 1, fileContent.get(i), books);
+                }
+                event.parseErrors += rejectedRows;
+            } catch (RuntimeException e) {
+                event.parseErrors++;
+                throw e;
+            } finally {
+                commitParseEvent(event, books);
             }
         } else {
             // parseFileContent() is null.
@@ -84,6 +274,395 @@ public class LibraryFileLoader {
         return books;
     }
 
+    /**
+     * Read and parse the specified book data file line by line, reporting
+     * progress to the given job. Rows are parsed from the raw bytes, see
+     * separateDetails(byte[], int, int). Compressed files are decompressed
+     * while parsing, progress then counts compressed bytes. This does not
+     * use or change the content loaded with the loadFileContent method.
+     *
+     * @param fileName file path with book data
+     * @param job job to report progress to or null
+     * @return books parsed from the file
+     * @throws IOException if reading the file failed
+     * @throws java.util.concurrent.CancellationException if the job was cancelled
+     * @throws NullPointerException if the given file name is null
+     */
+    public List<BookEntry> readBooks(Path fileName, LoadJob job) throws IOException {
+        return readBooks(fileName, FileCheckpoint.START, job);
+    }
+
+    /**
+     * Read and parse the rows appended to the specified book data file
+     * since the given checkpoint, reporting progress to the given job.
+     * The bytes before the checkpoint are only checksummed, not parsed.
+     * If the file no longer starts with these bytes, all rows are read.
+     *
+     * Afterwards getCheckpoint returns the checkpoint at the end of the
+     * file. Compressed files are always read as a whole and have no
+     * checkpoint.
+     *
+     * @param fileName file path with book data
+     * @param from checkpoint of the rows ingested before
+     * @param job job to report progress to or null
+     * @return books appended since the checkpoint or all books of the file
+     * @throws IOException if reading the file failed
+     * @throws java.util.concurrent.CancellationException if the job was cancelled
+     * @throws NullPointerException if the given file name or checkpoint is null
+     */
+    public List<BookEntry> readBooks(Path fileName, FileCheckpoint from, LoadJob job) throws IOException {
+        List<BookEntry> books = new ArrayList<>();
+        readBooks(fileName, from, job, books::add);
+        return books;
+    }
+
+    /**
+     * Read and parse the rows appended to the specified book data file
+     * since the given checkpoint like readBooks, passing each book to the
+     * given consumer instead of collecting them. If the file no longer
+     * starts with the ingested bytes, this is detected before any book is
+     * passed on.
+     *
+     * @param fileName file path with book data
+     * @param from checkpoint of the rows ingested before
+     * @param job job to report progress to or null
+     * @param consumer consumer of the parsed books
+     * @return number of books passed to the consumer
+     * @throws IOException if reading the file failed
+     * @throws java.util.concurrent.CancellationException if the job was cancelled
+     * @throws NullPointerException if the given file name, checkpoint or consumer is null
+     */
+    public int readBooks(Path fileName, FileCheckpoint from, LoadJob job, Consumer<BookEntry> consumer)
+            throws IOException {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        Objects.requireNonNull(from, "Given checkpoint must not be null.");
+        Objects.requireNonNull(consumer, "Given consumer must not be null.");
+        int books = 0;
+        boolean compressed = DecompressingInputStream.isCompressed(fileName);
+        boolean changed = false;
+        checkpoint = null;
+        rejectedRows = 0;
+
+        LoadFileEvent event = new LoadFileEvent();
+        event.begin();
+
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(fileName));
+             InputStream content = decompress(fileName, counter)) {
+            ByteLineReader reader = new ByteLineReader(content);
+            boolean appended = !compressed && from.getOffset() > 0;
+            changed = appended && !skipIngested(counter, from);
+            long lineNumber = appended ? from.getLines() : 0;
+            boolean line = !changed && reader.nextLine();
+            if (!appended) {
+                // The first line is the column header and not actual data.
+                lineNumber = line ? 1 : 0;
+                line = reader.nextLine();
+            } else if (!changed && !from.isLineComplete()) {
+                // The last ingested row had no line break, so it must not have been continued.
+                changed = line && reader.getLineLength() > 0;
+                line = reader.nextLine();
+            }
+
+            while (line && !changed) {
+                if (parseRow(fileName, ++lineNumber, reader.getBuffer(), reader.getLineStart(),
+                        reader.getLineLength(), consumer)) {
+                    books++;
+                }
+                if (job != null && lineNumber % PROGRESS_ROWS == 0) {
+                    job.progress(books, counter.getCount());
+                }
+                line = reader.nextLine();
+            }
+            if (job != null) {
+                job.progress(books, counter.getCount());
+            }
+            if (!compressed) {
+                checkpoint = counter.getCheckpoint(lineNumber);
+            }
+
+            event.success = true;
+            event.lines = books;
+            event.bytes = counter.getCount() - (appended ? from.getOffset() : 0);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = fileName.toString();
+                event.commit();
+            }
+        }
+
+        return changed ? readBooks(fileName, FileCheckpoint.START, job, consumer) : books;
+    }
+
+    /**
+     * Parse a row and add its book. Malformed rows are rejected into the
+     * quarantine if there is one.
+     *
+     * @param file file holding the row
+     * @param line line number of the row
+     * @param row row to parse
+     * @param books books to add the parsed book to
+     * @throws RuntimeException if the row is malformed and there is no quarantine
+     */
+    private void parseRow(Path file, long line, String row, List<BookEntry> books) {
+        if (quarantine == null) {
+            books.add(separateDetails(row));
+            return;
+        }
+
+        try {
+            books.add(separateDetails(row));
+        } catch (RuntimeException e) {
+            quarantine.reject(file, line, row, Quarantine.reasonOf(e));
+            rejectedRows++;
+        }
+    }
+
+    /**
+     * Parse a row given as bytes and pass its book on. Malformed rows are
+     * rejected into the quarantine if there is one.
+     *
+     * @param file file holding the row
+     * @param line line number of the row
+     * @param data buffer holding the row
+     * @param offset start of the row
+     * @param length length of the row without line break
+     * @param books consumer of the parsed book
+     * @return true if the row was parsed, false if it was rejected
+     * @throws RuntimeException if the row is malformed and there is no quarantine
+     */
+    private boolean parseRow(Path file, long line, byte[] data, int offset, int length,
+                             Consumer<BookEntry> books) {
+        BookEntry book;
+        if (quarantine == null) {
+            book = separateDetails(data, offset, length);
+        } else {
+            try {
+                book = separateDetails(data, offset, length);
+            } catch (RuntimeException e) {
+                quarantine.reject(file, line, new String(data, offset, length, StandardCharsets.UTF_8),
+                        Quarantine.reasonOf(e));
+                rejectedRows++;
+                return false;
+            }
+        }
+        books.accept(book);
+        return true;
+    }
+
+    /**
+     * Check a row given as bytes without parsing it into a book entry.
+     * Malformed rows are rejected into the quarantine if there is one.
+     *
+     * @param file file holding the row
+     * @param line line number of the row
+     * @param data buffer holding the row
+     * @param offset start of the row
+     * @param length length of the row without line break
+     * @return true if the row is valid, false if it was rejected
+     * @throws RuntimeException if the row is malformed and there is no quarantine
+     */
+    private boolean checkRow(Path file, long line, byte[] data, int offset, int length) {
+        if (quarantine == null) {
+            checkDetails(data, offset, length);
+            return true;
+        }
+
+        try {
+            checkDetails(data, offset, length);
+            return true;
+        } catch (RuntimeException e) {
+            quarantine.reject(file, line, new String(data, offset, length, StandardCharsets.UTF_8),
+                    Quarantine.reasonOf(e));
+            rejectedRows++;
+            return false;
+        }
+    }
+
+    /**
+     * Get the checkpoint at the end of the data read by the last call of
+     * readBooks or loadRawRows.
+     * @return checkpoint or null if no data has been read or the file was compressed
+     */
+    public FileCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Read all bytes of the specified book data file, decompressing it
+     * if needed.
+     *
+     * @param fileName file path with book data
+     * @return content of the file
+     * @throws IOException if reading the file failed
+     * @throws NullPointerException if the given file name is null
+     */
+    public static byte[] readAllBytes(Path fileName) throws IOException {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        if (!DecompressingInputStream.isCompressed(fileName)) {
+            return Files.readAllBytes(fileName);
+        }
+        try (InputStream in = decompress(fileName, Files.newInputStream(fileName))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /** Decompress the given content of a file if the file is compressed. */
+    private static InputStream decompress(Path fileName, InputStream content) {
+        return DecompressingInputStream.isCompressed(fileName)
+                ? DecompressingInputStream.of(fileName, content) : content;
+    }
+
+    /**
+     * Read the bytes before the given checkpoint and compare their checksum.
+     *
+     * @param in stream at the start of the file
+     * @param from checkpoint of the bytes ingested before
+     * @return true if the file starts with the ingested bytes and the
+     * stream is positioned behind them, false if they changed
+     */
+    private static boolean skipIngested(CountingInputStream in, FileCheckpoint from) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = from.getOffset();
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                return false;
+            }
+            remaining -= read;
+        }
+        FileCheckpoint read = in.getCheckpoint(from.getLines());
+        return read.equals(from);
+    }
+
+    /**
+     * Read the specified book data file into a lazy book list, a
+     * compressed file is decompressed as a whole. Only the
+     * title of each row is extracted, all other details are parsed once
+     * a book is first accessed. Rows are checked while reading, malformed
+     * rows are rejected like for readBooks. This does not use or change
+     * the content loaded with the loadFileContent method.
+     *
+     * @param fileName file path with book data
+     * @return raw rows of the file without column header or null if reading failed
+     * @throws NullPointerException if the given file name is null
+     * @throws RuntimeException if a row is malformed and there is no quarantine
+     */
+    public LazyBookList loadRawRows(Path fileName) {
+        return loadRawRows(fileName, FileCheckpoint.START);
+    }
+
+    /**
+     * Read the rows appended to the specified book data file since the
+     * given checkpoint into a lazy book list. If the file no longer starts
+     * with the bytes before the checkpoint, all rows are read. Afterwards
+     * getCheckpoint returns the checkpoint at the end of the file, see
+     * readBooks.
+     *
+     * @param fileName file path with book data
+     * @param from checkpoint of the rows ingested before
+     * @return raw rows appended since the checkpoint or all rows of the
+     * file without column header, null if reading failed
+     * @throws NullPointerException if the given file name or checkpoint is null
+     * @throws RuntimeException if a row is malformed and there is no quarantine
+     */
+    public LazyBookList loadRawRows(Path fileName, FileCheckpoint from) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        Objects.requireNonNull(from, "Given checkpoint must not be null.");
+        LazyBookList rows = null;
+        checkpoint = null;
+        rejectedRows = 0;
+
+        LoadFileEvent event = new LoadFileEvent();
+        event.begin();
+
+        byte[] data = null;
+        int start = 0;
+        boolean header = true;
+        FileCheckpoint end = null;
+        try {
+            if (DecompressingInputStream.isCompressed(fileName)) {
+                data = readAllBytes(fileName);
+            } else {
+                try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(fileName))) {
+                    header = from.getOffset() == 0;
+                    if (header || skipIngested(counter, from)) {
+                        data = counter.readAllBytes();
+                        end = counter.getCheckpoint(0);
+                        start = header ? 0 : appendedRowsStart(data, from);
+                    } else {
+                        start = -1;
+                    }
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+        }
+
+        if (start < 0) {
+            // The ingested bytes have changed or their last row has been continued.
+            return loadRawRows(fileName, FileCheckpoint.START);
+        }
+        if (data != null) {
+            rows = new LazyBookList(authorDictionary);
+            long lines = header ? 0 : from.getLines();
+            while (start < data.length) {
+                // Rows end with a line feed, a carriage return or both, like for readBooks.
+                int rowEnd = start;
+                while (rowEnd < data.length && data[rowEnd] != '\n' && data[rowEnd] != '\r') {
+                    rowEnd++;
+                }
+                int length = rowEnd - start;
+                lines++;
+
+                // The first line is the column header and not actual data.
+                if (!header && checkRow(fileName, lines, data, start, length)) {
+                    rows.addRow(data, start, length);
+                }
+                header = false;
+                start = rowEnd + 1;
+                if (rowEnd < data.length - 1 && data[rowEnd] == '\r' && data[rowEnd + 1] == '\n') {
+                    start++;
+                }
+            }
+            if (end != null) {
+                checkpoint = new FileCheckpoint(end.getOffset(), lines, end.getChecksum(), end.isLineComplete());
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = fileName.toString();
+            event.success = rows != null;
+            if (rows != null) {
+                event.lines = rows.size() + 1;
+                event.bytes = data.length;
+            }
+            event.commit();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Find where the rows appended after a checkpoint start. If the last
+     * ingested row had no line break, the appended bytes have to start
+     * with one.
+     * @return start of the first appended row or -1 if the last ingested row was continued
+     */
+    private static int appendedRowsStart(byte[] appended, FileCheckpoint from) {
+        if (from.isLineComplete() || appended.length == 0) {
+            return 0;
+        }
+        if (appended[0] == '\n') {
+            return 1;
+        }
+        if (appended[0] == '\r') {
+            return appended.length > 1 && appended[1] == '\n' ? 2 : 1;
+        }
+        return -1;
+    }
+
     /**
      * This split all the details into appropriate parameters for Book Entry.
      *
@@ -99,12 +678,317 @@ public class LibraryFileLoader {
 
         // Store details accordingly.
         String title = details[0];
-        String[] authors = details[1].split("-");
-        float rating = Float.parseFloat(details[2]);
+        String[] authors = authorDictionary.canonicalize(details[1].split("-"));
+        float rating = DecimalParser.parseRating(details[2]);
         String ISBN = details[3];
-        int pages = Integer.parseInt(details[4]);
+        int pages = DecimalParser.parsePages(details[4]);
 
         return new BookEntry(title, authors, rating, ISBN, pages);
     }
 
+    /**
+     * Split a row given as UTF-8 bytes into the details of a book entry.
+     * The result and any failure are the same as for separateDetails of
+     * the decoded row.
+     *
+     * Rows consisting of ASCII characters only are split on the raw bytes
+     * and their fields are turned into compact Latin-1 strings without
+     * decoding. Other rows are decoded as a whole first.
+     *
+     * @param data buffer holding the row.
+     * @param offset start of the row.
+     * @param length length of the row without line break.
+     * @return book entry instance of a class.
+     * @throws NullPointerException if the given buffer is null.
+     * @throws IndexOutOfBoundsException if the range is outside of the buffer.
+     */
+    public BookEntry separateDetails(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        // Start of each of the first five fields and the end of the fifth.
+        int[] bounds = new int[DETAIL_COUNT + 1];
+        int count = splitDetails(data, offset, length, bounds);
+        if (count < 0) {
+            return separateDetails(new String(data, offset, length, StandardCharsets.UTF_8));
+        }
+
+        String title = detail(data, bounds, 0, count);
+        String[] authors = authorDictionary.canonicalize(detail(data, bounds, 1, count).split("-"));
+        checkDetail(2, count);
+        float rating = DecimalParser.parseRating(data, bounds[2], bounds[3] - 1 - bounds[2]);
+        String ISBN = detail(data, bounds, 3, count);
+        checkDetail(4, count);
+        int pages = DecimalParser.parsePages(data, bounds[4], bounds[5] - 1 - bounds[4]);
+
+        return new BookEntry(title, authors, rating, ISBN, pages);
+    }
+
+    /**
+     * Check a row given as UTF-8 bytes without creating its book entry.
+     * The row fails exactly if separateDetails fails for it.
+     *
+     * @param data buffer holding the row.
+     * @param offset start of the row.
+     * @param length length of the row without line break.
+     * @throws NullPointerException if the given buffer is null.
+     * @throws IndexOutOfBoundsException if the range is outside of the buffer.
+     * @throws IllegalArgumentException if the row holds an invalid number or rating.
+     */
+    public void checkDetails(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        int[] bounds = new int[DETAIL_COUNT + 1];
+        int count = splitDetails(data, offset, length, bounds);
+        if (count < 0) {
+            separateDetails(new String(data, offset, length, StandardCharsets.UTF_8));
+            return;
+        }
+
+        checkDetail(1, count);
+        checkDetail(2, count);
+        DecimalParser.parseRating(data, bounds[2], bounds[3] - 1 - bounds[2]);
+        checkDetail(3, count);
+        checkDetail(4, count);
+        DecimalParser.parsePages(data, bounds[4], bounds[5] - 1 - bounds[4]);
+    }
+
+    /**
+     * Find the fields of an ASCII row like String.split.
+     *
+     * @param bounds receives the start of each of the first five fields and the end of the fifth.
+     * @return number of fields split would return or -1 if the row is not ASCII
+     */
+    private static int splitDetails(byte[] data, int offset, int length, int[] bounds) {
+        int fields = 1;
+        int lastNonEmpty = -1;
+        int fieldStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (b < 0) {
+                return -1;
+            }
+            if (b == ',') {
+                if (i > fieldStart) {
+                    lastNonEmpty = fields - 1;
+                }
+                if (fields <= DETAIL_COUNT) {
+                    bounds[fields] = i + 1;
+                }
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (end > fieldStart) {
+            lastNonEmpty = fields - 1;
+        }
+        bounds[0] = offset;
+        if (fields <= DETAIL_COUNT) {
+            bounds[fields] = end + 1;
+        }
+
+        // String.split drops trailing empty fields unless there is no delimiter at all.
+        return fields == 1 ? 1 : lastNonEmpty + 1;
+    }
+
+    /** Get an ASCII field of a row split by separateDetails. */
+    private static String detail(byte[] data, int[] bounds, int index, int count) {
+        checkDetail(index, count);
+        int start = bounds[index];
+        return new String(data, start, bounds[index + 1] - 1 - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /** Fail like String.split array access if a row split by separateDetails lacks the field. */
+    private static void checkDetail(int index, int count) {
+        if (index >= count) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+    }
+
+    /**
+     * Reads the lines of a stream as ranges of a byte buffer without
+     * decoding them. Lines end at a line feed, a carriage return or both,
+     * like for BufferedReader.readLine.
+     */
+    private static final class ByteLineReader {
+
+        private final InputStream in;
+
+        /** Buffer holding the current line and bytes read ahead. */
+        private byte[] buffer;
+
+        /** Start of the bytes not returned as line yet. */
+        private int position;
+
+        /** End of the bytes read into the buffer. */
+        private int limit;
+
+        /** Did the last line end with a carriage return? A following line feed belongs to it. */
+        private boolean skipLineFeed;
+
+        private int lineStart;
+        private int lineLength;
+
+        private ByteLineReader(InputStream in) {
+            this.in = in;
+            buffer = new byte[64 * 1024];
+        }
+
+        /**
+         * Move to the next line. Its bytes stay valid until the next call.
+         * @return false at the end of the stream.
+         */
+        private boolean nextLine() throws IOException {
+            int scanned = 0;
+            while (true) {
+                if (skipLineFeed && position < limit) {
+                    skipLineFeed = false;
+                    if (buffer[position] == '\n') {
+                        position++;
+                    }
+                }
+                if (!skipLineFeed) {
+                    for (int i = position + scanned; i < limit; i++) {
+                        byte b = buffer[i];
+                        if (b == '\n' || b == '\r') {
+                            lineStart = position;
+                            lineLength = i - position;
+                            position = i + 1;
+                            skipLineFeed = b == '\r';
+                            return true;
+                        }
+                    }
+                    scanned = limit - position;
+                }
+
+                if (!fill()) {
+                    skipLineFeed = false;
+                    if (position == limit) {
+                        return false;
+                    }
+                    lineStart = position;
+                    lineLength = limit - position;
+                    position = limit;
+                    return true;
+                }
+            }
+        }
+
+        /** Read more bytes, keeping the bytes not returned as line yet. */
+        private boolean fill() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        }
+
+        private byte[] getBuffer() {
+            return buffer;
+        }
+
+        private int getLineStart() {
+            return lineStart;
+        }
+
+        private int getLineLength() {
+            return lineLength;
+        }
+    }
+
+    /** Input stream counting and checksumming the bytes read through it. */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        /** Bytes read so far, read by other threads to report progress. */
+        private volatile long count;
+
+        /** Checksum of the bytes read so far. */
+        private final CRC32 checksum;
+
+        /** Last byte read, -1 if none. */
+        private int lastByte;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+            checksum = new CRC32();
+            lastByte = -1;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+                checksum.update(b);
+                lastByte = b;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+                checksum.update(b, off, read);
+                lastByte = b[off + read - 1];
+            }
+            return read;
+        }
+
+        /** Skipped bytes are read, so that they are checksummed. */
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            int read = 0;
+            while (skipped < n && read >= 0) {
+                read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                skipped += Math.max(read, 0);
+            }
+            return skipped;
+        }
+
+        private long getCount() {
+            return count;
+        }
+
+        /**
+         * Checkpoint after the bytes read so far.
+         * @param lines number of lines in these bytes
+         */
+        private FileCheckpoint getCheckpoint(long lines) {
+            return new FileCheckpoint(count, lines, checksum.getValue(), count == 0 || lastByte == '\n');
+        }
+    }
+
+    /**
+     * Complete the given parse event if a recording is interested in it.
+     *
+     * @param event event started before parsing.
+     * @param books books parsed so far.
+     */
+    private void commitParseEvent(ParseFileEvent event, List<BookEntry> books) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = books.size();
+            for (int i = 1; i <= books.size() + rejectedRows; i++) {
+                event.bytes += fileContent.get(i).length() + 1;
+            }
+            event.commit();
+        }
+    }
+
 }
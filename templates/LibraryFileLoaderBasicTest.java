@@ -1,5 +1,9 @@
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -46,4 +50,66 @@ public class LibraryFileLoaderBasicTest extends LibraryFileLoaderTest {
             intercept.stdCaptureStop();
         }
     }
+
+    // ------------------------- check separateDetails of bytes --------------------
+
+    @Test
+    public void testSeparateDetailsBytesMatchesString() {
+        String[] rows = { DATA_SAMPLE1, DATA_SAMPLE2, "Les Misérables,Victor Hugo-Ørsted,4.5,ISBN1,1200",
+                "Title,Author,3.2,ISBN2,500,", "Title,Author,3.2,ISBN3,500,,extra,,", "Title,,3.2,ISBN4,500" };
+        for (String row : rows) {
+            byte[] bytes = ("x" + row + "y").getBytes(StandardCharsets.UTF_8);
+            BookEntry expected = testFileLoader.separateDetails(row);
+            BookEntry actual = testFileLoader.separateDetails(bytes, 1, bytes.length - 2);
+            assertEquals("Byte row expected to be parsed like string row: " + row, expected, actual);
+            assertEquals("Title expected to match: " + row, expected.getTitle(), actual.getTitle());
+            assertArrayEquals("Authors expected to match: " + row, expected.getAuthors(), actual.getAuthors());
+            assertEquals("Rating expected to match: " + row, expected.getRating(), actual.getRating(), 0);
+            assertEquals("Pages expected to match: " + row, expected.getPages(), actual.getPages());
+        }
+    }
+
+    @Test
+    public void testSeparateDetailsBytesFailsLikeString() {
+        String[] rows = { "", "Title", "Title,Author,,ISBN,500", "Title,Author,3.2", "Title,Author,3.2,ISBN",
+                "Title,Author,3.2,ISBN,", "Title,Author,3.2,,", "Title,Author,good,ISBN,500",
+                "Title,Author,3.2,ISBN,many", "Title,Author,7.5,ISBN,500", ",,,," };
+        for (String row : rows) {
+            byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+            Exception expected = null;
+            Exception actual = null;
+            try {
+                testFileLoader.separateDetails(row);
+            } catch (RuntimeException e) {
+                expected = e;
+            }
+            try {
+                testFileLoader.separateDetails(bytes, 0, bytes.length);
+            } catch (RuntimeException e) {
+                actual = e;
+            }
+            assertNotNull("String row expected to be rejected: " + row, expected);
+            assertNotNull("Byte row expected to be rejected: " + row, actual);
+            assertEquals("Failure expected to match: " + row, expected.getClass(), actual.getClass());
+            assertEquals("Failure message expected to match: " + row, expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadBooksLineBreaks() throws IOException {
+        Path file = Files.createTempFile("library-lines", ".csv");
+        try {
+            Files.write(file, ("title,authors,rating,isbn,pages\r\n" + DATA_SAMPLE1 + "\r\n" + DATA_SAMPLE2 + "\r"
+                    + DATA_SAMPLE1.replace("4.17", "4.2") + "\n" + "Chester,Syd Hoff,3.75,64440958,65")
+                    .getBytes(StandardCharsets.UTF_8));
+            List<BookEntry> books = testFileLoader.readBooks(file, null);
+
+            assertEquals("Unexpected number of books read.", 4, books.size());
+            assertEquals("Unexpected first book.", testFileLoader.separateDetails(DATA_SAMPLE1), books.get(0));
+            assertEquals("Unexpected second book.", testFileLoader.separateDetails(DATA_SAMPLE2), books.get(1));
+            assertEquals("Unexpected last book.", 65, books.get(3).getPages());
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -69,9 +69,9 @@ public class ListCmd extends LibraryCommand {
                 }
             } else {
                 // Either "short" or blank.
-                // Print title of book only by calling Book Entry instance's getTitle method.
-                for (BookEntry book : books) {
-                    System.out.println(book.getTitle());
+                // Print title of book only, book stores do not need to create entries for this.
+                for (int i = 0; i < books.size(); i++) {
+                    System.out.println(BookStore.titleOf(books, i));
                 }
             }
         }
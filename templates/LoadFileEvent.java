@@ -0,0 +1,34 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering reading a book data file with
+ * LibraryFileLoader, either its lines or its raw rows.
+ */
+@Name("library.LoadFile")
+@Label("Load Book Data File")
+@Category({ "Library Browser", "Loading" })
+@Description("Reading the lines of a book data file.")
+public class LoadFileEvent extends Event {
+
+    /** Path of the loaded file. */
+    @Label("Path")
+    String path;
+
+    /** Number of lines read. */
+    @Label("Lines")
+    int lines;
+
+    /** Size of the loaded file. */
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /** Whether the file could be read. */
+    @Label("Success")
+    boolean success;
+}
@@ -0,0 +1,273 @@
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress and outcome of loading a book data file in the background.
+ *
+ * Progress is written by the thread running the job and can be read from
+ * any other thread. A job can be cancelled at any time. Books of a job are
+ * only merged into the library once the whole file has been parsed, so a
+ * cancelled or failed job leaves the library unchanged.
+ */
+public class LoadJob {
+
+    /** States a job passes through. */
+    public enum State {
+        /** Waiting for a worker. */
+        QUEUED,
+        /** File is being loaded. */
+        RUNNING,
+        /** All books have been merged into the library. */
+        COMPLETED,
+        /** Cancelled before the books were merged. */
+        CANCELLED,
+        /** Loading the file failed. */
+        FAILED
+    }
+
+    /** Id of this job, unique per library. */
+    private final int id;
+
+    /** File loaded by this job. */
+    private final Path file;
+
+    /** Size of the file in bytes or 0 if unknown. */
+    private final long totalBytes;
+
+    /** Current state of this job. */
+    private volatile State state;
+
+    /** Set once cancellation has been requested. */
+    private volatile boolean cancelRequested;
+
+    /** Bytes of the file processed so far. */
+    private volatile long bytesProcessed;
+
+    /** Rows of the file parsed so far. */
+    private volatile long rowsParsed;
+
+    /** Books added to the library, set once completed. */
+    private volatile int booksAdded;
+
+    /** Duplicate rows skipped, set once completed. */
+    private volatile int duplicates;
+
+    /** Malformed rows rejected into the quarantine, set once completed. */
+    private volatile int rejectedRows;
+
+    /** Time the job started running. */
+    private volatile long startNanos;
+
+    /** Time the job stopped running, 0 while not finished. */
+    private volatile long endNanos;
+
+    /** Reason of a failure, null unless failed. */
+    private volatile String failure;
+
+    /**
+     * Create a queued job.
+     *
+     * @param id id of the job.
+     * @param file file to load.
+     * @param totalBytes size of the file in bytes or 0 if unknown.
+     * @throws NullPointerException if the given file is null.
+     */
+    public LoadJob(int id, Path file, long totalBytes) {
+        this.id = id;
+        this.file = Objects.requireNonNull(file, "Given file must not be null.");
+        this.totalBytes = totalBytes;
+        this.state = State.QUEUED;
+    }
+
+    /**
+     * @return id of this job.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return file loaded by this job.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return current state of this job.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Has this job stopped running?
+     * @return true if completed, cancelled or failed.
+     */
+    public boolean isDone() {
+        State current = state;
+        return current == State.COMPLETED || current == State.CANCELLED || current == State.FAILED;
+    }
+
+    /**
+     * Request cancellation. The job stops at its next progress update and
+     * does not change the library.
+     * @return false if the job was already done.
+     */
+    public boolean cancel() {
+        cancelRequested = true;
+        return !isDone();
+    }
+
+    /**
+     * @return true if cancellation has been requested.
+     */
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * @return size of the file in bytes or 0 if unknown.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return bytes of the file processed so far.
+     */
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    /**
+     * @return rows parsed so far.
+     */
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    /**
+     * @return books added to the library, 0 unless completed.
+     */
+    public int getBooksAdded() {
+        return booksAdded;
+    }
+
+    /**
+     * @return duplicate rows skipped, 0 unless completed.
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return malformed rows rejected into the quarantine, 0 unless completed.
+     */
+    public int getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * @return reason of the failure or null if the job did not fail.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Rows parsed per second since the job started.
+     * @return parse rate or 0 if the job has not started yet.
+     */
+    public double getRowsPerSecond() {
+        double seconds = elapsedNanos() / 1e9;
+        return seconds > 0 ? rowsParsed / seconds : 0;
+    }
+
+    /**
+     * Estimated seconds until the whole file has been parsed, based on the
+     * bytes processed so far.
+     * @return remaining seconds, 0 if done or -1 if no estimate is possible yet.
+     */
+    public double getEtaSeconds() {
+        if (isDone()) {
+            return 0;
+        }
+        long processed = bytesProcessed;
+        long elapsed = elapsedNanos();
+        if (processed == 0 || elapsed == 0 || totalBytes == 0) {
+            return -1;
+        }
+        return Math.max(0, totalBytes - processed) * (elapsed / 1e9) / processed;
+    }
+
+    /** Mark this job as running. */
+    void start() {
+        startNanos = System.nanoTime();
+        state = State.RUNNING;
+    }
+
+    /**
+     * Report progress of the running job.
+     *
+     * @param rows rows parsed so far.
+     * @param bytes bytes processed so far.
+     * @throws CancellationException if cancellation was requested.
+     */
+    void progress(long rows, long bytes) {
+        rowsParsed = rows;
+        bytesProcessed = bytes;
+        checkCancelled();
+    }
+
+    /**
+     * Stop the job if cancellation was requested.
+     * @throws CancellationException if cancellation was requested.
+     */
+    void checkCancelled() {
+        if (cancelRequested) {
+            throw new CancellationException("Load job " + id + " cancelled.");
+        }
+    }
+
+    /**
+     * Mark this job as completed.
+     * @param added books added to the library.
+     * @param skipped duplicate rows skipped.
+     * @param rejected malformed rows rejected into the quarantine.
+     */
+    void complete(int added, int skipped, int rejected) {
+        booksAdded = added;
+        duplicates = skipped;
+        rejectedRows = rejected;
+        finish(State.COMPLETED);
+    }
+
+    /** Mark this job as cancelled. */
+    void cancelled() {
+        finish(State.CANCELLED);
+    }
+
+    /**
+     * Mark this job as failed.
+     * @param reason reason of the failure.
+     */
+    void fail(String reason) {
+        failure = reason;
+        finish(State.FAILED);
+    }
+
+    private void finish(State finalState) {
+        endNanos = System.nanoTime();
+        state = finalState;
+    }
+
+    private long elapsedNanos() {
+        if (state == State.QUEUED) {
+            return 0;
+        }
+        long end = isDone() ? endNanos : System.nanoTime();
+        return end - startNanos;
+    }
+}
@@ -0,0 +1,91 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs background load jobs of a library one after another on a single
+ * daemon thread, so that the prompt stays responsive while large files
+ * are loaded. Jobs are kept until the library is discarded so their
+ * outcome can still be listed.
+ */
+public class LoadJobManager {
+
+    /** Library the jobs load into. */
+    private final LibraryData data;
+
+    /** All submitted jobs by id in submission order. */
+    private final Map<Integer, LoadJob> jobs;
+
+    /** Id of the next submitted job. */
+    private int nextId;
+
+    /** Worker running the jobs, created with the first job. */
+    private ExecutorService executor;
+
+    /**
+     * Create a job manager for the given library.
+     *
+     * @param data library the jobs load into.
+     * @throws NullPointerException if the given library is null.
+     */
+    public LoadJobManager(LibraryData data) {
+        this.data = Objects.requireNonNull(data, "Given data must not be null.");
+        jobs = new LinkedHashMap<>();
+        nextId = 1;
+    }
+
+    /**
+     * Queue loading of the given file.
+     *
+     * @param file book data file to load.
+     * @return queued job.
+     * @throws NullPointerException if the given file is null.
+     */
+    public synchronized LoadJob submit(Path file) {
+        Objects.requireNonNull(file, "Given file must not be null.");
+
+        LoadJob job = new LoadJob(nextId++, file, file.toFile().length());
+        jobs.put(job.getId(), job);
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "library-load");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        executor.execute(() -> data.loadData(file, job));
+        return job;
+    }
+
+    /**
+     * Get the job with the given id.
+     * @param id id of the job.
+     * @return job or null if no job has this id.
+     */
+    public synchronized LoadJob getJob(int id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Get all jobs submitted so far.
+     * @return jobs in submission order.
+     */
+    public synchronized List<LoadJob> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /** Cancel all jobs and stop the worker. */
+    public synchronized void shutdown() {
+        for (LoadJob job : jobs.values()) {
+            job.cancel();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
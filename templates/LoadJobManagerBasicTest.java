@@ -0,0 +1,59 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LoadJobManagerBasicTest {
+
+    private static final Path TEST_PATH = Paths.get("booksTestData01.csv");
+
+    private LibraryData testLibrary;
+
+    @Before
+    public void setup() {
+        testLibrary = new LibraryData();
+    }
+
+    // ------------------------- job tests --------------------
+
+    @Test
+    public void testSubmittedJobCompletes() throws InterruptedException {
+        LoadJob job = testLibrary.getLoadJobs().submit(TEST_PATH);
+        for (int i = 0; i < 500 && !job.isDone(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("Job expected to complete.", LoadJob.State.COMPLETED, job.getState());
+        assertEquals("Unexpected amount of rows parsed.", 2, job.getRowsParsed());
+        assertEquals("Unexpected amount of books added.", 2, job.getBooksAdded());
+        assertEquals("Books of job expected in library.", 2, testLibrary.getBookData().size());
+        assertSame("Job expected to be found by id.", job, testLibrary.getLoadJobs().getJob(job.getId()));
+        assertNull("Unknown job id not expected to be found.", testLibrary.getLoadJobs().getJob(job.getId() + 1));
+    }
+
+    @Test
+    public void testCancelledJobLeavesLibraryUnchanged() {
+        LoadJob job = new LoadJob(1, TEST_PATH, 0);
+        assertTrue("Cancelling a queued job expected to succeed.", job.cancel());
+
+        assertFalse("Cancelled job not expected to succeed.", testLibrary.loadData(TEST_PATH, job));
+        assertEquals("Job expected to be cancelled.", LoadJob.State.CANCELLED, job.getState());
+        assertEquals("Cancelled job not expected to add books.", 0, testLibrary.getBookData().size());
+        assertFalse("Cancelling a finished job not expected to succeed.", job.cancel());
+    }
+
+    @Test
+    public void testMissingFileFailsJob() {
+        LoadJob job = new LoadJob(1, Paths.get("missing.csv"), 0);
+
+        assertFalse("Missing file not expected to load.", testLibrary.loadData(job.getFile(), job));
+        assertEquals("Job expected to fail.", LoadJob.State.FAILED, job.getState());
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters and gauges describing the book data held by a LibraryData
+ * instance. Values are written by the thread that changes the library
+ * and can be read from any other thread without locking.
+ */
+public class LoadStatistics {
+
+    /** Number of files loaded successfully. */
+    private final LongAdder filesLoaded = new LongAdder();
+
+    /** Number of rows parsed from loaded files. */
+    private final LongAdder rowsLoaded = new LongAdder();
+
+    /** Number of bytes read from loaded files. */
+    private final LongAdder bytesLoaded = new LongAdder();
+
+    /** Number of malformed rows rejected while loading files. */
+    private final LongAdder rowsRejected = new LongAdder();
+
+    /** Time spent loading, parsing and merging files. */
+    private final LongAdder loadNanos = new LongAdder();
+
+    /** Number of books currently in the library. */
+    private volatile int bookCount;
+
+    /** Estimates the heap bytes held by the books currently in the library when read. */
+    private volatile LongSupplier estimatedBytes = () -> 0;
+
+    /**
+     * Record a completed file load.
+     *
+     * @param rows rows parsed from the file.
+     * @param bytes size of the file in bytes.
+     * @param nanos time spent loading the file.
+     */
+    public void recordLoad(int rows, long bytes, long nanos) {
+        filesLoaded.increment();
+        rowsLoaded.add(rows);
+        bytesLoaded.add(bytes);
+        loadNanos.add(nanos);
+    }
+
+    /**
+     * Record malformed rows rejected while loading a file.
+     *
+     * @param rows number of rejected rows.
+     */
+    public void recordRejected(int rows) {
+        rowsRejected.add(rows);
+    }
+
+    /**
+     * Publish the current size of the library.
+     *
+     * @param bookCount number of books in the library.
+     * @param estimatedBytes estimates the heap bytes of these books, only
+     * called when the estimate is read.
+     */
+    public void publishLibrarySize(int bookCount, LongSupplier estimatedBytes) {
+        this.bookCount = bookCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     *
+     * @return number of files loaded successfully.
+     */
+    public long getFilesLoaded() {
+        return filesLoaded.sum();
+    }
+
+    /**
+     *
+     * @return number of rows parsed from loaded files.
+     */
+    public long getRowsLoaded() {
+        return rowsLoaded.sum();
+    }
+
+    /**
+     *
+     * @return number of malformed rows rejected while loading files.
+     */
+    public long getRowsRejected() {
+        return rowsRejected.sum();
+    }
+
+    /**
+     *
+     * @return number of bytes read from loaded files.
+     */
+    public long getBytesLoaded() {
+        return bytesLoaded.sum();
+    }
+
+    /**
+     *
+     * @return time spent loading files in nanoseconds.
+     */
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    /**
+     *
+     * @return number of books currently in the library.
+     */
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    /**
+     *
+     * @return estimated heap bytes of the books currently in the library.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.getAsLong();
+    }
+}
@@ -0,0 +1,27 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering LibraryData.mergeEntries.
+ */
+@Name("library.MergeEntries")
+@Label("Merge Book Entries")
+@Category({ "Library Browser", "Loading" })
+@Description("Merging parsed book entries into the library.")
+public class MergeEntriesEvent extends Event {
+
+    /** Number of entries added to the library. */
+    @Label("Added")
+    int added;
+
+    /** Number of entries discarded as duplicates. */
+    @Label("Duplicates")
+    int duplicates;
+
+    /** Library size after merging. */
+    @Label("Library Size")
+    int librarySize;
+}
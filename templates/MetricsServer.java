@@ -0,0 +1,224 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional HTTP endpoint bound to localhost which exposes library
+ * and command metrics in the Prometheus text exposition format.
+ *
+ * All values are read from the counters maintained by LibraryData
+ * and CommandInterpreter, so serving a scrape never blocks the REPL.
+ */
+public class MetricsServer {
+
+    /** System property holding the port of the metrics endpoint. */
+    public static final String PORT_PROPERTY = "library.metrics.port";
+
+    /** Path under which metrics are served. */
+    private static final String METRICS_PATH = "/metrics";
+
+    /** Content type of the Prometheus text format. */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Library to report on. */
+    private final LibraryData data;
+
+    /** Interpreter holding the command latencies. */
+    private final CommandInterpreter cmdIntrp;
+
+    /** Underlying HTTP server. */
+    private final HttpServer server;
+
+    /** Executor handling scrape requests. */
+    private final ExecutorService executor;
+
+    /**
+     * Create a metrics server on the given localhost port. The server
+     * is not started yet.
+     *
+     * @param data library to report on.
+     * @param cmdIntrp interpreter holding the command latencies.
+     * @param port local port to bind to, 0 picks a free port.
+     * @throws IOException if the server cannot be bound.
+     * @throws NullPointerException if data or cmdIntrp is null.
+     */
+    public MetricsServer(LibraryData data, CommandInterpreter cmdIntrp, int port) throws IOException {
+        this.data = Objects.requireNonNull(data, "Given data must not be null.");
+        this.cmdIntrp = Objects.requireNonNull(cmdIntrp, "Given interpreter must not be null.");
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(METRICS_PATH, this::handle);
+    }
+
+    /**
+     * Start a metrics server if the port system property is set.
+     *
+     * @param data library to report on.
+     * @param cmdIntrp interpreter holding the command latencies.
+     * @return started server or null if no port is configured or binding failed.
+     */
+    public static MetricsServer startIfConfigured(LibraryData data, CommandInterpreter cmdIntrp) {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) {
+            return null;
+        }
+
+        try {
+            MetricsServer metricsServer = new MetricsServer(data, cmdIntrp, port);
+            metricsServer.start();
+            return metricsServer;
+        } catch (IOException e) {
+            System.err.println("ERROR: Starting metrics endpoint failed: " + e);
+            return null;
+        }
+    }
+
+    /** Start serving scrape requests. */
+    public void start() {
+        server.start();
+    }
+
+    /** Stop serving scrape requests. */
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * @return local port the server is bound to.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Render all metrics in the Prometheus text exposition format.
+     * @return current metrics
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        LoadStatistics stats = data.getStatistics();
+
+        gauge(out, "library_books", "Number of books currently in the library.", stats.getBookCount());
+        gauge(out, "library_index_memory_bytes", "Estimated heap bytes held by the loaded book entries.",
+                stats.getEstimatedBytes());
+        counter(out, "library_files_loaded_total", "Number of book data files loaded.", stats.getFilesLoaded());
+        counter(out, "library_rows_loaded_total", "Number of rows parsed from book data files.",
+                stats.getRowsLoaded());
+        counter(out, "library_rows_rejected_total", "Number of malformed rows rejected into the quarantine.",
+                stats.getRowsRejected());
+        counter(out, "library_bytes_loaded_total", "Number of bytes read from book data files.",
+                stats.getBytesLoaded());
+        counter(out, "library_load_seconds_total", "Time spent loading book data files.",
+                seconds(stats.getLoadNanos()));
+
+        JournalFollower follower = data.getFollower();
+        if (follower != null) {
+            long staleness = follower.getStalenessMillis();
+            gauge(out, "library_replication_applied_sequence", "Sequence of the last journal commit applied.",
+                    follower.getAppliedSequence());
+            gauge(out, "library_replication_unapplied_bytes", "Journal bytes written but not applied yet.",
+                    follower.getUnreadBytes());
+            gauge(out, "library_replication_staleness_seconds",
+                    "Time since the followed journal was last read completely.",
+                    staleness < 0 ? Double.NaN : staleness / 1e3);
+        }
+
+        String name = "library_command_duration_seconds";
+        out.append("# HELP ").append(name).append(" Execution time of library commands.\n");
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        for (CommandType type : CommandType.values()) {
+            appendHistogram(out, name, type, cmdIntrp.getLatencyHistogram(type));
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * Serve a single scrape request.
+     * @param exchange HTTP request and response.
+     * @throws IOException if the response cannot be written.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, CommandType type,
+                                        LatencyHistogram histogram) {
+        String label = "command=\"" + type.name() + "\"";
+        long cumulative = 0;
+
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            cumulative += histogram.getBucketObservations(i);
+            long bound = histogram.getBucketBound(i);
+            String le = bound == Long.MAX_VALUE ? "+Inf" : format(seconds(bound));
+            out.append(name).append("_bucket{").append(label).append(",le=\"").append(le).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum{").append(label).append("} ")
+                .append(format(seconds(histogram.getSumNanos()))).append('\n');
+        out.append(name).append("_count{").append(label).append("} ").append(cumulative).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+
+public class MetricsServerBasicTest {
+
+    private LibraryData testLibrary;
+    private CommandInterpreter testInterpreter;
+    private MetricsServer testServer;
+
+    @Before
+    public void setup() throws IOException {
+        testLibrary = new LibraryData();
+        testInterpreter = new CommandInterpreter();
+        testServer = new MetricsServer(testLibrary, testInterpreter, 0);
+    }
+
+    @After
+    public void tearDown() {
+        testServer.stop();
+    }
+
+    // ------------------------- render tests --------------------
+
+    @Test
+    public void testRenderLibrarySize() {
+        testLibrary.updateBookData(
+                books -> books.add(new BookEntry("TitleA", new String[] { "AuthorA" }, 3.2f, "ISBNA", 500)));
+        testLibrary.publishStatistics();
+
+        String output = testServer.render();
+        assertTrue("Library size not reported as expected.", output.contains("\nlibrary_books 1\n"));
+    }
+
+    @Test
+    public void testRenderCommandLatency() {
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            testInterpreter.executeCommand(new ListCmd(""), testLibrary);
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        String output = testServer.render();
+        assertTrue("Command latency not reported as expected.",
+                output.contains("library_command_duration_seconds_count{command=\"LIST\"} 1\n"));
+        assertTrue("Unused commands expected to be reported with zero count.",
+                output.contains("library_command_duration_seconds_count{command=\"SEARCH\"} 0\n"));
+    }
+}
@@ -0,0 +1,991 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only journal of the changes to the book data of a library, kept
+ * in a directory together with a snapshot of the book data.
+ *
+ * Each change to the book data is journaled as a batch of mutations,
+ * books added or removed at a position, followed by a commit record. A
+ * batch whose change failed is followed by an abort record instead.
+ * Records are numbered by a sequence, each record is checksummed, so a
+ * record torn by a crash ends the journal.
+ *
+ * Records are buffered and written by sync, which forces them to the
+ * storage device. Callers waiting for a sync at the same time share a
+ * single force, so that concurrent changes are made durable together.
+ *
+ * A snapshot holds all books up to a commit record. Writing a snapshot
+ * starts a new journal segment, older segments are deleted once the
+ * snapshot is complete. Restoring the book data reads the snapshot and
+ * replays the commits after it.
+ *
+ * Only one process may append to a journal, others may read it while it
+ * is written, see Reader.
+ */
+public class MutationJournal implements AutoCloseable {
+
+    /** System property naming the journal directory, enables journaling. */
+    public static final String PROPERTY = "library.journal";
+
+    /** System property setting the journal bytes after which a snapshot is written. */
+    public static final String SNAPSHOT_PROPERTY = "library.journal.snapshotBytes";
+
+    /** Journal bytes after which a snapshot is written if none is configured, 64 MiB. */
+    public static final long DEFAULT_SNAPSHOT_BYTES = 64L * 1024 * 1024;
+
+    /** Kind of a record adding a book. */
+    public static final byte ADDED = 1;
+
+    /** Kind of a record removing a book. */
+    public static final byte REMOVED = 2;
+
+    /** Kind of a record completing a batch. */
+    public static final byte COMMIT = 3;
+
+    /** Kind of a record discarding a batch. */
+    public static final byte ABORT = 4;
+
+    /** Name of the snapshot file in the journal directory. */
+    static final String SNAPSHOT_FILE = "snapshot.dat";
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Identifies snapshot files, "LIBSNAP1". */
+    private static final long SNAPSHOT_MAGIC = 0x4C4942534E415031L;
+
+    /** Bytes before the payload of a record: its length and checksum. */
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    /** Largest payload of a valid record, longer lengths are torn records. */
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    /** Buffered bytes written to the segment before a sync. */
+    private static final int WRITE_BUFFER_BYTES = 1024 * 1024;
+
+    /** Bytes of a segment read ahead at once. */
+    private static final int READ_BUFFER_BYTES = 256 * 1024;
+
+    private final Path directory;
+    private final long snapshotBytes;
+
+    /** Lock file of the directory, locked while this journal is open. */
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    /** Segment appended to. */
+    private FileChannel segment;
+
+    /** Sequence of the first record of the segment appended to. */
+    private long segmentFirst;
+
+    /** Records not written to the segment yet. */
+    private final ByteArrayOutputStream pending;
+    private final DataOutputStream pendingOut;
+
+    /** Payload of the record being appended. */
+    private final RecordBuffer payload;
+    private final DataOutputStream payloadOut;
+    private final CRC32 checksum;
+
+    /** Sequence of the last appended record, 0 if none. */
+    private long lastSequence;
+
+    /** Sequence of the last record forced to the storage device. */
+    private volatile long durableSequence;
+
+    /** Journal bytes appended since the last snapshot. */
+    private long bytesSinceSnapshot;
+
+    /** Number of forces to the storage device. */
+    private long syncCount;
+
+    /** Serializes syncs, so that waiting callers share a force. */
+    private final Object syncLock;
+
+    /**
+     * Open the journal in the given directory, creating the directory if
+     * needed. A torn or incomplete batch at the end of the journal is
+     * truncated.
+     *
+     * @param directory directory holding the journal.
+     * @param snapshotBytes journal bytes after which a snapshot should be written.
+     * @throws IOException if the journal cannot be opened or is appended to by another process.
+     * @throws NullPointerException if the given directory is null.
+     * @throws IllegalArgumentException if the snapshot size is not positive.
+     */
+    public MutationJournal(Path directory, long snapshotBytes) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "Given directory must not be null.");
+        if (snapshotBytes <= 0) {
+            throw new IllegalArgumentException("Given snapshot size must be positive: " + snapshotBytes);
+        }
+        this.snapshotBytes = snapshotBytes;
+        Files.createDirectories(directory);
+
+        lockChannel = FileChannel.open(directory.resolve("journal.lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lockChannel.close();
+            throw new IOException("Journal is appended to already: " + directory);
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Journal is appended to by another process: " + directory);
+        }
+
+        pending = new ByteArrayOutputStream();
+        pendingOut = new DataOutputStream(pending);
+        payload = new RecordBuffer();
+        payloadOut = new DataOutputStream(payload);
+        checksum = new CRC32();
+        syncLock = new Object();
+        try {
+            openLastSegment();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        durableSequence = lastSequence;
+        syncCount = 0;
+    }
+
+    /**
+     * Open the journal in the directory named by the system property.
+     * @return opened journal or null if none is configured or it cannot be opened.
+     */
+    public static MutationJournal openIfConfigured() {
+        String directory = System.getProperty(PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return null;
+        }
+
+        try {
+            String bytes = System.getProperty(SNAPSHOT_PROPERTY);
+            return new MutationJournal(Paths.get(directory.strip()),
+                    bytes == null ? DEFAULT_SNAPSHOT_BYTES : Long.parseLong(bytes.strip()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: Opening journal failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return directory holding the journal.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return sequence of the last appended record, 0 if none.
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return sequence of the last record forced to the storage device.
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * @return number of forces to the storage device so far.
+     */
+    public synchronized long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * Is the journal large enough to write a snapshot?
+     * @return true once the configured number of bytes was appended since the last snapshot.
+     */
+    public synchronized boolean isSnapshotDue() {
+        return bytesSinceSnapshot >= snapshotBytes;
+    }
+
+    /**
+     * Append a record adding a book.
+     *
+     * @param index position the book was added at.
+     * @param book added book.
+     * @return sequence of the record.
+     * @throws NullPointerException if the given book is null.
+     * @throws UncheckedIOException if writing buffered records failed.
+     */
+    public long appendAdded(int index, BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        return append(ADDED, index, book);
+    }
+
+    /**
+     * Append a record removing a book.
+     *
+     * @param index position the book was removed from.
+     * @param book removed book.
+     * @return sequence of the record.
+     * @throws NullPointerException if the given book is null.
+     * @throws UncheckedIOException if writing buffered records failed.
+     */
+    public long appendRemoved(int index, BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        return append(REMOVED, index, book);
+    }
+
+    /**
+     * Complete the records appended since the last commit or abort.
+     * @return sequence of the commit record.
+     * @throws UncheckedIOException if writing buffered records failed.
+     */
+    public long appendCommit() {
+        return append(COMMIT, 0, null);
+    }
+
+    /**
+     * Discard the records appended since the last commit or abort.
+     * @return sequence of the abort record.
+     * @throws UncheckedIOException if writing buffered records failed.
+     */
+    public long appendAbort() {
+        return append(ABORT, 0, null);
+    }
+
+    /**
+     * Continue sequences after the given one, used if the book data was
+     * stored up to a commit the journal lost in a crash.
+     *
+     * @param sequence sequence of the last record to skip.
+     */
+    public synchronized void skipTo(long sequence) {
+        lastSequence = Math.max(lastSequence, sequence);
+    }
+
+    /**
+     * Write all records up to the given one and force them to the storage
+     * device. Records appended meanwhile are forced as well, so callers
+     * waiting at the same time only force once.
+     *
+     * @param sequence sequence of the last record to make durable.
+     * @throws UncheckedIOException if writing failed.
+     */
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long written;
+            FileChannel forced;
+            synchronized (this) {
+                writePending();
+                written = lastSequence;
+                forced = segment;
+                syncCount++;
+            }
+            try {
+                forced.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            durableSequence = written;
+        }
+    }
+
+    /**
+     * Start a new segment after the last record, which must be a commit.
+     * Records appended later are no longer read from older segments.
+     *
+     * @return sequence of the last record in older segments.
+     * @throws UncheckedIOException if writing failed.
+     */
+    public long rotate() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                writePending();
+                try {
+                    segment.force(false);
+                    // A segment nothing was appended to is used further.
+                    if (lastSequence + 1 != segmentFirst) {
+                        segment.close();
+                        segmentFirst = lastSequence + 1;
+                        segment = openSegment(segmentFirst);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                durableSequence = lastSequence;
+                bytesSinceSnapshot = 0;
+                return lastSequence;
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot of the given books, replacing the previous one
+     * once complete, and delete the segments it makes unnecessary.
+     *
+     * @param books all books up to the given commit.
+     * @param sequence sequence of the commit, the last record of older segments, see rotate.
+     * @throws IOException if writing the snapshot failed.
+     * @throws NullPointerException if the given books are null.
+     */
+    public void writeSnapshot(List<BookEntry> books, long sequence) throws IOException {
+        Objects.requireNonNull(books, "Given books must not be null.");
+        Path written = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), crc));
+            out.writeLong(SNAPSHOT_MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(books.size());
+            for (BookEntry book : books) {
+                writeBook(out, book);
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(written, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> segments = segments(directory);
+        for (int s = 0; s + 1 < segments.size(); s++) {
+            if (firstSequence(segments.get(s + 1)) <= sequence + 1) {
+                Files.deleteIfExists(segments.get(s));
+            }
+        }
+    }
+
+    /**
+     * Read the snapshot of the given journal directory.
+     *
+     * @param directory journal directory.
+     * @param books consumer of the books of the snapshot in order.
+     * @return sequence of the last commit the snapshot holds, 0 if there is no snapshot.
+     * @throws IOException if the snapshot cannot be read or is damaged.
+     */
+    public static long readSnapshot(Path directory, Consumer<BookEntry> books) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        CRC32 crc = new CRC32();
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(
+                    new BufferedInputStream(stream, 64 * 1024), crc));
+            if (in.readLong() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a valid library snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                books.accept(readBook(in));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Library snapshot is damaged: " + file);
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Read the committed batches of the given journal directory after the
+     * given commit.
+     *
+     * @param directory journal directory.
+     * @param sequence sequence of the last commit already applied.
+     * @return reader positioned after the given commit.
+     * @throws IOException if the journal does not reach back to the given sequence.
+     */
+    public static Reader read(Path directory, long sequence) throws IOException {
+        return new Reader(directory, sequence);
+    }
+
+    /** Write all records and release the journal. */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync(Long.MAX_VALUE);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            synchronized (this) {
+                segment.close();
+            }
+            lockChannel.close();
+        }
+    }
+
+    private synchronized long append(byte kind, int index, BookEntry book) {
+        long sequence = lastSequence + 1;
+        try {
+            payload.reset();
+            payloadOut.writeLong(sequence);
+            payloadOut.writeByte(kind);
+            if (book != null) {
+                payloadOut.writeInt(index);
+                writeBook(payloadOut, book);
+            }
+            checksum.reset();
+            checksum.update(payload.buffer(), 0, payload.size());
+            pendingOut.writeInt(payload.size());
+            pendingOut.writeInt((int) checksum.getValue());
+            payload.writeTo(pending);
+            bytesSinceSnapshot += RECORD_HEADER_BYTES + payload.size();
+            if (pending.size() >= WRITE_BUFFER_BYTES) {
+                writePending();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /** Write buffered records to the segment without forcing them. */
+    private void writePending() {
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pending.reset();
+    }
+
+    /**
+     * Find the end of the last complete batch of the newest segment and
+     * truncate anything after it. Readers may have read the truncated
+     * records already, so appending continues in a new segment which they
+     * only move to once they noticed the truncation, see Reader.
+     */
+    private void openLastSegment() throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            lastSequence = 0;
+            segmentFirst = 1;
+            segment = openSegment(segmentFirst);
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        segmentFirst = firstSequence(last);
+        lastSequence = segmentFirst - 1;
+        long end = 0;
+        try (SegmentInput in = new SegmentInput(last)) {
+            for (Record record = in.next(); record != null; record = in.next()) {
+                if (record.kind == COMMIT || record.kind == ABORT) {
+                    end = in.position;
+                    lastSequence = record.sequence;
+                }
+            }
+        }
+        segment = FileChannel.open(last, StandardOpenOption.WRITE);
+        boolean truncated = segment.size() > end;
+        segment.truncate(end);
+        segment.position(end);
+        segment.force(false);
+        bytesSinceSnapshot = end;
+        if (truncated) {
+            segment.close();
+            if (end == 0) {
+                // No batch is left, the segment is replaced by a new file of the same name.
+                Files.delete(last);
+            } else {
+                segmentFirst = lastSequence + 1;
+            }
+            segment = openSegment(segmentFirst);
+        }
+    }
+
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /** Segments of the given directory ordered by their first sequence. */
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).forEach(segments::add);
+        }
+        segments.sort((a, b) -> Long.compare(firstSequence(a), firstSequence(b)));
+        return segments;
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void writeBook(DataOutputStream out, BookEntry book) throws IOException {
+        writeString(out, book.getTitle());
+        String[] authors = book.getAuthors();
+        out.writeInt(authors.length);
+        for (String author : authors) {
+            writeString(out, author);
+        }
+        out.writeFloat(book.getRating());
+        writeString(out, book.getISBN());
+        out.writeInt(book.getPages());
+    }
+
+    private static BookEntry readBook(DataInputStream in) throws IOException {
+        String title = readString(in);
+        String[] authors = new String[in.readInt()];
+        for (int a = 0; a < authors.length; a++) {
+            authors[a] = readString(in);
+        }
+        float rating = in.readFloat();
+        String isbn = readString(in);
+        return new BookEntry(title, authors, rating, isbn, in.readInt());
+    }
+
+    /** Read a book written by writeBook from a record in the read buffer. */
+    private static BookEntry readBook(ByteBuffer in) {
+        String title = readString(in);
+        String[] authors = new String[in.getInt()];
+        for (int a = 0; a < authors.length; a++) {
+            authors[a] = readString(in);
+        }
+        float rating = in.getFloat();
+        String isbn = readString(in);
+        return new BookEntry(title, authors, rating, isbn, in.getInt());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /** Single book mutation of a committed batch. */
+    public static final class Mutation {
+
+        private final long sequence;
+        private final byte kind;
+        private final int index;
+        private final BookEntry book;
+
+        private Mutation(long sequence, byte kind, int index, BookEntry book) {
+            this.sequence = sequence;
+            this.kind = kind;
+            this.index = index;
+            this.book = book;
+        }
+
+        /**
+         * @return sequence of the record.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return true if the book was added, false if it was removed.
+         */
+        public boolean isAdded() {
+            return kind == ADDED;
+        }
+
+        /**
+         * @return position the book was added at or removed from.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return added or removed book.
+         */
+        public BookEntry getBook() {
+            return book;
+        }
+    }
+
+    /**
+     * Reader of the committed batches of a journal, which may still be
+     * appended to by another process. Batches are only returned once
+     * their commit record was read, aborted batches are skipped. Reading
+     * stops at the end of the written records and continues from there
+     * once more records were written. Records of an incomplete batch
+     * truncated when the journal is opened again are read again from the
+     * segment continuing after the last complete batch.
+     */
+    public static final class Reader implements AutoCloseable {
+
+        private final Path directory;
+
+        /** Segment read, null if not opened yet. */
+        private SegmentInput input;
+
+        /** Sequence of the first record of the segment read. */
+        private long inputFirst;
+
+        /** Sequence of the last record read. */
+        private long sequence;
+
+        /** Sequence of the last commit read. */
+        private long committed;
+
+        /** Sequence of the last commit or abort read. */
+        private long boundary;
+
+        /** Position after the last commit or abort read in the segment read. */
+        private long boundaryPosition;
+
+        /** Mutations of the batch read so far. */
+        private List<Mutation> batch;
+
+        private Reader(Path directory, long sequence) throws IOException {
+            this.directory = directory;
+            this.sequence = sequence;
+            committed = sequence;
+            boundary = sequence;
+            batch = new ArrayList<>();
+            input = null;
+            openSegment();
+        }
+
+        /**
+         * @return sequence of the last commit read.
+         */
+        public long getCommittedSequence() {
+            return committed;
+        }
+
+        /**
+         * Read the next committed batch. Only records written before the
+         * call are read, so that a reader keeping up with a writer does not
+         * chase an incomplete batch being written.
+         *
+         * @return mutations of the batch in order or null if no further batch is complete yet.
+         * @throws IOException if reading failed or the segment to read was deleted.
+         */
+        public List<Mutation> nextBatch() throws IOException {
+            if (input != null) {
+                input.end = input.channel.size();
+            }
+            while (true) {
+                if (input == null && !openSegment()) {
+                    return null;
+                }
+                Record record = input.next();
+                if (record == null) {
+                    if (input.isTruncated()) {
+                        // The incomplete batch read was dropped by the writer.
+                        sequence = boundary;
+                        batch = new ArrayList<>();
+                        input.close();
+                        input = null;
+                        continue;
+                    }
+                    // A segment is only complete once a later one exists, records written before are read first.
+                    if (!hasLaterSegment()) {
+                        return null;
+                    }
+                    input.end = input.channel.size();
+                    record = input.next();
+                    if (record == null) {
+                        if (!Files.exists(segmentPath(sequence + 1))) {
+                            throw new IOException("Journal segment after sequence " + sequence + " was deleted");
+                        }
+                        input.close();
+                        input = null;
+                        continue;
+                    }
+                }
+                if (record.sequence <= sequence) {
+                    if (record.sequence <= boundary) {
+                        boundaryPosition = input.position;
+                    }
+                    continue;
+                }
+                if (record.sequence != sequence + 1) {
+                    throw new IOException("Journal misses records after sequence " + sequence);
+                }
+
+                sequence = record.sequence;
+                if (record.kind == COMMIT) {
+                    committed = sequence;
+                    boundary = sequence;
+                    boundaryPosition = input.position;
+                    List<Mutation> complete = batch;
+                    batch = new ArrayList<>();
+                    return complete;
+                } else if (record.kind == ABORT) {
+                    boundary = sequence;
+                    boundaryPosition = input.position;
+                    batch = new ArrayList<>();
+                } else {
+                    batch.add(new Mutation(record.sequence, record.kind, record.index, record.book));
+                }
+            }
+        }
+
+        /**
+         * Number of journal bytes written after the last batch read,
+         * including the records of an incomplete batch read already.
+         *
+         * @return unread bytes of the segment read and all later segments.
+         * @throws IOException if the segments cannot be listed.
+         */
+        public long getUnreadBytes() throws IOException {
+            long unread = 0;
+            for (Path segment : segments(directory)) {
+                if (input == null || firstSequence(segment) > inputFirst) {
+                    try {
+                        unread += Files.size(segment);
+                    } catch (NoSuchFileException e) {
+                        // deleted after a snapshot
+                    }
+                }
+            }
+            return input == null ? unread : unread + Math.max(0, input.channel.size() - boundaryPosition);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (input != null) {
+                input.close();
+            }
+        }
+
+        /**
+         * Open the segment holding the record after the current one.
+         * @return false if there is no such segment yet.
+         */
+        private boolean openSegment() throws IOException {
+            Path found = null;
+            for (Path segment : segments(directory)) {
+                if (firstSequence(segment) <= sequence + 1) {
+                    found = segment;
+                }
+            }
+            if (found == null) {
+                if (segments(directory).isEmpty()) {
+                    return false;
+                }
+                throw new IOException("Journal does not reach back to sequence " + (sequence + 1));
+            }
+            try {
+                input = new SegmentInput(found);
+                inputFirst = firstSequence(found);
+                boundaryPosition = 0;
+            } catch (NoSuchFileException e) {
+                throw new IOException("Journal segment was deleted: " + found, e);
+            }
+            return true;
+        }
+
+        private boolean hasLaterSegment() throws IOException {
+            for (Path segment : segments(directory)) {
+                if (firstSequence(segment) > inputFirst) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Path segmentPath(long firstSequence) {
+            return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        }
+    }
+
+    /** Buffer of a record payload, exposing its bytes to compute the checksum without a copy. */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        private byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /** Decoded journal record. */
+    private static final class Record {
+        private long sequence;
+        private byte kind;
+        private int index;
+        private BookEntry book;
+    }
+
+    /**
+     * Records of a segment. A record not written completely or with a
+     * wrong checksum ends the segment, reading it again later continues
+     * at the same position.
+     */
+    private static final class SegmentInput implements AutoCloseable {
+
+        private final Path path;
+        private final FileChannel channel;
+
+        /** Identity of the opened file, null if the file system does not provide one. */
+        private final Object fileKey;
+
+        /** Position after the last complete record. */
+        private long position;
+
+        /** Segment size up to which records are read. */
+        private long end;
+
+        /** Bytes read ahead, starting at bufferStart and ending at the buffer's limit. */
+        private ByteBuffer buffer;
+        private long bufferStart;
+
+        private final CRC32 crc;
+
+        private SegmentInput(Path segment) throws IOException {
+            path = segment;
+            channel = FileChannel.open(segment, StandardOpenOption.READ);
+            fileKey = Files.readAttributes(segment, BasicFileAttributes.class).fileKey();
+            position = 0;
+            end = channel.size();
+            buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            buffer.limit(0);
+            bufferStart = 0;
+            crc = new CRC32();
+        }
+
+        private Record next() throws IOException {
+            if (!fill(RECORD_HEADER_BYTES)) {
+                return null;
+            }
+            int offset = (int) (position - bufferStart);
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            if (!fill(RECORD_HEADER_BYTES + length)) {
+                return null;
+            }
+            offset = (int) (position - bufferStart);
+            crc.reset();
+            crc.update(buffer.array(), offset + RECORD_HEADER_BYTES, length);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                return null;
+            }
+
+            Record record = new Record();
+            ByteBuffer in = ByteBuffer.wrap(buffer.array(), offset + RECORD_HEADER_BYTES, length);
+            try {
+                record.sequence = in.getLong();
+                record.kind = in.get();
+                if (record.kind == ADDED || record.kind == REMOVED) {
+                    record.index = in.getInt();
+                    record.book = readBook(in);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Journal record is damaged at sequence " + record.sequence, e);
+            }
+            position += RECORD_HEADER_BYTES + length;
+            return record;
+        }
+
+        /**
+         * Was the segment truncated before the end of the records read, or
+         * replaced by a new file of the same name?
+         */
+        private boolean isTruncated() throws IOException {
+            if (channel.size() < position) {
+                return true;
+            }
+            try {
+                Object current = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+                return fileKey != null && !fileKey.equals(current);
+            } catch (NoSuchFileException e) {
+                // deleted after a snapshot, the records read are complete
+                return false;
+            }
+        }
+
+        /**
+         * Make the given number of bytes at the current position available
+         * in the buffer, reading ahead as far as the segment is written.
+         * @return false if the segment ends before.
+         */
+        private boolean fill(int length) throws IOException {
+            if (position + length > end) {
+                return false;
+            }
+            if (position + length <= bufferStart + buffer.limit()) {
+                return true;
+            }
+            if (length > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(length);
+            }
+            buffer.clear();
+            bufferStart = position;
+            boolean filled = true;
+            while (buffer.position() < length) {
+                if (channel.read(buffer, bufferStart + buffer.position()) < 0) {
+                    filled = false;
+                    break;
+                }
+            }
+            buffer.flip();
+            return filled;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MutationJournalBasicTest {
+
+    private Path testDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        testDirectory = Files.createTempDirectory("library-journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(testDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // ------------------------- journal tests --------------------
+
+    @Test
+    public void testReaderReturnsCommittedBatches() throws IOException {
+        try (MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES)) {
+            journal.appendAdded(0, BookStoreTest.BOOK_A);
+            journal.appendAdded(1, BookStoreTest.BOOK_B);
+            journal.appendCommit();
+            journal.appendAdded(2, BookStoreTest.BOOK_C);
+            journal.appendAbort();
+            journal.appendRemoved(0, BookStoreTest.BOOK_A);
+            journal.sync(journal.appendCommit());
+
+            try (MutationJournal.Reader reader = MutationJournal.read(testDirectory, 0)) {
+                List<MutationJournal.Mutation> first = reader.nextBatch();
+                assertEquals("Unexpected size of first batch.", 2, first.size());
+                assertEquals("Unexpected added book.", BookStoreTest.BOOK_B, first.get(1).getBook());
+                assertEquals("Unexpected position.", 1, first.get(1).getIndex());
+
+                List<MutationJournal.Mutation> second = reader.nextBatch();
+                assertEquals("Aborted batch expected to be skipped.", 1, second.size());
+                assertTrue("Removal expected.", !second.get(0).isAdded());
+                assertNull("No further batch expected.", reader.nextBatch());
+                assertEquals("Unexpected committed sequence.", 7, reader.getCommittedSequence());
+
+                journal.appendAdded(0, BookStoreTest.BOOK_C);
+                journal.sync(journal.appendCommit());
+                assertEquals("Batch appended later expected.", 1, reader.nextBatch().size());
+            }
+        }
+    }
+
+    @Test
+    public void testTornBatchTruncatedOnOpen() throws IOException {
+        try (MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES)) {
+            journal.appendAdded(0, BookStoreTest.BOOK_A);
+            journal.appendCommit();
+            journal.appendAdded(1, BookStoreTest.BOOK_B);
+            journal.sync(journal.appendAdded(2, BookStoreTest.BOOK_C));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES)) {
+            assertEquals("Incomplete batch expected to be dropped.", 2, journal.getLastSequence());
+            journal.sync(journal.appendCommit());
+            try (MutationJournal.Reader reader = MutationJournal.read(testDirectory, 0)) {
+                assertEquals("Committed batch expected.", Arrays.asList(BookStoreTest.BOOK_A),
+                        books(reader.nextBatch()));
+                assertEquals("Empty batch expected.", 0, reader.nextBatch().size());
+                assertNull("No further batch expected.", reader.nextBatch());
+            }
+        }
+    }
+
+    @Test
+    public void testReaderDropsTruncatedBatch() throws IOException {
+        MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+        journal.appendAdded(0, BookStoreTest.BOOK_A);
+        journal.appendCommit();
+        journal.sync(journal.appendAdded(1, BookStoreTest.BOOK_B));
+
+        try (MutationJournal.Reader reader = MutationJournal.read(testDirectory, 0)) {
+            assertEquals("Committed batch expected.", Arrays.asList(BookStoreTest.BOOK_A), books(reader.nextBatch()));
+            assertNull("Incomplete batch not expected.", reader.nextBatch());
+            journal.close();
+
+            // Opening the journal again drops the incomplete batch the reader has read.
+            try (MutationJournal reopened = new MutationJournal(testDirectory,
+                    MutationJournal.DEFAULT_SNAPSHOT_BYTES)) {
+                reopened.appendAdded(1, BookStoreTest.BOOK_C);
+                reopened.sync(reopened.appendCommit());
+                assertEquals("Batch after truncation expected.", Arrays.asList(BookStoreTest.BOOK_C),
+                        books(reader.nextBatch()));
+                assertEquals("Unexpected committed sequence.", reopened.getLastSequence(),
+                        reader.getCommittedSequence());
+            }
+        }
+    }
+
+    @Test
+    public void testReaderDropsTruncatedSegment() throws IOException {
+        MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+        journal.sync(journal.appendAdded(0, BookStoreTest.BOOK_A));
+
+        try (MutationJournal.Reader reader = MutationJournal.read(testDirectory, 0)) {
+            assertNull("Incomplete batch not expected.", reader.nextBatch());
+            journal.close();
+
+            try (MutationJournal reopened = new MutationJournal(testDirectory,
+                    MutationJournal.DEFAULT_SNAPSHOT_BYTES)) {
+                reopened.appendAdded(0, BookStoreTest.BOOK_B);
+                reopened.appendAdded(1, BookStoreTest.BOOK_C);
+                reopened.sync(reopened.appendCommit());
+                assertEquals("Batch written after truncation expected.",
+                        Arrays.asList(BookStoreTest.BOOK_B, BookStoreTest.BOOK_C),
+                        books(reader.nextBatch()));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReaderFailsOnDeletedSegment() throws IOException {
+        try (MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+             MutationJournal.Reader reader = MutationJournal.read(testDirectory, 0)) {
+            journal.appendAdded(0, BookStoreTest.BOOK_A);
+            journal.sync(journal.appendCommit());
+            assertEquals("Committed batch expected.", 1, reader.nextBatch().size());
+            for (int i = 0; i < 2; i++) {
+                journal.appendAdded(0, BookStoreTest.BOOK_B);
+                journal.appendCommit();
+                journal.rotate();
+            }
+            journal.writeSnapshot(Arrays.asList(BookStoreTest.BOOK_A, BookStoreTest.BOOK_B, BookStoreTest.BOOK_B),
+                    journal.getLastSequence());
+
+            // The open segment is still read, the next one is gone.
+            assertEquals("Batch of the open segment expected.", 1, reader.nextBatch().size());
+            reader.nextBatch();
+        }
+    }
+
+    @Test
+    public void testSyncForcesPendingRecordsOnce() throws IOException {
+        try (MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES)) {
+            long first = 0;
+            for (int i = 0; i < 100; i++) {
+                journal.appendAdded(i, BookStoreTest.BOOK_A);
+                long commit = journal.appendCommit();
+                first = first == 0 ? commit : first;
+            }
+            journal.sync(journal.getLastSequence());
+            journal.sync(first);
+
+            assertEquals("Records expected to be forced together.", 1, journal.getSyncCount());
+            assertEquals("All records expected to be durable.", journal.getLastSequence(),
+                    journal.getDurableSequence());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSecondWriterFails() throws IOException {
+        MutationJournal journal = new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+        try {
+            new MutationJournal(testDirectory, MutationJournal.DEFAULT_SNAPSHOT_BYTES).close();
+        } finally {
+            journal.close();
+        }
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testLibraryRestoredFromJournal() throws IOException {
+        LibraryData library = journaledLibrary(StorageMode.HEAP, MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+        library.updateBookData(books -> books.addAll(
+                Arrays.asList(BookStoreTest.BOOK_A, BookStoreTest.BOOK_B, BookStoreTest.BOOK_C)));
+        library.updateBookData(books -> books.remove(BookStoreTest.BOOK_A));
+        try {
+            library.updateBookData(books -> {
+                books.add(BookStoreTest.BOOK_A);
+                throw new IllegalStateException("Update failed.");
+            });
+            fail("Failed update expected to throw.");
+        } catch (IllegalStateException e) {
+            // expected, the added book must not be restored
+        }
+        library.close();
+
+        for (StorageMode mode : new StorageMode[] { StorageMode.HEAP, StorageMode.DISK }) {
+            LibraryData restored = journaledLibrary(mode, MutationJournal.DEFAULT_SNAPSHOT_BYTES);
+            try {
+                assertEquals("Unexpected books restored.", Arrays.asList(BookStoreTest.BOOK_B, BookStoreTest.BOOK_C),
+                        restored.getBookData());
+            } finally {
+                restored.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotReplacesOldSegments() throws IOException {
+        LibraryData library = journaledLibrary(StorageMode.HEAP, 256);
+        List<BookEntry> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            BookEntry book = new BookEntry("Title " + i, new String[] { "Author" }, 1.0f, "ISBN" + i, i);
+            library.updateBookData(books -> books.add(book));
+            expected.add(book);
+        }
+        library.updateBookData(books -> books.remove(0));
+        expected.remove(0);
+        library.close();
+
+        assertTrue("Snapshot expected.", Files.exists(testDirectory.resolve(MutationJournal.SNAPSHOT_FILE)));
+        assertEquals("Only the newest segment expected.", 1, segments().size());
+        LibraryData restored = journaledLibrary(StorageMode.LAZY, 256);
+        try {
+            assertEquals("Unexpected books restored.", expected, restored.getBookData());
+        } finally {
+            restored.close();
+        }
+    }
+
+    private LibraryData journaledLibrary(StorageMode mode, long snapshotBytes) throws IOException {
+        LibraryData library = new LibraryData(mode);
+        library.openJournal(new MutationJournal(testDirectory, snapshotBytes));
+        return library;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(testDirectory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(file -> file.getFileName().toString().endsWith(".log")).forEach(segments::add);
+            return segments;
+        }
+    }
+
+    private static List<BookEntry> books(List<MutationJournal.Mutation> batch) {
+        List<BookEntry> books = new ArrayList<>();
+        batch.forEach(mutation -> books.add(mutation.getBook()));
+        return books;
+    }
+}
@@ -0,0 +1,506 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Book storage keeping titles, ISBNs and author names outside the Java
+ * heap, so that huge libraries put little pressure on the garbage collector.
+ *
+ * The text of each book is written as one record into direct buffers of
+ * fixed size, called chunks. A record holds the UTF-8 encoded title, ISBN
+ * and authors, each prefixed with its length. Only the record offset,
+ * rating and page count of each book are kept in primitive arrays on the
+ * heap. BookEntry instances are only created when a book is read through
+ * the List interface, title searches and comparisons work on the stored
+ * bytes directly.
+ *
+ * Written records never change, so a copy shares all chunks with the
+ * copied list. The copy does not write into a shared chunk, the chunk
+ * being appended to is copied before its first record is appended to it.
+ * The copied list is not changed by copying, it only ever writes behind
+ * the records the copy reads.
+ *
+ * Removing a book marks its record as unused. Once unused bytes make up
+ * more than half of the written data, live records are moved into new
+ * chunks and the old chunks are dropped. Calling close drops all chunks,
+ * after which the list must not be used any more.
+ *
+ * Memory is not freed explicitly. Direct ByteBuffers offer no supported
+ * way to free their memory on the Java versions this code targets, and
+ * dropped chunks may still be read through snapshots, which are never
+ * closed. A dropped chunk is returned to the operating system once the
+ * garbage collector frees its buffer, after the last copy using it.
+ */
+public class OffHeapBookList extends BookStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Size of a single chunk, no record may be larger than this. */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /** Written data below this size is never compacted. */
+    private static final int MIN_COMPACTION_SIZE = 4096;
+
+    /** Number of books stored. */
+    private int size;
+
+    /** Rating per book. */
+    private float[] ratings;
+
+    /** Number of pages per book. */
+    private int[] pages;
+
+    /** Position of the record of each book, chunk index times chunk size plus offset. */
+    private long[] recordOffsets;
+
+    /** Direct buffers holding the records. */
+    private List<ByteBuffer> chunks;
+
+    /** Number of leading chunks shared with the copied list, these must not be written to. */
+    private int sharedChunks;
+
+    /** Position the next record is written to. */
+    private long writePosition;
+
+    /** Number of record bytes belonging to removed books. */
+    private long deadBytes;
+
+    /** Create an empty off-heap book list. */
+    public OffHeapBookList() {
+        size = 0;
+        ratings = new float[INITIAL_CAPACITY];
+        pages = new int[INITIAL_CAPACITY];
+        recordOffsets = new long[INITIAL_CAPACITY];
+        chunks = new ArrayList<>();
+        sharedChunks = 0;
+        writePosition = 0;
+        deadBytes = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a book entry of the book at the given position.
+     *
+     * @param index position of the book.
+     * @return new book entry holding the stored fields.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @Override
+    public BookEntry get(int index) {
+        Objects.checkIndex(index, size);
+
+        ByteBuffer chunk = chunkOf(recordOffsets[index]);
+        int position = offsetOf(recordOffsets[index]);
+        String title = readString(chunk, position);
+        position += 4 + chunk.getInt(position);
+        String isbn = readString(chunk, position);
+        position += 4 + chunk.getInt(position);
+        return new BookEntry(title, readAuthors(chunk, position), ratings[index], isbn, pages[index]);
+    }
+
+    @Override
+    public String titleAt(int index) {
+        Objects.checkIndex(index, size);
+        return readString(chunkOf(recordOffsets[index]), offsetOf(recordOffsets[index]));
+    }
+
+    @Override
+    public String isbnAt(int index) {
+        Objects.checkIndex(index, size);
+        ByteBuffer chunk = chunkOf(recordOffsets[index]);
+        int position = offsetOf(recordOffsets[index]);
+        return readString(chunk, position + 4 + chunk.getInt(position));
+    }
+
+    /**
+     * Match the term against the stored title bytes. Titles holding
+     * characters outside of ASCII are decoded and matched as strings, as
+     * are all titles if the default locale lowercases ASCII letters to
+     * other letters, so that the result equals that of the other stores.
+     */
+    @Override
+    public boolean titleContains(int index, String lowerCaseTerm) {
+        Objects.checkIndex(index, size);
+        ByteBuffer chunk = chunkOf(recordOffsets[index]);
+        int start = offsetOf(recordOffsets[index]) + 4;
+        int length = chunk.getInt(start - 4);
+
+        if (!lowerCasesAscii() || !isAscii(lowerCaseTerm) || !isAscii(chunk, start, length)) {
+            return super.titleContains(index, lowerCaseTerm);
+        }
+
+        int termLength = lowerCaseTerm.length();
+        for (int from = start; from <= start + length - termLength; from++) {
+            int matched = 0;
+            while (matched < termLength
+                    && toLowerCase(chunk.get(from + matched)) == lowerCaseTerm.charAt(matched)) {
+                matched++;
+            }
+            if (matched == termLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public char titleInitialAt(int index) {
+        Objects.checkIndex(index, size);
+        ByteBuffer chunk = chunkOf(recordOffsets[index]);
+        int start = offsetOf(recordOffsets[index]) + 4;
+
+        if (chunk.getInt(start - 4) > 0 && chunk.get(start) >= 0) {
+            return Character.toUpperCase((char) chunk.get(start));
+        }
+        return super.titleInitialAt(index);
+    }
+
+    @Override
+    public String[] authorsAt(int index) {
+        Objects.checkIndex(index, size);
+        ByteBuffer chunk = chunkOf(recordOffsets[index]);
+        int position = offsetOf(recordOffsets[index]);
+        position += 4 + chunk.getInt(position);
+        position += 4 + chunk.getInt(position);
+        return readAuthors(chunk, position);
+    }
+
+    /**
+     * Append the given book. Books can only be added at the end.
+     *
+     * @param index must be equal to the current size.
+     * @param book book to append.
+     * @throws NullPointerException if the given book is null.
+     * @throws UnsupportedOperationException if the index is not the end of the list.
+     * @throws IllegalArgumentException if the text of the book does not fit into a chunk.
+     */
+    @Override
+    public void add(int index, BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        checkNotFrozen();
+        if (index != size) {
+            throw new UnsupportedOperationException("Off-heap storage only supports appending books.");
+        }
+
+        byte[] record = encode(book);
+        if (record.length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("Book text too large for off-heap storage: " + book.getTitle());
+        }
+
+        ensureCapacity(size + 1);
+        ratings[size] = book.getRating();
+        pages[size] = book.getPages();
+        recordOffsets[size] = appendRecord(record);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public BookEntry remove(int index) {
+        checkNotFrozen();
+        BookEntry removed = get(index);
+
+        deadBytes += recordLength(recordOffsets[index]);
+        int moved = size - index - 1;
+        System.arraycopy(ratings, index + 1, ratings, index, moved);
+        System.arraycopy(pages, index + 1, pages, index, moved);
+        System.arraycopy(recordOffsets, index + 1, recordOffsets, index, moved);
+        size--;
+        modCount++;
+
+        if (deadBytes > MIN_COMPACTION_SIZE && deadBytes > writePosition / 2) {
+            compact();
+        }
+        return removed;
+    }
+
+    /** Remove all books and drop all chunks. */
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        size = 0;
+        writePosition = 0;
+        deadBytes = 0;
+        chunks.clear();
+        sharedChunks = 0;
+        modCount++;
+    }
+
+    /**
+     * Remove all books and drop all chunks. Their memory is freed once the
+     * garbage collector frees the buffers, see the class comment.
+     */
+    public void close() {
+        clear();
+    }
+
+    /**
+     * The copy shares all chunks with this list and copies the chunk it
+     * appends to first. This list is not changed, so that frozen lists can
+     * be copied while other threads read them.
+     */
+    @Override
+    public OffHeapBookList copy() {
+        OffHeapBookList copy = new OffHeapBookList();
+        copy.size = size;
+        copy.ratings = ratings.clone();
+        copy.pages = pages.clone();
+        copy.recordOffsets = recordOffsets.clone();
+        copy.chunks.addAll(chunks);
+        copy.writePosition = writePosition;
+        copy.deadBytes = deadBytes;
+        copy.sharedChunks = chunks.size();
+        return copy;
+    }
+
+    /**
+     * Find a book by comparing the primitive columns first and only
+     * creating an entry for candidates with matching title bytes.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof BookEntry)) {
+            return -1;
+        }
+
+        BookEntry book = (BookEntry) o;
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size; i++) {
+            if (pages[i] == book.getPages()
+                    && Float.compare(ratings[i], book.getRating()) == 0
+                    && titleEquals(i, title)
+                    && get(i).equals(book)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public long estimateBytes() {
+        return 4L * (ratings.length + pages.length) + 8L * recordOffsets.length + 64L * chunks.size();
+    }
+
+    /**
+     * Bytes reserved outside the heap.
+     * @return total size of all chunks.
+     */
+    public long getOffHeapBytes() {
+        return (long) CHUNK_SIZE * chunks.size();
+    }
+
+    private ByteBuffer chunkOf(long position) {
+        return chunks.get((int) (position / CHUNK_SIZE));
+    }
+
+    private static int offsetOf(long position) {
+        return (int) (position % CHUNK_SIZE);
+    }
+
+    private boolean titleEquals(int index, byte[] title) {
+        ByteBuffer chunk = chunkOf(recordOffsets[index]);
+        int start = offsetOf(recordOffsets[index]) + 4;
+        if (chunk.getInt(start - 4) != title.length) {
+            return false;
+        }
+
+        for (int i = 0; i < title.length; i++) {
+            if (chunk.get(start + i) != title[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read a length prefixed string. Only absolute reads are used, so that
+     * frozen lists can be read from several threads.
+     */
+    private static String readString(ByteBuffer chunk, int position) {
+        byte[] bytes = new byte[chunk.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = chunk.get(position + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Read the author count followed by length prefixed author names. */
+    private static String[] readAuthors(ByteBuffer chunk, int position) {
+        String[] authors = new String[chunk.getInt(position)];
+        position += 4;
+        for (int a = 0; a < authors.length; a++) {
+            authors[a] = readString(chunk, position);
+            position += 4 + chunk.getInt(position);
+        }
+        return authors;
+    }
+
+    /** Length of the record at the given position. */
+    private int recordLength(long recordOffset) {
+        ByteBuffer chunk = chunkOf(recordOffset);
+        int start = offsetOf(recordOffset);
+        int position = start;
+        position += 4 + chunk.getInt(position);
+        position += 4 + chunk.getInt(position);
+        int authors = chunk.getInt(position);
+        position += 4;
+        for (int a = 0; a < authors; a++) {
+            position += 4 + chunk.getInt(position);
+        }
+        return position - start;
+    }
+
+    private static byte[] encode(BookEntry book) {
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] isbn = book.getISBN().getBytes(StandardCharsets.UTF_8);
+        String[] authors = book.getAuthors();
+        byte[][] authorBytes = new byte[authors.length][];
+
+        int length = 12 + title.length + isbn.length;
+        for (int a = 0; a < authors.length; a++) {
+            authorBytes[a] = authors[a].getBytes(StandardCharsets.UTF_8);
+            length += 4 + authorBytes[a].length;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(title.length).put(title);
+        record.putInt(isbn.length).put(isbn);
+        record.putInt(authors.length);
+        for (byte[] author : authorBytes) {
+            record.putInt(author.length).put(author);
+        }
+        return record.array();
+    }
+
+    /**
+     * Write a record at the end of the written data, starting a new chunk
+     * if it does not fit into the current one.
+     * @return position of the record.
+     */
+    private long appendRecord(byte[] record) {
+        long position = fitRecord(writePosition, record.length);
+        int chunkIndex = (int) (position / CHUNK_SIZE);
+        while (chunks.size() <= chunkIndex) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+        }
+        if (chunkIndex < sharedChunks) {
+            chunks.set(chunkIndex, ownCopy(chunks.get(chunkIndex), offsetOf(position)));
+            sharedChunks = chunkIndex;
+        }
+
+        ByteBuffer chunk = chunks.get(chunkIndex);
+        chunk.position(offsetOf(position));
+        chunk.put(record);
+        writePosition = position + record.length;
+        return position;
+    }
+
+    /**
+     * Position a record of the given length is written to, so that it
+     * does not span two chunks.
+     */
+    private static long fitRecord(long position, int length) {
+        if (offsetOf(position) + length > CHUNK_SIZE) {
+            return (position / CHUNK_SIZE + 1) * CHUNK_SIZE;
+        }
+        return position;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ratings.length) {
+            int grown = Math.max(capacity, ratings.length * 2);
+            ratings = Arrays.copyOf(ratings, grown);
+            pages = Arrays.copyOf(pages, grown);
+            recordOffsets = Arrays.copyOf(recordOffsets, grown);
+        }
+    }
+
+    /**
+     * Copy the first bytes of a shared chunk into a new chunk.
+     *
+     * @param chunk chunk to copy, not changed.
+     * @param length number of bytes to copy.
+     * @return new chunk holding the bytes.
+     */
+    private static ByteBuffer ownCopy(ByteBuffer chunk, int length) {
+        ByteBuffer source = chunk.duplicate();
+        source.clear().limit(length);
+        return ByteBuffer.allocateDirect(CHUNK_SIZE).put(source);
+    }
+
+    /**
+     * Move the records of all stored books into new chunks and drop the
+     * old chunks, which may still be used by copies. Records are kept in
+     * order.
+     */
+    private void compact() {
+        List<ByteBuffer> compacted = new ArrayList<>();
+        long target = 0;
+        for (int i = 0; i < size; i++) {
+            byte[] record = new byte[recordLength(recordOffsets[i])];
+            ByteBuffer source = chunkOf(recordOffsets[i]).duplicate();
+            source.position(offsetOf(recordOffsets[i]));
+            source.get(record);
+
+            target = fitRecord(target, record.length);
+            while (compacted.size() <= target / CHUNK_SIZE) {
+                compacted.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+            }
+            ByteBuffer destination = compacted.get((int) (target / CHUNK_SIZE));
+            destination.position(offsetOf(target));
+            destination.put(record);
+            recordOffsets[i] = target;
+            target += record.length;
+        }
+
+        chunks = compacted;
+        sharedChunks = 0;
+        writePosition = target;
+        deadBytes = 0;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(ByteBuffer chunk, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (chunk.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Does String.toLowerCase map every ASCII letter to its ASCII lower
+     * case letter in the default locale? It does not in Turkish and
+     * Azerbaijani, where the capital letter I becomes a dotless i.
+     */
+    private static boolean lowerCasesAscii() {
+        String language = Locale.getDefault().getLanguage();
+        return !language.equals("tr") && !language.equals("az");
+    }
+
+    private static char toLowerCase(byte ascii) {
+        return ascii >= 'A' && ascii <= 'Z' ? (char) (ascii + ('a' - 'A')) : (char) ascii;
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapBookListBasicTest extends BookStoreTest<OffHeapBookList> {
+
+    @Override
+    protected OffHeapBookList createBooks() {
+        return new OffHeapBookList();
+    }
+
+    // ------------------------- access tests --------------------
+
+    @Test
+    public void testOffHeapBytesReserved() {
+        assertTrue("Off-heap memory expected to be reserved.", testBooks.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    public void testTitleContainsLikeOtherStores() {
+        OffHeapBookList books = new OffHeapBookList();
+        books.add(new BookEntry("INDEX OF TITLES", new String[] { "AuthorA" }, 3.2f, "ISBNA", 500));
+        books.add(new BookEntry("ÉCLAIR", new String[] { "AuthorA" }, 3.2f, "ISBNB", 500));
+        Locale locale = Locale.getDefault();
+        try {
+            for (Locale testLocale : new Locale[] { Locale.ROOT, new Locale("tr"), new Locale("az") }) {
+                Locale.setDefault(testLocale);
+                for (String term : new String[] { "index", "titles", "éclair", "ındex" }) {
+                    for (int i = 0; i < books.size(); i++) {
+                        assertEquals("Unexpected match of " + term + " in locale " + testLocale,
+                                books.titleAt(i).toLowerCase().contains(term), books.titleContains(i, term));
+                    }
+                }
+            }
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    // ------------------------- modification tests --------------------
+
+    @Test
+    public void testRemoveManyReleasesChunks() {
+        for (int i = 0; i < 30000; i++) {
+            testBooks.add(new BookEntry("Title " + i, new String[] { "Author " + i }, 1f, "ISBN" + i, i));
+        }
+        long reserved = testBooks.getOffHeapBytes();
+        while (testBooks.size() > 2) {
+            testBooks.remove(0);
+        }
+
+        assertEquals("Remaining book not returned as expected.",
+                new BookEntry("Title 29998", new String[] { "Author 29998" }, 1f, "ISBN29998", 29998),
+                testBooks.get(0));
+        assertEquals("Remaining book not returned as expected.",
+                new BookEntry("Title 29999", new String[] { "Author 29999" }, 1f, "ISBN29999", 29999),
+                testBooks.get(1));
+        assertTrue("Unused chunks expected to be released.", testBooks.getOffHeapBytes() < reserved);
+    }
+
+    @Test
+    public void testCloseReleasesChunks() {
+        testBooks.close();
+
+        assertEquals("No books expected after closing.", 0, testBooks.size());
+        assertEquals("No off-heap memory expected after closing.", 0, testBooks.getOffHeapBytes());
+    }
+
+    @Test
+    public void testCopySharesWrittenChunks() {
+        OffHeapBookList copy = testBooks.copy();
+        testBooks.freeze();
+        copy.remove(0);
+        copy.add(BOOK_A);
+
+        assertEquals("Copied list expected to be unchanged.", Arrays.asList(BOOK_A, BOOK_B, BOOK_C), testBooks);
+        assertEquals("Unexpected books in copy.", Arrays.asList(BOOK_B, BOOK_C, BOOK_A), copy);
+
+        OffHeapBookList other = testBooks.copy();
+        other.add(BOOK_B);
+        assertEquals("Appending to another copy expected not to change the first.", BOOK_A, copy.get(2));
+        assertEquals("Unexpected book appended to other copy.", BOOK_B, other.get(3));
+    }
+
+    @Test
+    public void testCopiedListAppendsBehindCopy() {
+        OffHeapBookList copy = testBooks.copy();
+        testBooks.add(BOOK_A);
+        copy.add(BOOK_B);
+        testBooks.add(BOOK_C);
+
+        assertEquals("Unexpected books in copied list.", Arrays.asList(BOOK_A, BOOK_B, BOOK_C, BOOK_A, BOOK_C),
+                testBooks);
+        assertEquals("Unexpected books in copy.", Arrays.asList(BOOK_A, BOOK_B, BOOK_C, BOOK_B), copy);
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testLibraryLoadDataOffHeap() {
+        LibraryData library = new LibraryData(StorageMode.OFF_HEAP);
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            library.loadData(Paths.get("booksTestData01.csv"));
+        } finally {
+            intercept.stdCaptureStop();
+        }
+
+        assertTrue("Off-heap library expected to use off-heap storage.",
+                library.getBookData() instanceof OffHeapBookList);
+        assertEquals("Unexpected amount of books after loading file.", 2, library.getBookData().size());
+    }
+}
@@ -0,0 +1,205 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of fixed-size pages of a file. Reads are served from
+ * cached pages, missing pages are read from the file and the least
+ * recently used page is evicted once the cache is full.
+ *
+ * Missing pages are copied from read-only memory mappings of whole
+ * segments of the file, pages of a segment not yet complete are read
+ * from the file directly.
+ *
+ * Pages changed after being read must be written through the cache, as
+ * cached pages are never refreshed from the file.
+ *
+ * Reads may happen from several threads at once.
+ */
+public class PageCache {
+
+    /** Size of a single page in bytes. */
+    public static final int PAGE_SIZE = 8192;
+
+    /** System property setting the number of cached pages. */
+    public static final String PROPERTY = "library.cache.pages";
+
+    /** Number of cached pages if none is configured, 32 MiB. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Size of the mapped segments of the file, 64 MiB. */
+    private static final long SEGMENT_SIZE = 8192L * PAGE_SIZE;
+
+    /** File the pages are read from. */
+    private final FileChannel channel;
+
+    /** Maximum number of cached pages. */
+    private final int capacity;
+
+    /** Cached pages by page index, in order of their last access. */
+    private final Map<Long, byte[]> pages;
+
+    /** Mapped segments of the file by segment index, null if not mapped yet. */
+    private final List<MappedByteBuffer> segments;
+
+    /** Number of reads served from a cached page. */
+    private long hits;
+
+    /** Number of pages read from the file. */
+    private long misses;
+
+    /**
+     * Create an empty cache for the given file.
+     *
+     * @param channel file to read pages from.
+     * @param capacity maximum number of cached pages.
+     * @throws NullPointerException if the given channel is null.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public PageCache(FileChannel channel, int capacity) {
+        this.channel = Objects.requireNonNull(channel, "Given channel must not be null.");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Given capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > PageCache.this.capacity;
+            }
+        };
+        segments = new ArrayList<>();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Number of cached pages configured via system property.
+     * @return configured capacity or DEFAULT_CAPACITY if none is set.
+     * @throws NumberFormatException if the property is no number.
+     */
+    public static int capacityFromSystemProperty() {
+        String capacity = System.getProperty(PROPERTY);
+        return capacity == null ? DEFAULT_CAPACITY : Integer.parseInt(capacity.strip());
+    }
+
+    /**
+     * Read bytes of the file through the cache.
+     *
+     * @param position position in the file to read from.
+     * @param target array to read into.
+     * @param offset start in the array.
+     * @param length number of bytes to read.
+     * @throws IOException if reading a page failed or the range ends behind the file.
+     * @throws IndexOutOfBoundsException if the range is outside of the array.
+     */
+    public synchronized void read(long position, byte[] target, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, target.length);
+
+        while (length > 0) {
+            byte[] page = page(position / PAGE_SIZE);
+            int pageOffset = (int) (position % PAGE_SIZE);
+            int read = Math.min(length, PAGE_SIZE - pageOffset);
+            System.arraycopy(page, pageOffset, target, offset, read);
+            position += read;
+            offset += read;
+            length -= read;
+        }
+    }
+
+    /**
+     * Update a page written to the file, so that later reads return the
+     * new content. The page is cached like a page read.
+     *
+     * @param index index of the page.
+     * @param page new content of PAGE_SIZE bytes, copied.
+     * @throws IllegalArgumentException if the content is no whole page.
+     */
+    public synchronized void update(long index, byte[] page) {
+        if (page.length != PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must have " + PAGE_SIZE + " bytes: " + page.length);
+        }
+        pages.put(index, page.clone());
+    }
+
+    /**
+     * @return maximum number of cached pages.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of pages currently cached.
+     */
+    public synchronized int getCachedPages() {
+        return pages.size();
+    }
+
+    /**
+     * @return number of page reads served from the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of pages read from the file.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Get a page from the cache or read it from the file. */
+    private byte[] page(long index) throws IOException {
+        byte[] page = pages.get(index);
+        if (page != null) {
+            hits++;
+            return page;
+        }
+
+        page = new byte[PAGE_SIZE];
+        long position = index * PAGE_SIZE;
+        MappedByteBuffer segment = segment(position / SEGMENT_SIZE);
+        if (segment != null) {
+            ByteBuffer view = segment.duplicate();
+            view.position((int) (position % SEGMENT_SIZE));
+            view.get(page);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(page);
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new EOFException("Page " + index + " ends behind the end of the file.");
+                }
+            }
+        }
+        misses++;
+        pages.put(index, page);
+        return page;
+    }
+
+    /** Get a mapped segment, mapping it if the file holds all of it. */
+    private MappedByteBuffer segment(long index) throws IOException {
+        if (index < segments.size() && segments.get((int) index) != null) {
+            return segments.get((int) index);
+        }
+        if ((index + 1) * SEGMENT_SIZE > channel.size()) {
+            return null;
+        }
+
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, index * SEGMENT_SIZE, SEGMENT_SIZE);
+        while (segments.size() <= index) {
+            segments.add(null);
+        }
+        segments.set((int) index, segment);
+        return segment;
+    }
+}
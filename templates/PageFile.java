@@ -0,0 +1,603 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Single file of fixed-size pages holding a persistent data structure.
+ * Pages are read through a bounded page cache backed by memory mappings
+ * of the file.
+ *
+ * The first two pages hold alternating headers. A commit writes all
+ * changed pages first and then the header of the other slot, so that a
+ * crash leaves either the previous or the new state. Each header holds a
+ * number of root pages, which the user of the file points at its data,
+ * and the list of free pages.
+ *
+ * Data reachable from a committed header is never changed in place, so
+ * that older states remain readable while newer ones are written. Pages
+ * no longer used by a commit are only reused once the file is opened
+ * again, as earlier states may still be read until then.
+ *
+ * Longer data is written to chains of pages, each holding the number of
+ * the next page and the number of bytes used.
+ */
+public class PageFile implements AutoCloseable {
+
+    /** Size of a single page in bytes. */
+    public static final int PAGE_SIZE = PageCache.PAGE_SIZE;
+
+    /** Number of root pages a header holds for the user of the file. */
+    public static final int ROOT_COUNT = 8;
+
+    /** Page number referring to no page. */
+    public static final long NO_PAGE = -1;
+
+    /** Identifies page files, "LIBPAGES". */
+    private static final long MAGIC = 0x4C49425041474553L;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /** Number of pages holding headers. */
+    private static final int HEADER_PAGES = 2;
+
+    /** Bytes at the start of a chain page: next page and number of bytes used. */
+    private static final int CHAIN_HEADER_BYTES = 12;
+
+    /** Bytes of data a chain page holds. */
+    private static final int CHAIN_DATA_BYTES = PAGE_SIZE - CHAIN_HEADER_BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final PageCache cache;
+
+    /** Force written pages to the storage device on commit. */
+    private final boolean durable;
+
+    /** Number of pages in use or free, the next new page. */
+    private long pageCount;
+
+    /** Number of the last commit. */
+    private long commitCount;
+
+    /** Root pages of the last commit. */
+    private long[] roots;
+
+    /** Free pages which may be reused. */
+    private final Deque<Long> reusable;
+
+    /** Pages no longer used by a commit, which may be reused once the file is opened again. */
+    private final List<Long> released;
+
+    /** Pages of the chain listing the free pages of the last commit. */
+    private List<Long> freeChain;
+
+    private PageFile(Path path, int cachePages, boolean durable) throws IOException {
+        this.path = path;
+        this.durable = durable;
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        try {
+            if (durable && !lock(channel)) {
+                throw new IOException("Page file is used by another process: " + path);
+            }
+            cache = new PageCache(channel, cachePages);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        reusable = new ArrayDeque<>();
+        released = new ArrayList<>();
+        freeChain = new ArrayList<>();
+        roots = new long[ROOT_COUNT];
+        Arrays.fill(roots, NO_PAGE);
+
+        try {
+            if (channel.size() == 0) {
+                pageCount = HEADER_PAGES;
+                commitCount = 0;
+                writeHeader(NO_PAGE);
+                writePage(1, new byte[PAGE_SIZE]);
+                force();
+            } else {
+                readHeaders();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open the given page file, creating an empty one if it does not
+     * exist. Commits are forced to the storage device.
+     *
+     * @param path file to open.
+     * @param cachePages maximum number of cached pages.
+     * @return opened page file.
+     * @throws IOException if the file cannot be opened or is no valid page file.
+     * @throws NullPointerException if the given path is null.
+     * @throws IllegalArgumentException if the number of pages is not positive.
+     */
+    public static PageFile open(Path path, int cachePages) throws IOException {
+        Objects.requireNonNull(path, "Given path must not be null.");
+        return new PageFile(path, cachePages, true);
+    }
+
+    /**
+     * Create a page file which is deleted when the program ends. Commits
+     * are not forced to the storage device.
+     *
+     * @param cachePages maximum number of cached pages.
+     * @return new empty page file.
+     * @throws IOException if the file cannot be created.
+     * @throws IllegalArgumentException if the number of pages is not positive.
+     */
+    public static PageFile createTemporary(int cachePages) throws IOException {
+        Path path = Files.createTempFile("library-store", ".pages");
+        path.toFile().deleteOnExit();
+        return new PageFile(path, cachePages, false);
+    }
+
+    /**
+     * @return path of this file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Does this file keep its content once the program ends?
+     * @return false for temporary files.
+     */
+    public boolean isDurable() {
+        return durable;
+    }
+
+    /**
+     * @return cache the pages of this file are read through.
+     */
+    public PageCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Get a root page of the last commit.
+     *
+     * @param index number of the root.
+     * @return root page or value stored by the last commit, NO_PAGE if never set.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public synchronized long getRoot(int index) {
+        return roots[Objects.checkIndex(index, ROOT_COUNT)];
+    }
+
+    /**
+     * @return number of the last commit, 0 for a new file.
+     */
+    public synchronized long getCommitCount() {
+        return commitCount;
+    }
+
+    /**
+     * @return number of pages of this file.
+     */
+    public synchronized long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Allocate a page, reusing a free page if there is one. The page
+     * content is undefined until it is written.
+     * @return number of the allocated page.
+     */
+    public synchronized long allocate() {
+        Long page = reusable.poll();
+        return page != null ? page : pageCount++;
+    }
+
+    /**
+     * Allocate consecutive pages at the end of the file.
+     *
+     * @param count number of pages.
+     * @return number of the first allocated page.
+     * @throws IllegalArgumentException if the number of pages is not positive.
+     */
+    public synchronized long allocateRun(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Given number of pages must be positive: " + count);
+        }
+        long first = pageCount;
+        pageCount += count;
+        return first;
+    }
+
+    /**
+     * Write a whole page.
+     *
+     * @param page number of the page.
+     * @param data page content of PAGE_SIZE bytes.
+     * @throws IllegalArgumentException if the page is a header page or the data is no whole page.
+     * @throws UncheckedIOException if writing failed.
+     */
+    public void write(long page, byte[] data) {
+        if (data.length != PAGE_SIZE) {
+            throw new IllegalArgumentException("Page data must have " + PAGE_SIZE + " bytes: " + data.length);
+        }
+        if (page < HEADER_PAGES) {
+            throw new IllegalArgumentException("Header pages must not be written: " + page);
+        }
+        writePage(page, data);
+    }
+
+    private void writePage(long page, byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, page * PAGE_SIZE + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.update(page, data);
+    }
+
+    /**
+     * Read bytes of this file through the page cache.
+     *
+     * @param position position in the file.
+     * @param target array to read into.
+     * @param offset start in the array.
+     * @param length number of bytes to read.
+     * @throws UncheckedIOException if reading failed.
+     */
+    public void read(long position, byte[] target, int offset, int length) {
+        try {
+            cache.read(position, target, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read a whole page through the page cache.
+     *
+     * @param page number of the page.
+     * @return copy of the page content.
+     * @throws UncheckedIOException if reading failed.
+     */
+    public byte[] readPage(long page) {
+        byte[] data = new byte[PAGE_SIZE];
+        read(page * PAGE_SIZE, data, 0, PAGE_SIZE);
+        return data;
+    }
+
+    /**
+     * Start writing a chain of pages.
+     * @return stream writing the chain, to be closed to get its first page.
+     */
+    public ChainOutput writeChain() {
+        return new ChainOutput(this::allocate);
+    }
+
+    /**
+     * Read a chain of pages.
+     *
+     * @param first first page of the chain.
+     * @return stream reading the chain.
+     */
+    public ChainInput readChain(long first) {
+        return new ChainInput(first);
+    }
+
+    /**
+     * Make a new state of the file durable. All pages of the state must
+     * have been written before. The given pages are no longer used by the
+     * new state, they are reused once the file is opened again.
+     *
+     * @param newRoots root pages of the new state.
+     * @param unused pages used by the last commit but not by the new state.
+     * @throws NullPointerException if one of the given parameters is null.
+     * @throws IllegalArgumentException if the number of roots is wrong.
+     * @throws UncheckedIOException if writing failed.
+     */
+    public synchronized void commit(long[] newRoots, Collection<Long> unused) {
+        Objects.requireNonNull(newRoots, "Given roots must not be null.");
+        Objects.requireNonNull(unused, "Given pages must not be null.");
+        if (newRoots.length != ROOT_COUNT) {
+            throw new IllegalArgumentException("Expected " + ROOT_COUNT + " roots: " + newRoots.length);
+        }
+
+        // The free list is written to new pages, so that none of the listed pages is in use.
+        List<Long> free = new ArrayList<>(reusable);
+        free.addAll(released);
+        free.addAll(unused);
+        free.addAll(freeChain);
+        ChainOutput chain = new ChainOutput(() -> pageCount++);
+        try {
+            writeLongs(chain, free);
+            long freeRoot = chain.finish();
+
+            force();
+            long[] previousRoots = roots;
+            roots = newRoots.clone();
+            commitCount++;
+            try {
+                writeHeader(freeRoot);
+            } catch (RuntimeException e) {
+                commitCount--;
+                roots = previousRoots;
+                throw e;
+            }
+            force();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        released.addAll(unused);
+        released.addAll(freeChain);
+        freeChain = chain.getPages();
+    }
+
+    /** Close the file, deleting temporary files. Pages must no longer be read afterwards. */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (!durable) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /** Lock the whole file, false if it is locked already. */
+    private static boolean lock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock() != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private static long commitSlot(long commit) {
+        return commit % HEADER_PAGES;
+    }
+
+    private void force() throws IOException {
+        if (durable) {
+            channel.force(false);
+        }
+    }
+
+    private void writeHeader(long freeRoot) {
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putLong(MAGIC).putInt(FORMAT_VERSION).putInt(PAGE_SIZE);
+        header.putLong(commitCount).putLong(pageCount).putLong(freeRoot);
+        for (long root : roots) {
+            header.putLong(root);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, header.position());
+        header.putLong(crc.getValue());
+        writePage(commitSlot(commitCount), header.array());
+    }
+
+    /** Use the valid header of the latest commit. */
+    private void readHeaders() throws IOException {
+        ByteBuffer latest = null;
+        for (int slot = 0; slot < HEADER_PAGES; slot++) {
+            ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+            while (header.hasRemaining() && channel.read(header, slot * (long) PAGE_SIZE + header.position()) >= 0) {
+                // read until the page is complete or the file ends
+            }
+            header.flip();
+            if (isValidHeader(header) && (latest == null || header.getLong(16) > latest.getLong(16))) {
+                latest = header;
+            }
+        }
+        if (latest == null) {
+            throw new IOException("Not a valid library page file: " + path);
+        }
+
+        latest.position(16);
+        commitCount = latest.getLong();
+        pageCount = latest.getLong();
+        long freeRoot = latest.getLong();
+        for (int i = 0; i < ROOT_COUNT; i++) {
+            roots[i] = latest.getLong();
+        }
+
+        if (freeRoot != NO_PAGE) {
+            ChainInput chain = readChain(freeRoot);
+            reusable.addAll(readLongs(chain));
+            freeChain = chain.getPages();
+        }
+    }
+
+    private static boolean isValidHeader(ByteBuffer header) {
+        int length = 40 + 8 * ROOT_COUNT;
+        if (header.limit() < length + 8 || header.getLong(0) != MAGIC || header.getInt(8) != FORMAT_VERSION
+                || header.getInt(12) != PAGE_SIZE) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, length);
+        return header.getLong(length) == crc.getValue();
+    }
+
+    private static void writeLongs(ChainOutput chain, List<Long> values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(values.size());
+        chain.write(buffer.array());
+        for (long value : values) {
+            buffer.clear();
+            buffer.putLong(value);
+            chain.write(buffer.array());
+        }
+    }
+
+    private static List<Long> readLongs(ChainInput chain) throws IOException {
+        byte[] bytes = new byte[8];
+        chain.readFully(bytes);
+        long count = ByteBuffer.wrap(bytes).getLong();
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            chain.readFully(bytes);
+            values.add(ByteBuffer.wrap(bytes).getLong());
+        }
+        return values;
+    }
+
+    /**
+     * Stream writing a chain of pages. Each page is written once the next
+     * one is needed, the last one when the stream is finished.
+     */
+    public final class ChainOutput extends OutputStream {
+
+        private final LongSupplier allocator;
+        private final List<Long> pages;
+        private byte[] page;
+        private int used;
+
+        private ChainOutput(LongSupplier allocator) {
+            this.allocator = allocator;
+            pages = new ArrayList<>();
+            pages.add(allocator.getAsLong());
+            page = new byte[PAGE_SIZE];
+            used = 0;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, data.length);
+            while (length > 0) {
+                if (used == CHAIN_DATA_BYTES) {
+                    long next = allocator.getAsLong();
+                    writePage(next);
+                    pages.add(next);
+                    page = new byte[PAGE_SIZE];
+                    used = 0;
+                }
+                int copied = Math.min(length, CHAIN_DATA_BYTES - used);
+                System.arraycopy(data, offset, page, CHAIN_HEADER_BYTES + used, copied);
+                used += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        /**
+         * Write the last page of the chain.
+         * @return first page of the chain.
+         */
+        public long finish() {
+            writePage(NO_PAGE);
+            return pages.get(0);
+        }
+
+        /**
+         * @return all pages of the chain.
+         */
+        public List<Long> getPages() {
+            return new ArrayList<>(pages);
+        }
+
+        @Override
+        public void close() {
+            // the chain is only complete once finished
+        }
+
+        private void writePage(long next) {
+            ByteBuffer.wrap(page).putLong(next).putInt(used);
+            PageFile.this.write(pages.get(pages.size() - 1), page);
+        }
+    }
+
+    /** Stream reading a chain of pages. */
+    public final class ChainInput extends InputStream {
+
+        private final List<Long> pages;
+        private byte[] page;
+        private int position;
+        private int used;
+        private long next;
+
+        private ChainInput(long first) {
+            pages = new ArrayList<>();
+            next = first;
+            used = 0;
+            position = 0;
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, target.length);
+            if (length == 0) {
+                return 0;
+            }
+            while (position == used) {
+                if (next == NO_PAGE) {
+                    return -1;
+                }
+                pages.add(next);
+                page = readPage(next);
+                ByteBuffer header = ByteBuffer.wrap(page);
+                next = header.getLong();
+                used = header.getInt();
+                position = 0;
+            }
+
+            int copied = Math.min(length, used - position);
+            System.arraycopy(page, CHAIN_HEADER_BYTES + position, target, offset, copied);
+            position += copied;
+            return copied;
+        }
+
+        /**
+         * Read exactly the length of the given array.
+         * @param target array to fill.
+         * @throws java.io.EOFException if the chain ends before.
+         */
+        public void readFully(byte[] target) throws IOException {
+            int read = 0;
+            while (read < target.length) {
+                int count = read(target, read, target.length - read);
+                if (count < 0) {
+                    throw new java.io.EOFException("Page chain ended unexpectedly.");
+                }
+                read += count;
+            }
+        }
+
+        /**
+         * @return pages of the chain read so far.
+         */
+        public List<Long> getPages() {
+            return new ArrayList<>(pages);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PageFileBasicTest {
+
+    private Path testFile;
+
+    @Before
+    public void setup() throws IOException {
+        testFile = Files.createTempFile("library-pages", ".pages");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    // ------------------------- commit tests --------------------
+
+    @Test
+    public void testCommittedPagesSurviveReopen() throws IOException {
+        long page;
+        long chain;
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            page = file.allocate();
+            file.write(page, filled(7));
+            chain = writeChain(file, 5000);
+            file.commit(roots(page, chain), Collections.emptyList());
+        }
+
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            assertEquals("Unexpected commit count.", 1, file.getCommitCount());
+            assertEquals("Unexpected root page.", page, file.getRoot(0));
+            assertArrayEquals("Unexpected page content.", filled(7), file.readPage(file.getRoot(0)));
+            checkChain(file, file.getRoot(1), 5000);
+        }
+    }
+
+    @Test
+    public void testUncommittedStateLost() throws IOException {
+        long uncommitted;
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            file.commit(roots(file.allocate(), PageFile.NO_PAGE), Collections.emptyList());
+            uncommitted = file.allocate();
+            file.write(uncommitted, filled(1));
+        }
+
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            assertEquals("Unexpected commit count.", 1, file.getCommitCount());
+            assertEquals("Unexpected root page.", PageFile.NO_PAGE, file.getRoot(1));
+            assertEquals("Uncommitted page expected to be allocated again.", uncommitted, file.allocate());
+        }
+    }
+
+    @Test
+    public void testTornHeaderFallsBackToPreviousCommit() throws IOException {
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            long first = file.allocate();
+            file.write(first, filled(1));
+            file.commit(roots(first, PageFile.NO_PAGE), Collections.emptyList());
+            long second = file.allocate();
+            file.write(second, filled(2));
+            file.commit(roots(second, PageFile.NO_PAGE), Collections.singletonList(first));
+        }
+        // The second commit wrote the header in page 0.
+        try (FileChannel channel = FileChannel.open(testFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), 20);
+        }
+
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            assertEquals("Previous commit expected.", 1, file.getCommitCount());
+            assertArrayEquals("Unexpected page content.", filled(1), file.readPage(file.getRoot(0)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenInvalidFileFails() throws IOException {
+        Files.write(testFile, new byte[3 * PageFile.PAGE_SIZE]);
+        PageFile.open(testFile, 4).close();
+    }
+
+    // ------------------------- free page tests --------------------
+
+    @Test
+    public void testUnusedPagesReusedAfterReopen() throws IOException {
+        Set<Long> unused = new HashSet<>();
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            for (int i = 0; i < 3; i++) {
+                long page = file.allocate();
+                file.write(page, filled(i));
+                unused.add(page);
+            }
+            file.commit(roots(PageFile.NO_PAGE, PageFile.NO_PAGE), unused);
+
+            long page = file.allocate();
+            assertTrue("Unused pages must not be reused before reopening.", !unused.contains(page));
+        }
+
+        try (PageFile file = PageFile.open(testFile, 4)) {
+            Set<Long> allocated = new HashSet<>();
+            for (int i = 0; i < unused.size(); i++) {
+                allocated.add(file.allocate());
+            }
+            assertEquals("Unused pages expected to be reused.", unused, allocated);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSecondOpenFails() throws IOException {
+        PageFile file = PageFile.open(testFile, 4);
+        try {
+            PageFile.open(testFile, 4).close();
+        } finally {
+            file.close();
+        }
+    }
+
+    // ------------------------- cache tests --------------------
+
+    @Test
+    public void testWrittenPagesReadThroughCache() throws IOException {
+        try (PageFile file = PageFile.createTemporary(2)) {
+            long page = file.allocate();
+            file.write(page, filled(3));
+            assertArrayEquals("Unexpected page content.", filled(3), file.readPage(page));
+            file.write(page, filled(4));
+            assertArrayEquals("Changed page content expected.", filled(4), file.readPage(page));
+        }
+    }
+
+    private static long[] roots(long first, long second) {
+        long[] roots = new long[PageFile.ROOT_COUNT];
+        Arrays.fill(roots, PageFile.NO_PAGE);
+        roots[0] = first;
+        roots[1] = second;
+        return roots;
+    }
+
+    private static byte[] filled(int value) {
+        byte[] page = new byte[PageFile.PAGE_SIZE];
+        Arrays.fill(page, (byte) value);
+        return page;
+    }
+
+    private static long writeChain(PageFile file, int count) throws IOException {
+        PageFile.ChainOutput chain = file.writeChain();
+        try (DataOutputStream out = new DataOutputStream(chain)) {
+            for (int i = 0; i < count; i++) {
+                out.writeInt(i);
+            }
+        }
+        return chain.finish();
+    }
+
+    private static void checkChain(PageFile file, long first, int count) throws IOException {
+        PageFile.ChainInput chain = file.readChain(first);
+        try (DataInputStream in = new DataInputStream(chain)) {
+            for (int i = 0; i < count; i++) {
+                assertEquals("Unexpected chain content.", i, in.readInt());
+            }
+            assertEquals("Chain expected to end.", -1, in.read());
+        }
+        assertTrue("Chain expected to span pages.", chain.getPages().size() > 1);
+    }
+}
@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering LibraryFileLoader.parseFileContent.
+ */
+@Name("library.ParseFile")
+@Label("Parse Book Data")
+@Category({ "Library Browser", "Loading" })
+@Description("Parsing previously loaded lines into book entries.")
+public class ParseFileEvent extends Event {
+
+    /** Number of rows parsed into book entries. */
+    @Label("Rows")
+    int rows;
+
+    /** Number of characters parsed, including line breaks. */
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /** Number of rows which could not be parsed. */
+    @Label("Parse Errors")
+    int parseErrors;
+}
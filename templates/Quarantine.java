@@ -0,0 +1,142 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * File collecting malformed rows skipped while loading book data. Each
+ * rejected row is appended as one tab separated line holding the source
+ * file, the line number within it, the reason and the row itself, so
+ * rows can be fixed and loaded again later.
+ *
+ * A library with a quarantine parses leniently: a malformed row is
+ * rejected instead of failing the whole load. Lazy storage checks rows
+ * the same way while loading, without parsing them into books.
+ *
+ * Rows may be rejected from several threads at once.
+ */
+public class Quarantine implements AutoCloseable {
+
+    /** System property naming the quarantine file, enables lenient parsing. */
+    public static final String PROPERTY = "library.quarantine";
+
+    /** File the rejected rows are appended to. */
+    private final Path file;
+
+    /** Writer appending to the file. */
+    private final BufferedWriter writer;
+
+    /** Number of rows rejected so far. */
+    private long rejected;
+
+    /**
+     * Open a quarantine appending to the given file.
+     *
+     * @param file file to append rejected rows to, created if missing.
+     * @throws IOException if the file cannot be opened.
+     * @throws NullPointerException if the given file is null.
+     */
+    public Quarantine(Path file) throws IOException {
+        this.file = Objects.requireNonNull(file, "Given file must not be null.");
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        rejected = 0;
+    }
+
+    /**
+     * Open the quarantine file named by the system property.
+     * @return opened quarantine or null if none is configured or it cannot be opened.
+     */
+    public static Quarantine openIfConfigured() {
+        String file = System.getProperty(PROPERTY);
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+
+        try {
+            return new Quarantine(Paths.get(file.strip()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: Opening quarantine file failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return file the rejected rows are appended to.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return number of rows rejected since the quarantine was opened.
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Record a malformed row. Failures to write the quarantine file are
+     * reported but do not stop loading.
+     *
+     * @param source file holding the row.
+     * @param line line number of the row within the file, starting at 1.
+     * @param row the malformed row.
+     * @param reason why the row could not be parsed.
+     * @throws NullPointerException if one of the given parameters is null.
+     */
+    public synchronized void reject(Path source, long line, String row, String reason) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+        Objects.requireNonNull(row, "Given row must not be null.");
+        Objects.requireNonNull(reason, "Given reason must not be null.");
+
+        rejected++;
+        try {
+            writer.write(source + "\t" + line + "\t" + reason.replace('\t', ' ').replace('\n', ' ') + "\t" + row);
+            writer.newLine();
+        } catch (IOException e) {
+            System.err.println("ERROR: Writing quarantine file failed: " + e);
+        }
+    }
+
+    /**
+     * Describe why a row could not be parsed.
+     *
+     * @param e failure of parsing the row.
+     * @return single line reason.
+     * @throws NullPointerException if the given failure is null.
+     */
+    public static String reasonOf(RuntimeException e) {
+        Objects.requireNonNull(e, "Given exception must not be null.");
+        if (e instanceof ArrayIndexOutOfBoundsException) {
+            return "Missing columns";
+        }
+        if (e instanceof NumberFormatException) {
+            return "Invalid number: " + e.getMessage();
+        }
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    /** Write all rejected rows recorded so far to the file. */
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("ERROR: Writing quarantine file failed: " + e);
+        }
+    }
+
+    /** Write all rejected rows and close the file. */
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("ERROR: Closing quarantine file failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuarantineBasicTest {
+
+    private static final String HEADER = "title,authors,rating,isbn,pages\n";
+    private static final String ROW_A = "TitleA,AuthorA,3.2,ISBNA,500\n";
+    private static final String ROW_B = "TitleB,AuthorA-AuthorB,4.3,ISBNB,400\n";
+    private static final String ROW_MISSING_COLUMNS = "TitleC,AuthorC\n";
+    private static final String ROW_BAD_RATING = "TitleD,AuthorD,good,ISBND,300\n";
+    private static final String ROW_BAD_PAGES = "TitleE,AuthorE,2.5,ISBNE,many\n";
+
+    private Path testFile;
+    private Path quarantineFile;
+    private Quarantine testQuarantine;
+
+    @Before
+    public void setup() throws IOException {
+        testFile = Files.createTempFile("library-rows", ".csv");
+        quarantineFile = Files.createTempFile("library-quarantine", ".tsv");
+        testQuarantine = new Quarantine(quarantineFile);
+        Files.write(testFile, (HEADER + ROW_A + ROW_MISSING_COLUMNS + ROW_BAD_RATING + ROW_B)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        testQuarantine.close();
+        Files.deleteIfExists(testFile);
+        Files.deleteIfExists(quarantineFile);
+    }
+
+    // ------------------------- loader tests --------------------
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testStrictParsingFails() throws IOException {
+        new LibraryFileLoader().readBooks(testFile, null);
+    }
+
+    @Test
+    public void testLenientParsingSkipsMalformedRows() throws IOException {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.setQuarantine(testQuarantine);
+        List<BookEntry> books = loader.readBooks(testFile, null);
+
+        assertEquals("Well-formed rows expected to be parsed.", 2, books.size());
+        assertEquals("Malformed rows expected to be rejected.", 2, loader.getRejectedRows());
+        assertEquals("Rejected rows expected to be counted.", 2, testQuarantine.getRejectedCount());
+    }
+
+    @Test
+    public void testLenientParsingOfLoadedContent() {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.setQuarantine(testQuarantine);
+        loader.loadFileContent(testFile);
+
+        assertEquals("Well-formed rows expected to be parsed.", 2, loader.parseFileContent().size());
+        assertEquals("Malformed rows expected to be rejected.", 2, loader.getRejectedRows());
+    }
+
+    @Test
+    public void testLenientLazyLoadingSkipsMalformedRows() {
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.setQuarantine(testQuarantine);
+        LazyBookList rows = loader.loadRawRows(testFile);
+
+        assertEquals("Well-formed rows expected to be kept.", 2, rows.size());
+        assertEquals("Malformed rows expected to be rejected.", 2, loader.getRejectedRows());
+        assertEquals("Unexpected book kept.", "TitleB", rows.get(1).getTitle());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testStrictLazyLoadingFails() throws IOException {
+        Files.write(testFile, (HEADER + ROW_A + ROW_BAD_PAGES).getBytes(StandardCharsets.UTF_8));
+        new LibraryFileLoader().loadRawRows(testFile);
+    }
+
+    @Test
+    public void testLazyLoadingSplitsRowsLikeParsing() throws IOException {
+        Files.write(testFile, (HEADER.trim() + "\r" + ROW_A.trim() + "\r\n" + ROW_B.trim() + "\r")
+                .getBytes(StandardCharsets.UTF_8));
+
+        List<BookEntry> parsed = new LibraryFileLoader().readBooks(testFile, null);
+        assertEquals("Unexpected rows parsed.", 2, parsed.size());
+        assertEquals("Rows expected to be split the same way.", parsed,
+                new ArrayList<>(new LibraryFileLoader().loadRawRows(testFile)));
+    }
+
+    // ------------------------- library tests --------------------
+
+    @Test
+    public void testQuarantineFileListsRejectedRows() throws IOException {
+        LibraryData library = new LibraryData();
+        library.setQuarantine(testQuarantine);
+
+        load(library);
+        Files.write(testFile, ROW_BAD_PAGES.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        load(library);
+
+        assertEquals("Well-formed rows expected to be loaded.", 2, library.getBookData().size());
+        assertEquals("Rejected rows expected in statistics.", 3, library.getStatistics().getRowsRejected());
+
+        List<String> rejects = Files.readAllLines(quarantineFile);
+        assertEquals("Unexpected number of quarantined rows.", 3, rejects.size());
+        assertEquals("Unexpected quarantine entry.", testFile + "\t3\tMissing columns\t" + ROW_MISSING_COLUMNS.trim(),
+                rejects.get(0));
+        assertTrue("Line number of appended row expected to continue.",
+                rejects.get(2).startsWith(testFile + "\t6\tInvalid number: "));
+        assertTrue("Rejected row expected in quarantine.", rejects.get(2).endsWith("\t" + ROW_BAD_PAGES.trim()));
+    }
+
+    @Test
+    public void testLazyLibraryQuarantinesMalformedRows() throws IOException {
+        LibraryData library = new LibraryData(StorageMode.LAZY);
+        library.setQuarantine(testQuarantine);
+
+        load(library);
+        assertEquals("Well-formed rows expected to be loaded.", 2, library.getBookData().size());
+        assertEquals("Rejected rows expected in statistics.", 2, library.getStatistics().getRowsRejected());
+        assertEquals("Unexpected number of quarantined rows.", 2, Files.readAllLines(quarantineFile).size());
+        assertEquals("Loaded books expected to be readable.", "TitleB", library.getBookData().get(1).getTitle());
+    }
+
+    private void load(LibraryData library) {
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            assertTrue("Load expected to succeed.", library.loadData(testFile));
+        } finally {
+            intercept.stdCaptureStop();
+        }
+    }
+}
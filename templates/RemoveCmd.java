@@ -1,6 +1,5 @@
 import java.io.IOException;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -59,13 +58,18 @@ public class RemoveCmd extends LibraryCommand{
     @Override
     public void execute(LibraryData data) {
         Objects.requireNonNull(data, "Given data must not be null.");
-        List<BookEntry> books = data.getBookData();
-        Iterator<BookEntry> iteration = books.iterator();
 
+        // Books are removed from a copy which replaces the library's snapshot once done.
         if ("TITLE".equalsIgnoreCase(titleOrAuthor)) {
-            removeTitle(iteration);
+            int counter = data.updateBookData(books -> removeTitle(books.iterator()));
+            if (counter > 0) {
+                System.out.println(restDetails + ": removed successfully.");
+            } else {
+                System.out.println(restDetails + ": not found.");
+            }
         } else {
-            removeAuthor(iteration);
+            int counter = data.updateBookData(books -> removeAuthor(books.iterator()));
+            System.out.println(counter + " books removed for author: " + restDetails);
         }
     }
 
@@ -73,9 +77,10 @@ public class RemoveCmd extends LibraryCommand{
      * Remove all books that have book authors as specified by the user.
      *
      * @param iteration : BookEntry iterator object.
+     * @return number of books removed.
      * @throws NullPointerException : If given data is null.
      */
-    private void removeAuthor(Iterator<BookEntry> iteration) {
+    private int removeAuthor(Iterator<BookEntry> iteration) {
         Objects.requireNonNull(iteration, "Given books must not be null.");
 
         int counter = 0;
@@ -92,7 +97,7 @@ public class RemoveCmd extends LibraryCommand{
         }
         while (iteration.hasNext());
 
-        System.out.println(counter + " books removed for author: " + restDetails);
+        return counter;
     }
 
     /**
@@ -100,8 +105,9 @@ public class RemoveCmd extends LibraryCommand{
      * entered by the user
      *
      * @param iteration BookEntry iterator object
+     * @return number of books removed
      */
-    private void removeTitle(Iterator<BookEntry> iteration) {
+    private int removeTitle(Iterator<BookEntry> iteration) {
         Objects.requireNonNull(iteration, "Given books must not be null.");
 
         int counter = 0;
@@ -115,10 +121,6 @@ public class RemoveCmd extends LibraryCommand{
         }
         while (iteration.hasNext());
 
-        if (counter > 0) {
-            System.out.println(restDetails + ": removed successfully.");
-        } else {
-            System.out.println(restDetails + ": not found.");
-        }
+        return counter;
     }
-}
\ No newline at end of file
+}
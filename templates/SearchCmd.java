@@ -54,11 +54,13 @@ public class SearchCmd extends LibraryCommand {
         List<BookEntry> book = data.getBookData();
 
         boolean absent = true;
+        String searchTerm = searchValue.toLowerCase();
 
         // Print all books whose title contain the 'Search Value'.
-        for (BookEntry books : book) {
-            if (books.getTitle().toLowerCase().contains(searchValue.toLowerCase())) {
-                System.out.println(books.getTitle());
+        // Titles are matched by the book store, so only hits need to be created.
+        for (int i = 0; i < book.size(); i++) {
+            if (BookStore.titleContains(book, i, searchTerm)) {
+                System.out.println(BookStore.titleOf(book, i));
                 absent = false;
             }
         }
@@ -0,0 +1,261 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log of library commands whose execution exceeded a configured threshold.
+ *
+ * Slow commands are handed to a background writer thread through a bounded
+ * queue, so recording never blocks the command. If the queue is full the
+ * record is dropped and counted instead. The log file is rotated once it
+ * exceeds a maximum size.
+ */
+public class SlowCommandLog {
+
+    /** System property holding the threshold in milliseconds. Setting it enables the log. */
+    public static final String THRESHOLD_PROPERTY = "library.slowlog.thresholdMs";
+
+    /** System property holding the path of the log file. */
+    public static final String FILE_PROPERTY = "library.slowlog.file";
+
+    /** System property holding the maximum size of a log file in bytes. */
+    public static final String MAX_BYTES_PROPERTY = "library.slowlog.maxBytes";
+
+    /** System property holding the number of rotated files to keep. */
+    public static final String MAX_FILES_PROPERTY = "library.slowlog.files";
+
+    private static final String DEFAULT_FILE = "slow-commands.log";
+    private static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+    private static final int DEFAULT_MAX_FILES = 5;
+
+    /** Number of records which can be pending before new ones are dropped. */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /** Time between checks whether the writer thread is still alive while closing. */
+    private static final long CLOSE_POLL_MILLIS = 100;
+
+    /** Marker record telling the writer thread to finish. */
+    private static final Record END_OF_LOG = new Record(null, "", 0, 0, 0);
+
+    /** Minimum execution time of a logged command. */
+    private final long thresholdNanos;
+
+    /** Current log file. */
+    private final Path logFile;
+
+    /** Size after which the log file is rotated. */
+    private final long maxBytes;
+
+    /** Number of rotated log files to keep. */
+    private final int maxFiles;
+
+    /** Records waiting to be written. */
+    private final BlockingQueue<Record> pending;
+
+    /** Number of records dropped because the queue was full. */
+    private final AtomicLong dropped;
+
+    /** Background thread writing records to disk. */
+    private final Thread writer;
+
+    /**
+     * Create and start a slow command log.
+     *
+     * @param thresholdMillis minimum execution time of a logged command in milliseconds.
+     * @param logFile file to write to.
+     * @param maxBytes size in bytes after which the log file is rotated.
+     * @param maxFiles number of rotated log files to keep.
+     * @throws NullPointerException if the given log file is null.
+     * @throws IllegalArgumentException if any of the numeric arguments is negative.
+     */
+    public SlowCommandLog(long thresholdMillis, Path logFile, long maxBytes, int maxFiles) {
+        Objects.requireNonNull(logFile, "Given log file must not be null.");
+        if (thresholdMillis < 0 || maxBytes < 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("Slow command log settings must not be negative.");
+        }
+
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.logFile = logFile;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.pending = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.dropped = new AtomicLong();
+
+        writer = new Thread(this::writeLoop, "slow-command-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Create a slow command log if the threshold system property is set.
+     * @return started log or null if the log is not configured.
+     */
+    public static SlowCommandLog openIfConfigured() {
+        Long threshold = Long.getLong(THRESHOLD_PROPERTY);
+        if (threshold == null) {
+            return null;
+        }
+
+        Path file = Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+        long maxBytes = Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+        int maxFiles = Integer.getInteger(MAX_FILES_PROPERTY, DEFAULT_MAX_FILES);
+        return new SlowCommandLog(threshold, file, maxBytes, maxFiles);
+    }
+
+    /**
+     * Record an executed command. Only commands at or above the threshold
+     * are queued for writing. This method never blocks.
+     *
+     * @param type type of the executed command.
+     * @param argumentInput argument input of the executed command.
+     * @param librarySize number of books in the library after execution.
+     * @param elapsedNanos execution time of the command.
+     */
+    public void record(CommandType type, String argumentInput, int librarySize, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        Record record = new Record(type, argumentInput, librarySize, elapsedNanos, System.currentTimeMillis());
+        if (!pending.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return number of slow commands dropped because the writer fell behind.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Write all pending records and stop the writer thread. If the writer
+     * thread has failed, pending records are discarded.
+     */
+    public void close() {
+        try {
+            while (writer.isAlive() && !pending.offer(END_OF_LOG, CLOSE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                // The writer is still draining a full queue.
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Main loop of the writer thread. */
+    private void writeLoop() {
+        BufferedWriter out = null;
+        try {
+            out = open();
+            long written = Files.size(logFile);
+            while (true) {
+                Record record = pending.take();
+                if (record == END_OF_LOG) {
+                    break;
+                }
+
+                String line = record.format() + System.lineSeparator();
+                out.write(line);
+                written += line.getBytes(StandardCharsets.UTF_8).length;
+
+                // Rotate as soon as the limit is crossed, even if slow commands keep arriving.
+                if (written > maxBytes) {
+                    out.close();
+                    rotate();
+                    out = open();
+                    written = 0;
+                } else if (pending.isEmpty()) {
+                    // Only flush once the queue has been drained to batch bursts of slow commands.
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: Writing slow command log failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private BufferedWriter open() throws IOException {
+        return Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /** Shift all rotated files by one and move the current log to the first slot. */
+    private void rotate() throws IOException {
+        if (maxFiles == 0) {
+            Files.delete(logFile);
+            return;
+        }
+
+        Files.deleteIfExists(rotatedFile(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rotatedFile(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotatedFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(logFile, rotatedFile(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotatedFile(int index) {
+        return logFile.resolveSibling(logFile.getFileName() + "." + index);
+    }
+
+    private static void closeQuietly(BufferedWriter out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Closing slow command log failed: " + e);
+            }
+        }
+    }
+
+    /** Single slow command waiting to be written. */
+    private static final class Record {
+
+        private final CommandType type;
+        private final String argumentInput;
+        private final int librarySize;
+        private final long elapsedNanos;
+        private final long timestampMillis;
+
+        private Record(CommandType type, String argumentInput, int librarySize, long elapsedNanos,
+                       long timestampMillis) {
+            this.type = type;
+            this.argumentInput = argumentInput;
+            this.librarySize = librarySize;
+            this.elapsedNanos = elapsedNanos;
+            this.timestampMillis = timestampMillis;
+        }
+
+        /**
+         * Format this record as a single tab separated log line.
+         * @return formatted log line without line break.
+         */
+        private String format() {
+            return Instant.ofEpochMilli(timestampMillis) + "\t" +
+                    type + "\t" +
+                    String.format(Locale.ROOT, "elapsed_ms=%.3f", elapsedNanos / 1e6) + "\t" +
+                    "library_size=" + librarySize + "\t" +
+                    "args=" + argumentInput.replace('\n', ' ').replace('\t', ' ');
+        }
+    }
+}
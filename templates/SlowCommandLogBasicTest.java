@@ -0,0 +1,136 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlowCommandLogBasicTest {
+
+    private static final long THRESHOLD_MILLIS = 10;
+    private static final long MAX_BYTES = 1024 * 1024;
+
+    private Path testLogFile;
+
+    @Before
+    public void setup() throws IOException {
+        testLogFile = Files.createTempFile("slow-commands", ".log");
+        testLogFile.toFile().deleteOnExit();
+    }
+
+    // ------------------------- record tests --------------------
+
+    @Test
+    public void testRecordAboveThresholdOnly() throws IOException {
+        SlowCommandLog log = new SlowCommandLog(THRESHOLD_MILLIS, testLogFile, MAX_BYTES, 1);
+        log.record(CommandType.SEARCH, "fast", 3, 1_000_000L);
+        log.record(CommandType.GROUP, "AUTHOR", 3, 20_000_000L);
+        log.close();
+
+        List<String> lines = Files.readAllLines(testLogFile);
+        assertEquals("Unexpected amount of slow command log lines.", 1, lines.size());
+        assertTrue("Command type not logged as expected.", lines.get(0).contains("\tGROUP\t"));
+        assertTrue("Library size not logged as expected.", lines.get(0).contains("library_size=3"));
+        assertTrue("Arguments not logged as expected.", lines.get(0).endsWith("args=AUTHOR"));
+    }
+
+    @Test
+    public void testLogRotatedPastMaxBytes() throws IOException, InterruptedException {
+        SlowCommandLog log = new SlowCommandLog(THRESHOLD_MILLIS, testLogFile, 256, 2);
+        try {
+            for (int i = 0; i < 40; i++) {
+                log.record(CommandType.SEARCH, "term " + i, 3, 20_000_000L);
+                awaitWritten(i);
+            }
+        } finally {
+            log.close();
+        }
+
+        Path first = rotated(1);
+        Path second = rotated(2);
+        try {
+            assertTrue("Log expected to be rotated.", Files.exists(first));
+            assertTrue("Second rotated log expected.", Files.exists(second));
+            assertFalse("Only the configured number of rotated logs expected.", Files.exists(rotated(3)));
+            assertTrue("Rotated log expected to hold the size limit.", Files.size(first) <= 256 + 100);
+            List<String> lines = Files.readAllLines(testLogFile);
+            assertTrue("Current log expected to end with the last command.",
+                    lines.isEmpty() || lines.get(lines.size() - 1).endsWith("args=term 39"));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+        }
+    }
+
+    @Test
+    public void testLogRotatedDuringBurst() throws IOException {
+        SlowCommandLog log = new SlowCommandLog(THRESHOLD_MILLIS, testLogFile, 256, 1);
+        // Recording faster than the writer drains the queue, so that it is rarely empty.
+        for (int i = 0; i < 500; i++) {
+            log.record(CommandType.SEARCH, "term " + i, 3, 20_000_000L);
+        }
+        log.close();
+
+        Path first = rotated(1);
+        try {
+            assertTrue("Log expected to be rotated.", Files.exists(first));
+            assertTrue("Rotated log expected to hold the size limit.", Files.size(first) <= 256 + 100);
+            assertTrue("Current log expected to hold the size limit.", Files.size(testLogFile) <= 256 + 100);
+        } finally {
+            Files.deleteIfExists(first);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testCloseAfterWriterFailed() throws IOException {
+        Path directory = Files.createTempDirectory("slow-commands");
+        StdStreamIntercept intercept = new StdStreamIntercept();
+        intercept.stdCaptureStart();
+        try {
+            // Opening a directory as log file fails the writer.
+            SlowCommandLog log = new SlowCommandLog(THRESHOLD_MILLIS, directory, MAX_BYTES, 1);
+            for (int i = 0; i < 2000; i++) {
+                log.record(CommandType.GROUP, "AUTHOR", 3, 20_000_000L);
+            }
+            log.close();
+            assertTrue("Records expected to be dropped once the queue is full.", log.getDroppedCount() > 0);
+        } finally {
+            intercept.stdCaptureStop();
+            Files.delete(directory);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCtorNegativeThreshold() {
+        new SlowCommandLog(-1, testLogFile, MAX_BYTES, 1);
+    }
+
+    private Path rotated(int index) {
+        return testLogFile.resolveSibling(testLogFile.getFileName() + "." + index);
+    }
+
+    /** Wait until the given search has been written, so that every command is written on its own. */
+    private void awaitWritten(int search) throws IOException, InterruptedException {
+        String line = "args=term " + search + System.lineSeparator();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline && !contains(testLogFile, line) && !contains(rotated(1), line)) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static boolean contains(Path file, String text) throws IOException {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains(text);
+        } catch (NoSuchFileException e) {
+            // rotated just now
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+import java.util.Locale;
+
+/** Available layouts for storing the book data of a library. */
+public enum StorageMode {
+    /** One BookEntry instance per book in an ArrayList. */
+    HEAP,
+    /** Book fields stored column by column in primitive arrays. */
+    COLUMNAR,
+    /** Raw CSV rows kept in memory and parsed on first access of a book. */
+    LAZY,
+    /** Titles, ISBNs and authors kept in direct buffers outside the heap. */
+    OFF_HEAP,
+    /** Books kept in a file of pages read through a page cache, loaded by external sorting. */
+    DISK;
+
+    /** System property selecting the storage mode of the library browser. */
+    public static final String PROPERTY = "library.storage";
+
+    /**
+     * Storage mode selected via system property.
+     * @return selected mode or HEAP if none is set.
+     * @throws IllegalArgumentException if the property names no storage mode.
+     */
+    public static StorageMode fromSystemProperty() {
+        String mode = System.getProperty(PROPERTY);
+        return mode == null ? HEAP : valueOf(mode.strip().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load tester replaying a recorded command trace against an in-process
+ * library through the CommandInterpreter.
+ *
+ * A trace holds one command per line as typed at the prompt. Blank lines,
+ * lines starting with '#' and EXIT are skipped. Reading commands run
+ * concurrently on the library's current snapshot, while changes to the
+ * library are serialized, so waiting for other changes is part of the
+ * measured latency.
+ *
+ * In closed-loop mode each worker issues its next command as soon as the
+ * previous one completed. In open-loop mode commands are issued at a fixed
+ * rate and latency is measured from the intended start time, so queueing
+ * behind slow commands is not hidden. Usage:
+ *
+ * java TraceReplay trace=commands.txt [mode=closed|open] [workers=1] [rate=100] [repeat=1]
+ */
+public class TraceReplay {
+
+    /** Parsed trace lines in replay order. */
+    private final List<String> trace;
+
+    /** Library the trace is replayed against. */
+    private final LibraryData data;
+
+    /** Interpreter used to create and execute commands. */
+    private final CommandInterpreter cmdIntrp;
+
+    /** Latency samples per command type. */
+    private final Map<CommandType, Samples> samples;
+
+    /** Number of trace lines which did not form a valid command. */
+    private final AtomicInteger invalid;
+
+    /**
+     * Create a replay of the given trace against an empty library.
+     *
+     * @param trace command lines to replay.
+     * @throws NullPointerException if the given trace is null.
+     */
+    public TraceReplay(List<String> trace) {
+        Objects.requireNonNull(trace, "Given trace must not be null.");
+
+        this.trace = new ArrayList<>();
+        for (String line : trace) {
+            String command = line.strip();
+            if (!command.isEmpty() && !command.startsWith("#") && !command.equals(CommandType.EXIT.name())) {
+                this.trace.add(command);
+            }
+        }
+        this.data = new LibraryData();
+        this.cmdIntrp = new CommandInterpreter();
+        this.samples = new EnumMap<>(CommandType.class);
+        for (CommandType type : CommandType.values()) {
+            samples.put(type, new Samples());
+        }
+        this.invalid = new AtomicInteger();
+    }
+
+    /**
+     * Replay a trace file and print latency percentiles per command type.
+     * @param args options in key=value form as described in the class comment.
+     * @throws IOException if the trace cannot be read.
+     * @throws InterruptedException if interrupted while replaying.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path traceFile = null;
+        String mode = "closed";
+        int workers = 1;
+        double rate = 100;
+        int repeat = 1;
+
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Options must be given as key=value: " + arg);
+            }
+            switch (option[0]) {
+                case "trace":
+                    traceFile = Paths.get(option[1]);
+                    break;
+                case "mode":
+                    mode = option[1];
+                    break;
+                case "workers":
+                    workers = Integer.parseInt(option[1]);
+                    break;
+                case "rate":
+                    rate = Double.parseDouble(option[1]);
+                    break;
+                case "repeat":
+                    repeat = Integer.parseInt(option[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+        if (traceFile == null) {
+            throw new IllegalArgumentException("Option trace is required.");
+        }
+
+        TraceReplay replay = new TraceReplay(Files.readAllLines(traceFile));
+        long elapsed;
+        if (mode.equals("closed")) {
+            elapsed = replay.runClosedLoop(workers, repeat);
+        } else if (mode.equals("open")) {
+            elapsed = replay.runOpenLoop(rate, workers, repeat);
+        } else {
+            throw new IllegalArgumentException("Mode must be closed or open: " + mode);
+        }
+        replay.printReport(System.out, elapsed);
+    }
+
+    /**
+     * Replay the trace with the given number of workers, each issuing its
+     * next command as soon as its previous one completed.
+     *
+     * @param workers number of concurrent workers.
+     * @param repeat number of times the trace is replayed.
+     * @return wall clock time of the replay in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public long runClosedLoop(int workers, int repeat) throws InterruptedException {
+        checkPositive(workers, repeat);
+        int total = trace.size() * repeat;
+        AtomicInteger next = new AtomicInteger();
+
+        return replay(workers, executor -> {
+            for (int w = 0; w < workers; w++) {
+                executor.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                        long start = System.nanoTime();
+                        execute(trace.get(i % trace.size()), start);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Replay the trace at a fixed rate. Latency is measured from the time a
+     * command was scheduled to start, not from the time it actually started.
+     *
+     * @param rate commands issued per second.
+     * @param workers number of workers executing issued commands.
+     * @param repeat number of times the trace is replayed.
+     * @return wall clock time of the replay in nanoseconds.
+     * @throws InterruptedException if interrupted while issuing commands.
+     */
+    public long runOpenLoop(double rate, int workers, int repeat) throws InterruptedException {
+        checkPositive(workers, repeat);
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Rate must be positive.");
+        }
+        int total = trace.size() * repeat;
+        double intervalNanos = 1e9 / rate;
+
+        return replay(workers, executor -> {
+            long begin = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                long intended = begin + (long) (i * intervalNanos);
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                String line = trace.get(i % trace.size());
+                executor.execute(() -> execute(line, intended));
+            }
+        });
+    }
+
+    /**
+     * Print throughput and latency percentiles per command type.
+     *
+     * @param out stream to print to.
+     * @param elapsedNanos wall clock time of the replay.
+     */
+    public void printReport(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf(Locale.ROOT, "%-8s %10s %12s %12s %12s %12s %12s%n", "Command", "count", "ops/s",
+                "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        Samples all = new Samples();
+        for (Map.Entry<CommandType, Samples> entry : samples.entrySet()) {
+            Samples typeSamples = entry.getValue();
+            if (typeSamples.size() > 0) {
+                printRow(out, entry.getKey().name(), typeSamples, seconds);
+                all.addAll(typeSamples);
+            }
+        }
+        if (all.size() > 0) {
+            printRow(out, "ALL", all, seconds);
+        } else {
+            out.println("No commands replayed.");
+        }
+
+        if (invalid.get() > 0) {
+            out.println(invalid.get() + " invalid trace lines skipped.");
+        }
+    }
+
+    /**
+     * Latency samples recorded for a command type.
+     * @param type command type
+     * @return recorded latencies in nanoseconds, sorted ascending
+     */
+    public long[] getLatencies(CommandType type) {
+        return samples.get(type).sorted();
+    }
+
+    /**
+     * Number of trace lines replayed which did not form a valid command.
+     * @return invalid lines counted so far
+     */
+    public int getInvalidLines() {
+        return invalid.get();
+    }
+
+    /** Work submitted to the replay executor. */
+    private interface ReplayTask {
+        void submit(ExecutorService executor) throws InterruptedException;
+    }
+
+    /**
+     * Run the given replay with console output suppressed and wait for all
+     * submitted commands to complete.
+     *
+     * @return wall clock time in nanoseconds.
+     */
+    private long replay(int workers, ReplayTask task) throws InterruptedException {
+        PrintStream stdOut = System.out;
+        PrintStream stdErr = System.err;
+        PrintStream nullSink = new PrintStream(OutputStream.nullOutputStream());
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        System.setOut(nullSink);
+        System.setErr(nullSink);
+        long start = System.nanoTime();
+        try {
+            task.submit(executor);
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+            System.setOut(stdOut);
+            System.setErr(stdErr);
+        }
+    }
+
+    /**
+     * Parse and execute a single trace line and record its latency.
+     *
+     * @param line command line to execute.
+     * @param start time from which the latency is measured.
+     */
+    private void execute(String line, long start) {
+        LibraryCommand command = cmdIntrp.parseCommand(line);
+        if (command == null) {
+            invalid.incrementAndGet();
+            return;
+        }
+
+        cmdIntrp.executeCommand(command, data);
+        samples.get(command.getType()).add(System.nanoTime() - start);
+    }
+
+    private static void printRow(PrintStream out, String name, Samples typeSamples, double seconds) {
+        long[] sorted = typeSamples.sorted();
+        out.printf(Locale.ROOT, "%-8s %10d %12.1f %12.3f %12.3f %12.3f %12.3f%n", name, sorted.length,
+                sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted latencies.
+     * @return percentile in milliseconds.
+     */
+    static double percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static void checkPositive(int workers, int repeat) {
+        if (workers < 1 || repeat < 1) {
+            throw new IllegalArgumentException("Workers and repeat must be at least 1.");
+        }
+    }
+
+    /** Growable collection of latency samples which can be filled from several threads. */
+    private static final class Samples {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        private synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private synchronized void addAll(Samples other) {
+            for (long value : other.sorted()) {
+                add(value);
+            }
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class TraceReplayBasicTest {
+
+    private static final double DELTA = 1e-9;
+
+    // ------------------------- percentile tests --------------------
+
+    @Test
+    public void testPercentileNearestRank() {
+        long[] sorted = { 1_000_000, 2_000_000, 3_000_000, 4_000_000 };
+
+        assertEquals("Unexpected median.", 2.0, TraceReplay.percentile(sorted, 0.50), DELTA);
+        assertEquals("Unexpected p51.", 3.0, TraceReplay.percentile(sorted, 0.51), DELTA);
+        assertEquals("Unexpected p99.", 4.0, TraceReplay.percentile(sorted, 0.99), DELTA);
+        assertEquals("Unexpected p0.", 1.0, TraceReplay.percentile(sorted, 0.0), DELTA);
+        assertEquals("Unexpected single sample.", 5.0, TraceReplay.percentile(new long[] { 5_000_000 }, 0.999),
+                DELTA);
+    }
+
+    // ------------------------- replay tests --------------------
+
+    @Test
+    public void testTraceFiltered() throws InterruptedException {
+        TraceReplay replay = new TraceReplay(Arrays.asList(
+                "# recorded trace",
+                "",
+                "   ",
+                "LIST",
+                "  SEARCH Title  ",
+                "NOSUCHCOMMAND",
+                "SEARCH",
+                "LIST short",
+                "EXIT"));
+
+        replay.runClosedLoop(1, 2);
+
+        assertEquals("Unexpected LIST samples.", 4, replay.getLatencies(CommandType.LIST).length);
+        assertEquals("Unexpected SEARCH samples.", 2, replay.getLatencies(CommandType.SEARCH).length);
+        assertEquals("EXIT expected to be skipped.", 0, replay.getLatencies(CommandType.EXIT).length);
+        assertEquals("Unexpected invalid lines.", 4, replay.getInvalidLines());
+    }
+}
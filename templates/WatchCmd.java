@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Watch command used to load new or changed book data files of a
+ * directory automatically. Without argument the watched directories
+ * are listed.
+ */
+public class WatchCmd extends LibraryCommand {
+
+    /** Directory to watch, null to list the watched directories. */
+    private Path directory;
+
+    /**
+     * Create a watch command.
+     *
+     * @param argumentInput directory to watch or blank
+     * @throws IllegalArgumentException if given arguments are invalid
+     * @throws NullPointerException if the given argumentInput is null.
+     */
+    public WatchCmd(String argumentInput) {
+        super(CommandType.WATCH, argumentInput);
+    }
+
+    /**
+     * Check that the argument is blank or an existing directory.
+     *
+     * @param argumentInput argument input for this command.
+     * @return true if the argument is blank or names a directory.
+     * @throws NullPointerException if given input is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, "Given input must not be null.");
+
+        if (argumentInput.isBlank()) {
+            directory = null;
+            return true;
+        }
+        try {
+            directory = Paths.get(argumentInput.strip());
+            return Files.isDirectory(directory);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Start watching the directory or list the watched directories.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException if given data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, "Given data must not be null.");
+        DirectoryWatcher watcher = data.getDirectoryWatcher();
+
+        if (directory == null) {
+            List<Path> watched = watcher.getDirectories();
+            if (watched.isEmpty()) {
+                System.out.println("No directories watched.");
+            }
+            watched.forEach(System.out::println);
+            return;
+        }
+
+        try {
+            if (watcher.watch(directory)) {
+                System.out.println("Watching directory: " + directory);
+            } else {
+                System.out.println("Directory already watched: " + directory);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: Watching directory failed: " + e);
+        }
+    }
+}